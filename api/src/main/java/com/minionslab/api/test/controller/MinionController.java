@@ -1,6 +1,11 @@
 package com.minionslab.api.test.controller;
 
 import com.minionslab.api.test.controller.dto.CreateMinionRequest;
+import com.minionslab.core.agent.AgentRun;
+import com.minionslab.core.agent.AgentService;
+import com.minionslab.core.agent.event.AgentEvent;
+import com.minionslab.core.common.message.MessageRole;
+import com.minionslab.core.common.message.SimpleMessage;
 import com.minionslab.core.domain.Minion;
 import com.minionslab.core.service.MinionService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -11,6 +16,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -18,7 +24,12 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.HashMap;
 
 /**
  * REST controller for managing minions.
@@ -31,6 +42,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class MinionController {
 
   private final MinionService minionService;
+  private final AgentService agentService;
 
   @PostMapping
   @Operation(summary = "Create a new minion")
@@ -58,6 +70,48 @@ public class MinionController {
     return ResponseEntity.ok(minionService.processRequest(id, request));
   }
 
+  @PostMapping(value = "/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  @Operation(summary = "Run an agent recipe and stream its progress as server-sent events")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Run started, progress events follow"),
+      @ApiResponse(responseCode = "307", description = "The conversation is owned by another node"),
+      @ApiResponse(responseCode = "400", description = "Recipe not found"),
+      @ApiResponse(responseCode = "503", description = "Agent runtime is saturated")
+  })
+  public SseEmitter streamRequest(
+      @Parameter(description = "ID of the agent recipe to run") @PathVariable String id,
+      @Parameter(description = "Conversation the request continues") @RequestParam(required = false) String conversationId,
+      @Parameter(description = "Request to process") @RequestBody String request) {
+    // the run carries its own time budget, so the emitter never times out on its own
+    SseEmitter emitter = new SseEmitter(0L);
+    SimpleMessage message = SimpleMessage.builder()
+        .role(MessageRole.USER)
+        .conversationId(conversationId)
+        .content(request)
+        .metadata(new HashMap<>())
+        .build();
+    AgentRun run = agentService.submitAgent(id, message, event -> send(emitter, event));
+    // a client that goes away cancels the run instead of leaving it to finish unobserved
+    emitter.onCompletion(() -> run.cancel("Client disconnected"));
+    emitter.onTimeout(() -> run.cancel("Client timed out"));
+    emitter.onError(e -> run.cancel("Client disconnected"));
+    return emitter;
+  }
+
+  private static void send(SseEmitter emitter, AgentEvent event) {
+    try {
+      emitter.send(SseEmitter.event()
+          .name(event.type().name())
+          .data(event, MediaType.APPLICATION_JSON));
+      if (event.type().isTerminal()) {
+        emitter.complete();
+      }
+    } catch (IOException | IllegalStateException e) {
+      // the client is gone; completing the emitter cancels the run
+      emitter.completeWithError(e);
+    }
+  }
+
   @GetMapping("/{id}")
   @Operation(summary = "Get a minion by ID")
   @ApiResponses(value = {
@@ -1,13 +1,18 @@
 package com.minionslab.api.test.exception;
 
+import com.minionslab.core.agent.AgentRejectedException;
+import com.minionslab.core.cluster.ClusterNode;
+import com.minionslab.core.cluster.NotConversationOwnerException;
 import com.minionslab.core.common.exception.ErrorResponse;
 import com.minionslab.core.common.exception.MinionException;
 import com.minionslab.core.common.exception.PromptException;
 import com.minionslab.core.common.exception.ValidationErrorResponse;
+import jakarta.servlet.http.HttpServletRequest;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -61,6 +66,60 @@ public class GlobalExceptionHandler {
         ));
   }
 
+  @ExceptionHandler(IllegalArgumentException.class)
+  @ResponseStatus(HttpStatus.BAD_REQUEST)
+  public ResponseEntity<ErrorResponse> handleIllegalArgumentException(IllegalArgumentException ex) {
+    log.warn("Invalid request: {}", ex.getMessage());
+    return ResponseEntity
+        .status(HttpStatus.BAD_REQUEST)
+        .body(new ErrorResponse(
+            HttpStatus.BAD_REQUEST.value(),
+            ex.getMessage(),
+            LocalDateTime.now()
+        ));
+  }
+
+  @ExceptionHandler(AgentRejectedException.class)
+  @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+  public ResponseEntity<ErrorResponse> handleAgentRejectedException(AgentRejectedException ex) {
+    log.warn("Agent run rejected: {}", ex.getMessage());
+    return ResponseEntity
+        .status(HttpStatus.SERVICE_UNAVAILABLE)
+        .body(new ErrorResponse(
+            HttpStatus.SERVICE_UNAVAILABLE.value(),
+            ex.getMessage(),
+            LocalDateTime.now()
+        ));
+  }
+
+  @ExceptionHandler(NotConversationOwnerException.class)
+  public ResponseEntity<ErrorResponse> handleNotConversationOwnerException(NotConversationOwnerException ex,
+      HttpServletRequest request) {
+    ClusterNode owner = ex.getOwner();
+    if (owner == null || owner.address() == null) {
+      log.warn("No reachable owner for conversation {}", ex.getConversationId());
+      return ResponseEntity
+          .status(HttpStatus.SERVICE_UNAVAILABLE)
+          .body(new ErrorResponse(
+              HttpStatus.SERVICE_UNAVAILABLE.value(),
+              ex.getMessage(),
+              LocalDateTime.now()
+          ));
+    }
+    // 307 keeps the method and body, so clients replay the request on the owner
+    String location = owner.address() + request.getRequestURI()
+        + (request.getQueryString() != null ? "?" + request.getQueryString() : "");
+    log.debug("Redirecting conversation {} to {}", ex.getConversationId(), owner);
+    return ResponseEntity
+        .status(HttpStatus.TEMPORARY_REDIRECT)
+        .header(HttpHeaders.LOCATION, location)
+        .body(new ErrorResponse(
+            HttpStatus.TEMPORARY_REDIRECT.value(),
+            ex.getMessage(),
+            LocalDateTime.now()
+        ));
+  }
+
   @ExceptionHandler(MethodArgumentNotValidException.class)
   @ResponseStatus(HttpStatus.BAD_REQUEST)
   public ResponseEntity<ValidationErrorResponse> handleValidationException(MethodArgumentNotValidException ex) {
@@ -0,0 +1,118 @@
+package com.minionslab.benchmarks;
+
+import com.minionslab.core.common.message.Message;
+import com.minionslab.core.common.message.MessageRole;
+import com.minionslab.core.common.message.MessageScope;
+import com.minionslab.core.common.message.SimpleMessage;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * BenchmarkData builds the fixed datasets shared by the benchmark suites.
+ * <p>
+ * Every dataset is generated from a fixed seed, so two runs of the same benchmark (on any machine) operate on
+ * identical messages, and results of successive revisions can be compared number for number. Change
+ * {@link #SEED} or the vocabularies only together with a note in the benchmark results, as it invalidates
+ * earlier baselines.
+ */
+public final class BenchmarkData {
+
+    /**
+     * Seed of every generated dataset.
+     */
+    public static final long SEED = 0x5EEDL;
+    /**
+     * Number of distinct conversations messages are spread over.
+     */
+    public static final int CONVERSATIONS = 16;
+
+    static final String[] TOPICS = {"billing", "weather", "lights", "calendar", "music", "travel", "shopping", "security"};
+    private static final String[] WORDS = {"agent", "please", "turn", "on", "the", "kitchen", "lights", "schedule", "meeting",
+            "tomorrow", "invoice", "overdue", "forecast", "rain", "play", "jazz", "book", "flight", "order", "groceries",
+            "alarm", "door", "locked", "summary", "status", "report", "error", "retry", "tool", "result"};
+    private static final MessageRole[] ROLES = {MessageRole.USER, MessageRole.ASSISTANT, MessageRole.SYSTEM, MessageRole.TOOL};
+    private static final Instant EPOCH = Instant.parse("2025-01-01T00:00:00Z");
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Generates {@code count} messages. Ids are {@code msg-000000} onwards, roles, topics, conversations and
+     * contents are drawn from fixed vocabularies with the {@link #SEED}.
+     *
+     * @param count the number of messages
+     * @return the messages, in id order
+     */
+    public static List<Message> messages(int count) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<Message> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> metadata = new HashMap<>();
+            metadata.put("topic", TOPICS[random.nextInt(TOPICS.length)]);
+            metadata.put("priority", random.nextInt(5));
+            messages.add(SimpleMessage.builder()
+                                      .id(String.format("msg-%06d", i))
+                                      .conversationId("conversation-" + random.nextInt(CONVERSATIONS))
+                                      .role(ROLES[random.nextInt(ROLES.length)])
+                                      .scope(MessageScope.values()[random.nextInt(MessageScope.values().length)])
+                                      .timestamp(EPOCH.plusSeconds(i))
+                                      .tokenCount(8 + random.nextInt(120))
+                                      .metadata(metadata)
+                                      .content(sentence(random, 6 + random.nextInt(18)))
+                                      .build());
+        }
+        return messages;
+    }
+
+    private static String sentence(SplittableRandom random, int words) {
+        StringBuilder out = new StringBuilder(words * 7);
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                out.append(' ');
+            }
+            out.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Returns an {@link ObjectProvider} that always supplies the given value, for wiring core components without
+     * an application context.
+     *
+     * @param value the value, may be null for an unavailable provider
+     * @param <T>   the provided type
+     * @return the provider
+     */
+    public static <T> ObjectProvider<T> provider(T value) {
+        return new ObjectProvider<>() {
+            @Override
+            public T getObject(Object... args) {
+                return getObject();
+            }
+
+            @Override
+            public T getObject() {
+                if (value == null) {
+                    throw new IllegalStateException("No value available");
+                }
+                return value;
+            }
+
+            @Override
+            public T getIfAvailable() {
+                return value;
+            }
+
+            @Override
+            public T getIfUnique() {
+                return value;
+            }
+        };
+    }
+}
@@ -0,0 +1,169 @@
+package com.minionslab.benchmarks;
+
+import com.minionslab.core.common.chain.AbstractBaseChain;
+import com.minionslab.core.common.chain.AbstractProcessor;
+import com.minionslab.core.common.chain.Chain;
+import com.minionslab.core.common.chain.ChainInstrumentation;
+import com.minionslab.core.common.chain.ChainRegistry;
+import com.minionslab.core.common.chain.ProcessContext;
+import com.minionslab.core.common.chain.ProcessResult;
+import com.minionslab.core.common.chain.Processor;
+import com.minionslab.core.common.chain.ProcessorCustomizer;
+import com.minionslab.core.common.chain.ResultBuffer;
+import com.minionslab.core.common.logging.ChainLoggingInstrumentation;
+import com.minionslab.core.common.logging.InstrumentationSettings;
+import com.minionslab.core.common.metrics.MicrometerChainMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks chain dispatch: {@link AbstractBaseChain#process(ProcessContext)} over a chain of result-recording
+ * processors, with each {@link ChainInstrumentation} the framework ships, and {@link ChainRegistry#process} routing a
+ * context past several higher-priority chains that decline it.
+ * <p>
+ * {@code instrumentation} compares the bare chain ({@code none}) with sampled logging at the default rate and
+ * debug disabled ({@code logging}, see {@code logback.xml}) and Micrometer timers on a simple registry
+ * ({@code metrics}); the difference is the per-call cost of instrumentation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class ChainBenchmark {
+
+    @Param({"5", "20"})
+    public int processors;
+
+    @Param({"none", "logging", "metrics"})
+    public String instrumentation;
+
+    private BenchmarkChain chain;
+    private ChainRegistry registry;
+    private BenchmarkContext context;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        chain = new BenchmarkChain(processors);
+        chain.setInstrumentation(switch (instrumentation) {
+            case "logging" -> new ChainLoggingInstrumentation(new InstrumentationSettings(
+                    InstrumentationSettings.DEFAULT_SAMPLE_RATE, InstrumentationSettings.DEFAULT_SAMPLE_RATE, InstrumentationSettings.DEFAULT_MAX_RENDER_LENGTH));
+            case "metrics" -> new MicrometerChainMetrics(new SimpleMeterRegistry());
+            default -> ChainInstrumentation.NOOP;
+        });
+        chain.compile();
+
+        Map<String, Chain> chains = new LinkedHashMap<>();
+        for (int i = 0; i < 7; i++) {
+            chains.put("other-" + i, new OtherChain(i + 1));
+        }
+        chains.put("benchmark", chain);
+        registry = new ChainRegistry(BenchmarkData.provider(null), BenchmarkData.provider(null), chains);
+        context = new BenchmarkContext();
+    }
+
+    @Benchmark
+    public ProcessContext chainProcess() {
+        return chain.process(context);
+    }
+
+    @Benchmark
+    public ProcessContext registryProcess() {
+        return registry.process(context);
+    }
+
+    /**
+     * Context whose results are held in a bounded {@link ResultBuffer}, so reusing it across invocations keeps
+     * memory flat.
+     */
+    public static class BenchmarkContext implements ProcessContext<ProcessResult> {
+        private final ResultBuffer<ProcessResult> results = new ResultBuffer<>();
+        int counter;
+
+        @Override
+        public List<ProcessResult> getResults() {
+            return results;
+        }
+
+        @Override
+        public String getRecipeId() {
+            return "benchmark";
+        }
+    }
+
+    static class IncrementProcessor extends AbstractProcessor<BenchmarkContext, Integer> {
+        IncrementProcessor(int index) {
+            setId("increment-" + index);
+        }
+
+        @Override
+        protected Integer doProcess(BenchmarkContext input) {
+            return ++input.counter;
+        }
+    }
+
+    static class BenchmarkChain extends AbstractBaseChain<Processor, BenchmarkContext> {
+        private final int size;
+
+        BenchmarkChain(int size) {
+            super(BenchmarkData.provider(null), BenchmarkData.<List<ProcessorCustomizer>>provider(null));
+            this.size = size;
+        }
+
+        @Override
+        protected void registerProcessors() {
+            for (int i = 0; i < size; i++) {
+                addToEnd(new IncrementProcessor(i));
+            }
+        }
+
+        @Override
+        public boolean accepts(ProcessContext context) {
+            return context instanceof BenchmarkContext;
+        }
+    }
+
+    /**
+     * Higher-priority chain for the same context type that declines every context, so routing has to rule out
+     * candidates through {@link Chain#accepts(ProcessContext)} before reaching the benchmark chain.
+     */
+    static class OtherChain extends AbstractBaseChain<Processor, BenchmarkContext> {
+        private final int priority;
+
+        OtherChain(int priority) {
+            super(BenchmarkData.provider(null), BenchmarkData.<List<ProcessorCustomizer>>provider(null));
+            this.priority = priority;
+        }
+
+        @Override
+        protected void registerProcessors() {
+        }
+
+        @Override
+        public boolean accepts(ProcessContext context) {
+            return false;
+        }
+
+        @Override
+        public int getPriority() {
+            return priority;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.minionslab.benchmarks;
+
+import com.minionslab.core.common.message.Message;
+import com.minionslab.core.common.message.MessageRole;
+import com.minionslab.core.memory.query.MemoryQuery;
+import com.minionslab.core.memory.query.expression.Expr;
+import com.minionslab.core.memory.query.expression.LogicalExpression;
+import com.minionslab.core.memory.query.expression.MemoryQueryCompiler;
+import com.minionslab.core.memory.query.expression.MemoryQueryExpression;
+import com.minionslab.core.memory.strategy.persistence.inmemory.InMemoryPersistenceStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Benchmarks {@link InMemoryPersistenceStrategy#fetchCandidateMessages(MemoryQuery)} evaluating
+ * {@link LogicalExpression} trees over a fixed store of {@code messages} messages, and filtering the same messages
+ * with {@link MemoryQueryExpression#evaluate(Message)} against the predicate {@link MemoryQueryCompiler} compiles.
+ * <p>
+ * Queries:
+ * <ul>
+ *   <li>{@code conversation}: a selective AND of a conversation id and a role.</li>
+ *   <li>{@code topics}: an OR of metadata matches combined with a NOT of a role, matching a large share.</li>
+ *   <li>{@code keyword}: a nested tree with a content keyword search, the most expensive leaf.</li>
+ * </ul>
+ * Each query runs with {@code limit} 10 (early exit) and with the store size as the limit (full scan); the filter
+ * benchmarks ignore the limit and test every message.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class MemoryQueryBenchmark {
+
+    @Param({"1000", "100000"})
+    public int messages;
+
+    @Param({"conversation", "topics", "keyword"})
+    public String query;
+
+    @Param({"10", "all"})
+    public String limit;
+
+    private InMemoryPersistenceStrategy strategy;
+    private MemoryQuery memoryQuery;
+    private List<Message> all;
+    private Predicate<Message> compiled;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        strategy = new InMemoryPersistenceStrategy();
+        all = BenchmarkData.messages(messages);
+        strategy.saveAll(all);
+        memoryQuery = MemoryQuery.builder()
+                                 .limit("all".equals(limit) ? messages : Integer.parseInt(limit))
+                                 .expression(expression(query))
+                                 .build();
+        compiled = MemoryQueryCompiler.compile(memoryQuery.getExpression());
+    }
+
+    static MemoryQueryExpression expression(String query) {
+        return switch (query) {
+            case "conversation" -> Expr.and(Expr.eq("conversationId", "conversation-3"), Expr.eq("role", MessageRole.USER));
+            case "topics" -> Expr.and(
+                    Expr.or(Expr.metadata("topic", "billing"), Expr.metadata("topic", "lights"), Expr.metadata("topic", "music")),
+                    Expr.not(Expr.eq("role", MessageRole.SYSTEM)));
+            case "keyword" -> Expr.or(
+                    Expr.and(Expr.eq("role", MessageRole.TOOL), Expr.contains("content", "error")),
+                    Expr.and(Expr.metadata("priority", 4), Expr.not(Expr.contains("content", "please"))));
+            default -> throw new IllegalArgumentException("Unknown query: " + query);
+        };
+    }
+
+    @Benchmark
+    public List<Message> fetchCandidateMessages() {
+        return strategy.fetchCandidateMessages(memoryQuery);
+    }
+
+    @Benchmark
+    public int filterEvaluate() {
+        MemoryQueryExpression expression = memoryQuery.getExpression();
+        int matches = 0;
+        for (Message message : all) {
+            if (expression.evaluate(message)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public int filterCompiled() {
+        int matches = 0;
+        for (Message message : all) {
+            if (compiled.test(message)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+}
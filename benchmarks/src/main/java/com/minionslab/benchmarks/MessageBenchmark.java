@@ -0,0 +1,61 @@
+package com.minionslab.benchmarks;
+
+import com.minionslab.core.common.message.Message;
+import com.minionslab.core.common.util.MessageConverter;
+import com.minionslab.core.model.MessageBundle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the message paths of every model call: building a {@link MessageBundle} from a conversation,
+ * flattening it with {@link MessageBundle#getAllMessages()}, and converting the messages to Spring AI messages with
+ * {@link MessageConverter#toSpringMessages(List)}. {@code conversation} is the number of messages in the prompt.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class MessageBenchmark {
+
+    @Param({"8", "64", "512"})
+    public int conversation;
+
+    private List<Message> messages;
+    private MessageBundle bundle;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        messages = BenchmarkData.messages(conversation);
+        bundle = new MessageBundle(messages);
+    }
+
+    @Benchmark
+    public MessageBundle bundleConstruction() {
+        return new MessageBundle(messages);
+    }
+
+    @Benchmark
+    public List<Message> bundleGetAllMessages() {
+        return bundle.getAllMessages();
+    }
+
+    @Benchmark
+    public List<org.springframework.ai.chat.messages.Message> toSpringMessages() {
+        return MessageConverter.toSpringMessages(messages);
+    }
+}
@@ -0,0 +1,98 @@
+package com.minionslab.benchmarks;
+
+import com.minionslab.core.common.message.EmbeddingMessage;
+import com.minionslab.core.common.message.Message;
+import com.minionslab.core.common.message.MessageRole;
+import com.minionslab.core.common.message.MessageScope;
+import com.minionslab.core.common.message.SimpleMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Regression benchmark for the memory footprint of one message: builds {@link #BATCH} {@link SimpleMessage}s or
+ * {@link EmbeddingMessage}s per invocation, from ids, contents, timestamps and embeddings allocated up front, so the
+ * allocations measured are those of the messages themselves (and of their builders).
+ * <p>
+ * Run it with {@code -prof gc}: {@code gc.alloc.rate.norm} is the number of bytes allocated per message. Messages
+ * built without metadata ({@code metadata=none}) should allocate no map; with {@code metadata=one} they allocate the
+ * single map they are given.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class MessageFootprintBenchmark {
+
+    static final int BATCH = 1024;
+    private static final Instant EPOCH = Instant.parse("2025-01-01T00:00:00Z");
+
+    @Param({"simple", "embedding"})
+    public String type;
+
+    @Param({"none", "one"})
+    public String metadata;
+
+    private String[] ids;
+    private String[] contents;
+    private Instant[] timestamps;
+    private float[] embedding;
+    private Message[] sink;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ids = new String[BATCH];
+        contents = new String[BATCH];
+        timestamps = new Instant[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            ids[i] = String.format("msg-%06d", i);
+            contents[i] = "message " + i;
+            timestamps[i] = EPOCH.plusSeconds(i);
+        }
+        embedding = new float[]{0.1f, 0.2f, 0.3f};
+        sink = new Message[BATCH];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public Message[] build() {
+        boolean embedded = "embedding".equals(type);
+        boolean withMetadata = "one".equals(metadata);
+        for (int i = 0; i < BATCH; i++) {
+            SimpleMessage.SimpleMessageBuilder<?, ?> builder = embedded
+                    ? EmbeddingMessage.builder().embedding(embedding)
+                    : SimpleMessage.builder();
+            builder.id(ids[i])
+                   .conversationId("conversation-1")
+                   .role(MessageRole.USER)
+                   .scope(MessageScope.AGENT)
+                   .timestamp(timestamps[i])
+                   .tokenCount(12)
+                   .content(contents[i]);
+            if (withMetadata) {
+                Map<String, Object> entries = new HashMap<>(2);
+                entries.put("topic", "billing");
+                builder.metadata(entries);
+            }
+            sink[i] = builder.build();
+        }
+        return sink;
+    }
+}
@@ -0,0 +1,134 @@
+package com.minionslab.benchmarks;
+
+import com.minionslab.core.agent.AgentContext;
+import com.minionslab.core.agent.AgentRecipe;
+import com.minionslab.core.agent.DefaultAgent;
+import com.minionslab.core.common.chain.ChainRegistry;
+import com.minionslab.core.common.chain.ProcessContext;
+import com.minionslab.core.common.message.Message;
+import com.minionslab.core.common.message.MessageRole;
+import com.minionslab.core.common.message.MessageScope;
+import com.minionslab.core.common.message.SimpleMessage;
+import com.minionslab.core.config.DeafultChainConfiguration;
+import com.minionslab.core.memory.MemoryManager;
+import com.minionslab.core.model.ModelCall;
+import com.minionslab.core.model.ModelCallResponse;
+import com.minionslab.core.service.AIModelProvider;
+import com.minionslab.core.service.ModelCallService;
+import com.minionslab.core.service.ToolCallService;
+import com.minionslab.core.step.Step;
+import com.minionslab.core.step.StepManager;
+import com.minionslab.core.step.StepServiceImpl;
+import com.minionslab.core.step.graph.DefaultStepGraph;
+import com.minionslab.core.step.graph.DefaultStepGraphDefinition;
+import com.minionslab.core.step.impl.ModelCallStep;
+import com.minionslab.core.step.processor.DefaultStepProcessorChain;
+import com.minionslab.core.step.processor.ModelCallStepProcessor;
+import com.minionslab.core.step.processor.PlannerStepProcessor;
+import com.minionslab.core.step.processor.PreparationProcessor;
+import com.minionslab.core.step.processor.StepCompletionProcessor;
+import com.minionslab.core.step.processor.StepProcessor;
+import com.minionslab.core.step.processor.ToolCallStepProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a whole agent run: {@code StepOrchestratorProcessor} driving a linear synthetic step graph of
+ * {@code steps} model-call steps through the default agent and step chains, against a model provider that answers
+ * instantly. The result is the framework's own overhead per agent run, without any model latency.
+ * <p>
+ * Components are wired by hand as the application context would wire them; memories are empty. The compiled graph
+ * is shared across invocations, each run walks it with its own cursor.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Thread)
+public class StepOrchestratorBenchmark {
+
+    @Param({"1", "10"})
+    public int steps;
+
+    private ChainRegistry registry;
+    private AgentRecipe recipe;
+    private Message userRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        registry = new ChainRegistry(BenchmarkData.provider(null), BenchmarkData.provider(null), Map.of());
+        StepServiceImpl stepService = new StepServiceImpl(BenchmarkData.provider(registry));
+        ModelCallService modelCallService = new ModelCallService(BenchmarkData.provider(List.of(new NoOpModelProvider())));
+        List<StepProcessor> stepProcessors = List.of(new PreparationProcessor(),
+                                                     new PlannerStepProcessor(null),
+                                                     new ModelCallStepProcessor(modelCallService),
+                                                     new ToolCallStepProcessor(new ToolCallService()),
+                                                     new StepCompletionProcessor(stepService));
+        registry.register("stepProcessorChain", new DefaultStepProcessorChain(BenchmarkData.provider(stepProcessors), BenchmarkData.provider(null), stepService));
+        registry.register("agentProcessorChain", new DeafultChainConfiguration(BenchmarkData.provider(null), BenchmarkData.provider(null), stepService).getAgentProcessorChain());
+
+        DefaultStepGraphDefinition definition = new DefaultStepGraphDefinition();
+        Step previous = null;
+        for (int i = 0; i < steps; i++) {
+            ModelCallStep step = new ModelCallStep();
+            step.setId("step-" + i);
+            step.setType("model_call");
+            step.setSystemPrompt(message(MessageRole.SYSTEM, "You are step " + i + " of a synthetic workflow."));
+            if (previous == null) {
+                definition.setStartStep(step);
+            } else {
+                definition.addStep(step);
+                definition.addTransition(previous, step);
+            }
+            previous = step;
+        }
+        recipe = AgentRecipe.builder().id("benchmark-recipe").systemPrompt("benchmark").stepGraph(new DefaultStepGraph(definition)).build();
+        userRequest = message(MessageRole.USER, "Run the synthetic workflow.");
+    }
+
+    @Benchmark
+    public ProcessContext runAgent() {
+        AgentContext context = new AgentContext(new DefaultAgent(recipe, userRequest), new StepManager(recipe), new MemoryManager(List.of(), List.of()));
+        context.setChainRegistry(registry);
+        return registry.process(context);
+    }
+
+    private static Message message(MessageRole role, String content) {
+        return SimpleMessage.builder().id(role + "-" + content.hashCode()).role(role).scope(MessageScope.STEP)
+                            .metadata(new HashMap<>()).content(content).build();
+    }
+
+    /**
+     * Model provider that accepts every call and answers with a fixed assistant message, without I/O.
+     */
+    static class NoOpModelProvider implements AIModelProvider {
+        private final ModelCallResponse response = new ModelCallResponse(List.of(message(MessageRole.ASSISTANT, "ok")), List.of());
+
+        @Override
+        public boolean accepts(ModelCall input) {
+            return true;
+        }
+
+        @Override
+        public ModelCall process(ModelCall input) {
+            input.setResponse(response);
+            return input;
+        }
+    }
+}
@@ -19,6 +19,8 @@ import java.util.List;
  * <b>Extensibility:</b>
  * <ul>
  *   <li>Override {@link #initialize(AgentRecipe)} to customize agent initialization, state, or tool registration.</li>
+ *   <li>Override {@link #initializeState()} to customize the initial state of agents created from a {@link CompiledRecipe},
+ *   which skip {@link #initialize(AgentRecipe)}.</li>
  *   <li>Override {@link #getAvailableTools()} to provide custom tool selection or registration logic.</li>
  *   <li>Override state management methods to add custom fields, metadata, or orchestration logic.</li>
  *   <li>Add new fields or methods for custom agent metadata, orchestration, or behaviors.</li>
@@ -47,6 +49,10 @@ public abstract class Agent {
      * The bundle of messages (history, context, etc.) for this agent.
      */
     protected MessageBundle messageBundle;
+    /**
+     * The compiled form of the recipe, or null if the agent was created from the recipe alone.
+     */
+    protected final CompiledRecipe compiledRecipe;
 
     /**
      * Constructs an agent with the given recipe and user message.
@@ -56,6 +62,7 @@ public abstract class Agent {
      */
     public Agent(@NotNull AgentRecipe recipe, Message userRequest) {
         this.agentId = generateAgentId();
+        this.compiledRecipe = null;
         this.recipe = recipe;
         MessageBundle bundle = recipe.getMessageBundle();
         if (bundle != null) {
@@ -68,6 +75,23 @@ public abstract class Agent {
         initialize(recipe);
     }
 
+    /**
+     * Constructs an agent from a compiled recipe. The agent starts from a copy of the recipe's prebuilt messages and
+     * does not resolve the recipe again.
+     *
+     * @param compiledRecipe the compiled agent configuration
+     * @param userRequest the initial user message
+     */
+    public Agent(@NotNull CompiledRecipe compiledRecipe, Message userRequest) {
+        this.agentId = generateAgentId();
+        this.compiledRecipe = compiledRecipe;
+        this.recipe = compiledRecipe.getRecipe();
+        this.messageBundle = compiledRecipe.newMessageBundle();
+        this.messageBundle.addMessage(userRequest);
+        this.userRequest = userRequest;
+        initializeState();
+    }
+
     /**
      * Initializes the agent with the given configuration. Subclasses can override to
      * customize state, tool registration, or other setup logic.
@@ -75,10 +99,7 @@ public abstract class Agent {
      * @param recipe The agent configuration
      */
     protected void initialize(AgentRecipe recipe) {
-        this.state = new AgentState();
-        // Set initial state
-        this.state.setStatus(AgentStatus.INITIALIZED);
-        this.state.setAgentId(this.agentId);
+        initializeState();
         List<String> requiredTools = new ArrayList<>();
         if (recipe.getRequiredTools() != null) {
             requiredTools.addAll(recipe.getRequiredTools());
@@ -89,6 +110,15 @@ public abstract class Agent {
         }
     }
 
+    /**
+     * Sets the initial agent state.
+     */
+    protected void initializeState() {
+        this.state = new AgentState();
+        this.state.setStatus(AgentStatus.INITIALIZED);
+        this.state.setAgentId(this.agentId);
+    }
+
     /**
      * Generates a unique agent ID. Subclasses can override for custom ID schemes.
      */
@@ -165,6 +195,15 @@ public abstract class Agent {
         return recipe;
     }
 
+    /**
+     * Gets the compiled form of the agent's recipe.
+     *
+     * @return the compiled recipe, or null if the agent was created from the recipe alone
+     */
+    public CompiledRecipe getCompiledRecipe() {
+        return compiledRecipe;
+    }
+
     /**
      * Sets the agent's configuration/recipe.
      */
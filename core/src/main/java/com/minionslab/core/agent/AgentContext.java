@@ -1,11 +1,19 @@
 package com.minionslab.core.agent;
 
+import com.minionslab.core.agent.budget.RunBudget;
+import com.minionslab.core.agent.checkpoint.CheckpointedRun;
+import com.minionslab.core.agent.event.AgentEvent;
+import com.minionslab.core.agent.event.AgentEventListener;
+import com.minionslab.core.common.chain.CancellationToken;
 import com.minionslab.core.common.chain.ChainRegistry;
 import com.minionslab.core.common.chain.ProcessContext;
 import com.minionslab.core.common.chain.ProcessResult;
+import com.minionslab.core.common.chain.ResultBuffer;
+import com.minionslab.core.common.context.ExecutionContext;
 import com.minionslab.core.common.logging.LoggingTopics;
 import com.minionslab.core.memory.MemoryManager;
 import com.minionslab.core.step.StepManager;
+import com.minionslab.core.step.graph.StepCursor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -16,6 +24,7 @@ import java.time.Instant;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 /**
  * AgentContext is the unified context object for an agent's execution in the MCP framework.
@@ -80,10 +89,39 @@ public class AgentContext implements ProcessContext {
      */
     private Instant lastUpdatedAt;
     /**
-     * Map of results, keyed by timestamp.
+     * Results recorded while the agent runs, in arrival order.
      */
-    private Map<Instant, ProcessResult> result = new HashMap<>();
+    private ResultBuffer<ProcessResult> results = new ResultBuffer<>();
     private ChainRegistry chainRegistry;
+    /**
+     * Bounds how long the agent may run; shared with the steps, model calls and tool calls of this run.
+     */
+    private CancellationToken cancellationToken = CancellationToken.NONE;
+    /**
+     * Accounts for the tokens, calls and time this run consumes; shared with the model calls and tool calls of this
+     * run.
+     */
+    private RunBudget budget = RunBudget.NONE;
+    /**
+     * Identifies this run, e.g. to resume it from its checkpoints; assigned on first use.
+     */
+    private String runId;
+    /**
+     * Checkpoint state of this run, or null if the run is not checkpointed.
+     */
+    private CheckpointedRun checkpointedRun;
+    /**
+     * Thread-bound state of this run: its recipe's agent config, and the tenant and MDC of the thread that started it.
+     */
+    private ExecutionContext executionContext;
+    /**
+     * Receives the progress events of this run, or null.
+     */
+    private AgentEventListener eventListener;
+    /**
+     * The latest non-empty output of the model in this run; once the run completes, its final assistant output.
+     */
+    private volatile String output;
     
     /**
      * Constructs an AgentContext for the given agent, step manager, and memory manager.
@@ -113,6 +151,12 @@ public class AgentContext implements ProcessContext {
         metadata.putIfAbsent("sequentialToolCalls", false);
     }
     
+    /**
+     * Get the agent config bound to the current thread. The framework's executors carry it to the threads they run
+     * tasks on; see {@link ExecutionContext}.
+     *
+     * @return the agent config, or null if none is bound
+     */
     public static AgentConfig getConfig() {
         return configHolder.get();
     }
@@ -169,17 +213,115 @@ public class AgentContext implements ProcessContext {
      */
     @Override
     public List<ProcessResult> getResults() {
-        return result.values().stream().toList();
+        return results;
     }
     
     /**
-     * Add a result to this context, keyed by the current timestamp.
+     * Append a result to this context. Safe to call from concurrently running processors.
      *
      * @param result the result to add
      */
     @Override
     public void addResult(ProcessResult result) {
-        this.result.put(Instant.now(), result);
+        this.results.add(result);
+    }
+    
+    /**
+     * Get this run's position in the recipe's step graph. The graph is shared by all runs of the recipe; the cursor
+     * belongs to this context.
+     *
+     * @return the step cursor, or null if the context has no step manager
+     */
+    public StepCursor getStepCursor() {
+        return stepManager != null ? stepManager.getCursor() : null;
+    }
+    
+    /**
+     * Get the id of this run, assigning a random one if none was set.
+     *
+     * @return the run id
+     */
+    public String getRunId() {
+        if (runId == null) {
+            runId = UUID.randomUUID().toString();
+        }
+        return runId;
+    }
+    
+    /**
+     * Get the thread-bound state this run was started with, to apply on threads the framework does not manage.
+     *
+     * @return the execution context, {@link ExecutionContext#EMPTY} if none was captured
+     */
+    public ExecutionContext getExecutionContext() {
+        return executionContext != null ? executionContext : ExecutionContext.EMPTY;
+    }
+    
+    /**
+     * Deliver a progress event of this run to its listener, if it has one. Events are delivered one at a time;
+     * exceptions thrown by the listener are logged.
+     *
+     * @param event the event
+     */
+    public void publish(AgentEvent event) {
+        AgentEventListener listener = eventListener;
+        if (listener == null) {
+            return;
+        }
+        synchronized (listener) {
+            try {
+                listener.onEvent(event);
+            } catch (RuntimeException e) {
+                log.warn("Agent event listener failed on {} of run {}", event.type(), event.runId(), e);
+            }
+        }
+    }
+    
+    /**
+     * Get the token bounding this agent run.
+     *
+     * @return the cancellation token, {@link CancellationToken#NONE} if the run is unbounded
+     */
+    @Override
+    public CancellationToken getCancellationToken() {
+        return cancellationToken != null ? cancellationToken : CancellationToken.NONE;
+    }
+    
+    /**
+     * Get the budget of this agent run.
+     *
+     * @return the budget, {@link RunBudget#NONE} if the run is unlimited
+     */
+    public RunBudget getBudget() {
+        return budget != null ? budget : RunBudget.NONE;
+    }
+    
+    /**
+     * Get the reason this run did not complete: the error of its first failed result, or, if it has none, the
+     * cancellation of its token once the token fired (timeouts and budgets included).
+     *
+     * @return the failure, or null if the run has not failed
+     */
+    public Throwable getFailure() {
+        if (results != null) {
+            for (ProcessResult result : results) {
+                if (result != null && result.isFailure()) {
+                    return result.getError();
+                }
+            }
+        }
+        CancellationToken token = getCancellationToken();
+        return token.isCancelled() ? token.toException() : null;
+    }
+    
+    /**
+     * Get the id of the recipe this agent runs.
+     *
+     * @return the recipe id, or null if there is no recipe
+     */
+    @Override
+    public String getRecipeId() {
+        return recipe != null ? recipe.getId() : null;
     }
     
     
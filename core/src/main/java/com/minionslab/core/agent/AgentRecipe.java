@@ -48,6 +48,10 @@ public class AgentRecipe {
      */
     @Id
     private String id;
+    /**
+     * Version of the recipe, incremented by repositories on every save; compiled recipes are cached per version.
+     */
+    private Long version;
     /**
      * The system prompt for the agent (initial context/instructions).
      */
@@ -58,6 +62,11 @@ public class AgentRecipe {
      */
     @NotNull
     private ModelConfig modelConfig;
+    /**
+     * Memory query and summarization settings of this agent, bound to the threads of its runs; defaults apply to the
+     * parts left unset.
+     */
+    private AgentConfig agentConfig;
     /**
      * Arbitrary parameters for extensibility and custom orchestration.
      */
@@ -6,11 +6,25 @@ package com.minionslab.core.agent;
  *   <li>Implement this interface to provide custom persistence or retrieval logic for agent recipes.</li>
  *   <li>Use the provided in-memory implementation for testing or demonstration.</li>
  *   <li>Extend with additional query methods as needed for your application.</li>
+ *   <li>Override {@link #findCompiledById(String, RecipeCompiler)} to cache compiled recipes by id and version,
+ *   dropping them when a recipe is saved.</li>
  * </ul>
  * <b>Usage:</b> Use AgentRecipeRepository to retrieve and manage agent recipes. Plug in your own implementation for production use.
  */
 public interface AgentRecipeRepository {
     AgentRecipe findById(String agentId);
+    
+    /**
+     * Returns the compiled form of a recipe. The default compiles the recipe on every call.
+     *
+     * @param agentId  the recipe id
+     * @param compiler the compiler to use for recipes that are not compiled yet
+     * @return the compiled recipe, or null if no recipe has that id
+     */
+    default CompiledRecipe findCompiledById(String agentId, RecipeCompiler compiler) {
+        AgentRecipe recipe = findById(agentId);
+        return recipe != null ? compiler.compile(recipe) : null;
+    }
 
 
 } 
\ No newline at end of file
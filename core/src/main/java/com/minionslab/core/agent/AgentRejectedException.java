@@ -0,0 +1,16 @@
+package com.minionslab.core.agent;
+
+/**
+ * Exception thrown when the {@link AgentRuntime} cannot admit an agent run because its in-flight limit and its
+ * queue are exhausted, or because it has been shut down.
+ */
+public class AgentRejectedException extends RuntimeException {
+    
+    public AgentRejectedException(String message) {
+        super(message);
+    }
+    
+    public AgentRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,130 @@
+package com.minionslab.core.agent;
+
+import com.minionslab.core.common.chain.CancellationToken;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * AgentRun is the handle of an agent run submitted to the {@link AgentRuntime}.
+ * <p>
+ * The run completes its {@link #getCompletion() completion} with the final {@link AgentContext}, or exceptionally
+ * with the error that ended it. A run cancelled or timed out while still queued never starts and completes with a
+ * {@link com.minionslab.core.common.chain.ChainCancelledException}; a run cancelled while running stops at its
+ * next processor or step and completes with its (failed) context, as a synchronous run would.
+ * <p>
+ * <b>Usage:</b> keep the handle to await, poll, or cancel the run; {@link #join()} waits for its context.
+ */
+public final class AgentRun {
+    
+    /**
+     * Lifecycle of a run.
+     */
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED
+    }
+    
+    private final String id = UUID.randomUUID().toString();
+    private final CompletableFuture<AgentContext> completion = new CompletableFuture<>();
+    private final Function<CancellationToken, AgentContext> work;
+    private final CancellationToken cancellationToken;
+    private final long submittedAt = System.nanoTime();
+    private volatile Status status = Status.QUEUED;
+    private CancellationToken.Registration queueRegistration;
+    
+    AgentRun(Function<CancellationToken, AgentContext> work, CancellationToken cancellationToken) {
+        this.work = work;
+        this.cancellationToken = cancellationToken;
+    }
+    
+    /**
+     * Returns the id of this run.
+     *
+     * @return the run id
+     */
+    public String getId() {
+        return id;
+    }
+    
+    /**
+     * Returns the current status of this run.
+     *
+     * @return the status
+     */
+    public Status getStatus() {
+        return status;
+    }
+    
+    /**
+     * Returns the token that bounds this run. Its deadline, if any, counts from submission, so time spent queued
+     * is part of the run's budget.
+     *
+     * @return the cancellation token
+     */
+    public CancellationToken getCancellationToken() {
+        return cancellationToken;
+    }
+    
+    /**
+     * Returns the future completed when the run ends.
+     *
+     * @return the completion of this run
+     */
+    public CompletableFuture<AgentContext> getCompletion() {
+        return completion;
+    }
+    
+    /**
+     * Waits for the run to end and returns its context.
+     *
+     * @return the final agent context
+     * @throws java.util.concurrent.CompletionException if the run failed or was cancelled while queued
+     */
+    public AgentContext join() {
+        return completion.join();
+    }
+    
+    /**
+     * Cancels the run. A queued run is removed from the queue; a running run stops before its next processor or
+     * step.
+     *
+     * @param reason the reason reported in the cancellation result
+     * @return true if this call cancelled the run, false if it was already cancelled
+     */
+    public boolean cancel(String reason) {
+        return cancellationToken.cancel(reason);
+    }
+    
+    /**
+     * Returns whether the run has ended, successfully or not.
+     *
+     * @return true once the completion is done
+     */
+    public boolean isDone() {
+        return completion.isDone();
+    }
+    
+    Function<CancellationToken, AgentContext> getWork() {
+        return work;
+    }
+    
+    long getSubmittedAt() {
+        return submittedAt;
+    }
+    
+    void setStatus(Status status) {
+        this.status = status;
+    }
+    
+    void setQueueRegistration(CancellationToken.Registration queueRegistration) {
+        this.queueRegistration = queueRegistration;
+    }
+    
+    void closeQueueRegistration() {
+        if (queueRegistration != null) {
+            queueRegistration.close();
+            queueRegistration = null;
+        }
+    }
+}
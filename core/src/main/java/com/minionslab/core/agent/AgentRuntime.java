@@ -0,0 +1,360 @@
+package com.minionslab.core.agent;
+
+import com.minionslab.core.common.chain.CancellationToken;
+import com.minionslab.core.common.context.ExecutionContext;
+import com.minionslab.core.common.logging.LoggingTopics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * AgentRuntime executes agent runs concurrently, each on its own virtual thread, under admission control.
+ * <p>
+ * At most {@code maxConcurrent} runs execute at once. Further submissions wait in a FIFO queue of
+ * {@code queueCapacity} runs and start as running ones finish. When the queue is full as well, the
+ * {@link OverflowPolicy} decides: {@link OverflowPolicy#REJECT} fails the submission immediately with an
+ * {@link AgentRejectedException}, {@link OverflowPolicy#BLOCK} holds the submitting thread until a queue slot frees
+ * up, for at most {@code admissionTimeout}, and rejects afterwards.
+ * <p>
+ * A queued run whose {@link CancellationToken} fires (cancelled, or its deadline passed while waiting) leaves the
+ * queue without starting.
+ * <p>
+ * Properties:
+ * <ul>
+ *   <li>{@code minions.agent.runtime.max-concurrent} (default 64)</li>
+ *   <li>{@code minions.agent.runtime.queue-capacity} (default 1024)</li>
+ *   <li>{@code minions.agent.runtime.overflow-policy} ({@code REJECT}, the default, or {@code BLOCK})</li>
+ *   <li>{@code minions.agent.runtime.admission-timeout} (default 5s, only used by {@code BLOCK})</li>
+ * </ul>
+ * Meters:
+ * <ul>
+ *   <li>{@value #QUEUE_DEPTH} - runs waiting for a slot.</li>
+ *   <li>{@value #IN_FLIGHT} - runs executing.</li>
+ *   <li>{@value #QUEUE_WAIT} - time from submission to start.</li>
+ *   <li>{@value #RUN_TIMER} - execution time of a run, tagged with {@code outcome} ({@code success},
+ *   {@code error} or {@code cancelled}).</li>
+ *   <li>{@value #REJECTED} - submissions rejected by admission control.</li>
+ * </ul>
+ * Uses the application's {@link MeterRegistry} when one is available, otherwise Micrometer's global registry.
+ * <p>
+ * <b>Usage:</b> submit through {@link AgentService#submitAgent(AgentRecipe, com.minionslab.core.common.message.Message)},
+ * which creates the agent context on the run's thread.
+ */
+@Slf4j(topic = LoggingTopics.AGENT)
+@Component
+public class AgentRuntime implements DisposableBean {
+
+    public static final String QUEUE_DEPTH = "minions.agent.queue.depth";
+    public static final String IN_FLIGHT = "minions.agent.inflight";
+    public static final String QUEUE_WAIT = "minions.agent.queue.wait";
+    public static final String RUN_TIMER = "minions.agent.run.duration";
+    public static final String REJECTED = "minions.agent.rejected";
+
+    public static final int DEFAULT_MAX_CONCURRENT = 64;
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+    public static final Duration DEFAULT_ADMISSION_TIMEOUT = Duration.ofSeconds(5);
+
+    /**
+     * What to do with a submission when all slots are busy and the queue is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Fail the submission immediately.
+         */
+        REJECT,
+        /**
+         * Block the submitting thread until the queue has room, up to the admission timeout.
+         */
+        BLOCK
+    }
+
+    private final int maxConcurrent;
+    private final int queueCapacity;
+    private final OverflowPolicy overflowPolicy;
+    private final Duration admissionTimeout;
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("minion-agent-", 0).factory());
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition queueNotFull = lock.newCondition();
+    private final Deque<AgentRun> queue = new ArrayDeque<>();
+    private volatile int running;
+    private volatile int queued;
+    private boolean shutdown;
+
+    private final Timer queueWait;
+    private final Timer succeeded;
+    private final Timer failed;
+    private final Timer cancelled;
+    private final Counter rejected;
+
+    @Autowired
+    public AgentRuntime(@Value("${minions.agent.runtime.max-concurrent:64}") int maxConcurrent,
+                        @Value("${minions.agent.runtime.queue-capacity:1024}") int queueCapacity,
+                        @Value("${minions.agent.runtime.overflow-policy:REJECT}") OverflowPolicy overflowPolicy,
+                        @Value("${minions.agent.runtime.admission-timeout:5s}") Duration admissionTimeout,
+                        ObjectProvider<MeterRegistry> registryProvider) {
+        this(maxConcurrent, queueCapacity, overflowPolicy, admissionTimeout, registryProvider.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    public AgentRuntime(int maxConcurrent, int queueCapacity, OverflowPolicy overflowPolicy, Duration admissionTimeout, MeterRegistry registry) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("maxConcurrent must be at least 1: " + maxConcurrent);
+        }
+        if (queueCapacity < 0) {
+            throw new IllegalArgumentException("queueCapacity must not be negative: " + queueCapacity);
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.queueCapacity = queueCapacity;
+        this.overflowPolicy = overflowPolicy != null ? overflowPolicy : OverflowPolicy.REJECT;
+        this.admissionTimeout = admissionTimeout != null ? admissionTimeout : DEFAULT_ADMISSION_TIMEOUT;
+
+        Gauge.builder(QUEUE_DEPTH, this, AgentRuntime::getQueueDepth)
+             .description("Agent runs waiting for an execution slot")
+             .register(registry);
+        Gauge.builder(IN_FLIGHT, this, AgentRuntime::getInFlight)
+             .description("Agent runs executing")
+             .register(registry);
+        this.queueWait = Timer.builder(QUEUE_WAIT)
+                              .description("Time an agent run waited for an execution slot")
+                              .publishPercentileHistogram()
+                              .register(registry);
+        this.succeeded = runTimer(registry, "success");
+        this.failed = runTimer(registry, "error");
+        this.cancelled = runTimer(registry, "cancelled");
+        this.rejected = Counter.builder(REJECTED)
+                               .description("Agent runs rejected by admission control")
+                               .register(registry);
+    }
+
+    /**
+     * Creates a runtime with the default limits, reporting to Micrometer's global registry.
+     *
+     * @return a new runtime
+     */
+    public static AgentRuntime withDefaults() {
+        return new AgentRuntime(DEFAULT_MAX_CONCURRENT, DEFAULT_QUEUE_CAPACITY, OverflowPolicy.REJECT, DEFAULT_ADMISSION_TIMEOUT, Metrics.globalRegistry);
+    }
+
+    private static Timer runTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder(RUN_TIMER)
+                    .description("Execution time of an agent run")
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(registry);
+    }
+
+    /**
+     * Submits an agent run. The work receives the run's token and returns the final context; it is invoked on a
+     * virtual thread once the run is admitted, in the {@link ExecutionContext} (agent config, tenant, MDC) of the
+     * submitting thread.
+     *
+     * @param work  the run, typically creating and processing an agent context
+     * @param token the token bounding the run, or null or {@link CancellationToken#NONE} for an unbounded run
+     * @return the handle of the run
+     * @throws AgentRejectedException if the run cannot be admitted
+     */
+    public AgentRun submit(Function<CancellationToken, AgentContext> work, CancellationToken token) {
+        AgentRun run = new AgentRun(ExecutionContext.capture().wrap(work), token == null || token == CancellationToken.NONE ? CancellationToken.create() : token);
+        lock.lock();
+        try {
+            if (shutdown) {
+                throw reject("Agent runtime is shut down");
+            }
+            if (running < maxConcurrent) {
+                start(run);
+                return run;
+            }
+            if (queue.size() >= queueCapacity && !awaitQueueSlot()) {
+                throw reject("Agent runtime is saturated: " + running + " runs in flight, " + queue.size() + " queued");
+            }
+            if (running < maxConcurrent) {
+                start(run);
+                return run;
+            }
+            queue.addLast(run);
+            queued = queue.size();
+            run.setQueueRegistration(run.getCancellationToken().onCancel(() -> abandon(run)));
+            return run;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of runs waiting for a slot.
+     *
+     * @return the queue depth
+     */
+    public int getQueueDepth() {
+        return queued;
+    }
+
+    /**
+     * Returns the number of runs executing.
+     *
+     * @return the in-flight runs
+     */
+    public int getInFlight() {
+        return running;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * Stops admitting runs and fails queued ones with an {@link AgentRejectedException}. Running runs are left to finish.
+     */
+    @Override
+    public void destroy() {
+        List<AgentRun> abandoned;
+        lock.lock();
+        try {
+            shutdown = true;
+            abandoned = new ArrayList<>(queue);
+            queue.clear();
+            queued = 0;
+            queueNotFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        for (AgentRun run : abandoned) {
+            run.closeQueueRegistration();
+            run.setStatus(AgentRun.Status.CANCELLED);
+            run.getCompletion().completeExceptionally(new AgentRejectedException("Agent runtime shut down before the run started"));
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * Waits for room in the queue or a free slot under {@link OverflowPolicy#BLOCK}. Called with the lock held.
+     */
+    private boolean awaitQueueSlot() {
+        if (overflowPolicy != OverflowPolicy.BLOCK) {
+            return false;
+        }
+        long remaining = admissionTimeout.toNanos();
+        try {
+            while (!shutdown && queue.size() >= queueCapacity && running >= maxConcurrent) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = queueNotFull.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return !shutdown;
+    }
+
+    private AgentRejectedException reject(String message) {
+        rejected.increment();
+        return new AgentRejectedException(message);
+    }
+
+    /**
+     * Starts a run on a virtual thread. Called with the lock held.
+     */
+    private void start(AgentRun run) {
+        running++;
+        run.closeQueueRegistration();
+        run.setStatus(AgentRun.Status.RUNNING);
+        try {
+            executor.execute(() -> execute(run));
+        } catch (RejectedExecutionException e) {
+            running--;
+            run.setStatus(AgentRun.Status.FAILED);
+            run.getCompletion().completeExceptionally(new AgentRejectedException("Agent runtime is shut down", e));
+        }
+    }
+
+    private void execute(AgentRun run) {
+        long startedAt = System.nanoTime();
+        queueWait.record(startedAt - run.getSubmittedAt(), TimeUnit.NANOSECONDS);
+        CancellationToken token = run.getCancellationToken();
+        try {
+            AgentContext context = run.getWork().apply(token);
+            run.setStatus(token.isCancelled() ? AgentRun.Status.CANCELLED : AgentRun.Status.COMPLETED);
+            (token.isCancelled() ? cancelled : succeeded).record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            run.getCompletion().complete(context);
+        } catch (Throwable e) {
+            run.setStatus(token.isCancelled() ? AgentRun.Status.CANCELLED : AgentRun.Status.FAILED);
+            (token.isCancelled() ? cancelled : failed).record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            log.warn("Agent run {} failed", run.getId(), e);
+            run.getCompletion().completeExceptionally(e);
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Frees the slot of a finished run, handing it to the oldest queued run.
+     */
+    private void release() {
+        lock.lock();
+        try {
+            running--;
+            AgentRun next = shutdown ? null : queue.pollFirst();
+            queued = queue.size();
+            if (next != null) {
+                start(next);
+            }
+            queueNotFull.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes a queued run whose token fired and completes it with the cancellation.
+     */
+    private void abandon(AgentRun run) {
+        boolean removed;
+        lock.lock();
+        try {
+            removed = queue.remove(run);
+            queued = queue.size();
+            if (removed) {
+                run.setStatus(AgentRun.Status.CANCELLED);
+                queueNotFull.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (removed) {
+            log.debug("Agent run {} cancelled while queued", run.getId());
+            run.getCompletion().completeExceptionally(run.getCancellationToken().toException());
+        }
+    }
+}
@@ -1,16 +1,41 @@
 package com.minionslab.core.agent;
 
+import com.minionslab.core.agent.budget.RunBudget;
+import com.minionslab.core.agent.budget.RunBudgetLimits;
+import com.minionslab.core.agent.checkpoint.AgentCheckpoint;
+import com.minionslab.core.agent.checkpoint.AgentCheckpointer;
+import com.minionslab.core.agent.event.AgentEvent;
+import com.minionslab.core.agent.event.AgentEventListener;
+import com.minionslab.core.agent.event.AgentEventType;
+import com.minionslab.core.agent.pool.AgentPools;
+import com.minionslab.core.agent.pool.AgentShell;
+import com.minionslab.core.cluster.ConversationRouter;
+import com.minionslab.core.cluster.NotConversationOwnerException;
+import com.minionslab.core.common.chain.CancellationToken;
 import com.minionslab.core.common.chain.ChainRegistry;
+import com.minionslab.core.common.context.ExecutionContext;
 import com.minionslab.core.common.message.Message;
 import com.minionslab.core.common.message.MessageRole;
 import com.minionslab.core.common.message.SimpleMessage;
+import com.minionslab.core.common.security.context.TenantContextHolder;
 import com.minionslab.core.memory.MemoryFactory;
 import com.minionslab.core.memory.MemoryManager;
+import com.minionslab.core.memory.session.MemorySession;
+import com.minionslab.core.memory.session.MemorySessionKey;
+import com.minionslab.core.memory.session.MemorySessionLease;
+import com.minionslab.core.memory.session.MemorySessionManager;
 import com.minionslab.core.service.ModelCallService;
 import com.minionslab.core.step.StepManager;
+import com.minionslab.core.tool.ToolRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
 /**
  * AgentService provides the main entry points for running and orchestrating agents in the MCP framework.
  * It coordinates agent instantiation, context creation, memory management, and workflow execution
@@ -38,23 +63,90 @@ public class AgentService {
      * Factory for creating memory managers and chains.
      */
     private final MemoryFactory memoryFactory;
+    /**
+     * Runtime executing submitted runs.
+     */
+    private final AgentRuntime agentRuntime;
+    /**
+     * Pool of conversation memories.
+     */
+    private final MemorySessionManager memorySessionManager;
+    /**
+     * Checkpoints runs and restores them.
+     */
+    private final AgentCheckpointer agentCheckpointer;
+    /**
+     * Compiles recipes into their executable form.
+     */
+    private final RecipeCompiler recipeCompiler;
+    /**
+     * Warm shells of latency-sensitive recipes.
+     */
+    private final AgentPools agentPools;
+    /**
+     * Owner of each conversation in a cluster.
+     */
+    private final ConversationRouter conversationRouter;
+    /**
+     * Default time budget of an agent run; zero or negative for unbounded runs.
+     */
+    @Value("${minions.agent.timeout:0ms}")
+    private Duration agentTimeout = Duration.ZERO;
+    /**
+     * Default run budget: prompt tokens, completion tokens, model calls and tool calls of a run; zero for unlimited.
+     * Recipes override it through their constraints, see {@link RunBudgetLimits#withOverrides}.
+     */
+    @Value("${minions.agent.budget.max-input-tokens:0}")
+    private long maxInputTokens;
+    @Value("${minions.agent.budget.max-output-tokens:0}")
+    private long maxOutputTokens;
+    @Value("${minions.agent.budget.max-model-calls:0}")
+    private int maxModelCalls;
+    @Value("${minions.agent.budget.max-tool-calls:0}")
+    private int maxToolCalls;
+    /**
+     * Default wall time budget of a run, counted from the start of its execution; zero for unlimited.
+     */
+    @Value("${minions.agent.budget.max-wall-time:0ms}")
+    private Duration maxWallTime = Duration.ZERO;
     
     /**
-     * Constructs an AgentService with the required dependencies.
+     * Constructs an AgentService. The optional collaborators fall back to a service that does not checkpoint runs,
+     * compiles recipes without resolving tools, pools no agents and runs outside any cluster.
      *
      * @param agentRecipeRepository the agent recipe repository
      * @param modelCallService the model call service
      * @param chainRegistry the chain registry
      * @param memoryFactory the memory factory
+     * @param agentRuntime the runtime executing submitted runs
+     * @param memorySessionManager the pool of conversation memories
+     * @param agentCheckpointer the checkpointer of runs, if any
+     * @param recipeCompiler the compiler of recipes, if any
+     * @param agentPools the warm shells of pooled recipes, if any
+     * @param conversationRouter the owner of each conversation in a cluster, if any
      */
     @Autowired
     public AgentService(
             AgentRecipeRepository agentRecipeRepository,
-            ModelCallService modelCallService, ChainRegistry chainRegistry, MemoryFactory memoryFactory) {
+            ModelCallService modelCallService, ChainRegistry chainRegistry, MemoryFactory memoryFactory,
+            AgentRuntime agentRuntime, MemorySessionManager memorySessionManager,
+            ObjectProvider<AgentCheckpointer> agentCheckpointer, ObjectProvider<RecipeCompiler> recipeCompiler,
+            ObjectProvider<AgentPools> agentPools, ObjectProvider<ConversationRouter> conversationRouter) {
         this.agentRecipeRepository = agentRecipeRepository;
         this.modelCallService = modelCallService;
         this.chainRegistry = chainRegistry;
         this.memoryFactory = memoryFactory;
+        this.agentRuntime = agentRuntime;
+        this.memorySessionManager = memorySessionManager;
+        this.agentCheckpointer = orElse(agentCheckpointer, AgentCheckpointer::disabled);
+        this.recipeCompiler = orElse(recipeCompiler, () -> new RecipeCompiler((ToolRegistry) null, memoryFactory));
+        this.agentPools = orElse(agentPools, AgentPools::disabled);
+        this.conversationRouter = orElse(conversationRouter, ConversationRouter::standalone);
+    }
+    
+    private static <T> T orElse(ObjectProvider<T> provider, Supplier<T> fallback) {
+        T value = provider != null ? provider.getIfAvailable() : null;
+        return value != null ? value : fallback.get();
     }
     
     /**
@@ -90,11 +182,292 @@ public class AgentService {
      * @return The results of the agent execution
      */
     public AgentContext runAgent(AgentRecipe recipe, Message userMessage) {
+        return runAgent(recipe, userMessage, agentTimeout);
+    }
+    
+    /**
+     * Runs an agent with the specified recipe and user message within a time budget. Once the budget is exceeded
+     * the run stops before its next processor or step, pending model calls are interrupted, and the context holds
+     * a failed result carrying a {@link com.minionslab.core.common.chain.ChainCancelledException}.
+     *
+     * @param recipe The recipe to execute
+     * @param userMessage The user message to start the agent with
+     * @param timeout The time budget of the run, or null, zero or negative for an unbounded run
+     * @return The results of the agent execution
+     */
+    public AgentContext runAgent(AgentRecipe recipe, Message userMessage, Duration timeout) {
+        return runAgent(recipe, userMessage, tokenFor(timeout));
+    }
+    
+    /**
+     * Runs an agent with the specified recipe and user message, bound to the given token.
+     *
+     * @param recipe The recipe to execute
+     * @param userMessage The user message to start the agent with
+     * @param cancellationToken The token bounding the run
+     * @return The results of the agent execution
+     */
+    public AgentContext runAgent(AgentRecipe recipe, Message userMessage, CancellationToken cancellationToken) {
+        return run(recipe, userMessage, cancellationToken, null, null, null);
+    }
+    
+    /**
+     * Continues a run from its latest checkpoint within the default time budget. Steps the run completed before
+     * the checkpoint are not executed again; their outcomes are recorded as results on the returned context.
+     *
+     * @param runId The id of the run to continue
+     * @return The results of the agent execution
+     * @throws IllegalStateException if checkpointing is disabled
+     * @throws IllegalArgumentException if the run has no checkpoint or its recipe is not found
+     */
+    public AgentContext resume(String runId) {
+        if (!agentCheckpointer.isEnabled()) {
+            throw new IllegalStateException("Agent runs are not checkpointed; set minions.agent.checkpoint.store to resume runs");
+        }
+        AgentCheckpoint checkpoint = agentCheckpointer.load(runId)
+                                                      .orElseThrow(() -> new IllegalArgumentException("No checkpoint found for run: " + runId));
+        AgentRecipe recipe = agentRecipeRepository.findById(checkpoint.recipeId());
+        if (recipe == null) {
+            throw new IllegalArgumentException("No AgentRecipe found for recipeId: " + checkpoint.recipeId());
+        }
+        Message userMessage = checkpoint.userRequest() != null ? checkpoint.userRequest().toMessage() : null;
+        return run(recipe, userMessage, tokenFor(agentTimeout), null, checkpoint, null);
+    }
+    
+    /**
+     * Runs an agent with the specified recipe and user message, bound to the given token, reporting its progress to
+     * a listener.
+     *
+     * @param recipe The recipe to execute
+     * @param userMessage The user message to start the agent with
+     * @param cancellationToken The token bounding the run
+     * @param listener Receives the progress events of the run
+     * @return The results of the agent execution
+     */
+    public AgentContext runAgent(AgentRecipe recipe, Message userMessage, CancellationToken cancellationToken, AgentEventListener listener) {
+        return run(recipe, userMessage, cancellationToken, null, null, listener);
+    }
+    
+    /**
+     * Runs an agent under a run id chosen by the caller, e.g. the id of a queued run, bound to the given token. If
+     * the run id has a checkpoint, because an earlier attempt of the run was interrupted, the run continues from it
+     * instead of starting over.
+     *
+     * @param runId The id of the run
+     * @param recipe The recipe to execute
+     * @param userMessage The user message to start the agent with
+     * @param cancellationToken The token bounding the run
+     * @return The results of the agent execution
+     */
+    public AgentContext runOrResume(String runId, AgentRecipe recipe, Message userMessage, CancellationToken cancellationToken) {
+        AgentCheckpoint checkpoint = agentCheckpointer.load(runId).orElse(null);
+        if (checkpoint != null && checkpoint.userRequest() != null) {
+            return run(recipe, checkpoint.userRequest().toMessage(), cancellationToken, null, checkpoint, null);
+        }
+        return run(recipe, userMessage, cancellationToken, runId, null, null);
+    }
+    
+    /**
+     * Runs an agent. Runs whose user message carries a conversation id use the pooled memories of that conversation;
+     * other runs start from a warm shell of a pooled recipe, or from fresh memories that live as long as the run.
+     */
+    private AgentContext run(AgentRecipe recipe, Message userMessage, CancellationToken cancellationToken, String runId,
+                             AgentCheckpoint resumeFrom, AgentEventListener listener) {
         // Use DefaultAgent
-        Agent agent = new DefaultAgent(recipe, userMessage);
-        // Create ChatModel and contexts
-        AgentContext agentContext = createAgentContext(agent);
-        return (AgentContext) chainRegistry.process(agentContext);
+        CompiledRecipe compiledRecipe = compile(recipe);
+        Agent agent = new DefaultAgent(compiledRecipe, userMessage);
+        String conversationId = userMessage != null ? userMessage.getConversationId() : null;
+        if (conversationId == null) {
+            AgentShell shell = agentPools.borrow(compiledRecipe);
+            if (shell == null) {
+                // Create ChatModel and contexts
+                AgentContext agentContext = createAgentContext(agent);
+                return process(agentContext, userMessage, cancellationToken, runId, resumeFrom, listener);
+            }
+            try {
+                AgentContext agentContext = createAgentContext(agent, shell);
+                return process(agentContext, userMessage, cancellationToken, runId, resumeFrom, listener);
+            } finally {
+                agentPools.release(shell);
+            }
+        }
+        conversationRouter.checkOwner(conversationId);
+        MemorySessionKey sessionKey = new MemorySessionKey(TenantContextHolder.getTenantId(), conversationId);
+        try (MemorySessionLease lease = memorySessionManager.open(sessionKey)) {
+            AgentContext agentContext = createAgentContext(agent, lease.getSession());
+            return process(agentContext, userMessage, cancellationToken, runId, resumeFrom, listener);
+        } finally {
+            // a conversation that moved to another node while it ran is handed off once its last run ends
+            conversationRouter.handOff(sessionKey);
+        }
+    }
+    
+    private AgentContext process(AgentContext agentContext, Message userMessage, CancellationToken cancellationToken, String runId,
+                                 AgentCheckpoint resumeFrom, AgentEventListener listener) {
+        if (runId != null) {
+            agentContext.setRunId(runId);
+        }
+        RunBudgetLimits limits = new RunBudgetLimits(maxInputTokens, maxOutputTokens, maxModelCalls, maxToolCalls, maxWallTime)
+                .withOverrides(agentContext.getRecipe() != null ? agentContext.getRecipe().getConstraints() : null);
+        if (limits.hasWallTime()) {
+            cancellationToken = cancellationToken.child(limits.maxWallTime());
+        }
+        agentContext.setBudget(RunBudget.start(limits));
+        agentContext.setCancellationToken(cancellationToken);
+        agentContext.setExecutionContext(ExecutionContext.capture().withAgentConfig(agentConfigOf(agentContext)));
+        try (ExecutionContext.Scope scope = agentContext.getExecutionContext().apply()) {
+            return execute(agentContext, userMessage, resumeFrom, listener);
+        }
+    }
+    
+    /**
+     * Returns the config of the recipe an agent runs, bound to the threads of its run so that
+     * {@link AgentContext#getConfig()} reads it.
+     */
+    private static AgentConfig agentConfigOf(AgentContext agentContext) {
+        Agent agent = agentContext.getAgent();
+        CompiledRecipe compiledRecipe = agent != null ? agent.getCompiledRecipe() : null;
+        if (compiledRecipe != null) {
+            return compiledRecipe.getAgentConfig();
+        }
+        return agentContext.getRecipe() != null ? CompiledRecipe.agentConfigOf(agentContext.getRecipe()) : AgentContext.getConfig();
+    }
+    
+    private AgentContext execute(AgentContext agentContext, Message userMessage, AgentCheckpoint resumeFrom, AgentEventListener listener) {
+        if (resumeFrom != null) {
+            agentCheckpointer.resume(agentContext, resumeFrom);
+        } else {
+            agentCheckpointer.begin(agentContext, userMessage);
+        }
+        if (listener == null) {
+            AgentContext result = (AgentContext) chainRegistry.process(agentContext);
+            agentCheckpointer.complete(agentContext);
+            return result;
+        }
+        agentContext.setEventListener(listener);
+        String runId = agentContext.getRunId();
+        agentContext.publish(AgentEvent.run(AgentEventType.RUN_STARTED, runId, agentContext.getRecipeId()));
+        try {
+            AgentContext result = (AgentContext) chainRegistry.process(agentContext);
+            agentCheckpointer.complete(agentContext);
+            Throwable failure = agentContext.getFailure();
+            if (failure != null) {
+                agentContext.publish(AgentEvent.run(AgentEventType.RUN_FAILED, runId, reasonOf(failure)));
+            } else {
+                agentContext.publish(AgentEvent.run(AgentEventType.RUN_COMPLETED, runId, agentContext.getOutput()));
+            }
+            return result;
+        } catch (RuntimeException e) {
+            agentContext.publish(AgentEvent.run(AgentEventType.RUN_FAILED, runId, reasonOf(e)));
+            throw e;
+        }
+    }
+    
+    private static String reasonOf(Throwable failure) {
+        return failure.getMessage() != null ? failure.getMessage() : failure.getClass().getSimpleName();
+    }
+    
+    /**
+     * Submits an agent run with the specified recipe and user message to the {@link AgentRuntime}, bounded by the
+     * default time budget.
+     *
+     * @param recipe The recipe to execute
+     * @param userMessage The user message to start the agent with
+     * @return The handle of the run
+     * @throws AgentRejectedException if the runtime cannot admit the run
+     */
+    public AgentRun submitAgent(AgentRecipe recipe, Message userMessage) {
+        return submitAgent(recipe, userMessage, agentTimeout);
+    }
+    
+    /**
+     * Submits an agent run with the specified recipe and user message to the {@link AgentRuntime} within a time
+     * budget. The budget counts from submission, so time spent queued is part of it.
+     *
+     * @param recipe The recipe to execute
+     * @param userMessage The user message to start the agent with
+     * @param timeout The time budget of the run, or null, zero or negative for an unbounded run
+     * @return The handle of the run
+     * @throws AgentRejectedException if the runtime cannot admit the run
+     */
+    public AgentRun submitAgent(AgentRecipe recipe, Message userMessage, Duration timeout) {
+        return agentRuntime.submit(token -> runAgent(recipe, userMessage, token), tokenFor(timeout));
+    }
+    
+    /**
+     * Submits an agent run with the specified recipe ID to the {@link AgentRuntime}.
+     *
+     * @param recipeId The ID of the recipe to execute
+     * @return The handle of the run
+     * @throws IllegalArgumentException if no recipe is found for the given ID
+     * @throws AgentRejectedException if the runtime cannot admit the run
+     */
+    public AgentRun submitAgent(String recipeId) {
+        AgentRecipe recipe = agentRecipeRepository.findById(recipeId);
+        if (recipe == null) {
+            throw new IllegalArgumentException("No AgentRecipe found for recipeId: " + recipeId);
+        }
+        return submitAgent(recipe, SimpleMessage.builder().content("You are the agent, run your recipe").role(MessageRole.USER).build());
+    }
+    
+    /**
+     * Returns the compiled form of a recipe, from the repository's cache if the recipe is the one the repository
+     * holds.
+     */
+    private CompiledRecipe compile(AgentRecipe recipe) {
+        if (recipe.getId() != null) {
+            CompiledRecipe compiled = agentRecipeRepository.findCompiledById(recipe.getId(), recipeCompiler);
+            if (compiled != null && compiled.getRecipe() == recipe) {
+                return compiled;
+            }
+        }
+        return recipeCompiler.compile(recipe);
+    }
+    
+    /**
+     * Submits an agent run with the specified recipe ID and user message to the {@link AgentRuntime}, bounded by the
+     * default time budget, reporting its progress to a listener. The listener receives
+     * {@link AgentEventType#RUN_FAILED} if the run fails, including when it is cancelled or times out while queued.
+     *
+     * @param recipeId The ID of the recipe to execute
+     * @param userMessage The user message to start the agent with
+     * @param listener Receives the progress events of the run
+     * @return The handle of the run
+     * @throws IllegalArgumentException if no recipe is found for the given ID
+     * @throws NotConversationOwnerException if the message belongs to a conversation another node owns
+     * @throws AgentRejectedException if the runtime cannot admit the run
+     */
+    public AgentRun submitAgent(String recipeId, Message userMessage, AgentEventListener listener) {
+        AgentRecipe recipe = agentRecipeRepository.findById(recipeId);
+        if (recipe == null) {
+            throw new IllegalArgumentException("No AgentRecipe found for recipeId: " + recipeId);
+        }
+        if (userMessage != null && userMessage.getConversationId() != null) {
+            // refused before queueing, so the caller can send the request to the owner
+            conversationRouter.checkOwner(userMessage.getConversationId());
+        }
+        AtomicBoolean terminated = new AtomicBoolean();
+        AgentEventListener guarded = event -> {
+            if (event.type().isTerminal() && !terminated.compareAndSet(false, true)) {
+                return;
+            }
+            listener.onEvent(event);
+        };
+        AgentRun run = agentRuntime.submit(token -> runAgent(recipe, userMessage, token, guarded), tokenFor(agentTimeout));
+        run.getCompletion().whenComplete((context, error) -> {
+            if (error != null) {
+                // covers runs rejected, cancelled or timed out before they started publishing
+                guarded.onEvent(AgentEvent.run(AgentEventType.RUN_FAILED, null, reasonOf(error)));
+            }
+        });
+        return run;
+    }
+    
+    private static CancellationToken tokenFor(Duration timeout) {
+        if (timeout != null && !timeout.isZero() && !timeout.isNegative()) {
+            return CancellationToken.withTimeout(timeout);
+        }
+        return CancellationToken.NONE;
     }
     
     /**
@@ -106,7 +479,39 @@ public class AgentService {
     AgentContext createAgentContext(Agent agent) {
         // Build dependencies
         StepManager stepManager = new StepManager(agent.getRecipe());
-        MemoryManager memoryManager = memoryFactory.createMemories(agent.recipe.getMemoryDefintions());
+        CompiledRecipe compiledRecipe = agent.getCompiledRecipe();
+        MemoryManager memoryManager = compiledRecipe != null
+                ? memoryFactory.createMemoriesByDefinitions(compiledRecipe.getMemoryDefinitions())
+                : memoryFactory.createMemories(agent.recipe.getMemoryDefintions());
+        
+        return new AgentContext(agent, stepManager, memoryManager);
+    }
+    
+    /**
+     * Creates an AgentContext for the given agent over the memories of a conversation's session.
+     *
+     * @param agent the agent instance
+     * @param session the open memory session of the conversation
+     * @return the agent context
+     */
+    AgentContext createAgentContext(Agent agent, MemorySession session) {
+        StepManager stepManager = new StepManager(agent.getRecipe());
+        CompiledRecipe compiledRecipe = agent.getCompiledRecipe();
+        MemoryManager memoryManager = session.getMemoryManager(compiledRecipe != null ? compiledRecipe.getMemorySubsystems() : agent.recipe.getMemoryDefintions());
+        
+        return new AgentContext(agent, stepManager, memoryManager);
+    }
+    
+    /**
+     * Creates an AgentContext for the given agent over the memories of a pooled shell.
+     *
+     * @param agent the agent instance
+     * @param shell the shell lent to the run
+     * @return the agent context
+     */
+    AgentContext createAgentContext(Agent agent, AgentShell shell) {
+        StepManager stepManager = new StepManager(agent.getRecipe());
+        MemoryManager memoryManager = memoryFactory.createMemoryManager(shell.getMemories());
         
         return new AgentContext(agent, stepManager, memoryManager);
     }
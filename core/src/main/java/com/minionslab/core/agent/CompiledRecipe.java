@@ -0,0 +1,163 @@
+package com.minionslab.core.agent;
+
+import com.minionslab.core.common.message.Message;
+import com.minionslab.core.common.message.MessageRole;
+import com.minionslab.core.config.ModelConfig;
+import com.minionslab.core.memory.MemoryDefinition;
+import com.minionslab.core.memory.MemorySubsystem;
+import com.minionslab.core.memory.query.QueryConfig;
+import com.minionslab.core.model.MessageBundle;
+import com.minionslab.core.step.graph.StepGraph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CompiledRecipe is the immutable, executable form of an {@link AgentRecipe}: everything a run needs from the recipe,
+ * resolved once and shared by all runs of the recipe.
+ * <p>
+ * It holds the merged tool names and those that could not be resolved, the resolved memory definitions, the
+ * recipe's messages as prebuilt {@link Message}s, the step graph and the {@link AgentConfig} its runs are bound to,
+ * compiled when the recipe is compiled. Per-run setup is reduced to copying the message lists into a new
+ * {@link MessageBundle} and creating a cursor and memories.
+ * <p>
+ * Compiled recipes are built by {@link RecipeCompiler} and cached by recipe id and version, e.g. by
+ * {@link InMemoryAgentRecipeRepository#findCompiledById(String, RecipeCompiler)}. They keep a reference to the
+ * recipe they were compiled from for the parts of the framework that read the recipe directly; that recipe must not
+ * be changed without saving it as a new version.
+ */
+public final class CompiledRecipe {
+    /**
+     * Messages a memory query of a recipe without a {@link QueryConfig} returns at most.
+     */
+    static final int DEFAULT_QUERY_LIMIT = 50;
+    /**
+     * Messages the summarizer of a recipe without a {@link SummarizationConfig} reads at most.
+     */
+    static final int DEFAULT_SUMMARIZATION_INPUT_LIMIT = 20;
+    
+    private final AgentRecipe recipe;
+    private final String id;
+    private final Long version;
+    private final List<String> toolNames;
+    private final List<String> missingTools;
+    private final List<MemorySubsystem> memorySubsystems;
+    private final List<MemoryDefinition> memoryDefinitions;
+    private final Map<MessageRole, List<Message>> messagesByRole;
+    private final StepGraph stepGraph;
+    private final AgentConfig agentConfig;
+    
+    CompiledRecipe(AgentRecipe recipe, List<String> toolNames, List<String> missingTools, List<MemoryDefinition> memoryDefinitions) {
+        this.recipe = recipe;
+        this.id = recipe.getId();
+        this.version = recipe.getVersion();
+        this.toolNames = List.copyOf(toolNames);
+        this.missingTools = List.copyOf(missingTools);
+        this.memorySubsystems = recipe.getMemoryDefintions() != null ? List.copyOf(recipe.getMemoryDefintions()) : List.of();
+        this.memoryDefinitions = List.copyOf(memoryDefinitions);
+        Map<MessageRole, List<Message>> messages = new LinkedHashMap<>();
+        if (recipe.getMessageBundle() != null) {
+            recipe.getMessageBundle().getMessagesByRole().forEach((role, list) -> messages.put(role, List.copyOf(list)));
+        }
+        this.messagesByRole = Collections.unmodifiableMap(messages);
+        this.stepGraph = recipe.getStepGraph();
+        this.agentConfig = agentConfigOf(recipe);
+    }
+    
+    /**
+     * Builds the config the runs of a recipe are bound to: the recipe's {@link AgentRecipe#getAgentConfig()}, with
+     * the recipe's model and default limits for the parts it leaves unset.
+     *
+     * @param recipe the recipe
+     * @return a new config
+     */
+    static AgentConfig agentConfigOf(AgentRecipe recipe) {
+        AgentConfig configured = recipe.getAgentConfig();
+        ModelConfig modelConfig = configured != null && configured.getModelConfig() != null
+                ? configured.getModelConfig()
+                : recipe.getModelConfig();
+        QueryConfig queryConfig = configured != null && configured.getQueryConfig() != null
+                ? configured.getQueryConfig()
+                : new QueryConfig().setLimit(DEFAULT_QUERY_LIMIT);
+        SummarizationConfig summarizationConfig = configured != null && configured.getSummarizationConfig() != null
+                ? configured.getSummarizationConfig()
+                : new SummarizationConfig().setInputMessageLimit(DEFAULT_SUMMARIZATION_INPUT_LIMIT).setModelConfig(modelConfig);
+        return new AgentConfig().setModelConfig(modelConfig).setQueryConfig(queryConfig).setSummarizationConfig(summarizationConfig);
+    }
+    
+    /**
+     * Returns the recipe this was compiled from. Treat it as read-only.
+     *
+     * @return the source recipe
+     */
+    public AgentRecipe getRecipe() {
+        return recipe;
+    }
+    
+    public String getId() {
+        return id;
+    }
+    
+    /**
+     * Returns the version of the recipe this was compiled from.
+     *
+     * @return the version, or null if the recipe is not versioned
+     */
+    public Long getVersion() {
+        return version;
+    }
+    
+    /**
+     * Returns the tools of the recipe, without duplicates.
+     *
+     * @return the tool names
+     */
+    public List<String> getToolNames() {
+        return toolNames;
+    }
+    
+    /**
+     * Returns the tools of the recipe that could not be resolved when it was compiled.
+     *
+     * @return the missing tool names
+     */
+    public List<String> getMissingTools() {
+        return missingTools;
+    }
+    
+    public List<MemorySubsystem> getMemorySubsystems() {
+        return memorySubsystems;
+    }
+    
+    public List<MemoryDefinition> getMemoryDefinitions() {
+        return memoryDefinitions;
+    }
+    
+    public StepGraph getStepGraph() {
+        return stepGraph;
+    }
+    
+    /**
+     * Returns the config the runs of the recipe are bound to, read through {@link AgentContext#getConfig()}. Treat it
+     * as read-only.
+     *
+     * @return the agent config
+     */
+    public AgentConfig getAgentConfig() {
+        return agentConfig;
+    }
+    
+    /**
+     * Returns a new message bundle holding the recipe's messages, for a run to add its own messages to.
+     *
+     * @return a new message bundle
+     */
+    public MessageBundle newMessageBundle() {
+        MessageBundle bundle = new MessageBundle();
+        messagesByRole.forEach((role, messages) -> bundle.addMessages(role, new ArrayList<>(messages)));
+        return bundle;
+    }
+}
@@ -18,8 +18,15 @@ public class DefaultAgent extends Agent {
         super(recipe, userMessage);
     }
 
+    public DefaultAgent(CompiledRecipe compiledRecipe, Message userMessage) {
+        super(compiledRecipe, userMessage);
+    }
+
     @Override
     public List<String> getAvailableTools() {
+        if (compiledRecipe != null) {
+            return compiledRecipe.getToolNames();
+        }
         return recipe.getRequiredTools() != null ? recipe.getRequiredTools() : Collections.emptyList();
     }
 
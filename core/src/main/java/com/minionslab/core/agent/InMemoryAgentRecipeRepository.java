@@ -3,18 +3,47 @@ package com.minionslab.core.agent;
 import org.springframework.stereotype.Repository;
 
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * In-memory {@link AgentRecipeRepository} that also caches the compiled form of its recipes.
+ * <p>
+ * {@link #save(String, AgentRecipe)} assigns the recipe the next version and drops its compiled form, so the next
+ * {@link #findCompiledById(String, RecipeCompiler)} compiles the saved recipe once and later calls reuse it.
+ */
 @Repository
 public class InMemoryAgentRecipeRepository implements AgentRecipeRepository {
     private final Map<String, AgentRecipe> recipes = new ConcurrentHashMap<>();
+    private final Map<String, CompiledRecipe> compiled = new ConcurrentHashMap<>();
 
     @Override
     public AgentRecipe findById(String agentId) {
         return recipes.get(agentId);
     }
 
+    @Override
+    public CompiledRecipe findCompiledById(String agentId, RecipeCompiler compiler) {
+        AgentRecipe recipe = recipes.get(agentId);
+        if (recipe == null) {
+            return null;
+        }
+        CompiledRecipe cached = compiled.get(agentId);
+        if (cached != null && cached.getRecipe() == recipe && Objects.equals(cached.getVersion(), recipe.getVersion())) {
+            return cached;
+        }
+        CompiledRecipe fresh = compiler.compile(recipe);
+        compiled.put(agentId, fresh);
+        return fresh;
+    }
+
     public void save(String agentId, AgentRecipe recipe) {
-        recipes.put(agentId, recipe);
+        recipes.compute(agentId, (id, previous) -> {
+            long previousVersion = previous != null && previous.getVersion() != null ? previous.getVersion() : 0L;
+            long version = recipe.getVersion() != null ? recipe.getVersion() : 0L;
+            recipe.setVersion(Math.max(previousVersion, version) + 1);
+            compiled.remove(id);
+            return recipe;
+        });
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,92 @@
+package com.minionslab.core.agent;
+
+import com.minionslab.core.common.logging.LoggingTopics;
+import com.minionslab.core.memory.MemoryFactory;
+import com.minionslab.core.step.graph.DefaultStepGraph;
+import com.minionslab.core.tool.ToolException;
+import com.minionslab.core.tool.ToolRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * RecipeCompiler turns an {@link AgentRecipe} into its {@link CompiledRecipe}.
+ * <p>
+ * Compiling resolves the recipe's tools against the {@link ToolRegistry} and its memory subsystems against the
+ * {@link MemoryFactory} and compiles a {@link DefaultStepGraph}, so that invalid memory subsystems and step graphs
+ * fail when the recipe is compiled rather than in a run. Tools that are not registered yet are recorded as missing
+ * instead of failing the recipe, as MCP tools may register later.
+ * <p>
+ * <b>Extensibility:</b>
+ * <ul>
+ *   <li>Override {@link #compile(AgentRecipe)} to resolve additional recipe parts ahead of runs.</li>
+ * </ul>
+ */
+@Slf4j(topic = LoggingTopics.AGENT)
+@Component
+public class RecipeCompiler {
+    private final ToolRegistry toolRegistry;
+    private final MemoryFactory memoryFactory;
+    
+    @Autowired
+    public RecipeCompiler(ObjectProvider<ToolRegistry> toolRegistry, MemoryFactory memoryFactory) {
+        this(toolRegistry.getIfAvailable(), memoryFactory);
+    }
+    
+    /**
+     * Creates a compiler.
+     *
+     * @param toolRegistry  the registry resolving tools, or null to leave tools unresolved
+     * @param memoryFactory the factory resolving memory definitions
+     */
+    public RecipeCompiler(ToolRegistry toolRegistry, MemoryFactory memoryFactory) {
+        this.toolRegistry = toolRegistry;
+        this.memoryFactory = memoryFactory;
+    }
+    
+    /**
+     * Compiles a recipe.
+     *
+     * @param recipe the recipe
+     * @return the compiled recipe
+     * @throws IllegalArgumentException if a memory subsystem has no definition or the step graph is invalid
+     */
+    public CompiledRecipe compile(AgentRecipe recipe) {
+        Set<String> toolNames = new LinkedHashSet<>();
+        if (recipe.getRequiredTools() != null) {
+            toolNames.addAll(recipe.getRequiredTools());
+        }
+        List<String> missingTools = new ArrayList<>();
+        for (String toolName : toolNames) {
+            if (resolveTool(toolName) == null) {
+                missingTools.add(toolName);
+            }
+        }
+        if (!missingTools.isEmpty()) {
+            log.warn("Recipe {} requires tools that are not available: {}", recipe.getId(), missingTools);
+        }
+        if (recipe.getStepGraph() instanceof DefaultStepGraph graph) {
+            graph.compile();
+        }
+        return new CompiledRecipe(recipe, new ArrayList<>(toolNames), missingTools,
+                                  memoryFactory != null ? memoryFactory.resolveDefinitions(recipe.getMemoryDefintions()) : List.of());
+    }
+    
+    private ToolCallback resolveTool(String toolName) {
+        if (toolRegistry == null) {
+            return null;
+        }
+        try {
+            return toolRegistry.getTool(toolName);
+        } catch (ToolException e) {
+            return null;
+        }
+    }
+}
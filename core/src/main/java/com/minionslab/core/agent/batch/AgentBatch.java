@@ -0,0 +1,89 @@
+package com.minionslab.core.agent.batch;
+
+import com.minionslab.core.common.chain.CancellationToken;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Handle of a running agent batch, returned by {@link AgentBatchService#submit}.
+ * <p>
+ * Results are delivered to the batch's sink as items finish; the handle reports progress and completes once the
+ * input is consumed and every item taken from it has finished. Cancelling the batch stops taking items from the
+ * input and cancels the running ones.
+ */
+public class AgentBatch {
+    private final String id = UUID.randomUUID().toString();
+    private final CancellationToken cancellationToken;
+    private final CompletableFuture<AgentBatchProgress> completion = new CompletableFuture<>();
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile boolean inputDone;
+    
+    AgentBatch(CancellationToken cancellationToken) {
+        this.cancellationToken = cancellationToken;
+    }
+    
+    public String getId() {
+        return id;
+    }
+    
+    public CancellationToken getCancellationToken() {
+        return cancellationToken;
+    }
+    
+    /**
+     * Returns the future completed with the final progress once the batch is done. It completes exceptionally only
+     * if the input itself fails; failed items are reported through their results.
+     *
+     * @return the completion future
+     */
+    public CompletableFuture<AgentBatchProgress> getCompletion() {
+        return completion;
+    }
+    
+    public AgentBatchProgress getProgress() {
+        // read the finished counts first, so running() is never negative
+        long done = succeeded.get();
+        long fail = failed.get();
+        return new AgentBatchProgress(submitted.get(), done, fail, inputDone);
+    }
+    
+    /**
+     * Waits for the batch to finish.
+     *
+     * @return the final progress
+     */
+    public AgentBatchProgress join() {
+        return completion.join();
+    }
+    
+    /**
+     * Stops taking items from the input and cancels the running items.
+     *
+     * @param reason the reason recorded on the cancelled runs
+     * @return true if this call cancelled the batch
+     */
+    public boolean cancel(String reason) {
+        return cancellationToken.cancel(reason);
+    }
+    
+    public boolean isDone() {
+        return completion.isDone();
+    }
+    
+    void itemSubmitted() {
+        submitted.incrementAndGet();
+    }
+    
+    AgentBatchProgress itemFinished(boolean success) {
+        (success ? succeeded : failed).incrementAndGet();
+        return getProgress();
+    }
+    
+    void inputDone() {
+        inputDone = true;
+    }
+}
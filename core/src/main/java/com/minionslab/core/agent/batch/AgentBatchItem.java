@@ -0,0 +1,23 @@
+package com.minionslab.core.agent.batch;
+
+import com.minionslab.core.agent.AgentRecipe;
+import com.minionslab.core.common.message.Message;
+
+/**
+ * One input of an agent batch: the recipe to run, given directly or by id, and the message to run it with.
+ *
+ * @param id       identifies the item in results and logs
+ * @param recipeId the id of the recipe, used when {@code recipe} is null
+ * @param recipe   the recipe, or null to resolve {@code recipeId}
+ * @param message  the user message to start the agent with
+ */
+public record AgentBatchItem(String id, String recipeId, AgentRecipe recipe, Message message) {
+    
+    public static AgentBatchItem of(String id, String recipeId, Message message) {
+        return new AgentBatchItem(id, recipeId, null, message);
+    }
+    
+    public static AgentBatchItem of(String id, AgentRecipe recipe, Message message) {
+        return new AgentBatchItem(id, recipe != null ? recipe.getId() : null, recipe, message);
+    }
+}
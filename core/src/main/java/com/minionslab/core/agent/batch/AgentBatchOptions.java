@@ -0,0 +1,34 @@
+package com.minionslab.core.agent.batch;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Options of an agent batch.
+ * <p>
+ * <b>Usage:</b>
+ * <pre>
+ * AgentBatchOptions.builder().parallelism(32).itemTimeout(Duration.ofMinutes(2)).build();
+ * </pre>
+ */
+@Data
+@Accessors(chain = true)
+@Builder
+public class AgentBatchOptions {
+    /**
+     * Items running at the same time; zero or negative for the service default.
+     */
+    private int parallelism;
+    /**
+     * Time budget of each item, or null for the service default.
+     */
+    private Duration itemTimeout;
+    /**
+     * Called with the progress after every finished item, or null.
+     */
+    private Consumer<AgentBatchProgress> progressListener;
+}
@@ -0,0 +1,30 @@
+package com.minionslab.core.agent.batch;
+
+/**
+ * Snapshot of the progress of an agent batch.
+ *
+ * @param submitted  items taken from the input so far
+ * @param succeeded  items that completed successfully
+ * @param failed     items that failed
+ * @param inputDone  whether the input has been consumed
+ */
+public record AgentBatchProgress(long submitted, long succeeded, long failed, boolean inputDone) {
+    
+    /**
+     * Returns the number of items taken from the input that have not finished.
+     *
+     * @return the running items
+     */
+    public long running() {
+        return submitted - succeeded - failed;
+    }
+    
+    /**
+     * Returns whether the input has been consumed and every item finished.
+     *
+     * @return true once the batch is done
+     */
+    public boolean isDone() {
+        return inputDone && running() == 0;
+    }
+}
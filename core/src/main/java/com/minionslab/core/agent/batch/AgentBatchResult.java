@@ -0,0 +1,30 @@
+package com.minionslab.core.agent.batch;
+
+import com.minionslab.core.agent.AgentContext;
+
+import java.time.Duration;
+
+/**
+ * Outcome of one batch item, emitted as soon as the item finishes.
+ * <p>
+ * A failed item carries the failure that ended it: the exception the run threw, or, for runs that returned, the
+ * first failure the run recorded or the cancellation of the item's token (see {@link AgentContext#getFailure()}).
+ * The context, when present, holds whatever results the run recorded before it ended, including results of
+ * processors that failed inside the chain.
+ *
+ * @param item     the input item
+ * @param context  the final agent context, or null if the run failed before or while creating it
+ * @param error    the failure that ended the item, or null if it succeeded
+ * @param duration how long the item ran
+ */
+public record AgentBatchResult(AgentBatchItem item, AgentContext context, Throwable error, Duration duration) {
+    
+    /**
+     * Returns whether the item's run completed without failure.
+     *
+     * @return true if the run returned a context and recorded no failure
+     */
+    public boolean isSuccess() {
+        return error == null && context != null;
+    }
+}
@@ -0,0 +1,240 @@
+package com.minionslab.core.agent.batch;
+
+import com.minionslab.core.agent.AgentContext;
+import com.minionslab.core.agent.AgentRecipe;
+import com.minionslab.core.agent.AgentRecipeRepository;
+import com.minionslab.core.agent.AgentService;
+import com.minionslab.core.common.chain.CancellationToken;
+import com.minionslab.core.common.context.ExecutionContext;
+import com.minionslab.core.common.logging.LoggingTopics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * AgentBatchService runs large numbers of agent inputs, e.g. nightly offline jobs, with bounded parallelism.
+ * <p>
+ * The input is a {@link Stream} consumed lazily: an item is taken only when a slot is free, so at most
+ * {@code parallelism} items are held in memory at a time however long the stream is. Each item runs on a virtual
+ * thread through {@link AgentService#runAgent(AgentRecipe, com.minionslab.core.common.message.Message, CancellationToken)},
+ * and its {@link AgentBatchResult} is handed to the sink as soon as it finishes; nothing is collected.
+ * <p>
+ * Items are isolated from each other: a failing item, including one whose recipe cannot be resolved, produces a
+ * failed result and the batch continues. An item fails when its run throws, records a failure, or is cancelled or
+ * times out (see {@link AgentBatchResult#error()}). Recipes referenced by id are resolved once per batch, so items of a
+ * recipe share its compiled step graph; items of the same conversation share pooled memories through the
+ * {@link com.minionslab.core.memory.session.MemorySessionManager}.
+ * <p>
+ * Defaults: {@code minions.agent.batch.parallelism} (16) and {@code minions.agent.batch.item-timeout} ({@code 0},
+ * unbounded).
+ * <p>
+ * <b>Usage:</b>
+ * <pre>
+ * AgentBatch batch = batchService.submit(items, result -> writer.write(result));
+ * batch.join();
+ * </pre>
+ */
+@Slf4j(topic = LoggingTopics.AGENT)
+@Service
+public class AgentBatchService implements DisposableBean {
+    public static final int DEFAULT_PARALLELISM = 16;
+    
+    private final AgentService agentService;
+    private final AgentRecipeRepository agentRecipeRepository;
+    private final int defaultParallelism;
+    private final Duration defaultItemTimeout;
+    private final ExecutorService threads = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("minion-batch-", 0).factory());
+    private final Executor executor = ExecutionContext.propagating(threads);
+    
+    @Autowired
+    public AgentBatchService(AgentService agentService, AgentRecipeRepository agentRecipeRepository,
+                             @Value("${minions.agent.batch.parallelism:16}") int defaultParallelism,
+                             @Value("${minions.agent.batch.item-timeout:0ms}") Duration defaultItemTimeout) {
+        this.agentService = agentService;
+        this.agentRecipeRepository = agentRecipeRepository;
+        this.defaultParallelism = defaultParallelism > 0 ? defaultParallelism : DEFAULT_PARALLELISM;
+        this.defaultItemTimeout = defaultItemTimeout;
+    }
+    
+    public AgentBatchService(AgentService agentService, AgentRecipeRepository agentRecipeRepository) {
+        this(agentService, agentRecipeRepository, DEFAULT_PARALLELISM, Duration.ZERO);
+    }
+    
+    /**
+     * Runs a batch with the default options.
+     *
+     * @param items the input, consumed lazily and closed once consumed
+     * @param sink  receives the result of every item; called from one item at a time
+     * @return the handle of the batch
+     */
+    public AgentBatch submit(Stream<AgentBatchItem> items, Consumer<AgentBatchResult> sink) {
+        return submit(items, null, sink);
+    }
+    
+    /**
+     * Runs a batch.
+     *
+     * @param items   the input, consumed lazily and closed once consumed
+     * @param options the batch options, or null for the defaults
+     * @param sink    receives the result of every item; called from one item at a time
+     * @return the handle of the batch
+     * @throws RejectedExecutionException if the service is shut down
+     */
+    public AgentBatch submit(Stream<AgentBatchItem> items, AgentBatchOptions options, Consumer<AgentBatchResult> sink) {
+        Objects.requireNonNull(sink, "sink");
+        int parallelism = options != null && options.getParallelism() > 0 ? options.getParallelism() : defaultParallelism;
+        Duration itemTimeout = options != null && options.getItemTimeout() != null ? options.getItemTimeout() : defaultItemTimeout;
+        Consumer<AgentBatchProgress> progressListener = options != null ? options.getProgressListener() : null;
+        AgentBatch batch = new AgentBatch(CancellationToken.create());
+        Dispatch dispatch = new Dispatch(batch, parallelism, itemTimeout, sink, progressListener);
+        executor.execute(() -> dispatch.run(items));
+        return batch;
+    }
+    
+    @Override
+    public void destroy() {
+        threads.shutdownNow();
+    }
+    
+    /**
+     * Feeds the input of one batch to the executor and delivers the results.
+     */
+    private final class Dispatch {
+        private final AgentBatch batch;
+        private final int parallelism;
+        private final Semaphore slots;
+        private final Duration itemTimeout;
+        private final Consumer<AgentBatchResult> sink;
+        private final Consumer<AgentBatchProgress> progressListener;
+        private final Map<String, AgentRecipe> recipes = new ConcurrentHashMap<>();
+        private final Object sinkLock = new Object();
+        
+        Dispatch(AgentBatch batch, int parallelism, Duration itemTimeout, Consumer<AgentBatchResult> sink,
+                 Consumer<AgentBatchProgress> progressListener) {
+            this.batch = batch;
+            this.parallelism = parallelism;
+            this.slots = new Semaphore(parallelism);
+            this.itemTimeout = itemTimeout;
+            this.sink = sink;
+            this.progressListener = progressListener;
+        }
+        
+        void run(Stream<AgentBatchItem> items) {
+            CancellationToken token = batch.getCancellationToken();
+            Throwable inputError = null;
+            try (items) {
+                Iterator<AgentBatchItem> it = items.iterator();
+                while (!token.isCancelled()) {
+                    slots.acquire();
+                    boolean started = false;
+                    try {
+                        if (token.isCancelled() || !it.hasNext()) {
+                            break;
+                        }
+                        AgentBatchItem item = it.next();
+                        batch.itemSubmitted();
+                        executor.execute(() -> runItem(item));
+                        started = true;
+                    } finally {
+                        if (!started) {
+                            slots.release();
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                inputError = e;
+            } catch (RuntimeException e) {
+                log.error("Agent batch {} stopped reading its input", batch.getId(), e);
+                inputError = e;
+            }
+            batch.inputDone();
+            slots.acquireUninterruptibly(parallelism);
+            AgentBatchProgress progress = batch.getProgress();
+            log.info("Agent batch {} finished: {} succeeded, {} failed", batch.getId(), progress.succeeded(), progress.failed());
+            if (inputError != null) {
+                batch.getCompletion().completeExceptionally(inputError);
+            } else {
+                batch.getCompletion().complete(progress);
+            }
+        }
+        
+        private void runItem(AgentBatchItem item) {
+            long start = System.nanoTime();
+            AgentContext context = null;
+            Throwable error = null;
+            try {
+                CancellationToken token = batch.getCancellationToken();
+                token.throwIfCancelled();
+                CancellationToken itemToken = itemTimeout != null && !itemTimeout.isZero() && !itemTimeout.isNegative()
+                        ? token.child(itemTimeout) : token;
+                context = agentService.runAgent(resolve(item), item.message(), itemToken);
+                error = context != null ? context.getFailure() : null;
+                if (error == null && itemToken.isCancelled()) {
+                    error = itemToken.toException();
+                }
+                if (error != null) {
+                    log.warn("Agent batch {} item {} failed: {}", batch.getId(), item.id(), error.getMessage());
+                }
+            } catch (RuntimeException e) {
+                error = e;
+                log.warn("Agent batch {} item {} failed", batch.getId(), item.id(), e);
+            } finally {
+                AgentBatchResult result = new AgentBatchResult(item, context, error, Duration.ofNanos(System.nanoTime() - start));
+                AgentBatchProgress progress = deliver(result);
+                slots.release();
+                notifyProgress(progress);
+            }
+        }
+        
+        private AgentRecipe resolve(AgentBatchItem item) {
+            if (item.recipe() != null) {
+                return item.recipe();
+            }
+            if (item.recipeId() == null) {
+                throw new IllegalArgumentException("Batch item " + item.id() + " has no recipe");
+            }
+            AgentRecipe recipe = recipes.computeIfAbsent(item.recipeId(), agentRecipeRepository::findById);
+            if (recipe == null) {
+                throw new IllegalArgumentException("No AgentRecipe found for recipeId: " + item.recipeId());
+            }
+            return recipe;
+        }
+        
+        private AgentBatchProgress deliver(AgentBatchResult result) {
+            synchronized (sinkLock) {
+                try {
+                    sink.accept(result);
+                } catch (RuntimeException e) {
+                    log.error("Agent batch {} sink failed for item {}", batch.getId(), result.item().id(), e);
+                }
+                return batch.itemFinished(result.isSuccess());
+            }
+        }
+        
+        private void notifyProgress(AgentBatchProgress progress) {
+            if (progressListener != null) {
+                try {
+                    progressListener.accept(progress);
+                } catch (RuntimeException e) {
+                    log.warn("Agent batch {} progress listener failed", batch.getId(), e);
+                }
+            }
+        }
+    }
+}
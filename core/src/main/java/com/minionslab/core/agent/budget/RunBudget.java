@@ -0,0 +1,168 @@
+package com.minionslab.core.agent.budget;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RunBudget accounts for what one agent run consumes against its {@link RunBudgetLimits}: prompt and completion
+ * tokens, model calls, tool calls and wall time.
+ * <p>
+ * The budget travels with the run like its {@link com.minionslab.core.common.chain.CancellationToken}: the agent
+ * context hands it to the run's model and tool calls, the {@link com.minionslab.core.service.ModelCallService} and
+ * {@link com.minionslab.core.service.ToolCallService} charge it, and the step orchestrator stops the run before the
+ * next step once it is exhausted. Calls are admitted with {@link #beginModelCall()} and {@link #beginToolCall()},
+ * which throw a {@link RunBudgetExceededException} instead of starting a call the budget has no room for, so
+ * concurrent calls of one run cannot overshoot the call limits together. Token limits are checked between calls: a
+ * call admitted under the limit may finish above it.
+ * <p>
+ * <b>Usage:</b> {@link #NONE} is the budget of calls made outside any run; it admits everything and records nothing.
+ */
+public final class RunBudget {
+    public static final RunBudget NONE = new RunBudget(RunBudgetLimits.UNLIMITED);
+
+    private final RunBudgetLimits limits;
+    private final long startedAtNanos = System.nanoTime();
+    private final AtomicLong inputTokens = new AtomicLong();
+    private final AtomicLong outputTokens = new AtomicLong();
+    private final AtomicInteger modelCalls = new AtomicInteger();
+    private final AtomicInteger toolCalls = new AtomicInteger();
+
+    private RunBudget(RunBudgetLimits limits) {
+        this.limits = limits != null ? limits : RunBudgetLimits.UNLIMITED;
+    }
+
+    /**
+     * Starts the budget of a run; the wall time counts from now.
+     *
+     * @param limits the limits of the run, or null for an unlimited run
+     * @return the budget
+     */
+    public static RunBudget start(RunBudgetLimits limits) {
+        return new RunBudget(limits);
+    }
+
+    public RunBudgetLimits getLimits() {
+        return limits;
+    }
+
+    /**
+     * Admits a model call, counting it against the model call limit.
+     *
+     * @throws RunBudgetExceededException if the budget is exhausted
+     */
+    public void beginModelCall() {
+        if (this == NONE) {
+            return;
+        }
+        checkNotExhausted();
+        if (modelCalls.incrementAndGet() > limits.maxModelCalls() && limits.maxModelCalls() > 0) {
+            modelCalls.decrementAndGet();
+            throw new RunBudgetExceededException("model calls " + limits.maxModelCalls() + "/" + limits.maxModelCalls());
+        }
+    }
+
+    /**
+     * Charges the tokens of a finished model call.
+     *
+     * @param input  the prompt tokens
+     * @param output the completion tokens
+     */
+    public void chargeTokens(long input, long output) {
+        if (this == NONE) {
+            return;
+        }
+        inputTokens.addAndGet(Math.max(0, input));
+        outputTokens.addAndGet(Math.max(0, output));
+    }
+
+    /**
+     * Admits a tool call, counting it against the tool call limit.
+     *
+     * @throws RunBudgetExceededException if the budget is exhausted
+     */
+    public void beginToolCall() {
+        if (this == NONE) {
+            return;
+        }
+        checkNotExhausted();
+        if (toolCalls.incrementAndGet() > limits.maxToolCalls() && limits.maxToolCalls() > 0) {
+            toolCalls.decrementAndGet();
+            throw new RunBudgetExceededException("tool calls " + limits.maxToolCalls() + "/" + limits.maxToolCalls());
+        }
+    }
+
+    /**
+     * Returns which limit the run has reached, if any. A run that has reached a limit starts no further step.
+     *
+     * @return the limit reached, e.g. {@code output tokens 4096/4000}, or null if the budget has room left
+     */
+    public String getExhausted() {
+        String exhausted = getTokensOrTimeExhausted();
+        if (exhausted != null) {
+            return exhausted;
+        }
+        if (limits.maxModelCalls() > 0 && modelCalls.get() >= limits.maxModelCalls()) {
+            return "model calls " + modelCalls.get() + "/" + limits.maxModelCalls();
+        }
+        if (limits.maxToolCalls() > 0 && toolCalls.get() >= limits.maxToolCalls()) {
+            return "tool calls " + toolCalls.get() + "/" + limits.maxToolCalls();
+        }
+        return null;
+    }
+
+    public boolean isExhausted() {
+        return getExhausted() != null;
+    }
+
+    public long getInputTokens() {
+        return inputTokens.get();
+    }
+
+    public long getOutputTokens() {
+        return outputTokens.get();
+    }
+
+    public int getModelCalls() {
+        return modelCalls.get();
+    }
+
+    public int getToolCalls() {
+        return toolCalls.get();
+    }
+
+    public Duration getElapsed() {
+        return Duration.ofNanos(System.nanoTime() - startedAtNanos);
+    }
+
+    @Override
+    public String toString() {
+        return "RunBudget{inputTokens=" + inputTokens + ", outputTokens=" + outputTokens + ", modelCalls=" + modelCalls
+                       + ", toolCalls=" + toolCalls + ", elapsed=" + getElapsed().toMillis() + "ms, limits=" + limits + '}';
+    }
+
+    /**
+     * Refuses new calls once a token or wall time limit is reached; call limits are checked when the call is
+     * counted.
+     */
+    private void checkNotExhausted() {
+        String exhausted = getTokensOrTimeExhausted();
+        if (exhausted != null) {
+            throw new RunBudgetExceededException(exhausted);
+        }
+    }
+
+    private String getTokensOrTimeExhausted() {
+        if (limits.maxInputTokens() > 0 && inputTokens.get() >= limits.maxInputTokens()) {
+            return "input tokens " + inputTokens.get() + "/" + limits.maxInputTokens();
+        }
+        if (limits.maxOutputTokens() > 0 && outputTokens.get() >= limits.maxOutputTokens()) {
+            return "output tokens " + outputTokens.get() + "/" + limits.maxOutputTokens();
+        }
+        Duration elapsed = getElapsed();
+        if (limits.hasWallTime() && elapsed.compareTo(limits.maxWallTime()) >= 0) {
+            return "wall time " + elapsed.toMillis() + "ms/" + limits.maxWallTime().toMillis() + "ms";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,22 @@
+package com.minionslab.core.agent.budget;
+
+/**
+ * Thrown when an agent run has used up its {@link RunBudget}, before the model or tool call that would exceed it.
+ */
+public class RunBudgetExceededException extends RuntimeException {
+    private final String reason;
+
+    public RunBudgetExceededException(String reason) {
+        super("Run budget exceeded: " + reason);
+        this.reason = reason;
+    }
+
+    /**
+     * Returns which limit was reached, e.g. {@code model calls 20/20}.
+     *
+     * @return the limit reached
+     */
+    public String getReason() {
+        return reason;
+    }
+}
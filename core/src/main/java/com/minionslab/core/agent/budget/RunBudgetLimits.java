@@ -0,0 +1,68 @@
+package com.minionslab.core.agent.budget;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * RunBudgetLimits caps what one agent run may consume. Zero (or a null wall time) leaves a resource unlimited.
+ *
+ * @param maxInputTokens  the prompt tokens of all model calls of the run
+ * @param maxOutputTokens the completion tokens of all model calls of the run
+ * @param maxModelCalls   the model calls of the run
+ * @param maxToolCalls    the tool calls of the run
+ * @param maxWallTime     the time from the start of the run
+ */
+public record RunBudgetLimits(long maxInputTokens, long maxOutputTokens, int maxModelCalls, int maxToolCalls,
+                              Duration maxWallTime) {
+    public static final RunBudgetLimits UNLIMITED = new RunBudgetLimits(0, 0, 0, 0, null);
+
+    public boolean hasWallTime() {
+        return maxWallTime != null && !maxWallTime.isZero() && !maxWallTime.isNegative();
+    }
+
+    public boolean isLimited() {
+        return maxInputTokens > 0 || maxOutputTokens > 0 || maxModelCalls > 0 || maxToolCalls > 0 || hasWallTime();
+    }
+
+    /**
+     * Returns these limits with the ones a recipe sets in its constraints ({@code maxInputTokens},
+     * {@code maxOutputTokens}, {@code maxModelCalls}, {@code maxToolCalls} and {@code maxWallTime}, the latter in
+     * milliseconds or as a duration such as {@code PT2M}).
+     *
+     * @param constraints the recipe's constraints, or null
+     * @return the limits for runs of the recipe
+     */
+    public RunBudgetLimits withOverrides(Map<String, Object> constraints) {
+        if (constraints == null || constraints.isEmpty()) {
+            return this;
+        }
+        return new RunBudgetLimits(longValue(constraints.get("maxInputTokens"), maxInputTokens),
+                                   longValue(constraints.get("maxOutputTokens"), maxOutputTokens),
+                                   (int) longValue(constraints.get("maxModelCalls"), maxModelCalls),
+                                   (int) longValue(constraints.get("maxToolCalls"), maxToolCalls),
+                                   durationValue(constraints.get("maxWallTime"), maxWallTime));
+    }
+
+    private static long longValue(Object value, long defaultValue) {
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        if (value instanceof String text && !text.isBlank()) {
+            return Long.parseLong(text.trim());
+        }
+        return defaultValue;
+    }
+
+    private static Duration durationValue(Object value, Duration defaultValue) {
+        if (value instanceof Duration duration) {
+            return duration;
+        }
+        if (value instanceof Number number) {
+            return Duration.ofMillis(number.longValue());
+        }
+        if (value instanceof String text && !text.isBlank()) {
+            return Duration.parse(text.trim());
+        }
+        return defaultValue;
+    }
+}
@@ -0,0 +1,206 @@
+package com.minionslab.core.agent.checkpoint;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.minionslab.core.common.message.Message;
+import com.minionslab.core.common.message.MessageRole;
+import com.minionslab.core.common.message.MessageScope;
+import com.minionslab.core.common.message.SimpleMessage;
+import com.minionslab.core.memory.MemorySubsystem;
+import com.minionslab.core.model.ModelCall;
+import com.minionslab.core.model.ModelCallStatus;
+import com.minionslab.core.step.StepContext;
+import com.minionslab.core.step.StepStatus;
+import com.minionslab.core.tool.ToolCall;
+import com.minionslab.core.tool.ToolCallStatus;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * AgentCheckpoint is the durable state of an agent run after a completed step: enough to continue the run on any
+ * node without repeating the steps, model calls and tool calls it already made.
+ * <p>
+ * A checkpoint is cumulative: it holds the outcomes of every step completed so far and every message the run stored
+ * into memory, so the latest checkpoint of a run is all that is needed to resume it. Messages are held as plain
+ * {@link CheckpointMessage}s so checkpoints serialize to JSON without framework types.
+ *
+ * @param runId       the run this checkpoint belongs to
+ * @param recipeId    the recipe the run executes
+ * @param sequence    the number of steps completed, increasing with every checkpoint of the run
+ * @param createdAt   when the checkpoint was taken
+ * @param userRequest the message the run was started with
+ * @param nextStepId  the step the run continues with, or null if the workflow is finished
+ * @param steps       the outcomes of the completed steps, in execution order
+ * @param memoryDelta the messages the run stored into memory, in storage order
+ */
+public record AgentCheckpoint(String runId,
+                              String recipeId,
+                              int sequence,
+                              Instant createdAt,
+                              CheckpointMessage userRequest,
+                              String nextStepId,
+                              List<StepOutcome> steps,
+                              List<MemoryEntry> memoryDelta) {
+
+    public AgentCheckpoint {
+        steps = steps != null ? List.copyOf(steps) : List.of();
+        memoryDelta = memoryDelta != null ? List.copyOf(memoryDelta) : List.of();
+    }
+
+    /**
+     * Returns whether the run had finished its workflow when this checkpoint was taken.
+     *
+     * @return true if there is no next step
+     */
+    @JsonIgnore
+    public boolean isFinished() {
+        return nextStepId == null;
+    }
+
+    /**
+     * Returns the checkpoint following this one after another completed step.
+     *
+     * @param step       the outcome of the completed step
+     * @param nextStepId the step the run continues with, or null if the workflow is finished
+     * @param stored     the messages stored into memory since this checkpoint
+     * @return the next checkpoint
+     */
+    public AgentCheckpoint next(StepOutcome step, String nextStepId, List<MemoryEntry> stored) {
+        List<StepOutcome> allSteps = new ArrayList<>(steps.size() + 1);
+        allSteps.addAll(steps);
+        allSteps.add(step);
+        List<MemoryEntry> allStored = new ArrayList<>(memoryDelta.size() + stored.size());
+        allStored.addAll(memoryDelta);
+        allStored.addAll(stored);
+        return new AgentCheckpoint(runId, recipeId, sequence + 1, Instant.now(), userRequest, nextStepId, allSteps, allStored);
+    }
+
+    /**
+     * Outcome of a completed step.
+     *
+     * @param stepId      the step id
+     * @param status      the final status of the step
+     * @param error       the error message of a failed step, or null
+     * @param startedAt   when the step started
+     * @param completedAt when the step completed, or null if it did not record it
+     * @param modelCalls  the model calls the step made
+     * @param toolCalls   the tool calls the step made
+     */
+    public record StepOutcome(String stepId,
+                              StepStatus status,
+                              String error,
+                              Instant startedAt,
+                              Instant completedAt,
+                              List<ModelCallOutcome> modelCalls,
+                              List<ToolCallOutcome> toolCalls) {
+
+        public static StepOutcome of(StepContext context) {
+            List<ModelCallOutcome> modelCalls = new ArrayList<>();
+            if (context.getModelCalls() != null) {
+                for (ModelCall modelCall : context.getModelCalls()) {
+                    modelCalls.add(ModelCallOutcome.of(modelCall));
+                }
+            }
+            List<ToolCallOutcome> toolCalls = new ArrayList<>();
+            if (context.getToolCalls() != null) {
+                for (ToolCall toolCall : context.getToolCalls()) {
+                    toolCalls.add(ToolCallOutcome.of(toolCall));
+                }
+            }
+            return new StepOutcome(context.getStep() != null ? context.getStep().getId() : null, context.getStatus(),
+                                   context.getError(), context.getStartedAt(), context.getCompletedAt(), modelCalls, toolCalls);
+        }
+    }
+
+    /**
+     * Response of a model call.
+     *
+     * @param status   the final status of the call
+     * @param messages the messages the model answered with
+     */
+    public record ModelCallOutcome(ModelCallStatus status, List<CheckpointMessage> messages) {
+
+        public static ModelCallOutcome of(ModelCall modelCall) {
+            List<CheckpointMessage> messages = new ArrayList<>();
+            if (modelCall.getResponse() != null && modelCall.getResponse().getMessages() != null) {
+                for (Message message : modelCall.getResponse().getMessages()) {
+                    messages.add(CheckpointMessage.of(message));
+                }
+            }
+            return new ModelCallOutcome(modelCall.getStatus(), messages);
+        }
+    }
+
+    /**
+     * Request and response of a tool call.
+     *
+     * @param name       the tool name
+     * @param input      the tool input, or null
+     * @param parameters the tool parameters, or null
+     * @param status     the final status of the call
+     * @param response   the tool response, or null
+     * @param error      the tool error, or null
+     */
+    public record ToolCallOutcome(String name,
+                                  String input,
+                                  Map<String, Object> parameters,
+                                  ToolCallStatus status,
+                                  String response,
+                                  String error) {
+
+        public static ToolCallOutcome of(ToolCall toolCall) {
+            ToolCall.ToolCallRequest request = toolCall.getRequest();
+            ToolCall.ToolCallResponse response = toolCall.getResponse();
+            return new ToolCallOutcome(toolCall.getName(),
+                                       request != null ? request.input() : null,
+                                       request != null ? request.parameters() : null,
+                                       toolCall.getStatus(),
+                                       response != null ? response.response() : null,
+                                       response != null ? response.error() : null);
+        }
+    }
+
+    /**
+     * A message the run stored into one of its memories.
+     *
+     * @param subsystem the memory the message was stored into
+     * @param message   the message
+     */
+    public record MemoryEntry(MemorySubsystem subsystem, CheckpointMessage message) {
+    }
+
+    /**
+     * Serializable copy of a {@link Message}.
+     */
+    public record CheckpointMessage(String id,
+                                    String conversationId,
+                                    MessageRole role,
+                                    MessageScope scope,
+                                    String content,
+                                    int tokenCount,
+                                    Instant timestamp,
+                                    Map<String, Object> metadata) {
+
+        public static CheckpointMessage of(Message message) {
+            return new CheckpointMessage(message.getId(), message.getConversationId(), message.getRole(), message.getScope(),
+                                         message.getContent(), message.getTokenCount(), message.getTimestamp(),
+                                         message.getMetadata() != null ? new HashMap<>(message.getMetadata()) : null);
+        }
+
+        public Message toMessage() {
+            return SimpleMessage.builder()
+                                .id(id)
+                                .conversationId(conversationId)
+                                .role(role)
+                                .scope(scope)
+                                .content(content)
+                                .tokenCount(tokenCount)
+                                .timestamp(timestamp)
+                                .metadata(metadata != null ? new HashMap<>(metadata) : new HashMap<>())
+                                .build();
+        }
+    }
+}
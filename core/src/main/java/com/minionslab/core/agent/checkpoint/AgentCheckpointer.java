@@ -0,0 +1,179 @@
+package com.minionslab.core.agent.checkpoint;
+
+import com.minionslab.core.agent.AgentContext;
+import com.minionslab.core.common.chain.ProcessResult;
+import com.minionslab.core.common.logging.LoggingTopics;
+import com.minionslab.core.common.message.Message;
+import com.minionslab.core.memory.MemoryManager;
+import com.minionslab.core.step.Step;
+import com.minionslab.core.step.graph.StepCursor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * AgentCheckpointer checkpoints agent runs to the configured {@link CheckpointStore} and restores runs from their
+ * checkpoints.
+ * <p>
+ * Checkpointing is enabled when a {@link CheckpointStore} bean exists (see
+ * {@code minions.agent.checkpoint.store}); otherwise {@link #begin} and {@link #resume} return null and runs are
+ * not checkpointed.
+ * <p>
+ * A run is checkpointed when it starts and after every completed step. Resuming a run restores the messages it
+ * stored into memory, records the outcomes of its completed steps as results, and positions its cursor at the step
+ * that follows, so completed steps and their model and tool calls are not repeated. A step that was running when
+ * the run stopped has no checkpoint and runs again. The checkpoint of a run that completes without failure is deleted
+ * by {@link #complete}; failed, cancelled and timed-out runs keep theirs, to be resumed.
+ * <p>
+ * <b>Extensibility:</b>
+ * <ul>
+ *   <li>Provide a {@link CheckpointStore} bean to keep checkpoints elsewhere.</li>
+ * </ul>
+ */
+@Slf4j(topic = LoggingTopics.AGENT)
+@Component
+public class AgentCheckpointer {
+    private final CheckpointStore store;
+    
+    @Autowired
+    public AgentCheckpointer(ObjectProvider<CheckpointStore> store) {
+        this(store.getIfAvailable());
+    }
+    
+    /**
+     * Creates a checkpointer over the given store.
+     *
+     * @param store the checkpoint store, or null to disable checkpointing
+     */
+    public AgentCheckpointer(CheckpointStore store) {
+        this.store = store;
+    }
+    
+    /**
+     * Returns a checkpointer that does not checkpoint.
+     *
+     * @return a disabled checkpointer
+     */
+    public static AgentCheckpointer disabled() {
+        return new AgentCheckpointer((CheckpointStore) null);
+    }
+    
+    public boolean isEnabled() {
+        return store != null;
+    }
+    
+    /**
+     * Loads the latest checkpoint of a run.
+     *
+     * @param runId the run id
+     * @return the checkpoint, or empty if the run has none or checkpointing is disabled
+     */
+    public Optional<AgentCheckpoint> load(String runId) {
+        return store != null ? store.load(runId) : Optional.empty();
+    }
+    
+    /**
+     * Starts checkpointing a new run and saves its initial checkpoint.
+     *
+     * @param context     the context of the run, with its cursor at the start step
+     * @param userRequest the message the run is started with
+     * @return the checkpoint state of the run, or null if checkpointing is disabled
+     */
+    public CheckpointedRun begin(AgentContext context, Message userRequest) {
+        if (store == null) {
+            return null;
+        }
+        StepCursor cursor = context.getStepCursor();
+        Step start = cursor != null ? cursor.getCurrentStep() : null;
+        AgentCheckpoint initial = new AgentCheckpoint(context.getRunId(), context.getRecipeId(), 0, Instant.now(),
+                                                      userRequest != null ? AgentCheckpoint.CheckpointMessage.of(userRequest) : null,
+                                                      start != null ? start.getId() : null, List.of(), List.of());
+        CheckpointedRun run = new CheckpointedRun(store, initial);
+        run.save(initial);
+        attach(context, run);
+        return run;
+    }
+    
+    /**
+     * Restores a run from its checkpoint onto a new context and continues checkpointing it.
+     *
+     * @param context    a new context for the run's recipe, with its cursor at the start step
+     * @param checkpoint the checkpoint to continue from
+     * @return the checkpoint state of the run, or null if checkpointing is disabled
+     * @throws IllegalArgumentException if the checkpoint's next step is not part of the recipe's graph
+     */
+    public CheckpointedRun resume(AgentContext context, AgentCheckpoint checkpoint) {
+        if (store == null) {
+            return null;
+        }
+        context.setRunId(checkpoint.runId());
+        restoreMemory(context.getMemoryManager(), checkpoint);
+        StepCursor cursor = context.getStepCursor();
+        if (cursor != null) {
+            if (checkpoint.isFinished()) {
+                cursor.complete();
+            } else {
+                cursor.seek(checkpoint.nextStepId());
+            }
+        }
+        for (AgentCheckpoint.StepOutcome step : checkpoint.steps()) {
+            context.addResult(ProcessResult.success(step.stepId(), List.of(step), step.startedAt()));
+        }
+        log.info("Resuming run {} after {} completed steps at step {}", checkpoint.runId(), checkpoint.sequence(), checkpoint.nextStepId());
+        CheckpointedRun run = new CheckpointedRun(store, checkpoint);
+        attach(context, run);
+        return run;
+    }
+    
+    /**
+     * Ends checkpointing a run, deleting its checkpoint if the run completed without failure (see
+     * {@link AgentContext#getFailure()}).
+     *
+     * @param context the context of the run
+     * @return true if the run's checkpoint was deleted; a checkpoint that cannot be deleted is logged and kept
+     */
+    public boolean complete(AgentContext context) {
+        CheckpointedRun run = context.getCheckpointedRun();
+        if (store == null || run == null || context.getFailure() != null) {
+            return false;
+        }
+        try {
+            boolean deleted = store.delete(run.getRunId());
+            log.debug("Run {} completed, checkpoint deleted: {}", run.getRunId(), deleted);
+            return deleted;
+        } catch (CheckpointException e) {
+            log.warn("Failed to delete the checkpoint of completed run {}", run.getRunId(), e);
+            return false;
+        }
+    }
+    
+    /**
+     * Stores the checkpoint's memory delta again, skipping the user request, which the run stores itself when it
+     * starts, and messages the memories still hold.
+     */
+    private static void restoreMemory(MemoryManager memoryManager, AgentCheckpoint checkpoint) {
+        if (memoryManager == null) {
+            return;
+        }
+        String userRequestId = checkpoint.userRequest() != null ? checkpoint.userRequest().id() : null;
+        for (AgentCheckpoint.MemoryEntry entry : checkpoint.memoryDelta()) {
+            String id = entry.message().id();
+            if (id != null && (id.equals(userRequestId) || memoryManager.retrieve(id) != null)) {
+                continue;
+            }
+            memoryManager.store(entry.subsystem(), entry.message().toMessage());
+        }
+    }
+    
+    private static void attach(AgentContext context, CheckpointedRun run) {
+        if (context.getMemoryManager() != null) {
+            context.getMemoryManager().setStoreListener(run::recordStored);
+        }
+        context.setCheckpointedRun(run);
+    }
+}
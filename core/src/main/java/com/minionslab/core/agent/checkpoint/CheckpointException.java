@@ -0,0 +1,15 @@
+package com.minionslab.core.agent.checkpoint;
+
+/**
+ * Exception thrown when a checkpoint cannot be written to or read from its {@link CheckpointStore}.
+ */
+public class CheckpointException extends RuntimeException {
+    
+    public CheckpointException(String message) {
+        super(message);
+    }
+    
+    public CheckpointException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,36 @@
+package com.minionslab.core.agent.checkpoint;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * JSON form of {@link AgentCheckpoint}s shared by the checkpoint stores.
+ */
+final class CheckpointJson {
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    
+    private CheckpointJson() {
+    }
+    
+    static String write(AgentCheckpoint checkpoint) {
+        try {
+            return MAPPER.writeValueAsString(checkpoint);
+        } catch (JsonProcessingException e) {
+            throw new CheckpointException("Cannot serialize checkpoint of run " + checkpoint.runId(), e);
+        }
+    }
+    
+    static AgentCheckpoint read(String json) {
+        try {
+            return MAPPER.readValue(json, AgentCheckpoint.class);
+        } catch (JsonProcessingException e) {
+            throw new CheckpointException("Cannot deserialize checkpoint", e);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.minionslab.core.agent.checkpoint;
+
+import java.util.Optional;
+
+/**
+ * CheckpointStore persists the latest {@link AgentCheckpoint} of each agent run.
+ * <p>
+ * <b>Extensibility:</b>
+ * <ul>
+ *   <li>Implement this interface to keep checkpoints in another store; register it as a bean to enable
+ *   checkpointing.</li>
+ *   <li>{@link FileCheckpointStore} and {@link PostgresCheckpointStore} are selected with
+ *   {@code minions.agent.checkpoint.store=file} or {@code postgres}.</li>
+ * </ul>
+ * <b>Usage:</b> Implementations must be safe for concurrent use by different runs; calls for one run are sequential.
+ */
+public interface CheckpointStore {
+    
+    /**
+     * Saves a checkpoint, replacing earlier checkpoints of the same run.
+     *
+     * @param checkpoint the checkpoint
+     * @throws CheckpointException if the checkpoint cannot be written
+     */
+    void save(AgentCheckpoint checkpoint);
+    
+    /**
+     * Loads the latest checkpoint of a run.
+     *
+     * @param runId the run id
+     * @return the checkpoint, or empty if the run has none
+     * @throws CheckpointException if the store cannot be read
+     */
+    Optional<AgentCheckpoint> load(String runId);
+    
+    /**
+     * Deletes the checkpoint of a run.
+     *
+     * @param runId the run id
+     * @return true if a checkpoint was deleted
+     * @throws CheckpointException if the store cannot be written
+     */
+    boolean delete(String runId);
+}
@@ -0,0 +1,83 @@
+package com.minionslab.core.agent.checkpoint;
+
+import com.minionslab.core.common.logging.LoggingTopics;
+import com.minionslab.core.common.message.Message;
+import com.minionslab.core.memory.MemorySubsystem;
+import com.minionslab.core.step.Step;
+import com.minionslab.core.step.StepContext;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CheckpointedRun is the checkpoint state of one agent run: the latest checkpoint and the messages stored into
+ * memory since it was taken.
+ * <p>
+ * Obtained from {@link AgentCheckpointer#begin} or {@link AgentCheckpointer#resume} and kept on the
+ * {@link com.minionslab.core.agent.AgentContext}; the step orchestrator reports every completed step through
+ * {@link #stepCompleted(StepContext, Step)}.
+ * <p>
+ * A checkpoint that cannot be saved is logged and the run continues; since checkpoints are cumulative, the next
+ * successful save carries the progress the failed one missed.
+ */
+@Slf4j(topic = LoggingTopics.AGENT)
+public class CheckpointedRun {
+    private final CheckpointStore store;
+    private final List<AgentCheckpoint.MemoryEntry> pendingMemory = new ArrayList<>();
+    private volatile AgentCheckpoint latest;
+    
+    CheckpointedRun(CheckpointStore store, AgentCheckpoint latest) {
+        this.store = store;
+        this.latest = latest;
+    }
+    
+    public String getRunId() {
+        return latest.runId();
+    }
+    
+    /**
+     * Returns the latest checkpoint of the run, saved or not.
+     *
+     * @return the latest checkpoint
+     */
+    public AgentCheckpoint getLatest() {
+        return latest;
+    }
+    
+    /**
+     * Records a message the run stored into memory, to be included in the next checkpoint.
+     *
+     * @param subsystem the memory the message was stored into
+     * @param message   the message
+     */
+    public synchronized void recordStored(MemorySubsystem subsystem, Message message) {
+        if (message != null) {
+            pendingMemory.add(new AgentCheckpoint.MemoryEntry(subsystem, AgentCheckpoint.CheckpointMessage.of(message)));
+        }
+    }
+    
+    /**
+     * Takes and saves the checkpoint following a completed step.
+     *
+     * @param stepContext the context of the completed step
+     * @param nextStep    the step the run continues with, or null if the workflow is finished
+     * @return the new checkpoint
+     */
+    public synchronized AgentCheckpoint stepCompleted(StepContext stepContext, Step nextStep) {
+        AgentCheckpoint checkpoint = latest.next(AgentCheckpoint.StepOutcome.of(stepContext),
+                                                 nextStep != null ? nextStep.getId() : null, pendingMemory);
+        pendingMemory.clear();
+        latest = checkpoint;
+        save(checkpoint);
+        return checkpoint;
+    }
+    
+    void save(AgentCheckpoint checkpoint) {
+        try {
+            store.save(checkpoint);
+        } catch (RuntimeException e) {
+            log.warn("Failed to save checkpoint {} of run {}", checkpoint.sequence(), checkpoint.runId(), e);
+        }
+    }
+}
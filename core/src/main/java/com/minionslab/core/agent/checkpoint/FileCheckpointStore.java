@@ -0,0 +1,93 @@
+package com.minionslab.core.agent.checkpoint;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+/**
+ * FileCheckpointStore keeps one JSON file per run in a local directory.
+ * <p>
+ * Checkpoints are written to a temporary file and moved over the previous one, so a crash while saving leaves the
+ * last complete checkpoint in place. Suited to single-node deployments and development; runs can only be resumed on
+ * nodes that see the same directory.
+ * <p>
+ * <b>Usage:</b> enable with {@code minions.agent.checkpoint.store=file}; the directory is
+ * {@code minions.agent.checkpoint.directory} (default {@code ${java.io.tmpdir}/minions-checkpoints}).
+ */
+@Component
+@ConditionalOnProperty(name = "minions.agent.checkpoint.store", havingValue = "file")
+public class FileCheckpointStore implements CheckpointStore {
+    private static final String SUFFIX = ".json";
+    
+    private final Path directory;
+    
+    public FileCheckpointStore(@Value("${minions.agent.checkpoint.directory:${java.io.tmpdir}/minions-checkpoints}") Path directory) {
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new CheckpointException("Cannot create checkpoint directory " + directory, e);
+        }
+    }
+    
+    @Override
+    public void save(AgentCheckpoint checkpoint) {
+        Path target = fileOf(checkpoint.runId());
+        try {
+            Path temp = Files.createTempFile(directory, checkpoint.runId(), ".tmp");
+            try {
+                Files.writeString(temp, CheckpointJson.write(checkpoint), StandardCharsets.UTF_8);
+                try {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new CheckpointException("Cannot write checkpoint of run " + checkpoint.runId(), e);
+        }
+    }
+    
+    @Override
+    public Optional<AgentCheckpoint> load(String runId) {
+        Path file = fileOf(runId);
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(CheckpointJson.read(Files.readString(file, StandardCharsets.UTF_8)));
+        } catch (IOException e) {
+            throw new CheckpointException("Cannot read checkpoint of run " + runId, e);
+        }
+    }
+    
+    @Override
+    public boolean delete(String runId) {
+        try {
+            return Files.deleteIfExists(fileOf(runId));
+        } catch (IOException e) {
+            throw new CheckpointException("Cannot delete checkpoint of run " + runId, e);
+        }
+    }
+    
+    public Path getDirectory() {
+        return directory;
+    }
+    
+    private Path fileOf(String runId) {
+        if (runId == null || runId.isBlank() || !runId.matches("[A-Za-z0-9._-]+") || runId.startsWith(".")) {
+            throw new IllegalArgumentException("Invalid run id: " + runId);
+        }
+        return directory.resolve(runId + SUFFIX);
+    }
+}
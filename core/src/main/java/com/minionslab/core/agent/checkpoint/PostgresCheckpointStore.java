@@ -0,0 +1,75 @@
+package com.minionslab.core.agent.checkpoint;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * PostgresCheckpointStore keeps the latest checkpoint of each run in the {@code agent_checkpoints} table, so runs
+ * can be resumed on any node sharing the database.
+ * <p>
+ * Saves are upserts that only replace a stored checkpoint with one of a higher sequence, so a late write from a node
+ * that lost the run cannot overwrite newer progress. The table is created on startup if it does not exist.
+ * <p>
+ * <b>Usage:</b> enable with {@code minions.agent.checkpoint.store=postgres}.
+ */
+@Repository
+@ConditionalOnProperty(name = "minions.agent.checkpoint.store", havingValue = "postgres")
+public class PostgresCheckpointStore implements CheckpointStore, InitializingBean {
+    private static final String CHECKPOINTS_TABLE = "agent_checkpoints";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    public PostgresCheckpointStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    @Override
+    public void afterPropertiesSet() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + CHECKPOINTS_TABLE + " (" +
+                                     "run_id VARCHAR(255) PRIMARY KEY, " +
+                                     "recipe_id VARCHAR(255), " +
+                                     "sequence INTEGER NOT NULL, " +
+                                     "payload JSONB NOT NULL, " +
+                                     "updated_at TIMESTAMPTZ NOT NULL DEFAULT now())");
+    }
+    
+    @Override
+    public void save(AgentCheckpoint checkpoint) {
+        String sql = "INSERT INTO " + CHECKPOINTS_TABLE + " (run_id, recipe_id, sequence, payload, updated_at) VALUES (?, ?, ?, ?::jsonb, now()) " +
+                             "ON CONFLICT (run_id) DO UPDATE SET recipe_id = EXCLUDED.recipe_id, sequence = EXCLUDED.sequence, " +
+                             "payload = EXCLUDED.payload, updated_at = EXCLUDED.updated_at " +
+                             "WHERE " + CHECKPOINTS_TABLE + ".sequence < EXCLUDED.sequence";
+        try {
+            jdbcTemplate.update(sql, checkpoint.runId(), checkpoint.recipeId(), checkpoint.sequence(), CheckpointJson.write(checkpoint));
+        } catch (DataAccessException e) {
+            throw new CheckpointException("Cannot write checkpoint of run " + checkpoint.runId(), e);
+        }
+    }
+    
+    @Override
+    public Optional<AgentCheckpoint> load(String runId) {
+        try {
+            List<String> payloads = jdbcTemplate.queryForList("SELECT payload FROM " + CHECKPOINTS_TABLE + " WHERE run_id = ?", String.class, runId);
+            return payloads.isEmpty() ? Optional.empty() : Optional.of(CheckpointJson.read(payloads.get(0)));
+        } catch (DataAccessException e) {
+            throw new CheckpointException("Cannot read checkpoint of run " + runId, e);
+        }
+    }
+    
+    @Override
+    public boolean delete(String runId) {
+        try {
+            return jdbcTemplate.update("DELETE FROM " + CHECKPOINTS_TABLE + " WHERE run_id = ?", runId) > 0;
+        } catch (DataAccessException e) {
+            throw new CheckpointException("Cannot delete checkpoint of run " + runId, e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.minionslab.core.agent.event;
+
+import java.time.Instant;
+
+/**
+ * Progress event of an agent run, delivered to the run's {@link AgentEventListener} as it happens.
+ *
+ * @param type      the kind of event
+ * @param runId     the run the event belongs to
+ * @param stepId    the step the event belongs to, or null for run events
+ * @param name      the tool name of tool call events, or null
+ * @param data      the event data described by the {@link AgentEventType}, or null
+ * @param timestamp when the event happened
+ */
+public record AgentEvent(AgentEventType type, String runId, String stepId, String name, String data, Instant timestamp) {
+    
+    public static AgentEvent of(AgentEventType type, String runId, String stepId, String name, String data) {
+        return new AgentEvent(type, runId, stepId, name, data, Instant.now());
+    }
+    
+    public static AgentEvent run(AgentEventType type, String runId, String data) {
+        return of(type, runId, null, null, data);
+    }
+    
+    public static AgentEvent step(AgentEventType type, String runId, String stepId, String data) {
+        return of(type, runId, stepId, null, data);
+    }
+}
@@ -0,0 +1,22 @@
+package com.minionslab.core.agent.event;
+
+/**
+ * Receives the {@link AgentEvent}s of an agent run.
+ * <p>
+ * Events are delivered on the threads executing the run, one at a time and in order. Listeners should return
+ * quickly, e.g. by writing to a stream or queue; exceptions they throw are logged and do not affect the run.
+ * <p>
+ * <b>Usage:</b> pass a listener to {@link com.minionslab.core.agent.AgentService#submitAgent(String,
+ * com.minionslab.core.common.message.Message, AgentEventListener)}.
+ */
+@FunctionalInterface
+public interface AgentEventListener {
+    
+    /**
+     * A listener that ignores all events.
+     */
+    AgentEventListener NOOP = event -> {
+    };
+    
+    void onEvent(AgentEvent event);
+}
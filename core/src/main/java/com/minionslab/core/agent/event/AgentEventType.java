@@ -0,0 +1,50 @@
+package com.minionslab.core.agent.event;
+
+/**
+ * Kinds of {@link AgentEvent}s published while an agent runs, in the order they occur within a run.
+ */
+public enum AgentEventType {
+    /**
+     * The run started; the event data is the recipe id.
+     */
+    RUN_STARTED,
+    /**
+     * A step started.
+     */
+    STEP_STARTED,
+    /**
+     * A model call returned; the event data is the model's output.
+     */
+    MODEL_OUTPUT,
+    /**
+     * A tool call started; the event data is the tool input.
+     */
+    TOOL_CALL_STARTED,
+    /**
+     * A tool call ended; the event data is the tool response or error.
+     */
+    TOOL_CALL_COMPLETED,
+    /**
+     * A step ended; the event data is the step status.
+     */
+    STEP_COMPLETED,
+    /**
+     * The run completed without failure; no events follow. The event data is the run's final assistant output, the
+     * last non-empty {@link #MODEL_OUTPUT}, or null if the model produced none.
+     */
+    RUN_COMPLETED,
+    /**
+     * The run failed, was cancelled or timed out; no events follow. The event data is the reason: the message of the
+     * first failure the run recorded, or of its cancellation.
+     */
+    RUN_FAILED;
+    
+    /**
+     * Returns whether no events follow an event of this type.
+     *
+     * @return true for {@link #RUN_COMPLETED} and {@link #RUN_FAILED}
+     */
+    public boolean isTerminal() {
+        return this == RUN_COMPLETED || this == RUN_FAILED;
+    }
+}
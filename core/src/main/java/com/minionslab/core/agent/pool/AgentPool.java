@@ -0,0 +1,218 @@
+package com.minionslab.core.agent.pool;
+
+import com.minionslab.core.agent.CompiledRecipe;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * AgentPool holds the idle {@link AgentShell}s of one recipe.
+ * <p>
+ * The pool sizes itself to the observed load: it keeps smoothed averages of the time between runs of the recipe and
+ * of the time a run holds its shell, and targets as many idle shells as runs expected to overlap (arrival rate times
+ * hold time, by Little's law), within {@code [minSize, maxSize]}. When no run arrives for longer than the average
+ * gap, the elapsed time counts as the gap, so the target falls as traffic stops and surplus shells are dropped as
+ * runs return them.
+ * <p>
+ * Shells are handed out most recently returned first. A pool serves one compiled version of the recipe at a time;
+ * switching versions drops the idle shells of the previous one, and shells of older versions are dropped when they
+ * are returned.
+ * <p>
+ * Pools are created and filled by {@link AgentPools}.
+ */
+public final class AgentPool {
+    /**
+     * Weight of the latest sample in the smoothed averages.
+     */
+    private static final double SMOOTHING = 0.2;
+
+    private final String recipeId;
+    private final int minSize;
+    private final int maxSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    /**
+     * Idle shells, most recently returned last.
+     */
+    private final ArrayDeque<AgentShell> idle = new ArrayDeque<>();
+    private CompiledRecipe compiledRecipe;
+    /**
+     * Shells reserved by {@link #reserve(long)} or {@link #offer(AgentShell, long)} and not yet handed to
+     * {@link #built(AgentShell)}.
+     */
+    private int building;
+    private long arrivals;
+    private long lastArrivalNanos;
+    private double meanGapNanos;
+    private double meanHoldNanos;
+
+    AgentPool(String recipeId, int minSize, int maxSize) {
+        this.recipeId = recipeId;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+    }
+
+    public String getRecipeId() {
+        return recipeId;
+    }
+
+    /**
+     * Returns the compiled recipe the pool serves.
+     *
+     * @return the compiled recipe, or null if the pool has not served one yet
+     */
+    public CompiledRecipe getCompiledRecipe() {
+        lock.lock();
+        try {
+            return compiledRecipe;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of shells ready to be lent out.
+     *
+     * @return the idle shell count
+     */
+    public int getIdleCount() {
+        lock.lock();
+        try {
+            return idle.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of idle shells the pool currently aims to hold.
+     *
+     * @return the target size
+     */
+    public int getTargetSize() {
+        lock.lock();
+        try {
+            return targetSize(System.nanoTime());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Switches the pool to a compiled recipe, dropping the idle shells of the previous one.
+     */
+    void reset(CompiledRecipe compiled) {
+        lock.lock();
+        try {
+            if (compiledRecipe != compiled) {
+                compiledRecipe = compiled;
+                idle.clear();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records the arrival of a run and lends it an idle shell.
+     *
+     * @param compiled the compiled recipe of the run
+     * @param now      the current {@link System#nanoTime()}
+     * @return the shell, or null if no shell of that compiled recipe is idle
+     */
+    AgentShell poll(CompiledRecipe compiled, long now) {
+        lock.lock();
+        try {
+            if (arrivals++ > 0) {
+                meanGapNanos = smooth(meanGapNanos, now - lastArrivalNanos);
+            }
+            lastArrivalNanos = now;
+            if (compiled != compiledRecipe) {
+                return null;
+            }
+            AgentShell shell = idle.pollLast();
+            if (shell != null) {
+                shell.borrowedAtNanos = now;
+            }
+            return shell;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes a shell back after its run and reserves its place for a renewed shell, if the shell belongs to the
+     * compiled recipe the pool serves and the pool is below its target size. The returned shell itself is not kept:
+     * the caller builds its replacement and hands it, or null if building it failed, to {@link #built(AgentShell)}.
+     *
+     * @param shell the returned shell
+     * @param now   the current {@link System#nanoTime()}
+     * @return true if a replacement is to be built
+     */
+    boolean offer(AgentShell shell, long now) {
+        lock.lock();
+        try {
+            meanHoldNanos = smooth(meanHoldNanos, now - shell.borrowedAtNanos);
+            if (shell.getCompiledRecipe() != compiledRecipe || idle.size() + building >= targetSize(now)) {
+                return false;
+            }
+            building++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reserves the shells missing to reach the target size. The caller builds them and hands each one, or null if
+     * building it failed, to {@link #built(AgentShell)}.
+     *
+     * @param now the current {@link System#nanoTime()}
+     * @return the number of shells to build
+     */
+    int reserve(long now) {
+        lock.lock();
+        try {
+            int missing = targetSize(now) - idle.size() - building;
+            if (missing <= 0) {
+                return 0;
+            }
+            building += missing;
+            return missing;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds a shell built for a reservation, unless the pool switched versions or is full meanwhile.
+     *
+     * @param shell the built shell, or null if building it failed
+     */
+    void built(AgentShell shell) {
+        lock.lock();
+        try {
+            building--;
+            if (shell != null && shell.getCompiledRecipe() == compiledRecipe && idle.size() < maxSize) {
+                idle.addLast(shell);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the expected number of overlapping runs, within the pool's bounds. Called with the lock held.
+     */
+    int targetSize(long now) {
+        if (meanGapNanos <= 0 || meanHoldNanos <= 0) {
+            return minSize;
+        }
+        double gap = Math.max(meanGapNanos, now - lastArrivalNanos);
+        long overlapping = (long) Math.ceil(meanHoldNanos / gap);
+        return (int) Math.max(minSize, Math.min(maxSize, overlapping));
+    }
+
+    private static double smooth(double mean, long sample) {
+        return mean <= 0 ? sample : mean + SMOOTHING * (sample - mean);
+    }
+}
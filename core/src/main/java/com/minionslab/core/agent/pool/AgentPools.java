@@ -0,0 +1,238 @@
+package com.minionslab.core.agent.pool;
+
+import com.minionslab.core.agent.AgentRecipeRepository;
+import com.minionslab.core.agent.CompiledRecipe;
+import com.minionslab.core.agent.RecipeCompiler;
+import com.minionslab.core.common.logging.LoggingTopics;
+import com.minionslab.core.memory.MemoryFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * AgentPools keeps warm {@link AgentPool}s of pre-initialized {@link AgentShell}s for latency-sensitive recipes, so
+ * their runs skip compiling the recipe and building its memories before the first model call.
+ * <p>
+ * Only the recipes listed in {@code minions.agent.pool.recipes} (or passed to {@link #warm(String)}) are pooled, and
+ * only in the version the {@link AgentRecipeRepository} currently holds; a new version replaces the pooled one on its
+ * first run. Pools are filled at startup for the listed recipes already in the repository, and otherwise on their
+ * first run. Missing shells are built in the background, so a run that finds its pool empty builds a shell of its own
+ * and returns it to the pool afterwards.
+ * <p>
+ * Every run starts from empty memories, as an unpooled run does: a returned shell is replaced in its pool by one
+ * over memories built afresh from the recipe's definitions, so nothing a run stored is seen by the next run that
+ * borrows it. Replacements are built in the background like missing shells, and only while the pool is below its
+ * target size.
+ * <p>
+ * Properties:
+ * <ul>
+ *   <li>{@code minions.agent.pool.recipes} - comma-separated ids of the recipes to pool (default none)</li>
+ *   <li>{@code minions.agent.pool.min-size} - idle shells kept per recipe at any load (default 1)</li>
+ *   <li>{@code minions.agent.pool.max-size} - idle shells kept per recipe at peak load (default 16)</li>
+ * </ul>
+ * Between those bounds each pool follows the recipe's observed arrival rate, see {@link AgentPool}.
+ * <p>
+ * <b>Usage:</b> runs started through {@link com.minionslab.core.agent.AgentService} without a conversation id borrow
+ * and return shells automatically.
+ */
+@Slf4j(topic = LoggingTopics.AGENT)
+@Component
+public class AgentPools implements InitializingBean, DisposableBean {
+
+    public static final int DEFAULT_MIN_SIZE = 1;
+    public static final int DEFAULT_MAX_SIZE = 16;
+
+    private final AgentRecipeRepository agentRecipeRepository;
+    private final RecipeCompiler recipeCompiler;
+    private final MemoryFactory memoryFactory;
+    private final Set<String> recipeIds = ConcurrentHashMap.newKeySet();
+    private final int minSize;
+    private final int maxSize;
+    private final Map<String, AgentPool> pools = new ConcurrentHashMap<>();
+    private final ExecutorService builder = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Autowired
+    public AgentPools(AgentRecipeRepository agentRecipeRepository, RecipeCompiler recipeCompiler, MemoryFactory memoryFactory,
+                      @Value("${minions.agent.pool.recipes:}") List<String> recipeIds,
+                      @Value("${minions.agent.pool.min-size:1}") int minSize,
+                      @Value("${minions.agent.pool.max-size:16}") int maxSize) {
+        if (minSize < 0 || maxSize < minSize) {
+            throw new IllegalArgumentException("Invalid pool bounds: min-size " + minSize + ", max-size " + maxSize);
+        }
+        this.agentRecipeRepository = agentRecipeRepository;
+        this.recipeCompiler = recipeCompiler;
+        this.memoryFactory = memoryFactory;
+        if (recipeIds != null) {
+            recipeIds.stream().filter(id -> id != null && !id.isBlank()).map(String::trim).forEach(this.recipeIds::add);
+        }
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns pools that pool no recipe, for services built without them.
+     *
+     * @return disabled pools
+     */
+    public static AgentPools disabled() {
+        return new AgentPools(null, null, null, List.of(), 0, 0);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        for (String recipeId : recipeIds) {
+            try {
+                warm(recipeId);
+            } catch (RuntimeException e) {
+                log.warn("Failed to warm agent pool of recipe {}", recipeId, e);
+            }
+        }
+    }
+
+    /**
+     * Pools a recipe and starts filling its pool with the version the repository holds.
+     *
+     * @param recipeId the recipe id
+     * @return the recipe's pool, or null if the repository does not hold the recipe yet
+     */
+    public AgentPool warm(String recipeId) {
+        recipeIds.add(recipeId);
+        CompiledRecipe compiled = agentRecipeRepository.findCompiledById(recipeId, recipeCompiler);
+        AgentPool pool = poolFor(compiled);
+        if (pool != null) {
+            refill(pool);
+        }
+        return pool;
+    }
+
+    /**
+     * Returns whether runs of a recipe are pooled.
+     *
+     * @param recipeId the recipe id
+     * @return true if the recipe is pooled
+     */
+    public boolean isPooled(String recipeId) {
+        return recipeId != null && recipeIds.contains(recipeId);
+    }
+
+    /**
+     * Returns the pool of a recipe.
+     *
+     * @param recipeId the recipe id
+     * @return the pool, or null if no run of the recipe was pooled yet
+     */
+    public AgentPool getPool(String recipeId) {
+        return recipeId != null ? pools.get(recipeId) : null;
+    }
+
+    /**
+     * Lends a shell to a run of a compiled recipe. The caller returns it with {@link #release(AgentShell)} when the
+     * run ends.
+     *
+     * @param compiled the compiled recipe of the run
+     * @return a warm shell, a shell built for this run if the pool is empty, or null if the recipe is not pooled
+     */
+    public AgentShell borrow(CompiledRecipe compiled) {
+        AgentPool pool = poolFor(compiled);
+        if (pool == null) {
+            return null;
+        }
+        long now = System.nanoTime();
+        AgentShell shell = pool.poll(compiled, now);
+        refill(pool);
+        if (shell == null) {
+            shell = newShell(compiled);
+            shell.borrowedAtNanos = now;
+        }
+        return shell;
+    }
+
+    /**
+     * Returns a shell after its run ends. If the pool is below its target size, a shell over fresh memories is built
+     * in the background to take its place; the returned shell is dropped either way.
+     *
+     * @param shell the shell, or null
+     */
+    public void release(AgentShell shell) {
+        if (shell == null) {
+            return;
+        }
+        AgentPool pool = pools.get(shell.getCompiledRecipe().getId());
+        if (pool != null && pool.offer(shell, System.nanoTime())) {
+            // the run's memories hold what it stored; the next run must not see them
+            build(pool, shell.getCompiledRecipe());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        builder.shutdownNow();
+        pools.clear();
+    }
+
+    /**
+     * Returns the pool serving a compiled recipe, switching the pool to it if it is the version the repository
+     * holds now.
+     */
+    private AgentPool poolFor(CompiledRecipe compiled) {
+        if (compiled == null || !isPooled(compiled.getId())) {
+            return null;
+        }
+        AgentPool pool = pools.computeIfAbsent(compiled.getId(), id -> new AgentPool(id, minSize, maxSize));
+        if (pool.getCompiledRecipe() != compiled) {
+            // recipes compiled outside the repository, or older versions still running, are not pooled
+            if (agentRecipeRepository.findCompiledById(compiled.getId(), recipeCompiler) != compiled) {
+                return null;
+            }
+            pool.reset(compiled);
+        }
+        return pool;
+    }
+
+    /**
+     * Builds the shells the pool is missing in the background.
+     */
+    private void refill(AgentPool pool) {
+        CompiledRecipe compiled = pool.getCompiledRecipe();
+        int missing = pool.reserve(System.nanoTime());
+        for (int i = 0; i < missing; i++) {
+            build(pool, compiled);
+        }
+    }
+
+    /**
+     * Builds a shell reserved in the pool in the background.
+     */
+    private void build(AgentPool pool, CompiledRecipe compiled) {
+        try {
+            builder.execute(() -> {
+                AgentShell shell = null;
+                try {
+                    shell = newShell(compiled);
+                } catch (RuntimeException e) {
+                    log.warn("Failed to build agent shell of recipe {}", compiled.getId(), e);
+                } finally {
+                    pool.built(shell);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // shutting down
+            pool.built(null);
+        }
+    }
+
+    private AgentShell newShell(CompiledRecipe compiled) {
+        return new AgentShell(compiled, memoryFactory.buildMemories(compiled.getMemoryDefinitions()));
+    }
+}
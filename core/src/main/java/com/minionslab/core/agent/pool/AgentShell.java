@@ -0,0 +1,38 @@
+package com.minionslab.core.agent.pool;
+
+import com.minionslab.core.agent.CompiledRecipe;
+import com.minionslab.core.common.message.Message;
+import com.minionslab.core.memory.Memory;
+import com.minionslab.core.memory.MemoryContext;
+
+import java.util.List;
+
+/**
+ * AgentShell is the pre-initialized part of an agent run: the recipe, already compiled, and the memories built from
+ * its memory definitions.
+ * <p>
+ * Shells are lent to one run at a time by an {@link AgentPool}. A run builds its agent and a MemoryManager of its
+ * own over the shell's memories, which then hold what the run stored; {@link AgentPools#release(AgentShell)} therefore
+ * pools a new shell over fresh memories instead of the returned one.
+ */
+public final class AgentShell {
+    private final CompiledRecipe compiledRecipe;
+    private final List<Memory<MemoryContext, Message>> memories;
+    /**
+     * When the shell was lent out; guarded by the pool's lock.
+     */
+    long borrowedAtNanos;
+
+    AgentShell(CompiledRecipe compiledRecipe, List<Memory<MemoryContext, Message>> memories) {
+        this.compiledRecipe = compiledRecipe;
+        this.memories = List.copyOf(memories);
+    }
+
+    public CompiledRecipe getCompiledRecipe() {
+        return compiledRecipe;
+    }
+
+    public List<Memory<MemoryContext, Message>> getMemories() {
+        return memories;
+    }
+}
@@ -62,7 +62,8 @@ public class MemorySummarizerProcessor extends AbstractProcessor<AgentContext, L
             modelConfig = getDefaultModelConfig();
         }
         // Create the ModelCall
-        ModelCall modelCall = new ModelCall(modelConfig, bundle);
+        ModelCall modelCall = new ModelCall(modelConfig, bundle).setCancellationToken(input.getCancellationToken())
+                                                                .setBudget(input.getBudget());
         modelCallService.call(modelCall);
         List<Message> messages = modelCall.getResponse().getMessages();
 //todo we need a way to update all messages with recipeId, conversationId ...
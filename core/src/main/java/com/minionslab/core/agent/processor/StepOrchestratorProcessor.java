@@ -3,17 +3,23 @@ package com.minionslab.core.agent.processor;
 import com.minionslab.core.agent.Agent;
 import com.minionslab.core.agent.AgentContext;
 import com.minionslab.core.agent.AgentRecipe;
+import com.minionslab.core.agent.budget.RunBudget;
+import com.minionslab.core.agent.budget.RunBudgetExceededException;
+import com.minionslab.core.agent.checkpoint.CheckpointedRun;
+import com.minionslab.core.agent.event.AgentEventType;
+import com.minionslab.core.common.chain.CancellationToken;
 import com.minionslab.core.common.chain.ProcessResult;
 import com.minionslab.core.common.chain.Processor;
 import com.minionslab.core.common.logging.LoggingTopics;
 import com.minionslab.core.step.Step;
 import com.minionslab.core.step.StepContext;
 import com.minionslab.core.step.StepService;
-import com.minionslab.core.step.graph.StepGraph;
+import com.minionslab.core.step.graph.StepCursor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
 import java.util.List;
 
 /**
@@ -60,6 +66,7 @@ public class StepOrchestratorProcessor implements Processor<AgentContext> {
     @Override
     public AgentContext onError(AgentContext input, Exception e) {
         Processor.super.onError(input, e);
+        input.addResult(ProcessResult.failure(StepOrchestratorProcessor.class.getSimpleName(), e, Instant.now()));
         log.error("[StepOrchestratorProcessor] Error processing agent: {}", input.getAgent().getAgentId(), e);
         input.getMemoryManager().restoreLatestSnapshot();
         return input;
@@ -93,6 +100,15 @@ public class StepOrchestratorProcessor implements Processor<AgentContext> {
     
     /**
      * Main process loop for agent execution. Orchestrates step execution using StepService.
+     * Steps are walked with the context's own {@link StepCursor}, so concurrent runs of the same recipe do not move
+     * each other through the shared step graph. The loop ends before the next step once the context's cancellation
+     * token fires or the run's {@link RunBudget} is exhausted; the latter is recorded as a failed result with a
+     * {@link RunBudgetExceededException}. The first failure of a step, and any exception the loop throws, are recorded
+     * as failed results too, so {@link AgentContext#getFailure()} reports them. Checkpointed runs (see
+     * {@link AgentContext#getCheckpointedRun()}) are checkpointed after every step until the run records a failure or
+     * its token fires. Every step is framed by
+     * {@link AgentEventType#STEP_STARTED} and {@link AgentEventType#STEP_COMPLETED} events to the run's event
+     * listener, if it has one.
      *
      * @param input the agent context
      * @return the processed agent context
@@ -102,18 +118,66 @@ public class StepOrchestratorProcessor implements Processor<AgentContext> {
         log.info("[StepOrchestratorProcessor] Processing agent workflow for agent: {}", input.getAgent().getAgentId());
         Agent agent = input.getAgent();
         List<ProcessResult> agentResult = input.getResults();
-        AgentRecipe recipe = input.getRecipe();
-        StepGraph stepGraph = recipe.getStepGraph();
-        Step currentStep = stepGraph.getCurrentStep();
+        StepCursor cursor = cursorOf(input);
+        Step currentStep = cursor.getCurrentStep();
+        CancellationToken token = input.getCancellationToken();
         while (currentStep != null) {
+            if (token.isCancelled()) {
+                log.warn("[StepOrchestratorProcessor] Agent {} stopped before step completion: {}", agent.getAgentId(), token.toException().getMessage());
+                break;
+            }
+            RunBudget budget = input.getBudget();
+            String exhausted = budget != null ? budget.getExhausted() : null;
+            if (exhausted != null) {
+                log.warn("[StepOrchestratorProcessor] Agent {} stopped before step {}, run budget exhausted: {}", agent.getAgentId(), currentStep.getId(), exhausted);
+                input.addResult(ProcessResult.failure(StepOrchestratorProcessor.class.getSimpleName(), new RunBudgetExceededException(exhausted), Instant.now()));
+                break;
+            }
             StepContext stepContext = createStepContext(input, currentStep);
+            stepContext.publish(AgentEventType.STEP_STARTED, null, null);
             StepContext process = stepService.executeStep(stepContext);
-            currentStep = stepGraph.getNextStep(input);
+            StepContext completed = process != null ? process : stepContext;
+            completed.publish(AgentEventType.STEP_COMPLETED, null, completed.getStatus() != null ? completed.getStatus().name() : null);
+            recordStepFailure(input, currentStep, completed);
+            currentStep = cursor.next(input);
+            CheckpointedRun checkpointedRun = input.getCheckpointedRun();
+            // a checkpoint never moves past a failed step, so resuming the run retries that step
+            if (checkpointedRun != null && input.getFailure() == null) {
+                checkpointedRun.stepCompleted(completed, currentStep);
+            }
         }
         log.info("[StepOrchestratorProcessor] Agent workflow completed for agent: {}", input.getAgent().getAgentId());
         return input;
     }
     
+    /**
+     * Records the first failed result of a step on the agent context, so the run reports the step's failure.
+     */
+    private static void recordStepFailure(AgentContext input, Step step, StepContext completed) {
+        List<ProcessResult> stepResults = completed.getResults();
+        if (stepResults == null) {
+            return;
+        }
+        for (ProcessResult result : stepResults) {
+            if (result != null && result.isFailure()) {
+                input.addResult(ProcessResult.failure(step.getId(), result.getError(), Instant.now()));
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Returns the run's cursor, or a new one over the recipe's graph for contexts without a step manager.
+     */
+    private static StepCursor cursorOf(AgentContext input) {
+        StepCursor cursor = input.getStepCursor();
+        if (cursor != null) {
+            return cursor;
+        }
+        AgentRecipe recipe = input.getRecipe();
+        return StepCursor.of(recipe != null ? recipe.getStepGraph() : null);
+    }
+    
     /**
      * Creates a StepContext for the given step. Subclasses can override for custom context logic.
      *
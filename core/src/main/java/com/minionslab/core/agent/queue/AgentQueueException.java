@@ -0,0 +1,15 @@
+package com.minionslab.core.agent.queue;
+
+/**
+ * Thrown when the {@link AgentWorkQueue} cannot be read or written.
+ */
+public class AgentQueueException extends RuntimeException {
+
+    public AgentQueueException(String message) {
+        super(message);
+    }
+
+    public AgentQueueException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,238 @@
+package com.minionslab.core.agent.queue;
+
+import com.minionslab.core.agent.AgentContext;
+import com.minionslab.core.agent.AgentRecipe;
+import com.minionslab.core.agent.AgentRecipeRepository;
+import com.minionslab.core.agent.AgentService;
+import com.minionslab.core.common.chain.CancellationToken;
+import com.minionslab.core.common.logging.LoggingTopics;
+import com.minionslab.core.common.message.Message;
+import com.minionslab.core.common.security.context.TenantContextHolder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AgentQueueWorker claims runs from the {@link AgentWorkQueue} and executes them through the {@link AgentService},
+ * each on a virtual thread, up to its concurrency.
+ * <p>
+ * While a run executes the worker renews its lease every third of the lease; if a renewal finds the lease taken
+ * back, the run is cancelled and left to the worker that claims it next. Each poll first takes back the expired
+ * leases of crashed workers. Runs are started with their queue run id, so an attempt of a run that checkpointed
+ * continues from its last checkpoint instead of starting over. Failed attempts, whether the run threw or recorded a
+ * failure (see {@link AgentContext#getFailure()}), are retried after a delay, up to the maximum attempts, then left
+ * failed; runs of unknown recipes fail right away. On shutdown, running runs are cancelled and queued
+ * again for other workers.
+ * <p>
+ * Properties:
+ * <ul>
+ *   <li>{@code minions.agent.queue.worker.enabled} - {@code true} to start a worker on this node</li>
+ *   <li>{@code minions.agent.queue.worker.id} - the worker id (default a random id)</li>
+ *   <li>{@code minions.agent.queue.worker.concurrency} - runs executed at once (default 16)</li>
+ *   <li>{@code minions.agent.queue.worker.lease} - lease of claimed runs (default 30s)</li>
+ *   <li>{@code minions.agent.queue.worker.poll-interval} - delay between polls of the queue (default 1s)</li>
+ *   <li>{@code minions.agent.queue.worker.max-attempts} - attempts per run (default 3)</li>
+ *   <li>{@code minions.agent.queue.worker.retry-delay} - delay before a failed run is retried (default 5s)</li>
+ *   <li>{@code minions.agent.queue.worker.per-recipe-limit} - runs of one recipe running at once across all
+ *   workers (default 0, unlimited)</li>
+ *   <li>{@code minions.agent.queue.worker.per-tenant-limit} - runs of one tenant running at once across all
+ *   workers (default 0, unlimited)</li>
+ * </ul>
+ * <b>Usage:</b> enable a worker on every node that should execute queued runs, over a shared
+ * {@link PostgresAgentWorkQueue}.
+ */
+@Slf4j(topic = LoggingTopics.AGENT)
+@Component
+@ConditionalOnProperty(name = "minions.agent.queue.worker.enabled", havingValue = "true")
+public class AgentQueueWorker implements InitializingBean, DisposableBean {
+    public static final int DEFAULT_CONCURRENCY = 16;
+
+    private final AgentWorkQueue queue;
+    private final AgentService agentService;
+    private final AgentRecipeRepository agentRecipeRepository;
+    private final String workerId;
+    private final int concurrency;
+    private final Duration lease;
+    private final Duration pollInterval;
+    private final int maxAttempts;
+    private final Duration retryDelay;
+    private final QueueLimits limits;
+    private final Semaphore slots;
+    private final Map<String, CancellationToken> active = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("minion-queue-poller").daemon().factory());
+    private final ExecutorService threads = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("minion-queue-", 0).factory());
+    private volatile boolean stopping;
+
+    @Autowired
+    public AgentQueueWorker(AgentWorkQueue queue, AgentService agentService, AgentRecipeRepository agentRecipeRepository,
+                            @Value("${minions.agent.queue.worker.id:}") String workerId,
+                            @Value("${minions.agent.queue.worker.concurrency:16}") int concurrency,
+                            @Value("${minions.agent.queue.worker.lease:30s}") Duration lease,
+                            @Value("${minions.agent.queue.worker.poll-interval:1s}") Duration pollInterval,
+                            @Value("${minions.agent.queue.worker.max-attempts:3}") int maxAttempts,
+                            @Value("${minions.agent.queue.worker.retry-delay:5s}") Duration retryDelay,
+                            @Value("${minions.agent.queue.worker.per-recipe-limit:0}") int perRecipeLimit,
+                            @Value("${minions.agent.queue.worker.per-tenant-limit:0}") int perTenantLimit) {
+        if (lease.isZero() || lease.isNegative()) {
+            throw new IllegalArgumentException("Invalid queue lease: " + lease);
+        }
+        this.queue = queue;
+        this.agentService = agentService;
+        this.agentRecipeRepository = agentRecipeRepository;
+        this.workerId = workerId != null && !workerId.isBlank() ? workerId : UUID.randomUUID().toString();
+        this.concurrency = concurrency > 0 ? concurrency : DEFAULT_CONCURRENCY;
+        this.lease = lease;
+        this.pollInterval = pollInterval;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryDelay = retryDelay;
+        this.limits = new QueueLimits(perRecipeLimit, perTenantLimit);
+        this.slots = new Semaphore(this.concurrency);
+    }
+
+    public String getWorkerId() {
+        return workerId;
+    }
+
+    public int getActiveRuns() {
+        return active.size();
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        long interval = Math.max(1L, pollInterval.toMillis());
+        scheduler.scheduleWithFixedDelay(this::pollSafely, 0L, interval, TimeUnit.MILLISECONDS);
+        long heartbeat = Math.max(1L, lease.toMillis() / 3);
+        scheduler.scheduleWithFixedDelay(this::renewLeases, heartbeat, heartbeat, TimeUnit.MILLISECONDS);
+        log.info("Agent queue worker {} started with concurrency {}", workerId, concurrency);
+    }
+
+    @Override
+    public void destroy() {
+        stopping = true;
+        scheduler.shutdownNow();
+        active.values().forEach(token -> token.cancel("Worker " + workerId + " is shutting down"));
+        threads.shutdown();
+        try {
+            threads.awaitTermination(lease.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        threads.shutdownNow();
+    }
+
+    /**
+     * Takes back expired leases and claims as many runs as there are free slots.
+     *
+     * @return the number of runs claimed
+     */
+    int poll() {
+        if (stopping) {
+            return 0;
+        }
+        int requeued = queue.requeueExpired(maxAttempts);
+        if (requeued > 0) {
+            log.info("Took back {} queued runs with expired leases", requeued);
+        }
+        int free = slots.drainPermits();
+        List<QueuedRun> claimed;
+        try {
+            claimed = queue.claim(workerId, free, lease, limits);
+        } catch (RuntimeException e) {
+            slots.release(free);
+            throw e;
+        }
+        slots.release(free - claimed.size());
+        for (QueuedRun run : claimed) {
+            CancellationToken token = CancellationToken.create();
+            active.put(run.runId(), token);
+            try {
+                threads.execute(() -> execute(run, token));
+            } catch (RuntimeException e) {
+                // shutting down: the lease expires and another worker takes the run
+                active.remove(run.runId());
+                slots.release();
+            }
+        }
+        return claimed.size();
+    }
+
+    private void pollSafely() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            log.warn("Agent queue worker {} failed to poll the queue", workerId, e);
+        }
+    }
+
+    private void renewLeases() {
+        active.forEach((runId, token) -> {
+            try {
+                if (!queue.renew(runId, workerId, lease)) {
+                    token.cancel("Lease of run " + runId + " was lost");
+                }
+            } catch (RuntimeException e) {
+                log.warn("Failed to renew the lease of queued run {}", runId, e);
+            }
+        });
+    }
+
+    private void execute(QueuedRun run, CancellationToken token) {
+        String previousTenant = TenantContextHolder.getTenantId();
+        try {
+            AgentRecipe recipe = agentRecipeRepository.findById(run.recipeId());
+            if (recipe == null) {
+                queue.fail(run.runId(), workerId, "Recipe not found: " + run.recipeId(), 0, Duration.ZERO);
+                return;
+            }
+            TenantContextHolder.setTenantId(run.tenantId());
+            Message message = run.message() != null ? run.message().toMessage() : null;
+            AgentContext context = agentService.runOrResume(run.runId(), recipe, message, token);
+            Throwable failure = context != null ? context.getFailure() : null;
+            if (token.isCancelled()) {
+                finishCancelled(run);
+            } else if (failure != null) {
+                log.warn("Queued run {} failed on attempt {}: {}", run.runId(), run.attempts(), failure.getMessage());
+                queue.fail(run.runId(), workerId, String.valueOf(failure.getMessage()), maxAttempts, retryDelay);
+            } else if (!queue.complete(run.runId(), workerId)) {
+                log.warn("Queued run {} finished after its lease was lost", run.runId());
+            }
+        } catch (RuntimeException e) {
+            if (token.isCancelled()) {
+                finishCancelled(run);
+            } else {
+                log.warn("Queued run {} failed on attempt {}", run.runId(), run.attempts(), e);
+                queue.fail(run.runId(), workerId, String.valueOf(e.getMessage()), maxAttempts, retryDelay);
+            }
+        } finally {
+            TenantContextHolder.setTenantId(previousTenant);
+            active.remove(run.runId());
+            slots.release();
+        }
+    }
+
+    /**
+     * Queues a cancelled run again when this worker is shutting down; a run whose lease was lost belongs to another
+     * worker already.
+     */
+    private void finishCancelled(QueuedRun run) {
+        if (stopping) {
+            queue.fail(run.runId(), workerId, "Worker " + workerId + " shut down", maxAttempts + 1, Duration.ZERO);
+        }
+    }
+}
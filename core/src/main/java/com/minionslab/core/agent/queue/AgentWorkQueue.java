@@ -0,0 +1,95 @@
+package com.minionslab.core.agent.queue;
+
+import com.minionslab.core.common.message.Message;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * AgentWorkQueue holds agent runs durably until a worker on any node claims and finishes them.
+ * <p>
+ * Workers claim runs under a lease that they renew while the run executes. A run whose lease expires, because its
+ * worker crashed or lost the database, is put back in the queue by {@link #requeueExpired(int)} and claimed again,
+ * up to a maximum number of attempts. A worker that no longer holds a run's lease cannot complete, fail or renew it.
+ * <p>
+ * <b>Extensibility:</b>
+ * <ul>
+ *   <li>{@link PostgresAgentWorkQueue} shares the queue between nodes; {@link InMemoryAgentWorkQueue} keeps it in
+ *   one JVM.</li>
+ *   <li>Implement this interface for other stores.</li>
+ * </ul>
+ * <b>Usage:</b> producers call {@link #enqueue(String, String, Message)}; {@link AgentQueueWorker}s execute the
+ * runs.
+ */
+public interface AgentWorkQueue {
+
+    /**
+     * Adds a run to the queue.
+     *
+     * @param recipeId the recipe to run
+     * @param tenantId the tenant the run belongs to, or null
+     * @param message  the message to start the run with, or null
+     * @return the run id
+     */
+    String enqueue(String recipeId, String tenantId, Message message);
+
+    /**
+     * Claims up to {@code max} queued runs, oldest first, skipping runs whose recipe or tenant is at its limit.
+     *
+     * @param workerId the claiming worker
+     * @param max      the most runs to claim
+     * @param lease    how long the worker holds the runs unless it renews them
+     * @param limits   the caps on running runs across all workers
+     * @return the claimed runs, now running under the worker's lease
+     */
+    List<QueuedRun> claim(String workerId, int max, Duration lease, QueueLimits limits);
+
+    /**
+     * Extends the lease of a running run.
+     *
+     * @param runId    the run
+     * @param workerId the worker holding the run
+     * @param lease    the new lease, counted from now
+     * @return false if the worker no longer holds the run
+     */
+    boolean renew(String runId, String workerId, Duration lease);
+
+    /**
+     * Marks a running run as completed.
+     *
+     * @param runId    the run
+     * @param workerId the worker holding the run
+     * @return false if the worker no longer holds the run
+     */
+    boolean complete(String runId, String workerId);
+
+    /**
+     * Ends an attempt of a running run with an error. The run is queued again after {@code retryDelay} if it was
+     * claimed fewer than {@code maxAttempts} times, and failed otherwise.
+     *
+     * @param runId       the run
+     * @param workerId    the worker holding the run
+     * @param error       the error
+     * @param maxAttempts the attempts allowed, 0 to fail the run right away
+     * @param retryDelay  how long the run waits before it can be claimed again
+     * @return false if the worker no longer holds the run
+     */
+    boolean fail(String runId, String workerId, String error, int maxAttempts, Duration retryDelay);
+
+    /**
+     * Takes back the runs whose lease expired: they are queued again, or failed if they used up their attempts.
+     *
+     * @param maxAttempts the attempts allowed
+     * @return the number of runs taken back
+     */
+    int requeueExpired(int maxAttempts);
+
+    /**
+     * Looks up a run.
+     *
+     * @param runId the run
+     * @return the run, or empty if it is not in the queue
+     */
+    Optional<QueuedRun> find(String runId);
+}
@@ -0,0 +1,138 @@
+package com.minionslab.core.agent.queue;
+
+import com.minionslab.core.agent.checkpoint.AgentCheckpoint;
+import com.minionslab.core.common.message.Message;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * InMemoryAgentWorkQueue keeps queued runs in this JVM, with the same claim, lease and retry semantics as
+ * {@link PostgresAgentWorkQueue}. Runs are lost when the JVM stops.
+ * <p>
+ * <b>Usage:</b> enable with {@code minions.agent.queue.store=memory}, e.g. for tests or single-node deployments.
+ */
+@Component
+@ConditionalOnProperty(name = "minions.agent.queue.store", havingValue = "memory")
+public class InMemoryAgentWorkQueue implements AgentWorkQueue {
+    /**
+     * Runs in enqueue order.
+     */
+    private final Map<String, QueuedRun> runs = new LinkedHashMap<>();
+    /**
+     * When queued runs that failed an attempt can be claimed again.
+     */
+    private final Map<String, Instant> availableAt = new HashMap<>();
+
+    @Override
+    public synchronized String enqueue(String recipeId, String tenantId, Message message) {
+        String runId = UUID.randomUUID().toString();
+        runs.put(runId, new QueuedRun(runId, recipeId, tenantId, message != null ? AgentCheckpoint.CheckpointMessage.of(message) : null,
+                                      QueuedRunStatus.QUEUED, 0, null, null, Instant.now(), null));
+        return runId;
+    }
+
+    @Override
+    public synchronized List<QueuedRun> claim(String workerId, int max, Duration lease, QueueLimits limits) {
+        Map<String, Integer> runningByRecipe = new HashMap<>();
+        Map<String, Integer> runningByTenant = new HashMap<>();
+        for (QueuedRun run : runs.values()) {
+            if (run.status() == QueuedRunStatus.RUNNING) {
+                runningByRecipe.merge(run.recipeId(), 1, Integer::sum);
+                runningByTenant.merge(run.tenantId(), 1, Integer::sum);
+            }
+        }
+        Instant now = Instant.now();
+        List<QueuedRun> claimed = new ArrayList<>();
+        for (QueuedRun run : runs.values()) {
+            if (claimed.size() >= max) {
+                break;
+            }
+            if (run.status() != QueuedRunStatus.QUEUED || now.isBefore(availableAt.getOrDefault(run.runId(), Instant.MIN))) {
+                continue;
+            }
+            if (!limits.allows(runningByRecipe.getOrDefault(run.recipeId(), 0), runningByTenant.getOrDefault(run.tenantId(), 0))) {
+                continue;
+            }
+            runningByRecipe.merge(run.recipeId(), 1, Integer::sum);
+            runningByTenant.merge(run.tenantId(), 1, Integer::sum);
+            claimed.add(new QueuedRun(run.runId(), run.recipeId(), run.tenantId(), run.message(), QueuedRunStatus.RUNNING,
+                                      run.attempts() + 1, workerId, now.plus(lease), run.enqueuedAt(), run.error()));
+        }
+        claimed.forEach(run -> runs.put(run.runId(), run));
+        return claimed;
+    }
+
+    @Override
+    public synchronized boolean renew(String runId, String workerId, Duration lease) {
+        QueuedRun run = heldBy(runId, workerId);
+        if (run == null) {
+            return false;
+        }
+        runs.put(runId, new QueuedRun(runId, run.recipeId(), run.tenantId(), run.message(), run.status(), run.attempts(),
+                                      workerId, Instant.now().plus(lease), run.enqueuedAt(), run.error()));
+        return true;
+    }
+
+    @Override
+    public synchronized boolean complete(String runId, String workerId) {
+        QueuedRun run = heldBy(runId, workerId);
+        if (run == null) {
+            return false;
+        }
+        release(run, QueuedRunStatus.COMPLETED, null, null);
+        return true;
+    }
+
+    @Override
+    public synchronized boolean fail(String runId, String workerId, String error, int maxAttempts, Duration retryDelay) {
+        QueuedRun run = heldBy(runId, workerId);
+        if (run == null) {
+            return false;
+        }
+        release(run, run.attempts() >= maxAttempts ? QueuedRunStatus.FAILED : QueuedRunStatus.QUEUED, error,
+                retryDelay != null ? Instant.now().plus(retryDelay) : null);
+        return true;
+    }
+
+    @Override
+    public synchronized int requeueExpired(int maxAttempts) {
+        Instant now = Instant.now();
+        List<QueuedRun> expired = runs.values().stream()
+                                      .filter(run -> run.status() == QueuedRunStatus.RUNNING && run.leaseExpiresAt().isBefore(now))
+                                      .toList();
+        for (QueuedRun run : expired) {
+            release(run, run.attempts() >= maxAttempts ? QueuedRunStatus.FAILED : QueuedRunStatus.QUEUED, "Lease expired", null);
+        }
+        return expired.size();
+    }
+
+    @Override
+    public synchronized Optional<QueuedRun> find(String runId) {
+        return Optional.ofNullable(runs.get(runId));
+    }
+
+    private QueuedRun heldBy(String runId, String workerId) {
+        QueuedRun run = runs.get(runId);
+        return run != null && run.status() == QueuedRunStatus.RUNNING && workerId.equals(run.leaseOwner()) ? run : null;
+    }
+
+    private void release(QueuedRun run, QueuedRunStatus status, String error, Instant retryAt) {
+        runs.put(run.runId(), new QueuedRun(run.runId(), run.recipeId(), run.tenantId(), run.message(), status, run.attempts(),
+                                            null, null, run.enqueuedAt(), error));
+        if (retryAt != null) {
+            availableAt.put(run.runId(), retryAt);
+        } else {
+            availableAt.remove(run.runId());
+        }
+    }
+}
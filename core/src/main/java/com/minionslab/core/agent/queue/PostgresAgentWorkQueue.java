@@ -0,0 +1,245 @@
+package com.minionslab.core.agent.queue;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.minionslab.core.agent.checkpoint.AgentCheckpoint;
+import com.minionslab.core.common.message.Message;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * PostgresAgentWorkQueue keeps queued runs in the {@code agent_run_queue} table, shared by the workers of every node
+ * using the database.
+ * <p>
+ * Workers claim runs with {@code SELECT ... FOR UPDATE SKIP LOCKED}, so concurrent claimers take different runs
+ * without waiting for each other, and mark them {@code RUNNING} under a lease in the same transaction. When
+ * {@link QueueLimits} are set, claims additionally take a transaction-scoped advisory lock and count the running runs
+ * per recipe and tenant first, so claimers on different nodes cannot exceed the limits together; only the short
+ * claim transactions are serialized, not the runs. Lease times are taken from the database clock, so node clock skew
+ * does not matter. The table is created on startup if it does not exist.
+ * <p>
+ * <b>Usage:</b> enable with {@code minions.agent.queue.store=postgres}.
+ */
+@Repository
+@ConditionalOnProperty(name = "minions.agent.queue.store", havingValue = "postgres")
+public class PostgresAgentWorkQueue implements AgentWorkQueue, InitializingBean {
+    private static final String QUEUE_TABLE = "agent_run_queue";
+    /**
+     * Advisory lock key serializing limited claims: "agentrun" in ASCII.
+     */
+    private static final long CLAIM_LOCK = 0x6167656e7472756eL;
+    /**
+     * Queued runs read per claimed run when limits may skip some of them.
+     */
+    private static final int LIMITED_SCAN_FACTOR = 8;
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public PostgresAgentWorkQueue(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + QUEUE_TABLE + " (" +
+                                     "run_id VARCHAR(255) PRIMARY KEY, " +
+                                     "recipe_id VARCHAR(255) NOT NULL, " +
+                                     "tenant_id VARCHAR(255), " +
+                                     "message JSONB, " +
+                                     "status VARCHAR(16) NOT NULL, " +
+                                     "attempts INTEGER NOT NULL DEFAULT 0, " +
+                                     "lease_owner VARCHAR(255), " +
+                                     "lease_expires_at TIMESTAMPTZ, " +
+                                     "available_at TIMESTAMPTZ NOT NULL DEFAULT now(), " +
+                                     "enqueued_at TIMESTAMPTZ NOT NULL DEFAULT now(), " +
+                                     "updated_at TIMESTAMPTZ NOT NULL DEFAULT now(), " +
+                                     "error TEXT)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + QUEUE_TABLE + "_ready ON " + QUEUE_TABLE + " (enqueued_at) WHERE status = 'QUEUED'");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + QUEUE_TABLE + "_leases ON " + QUEUE_TABLE + " (lease_expires_at) WHERE status = 'RUNNING'");
+    }
+
+    @Override
+    public String enqueue(String recipeId, String tenantId, Message message) {
+        String runId = UUID.randomUUID().toString();
+        try {
+            jdbcTemplate.update("INSERT INTO " + QUEUE_TABLE + " (run_id, recipe_id, tenant_id, message, status) VALUES (?, ?, ?, ?::jsonb, 'QUEUED')",
+                                runId, recipeId, tenantId, message != null ? write(AgentCheckpoint.CheckpointMessage.of(message)) : null);
+        } catch (DataAccessException e) {
+            throw new AgentQueueException("Cannot enqueue run of recipe " + recipeId, e);
+        }
+        return runId;
+    }
+
+    @Override
+    public List<QueuedRun> claim(String workerId, int max, Duration lease, QueueLimits limits) {
+        if (max <= 0) {
+            return List.of();
+        }
+        try {
+            return transactionTemplate.execute(status -> claimLocked(workerId, max, lease, limits));
+        } catch (DataAccessException e) {
+            throw new AgentQueueException("Cannot claim queued runs", e);
+        }
+    }
+
+    private List<QueuedRun> claimLocked(String workerId, int max, Duration lease, QueueLimits limits) {
+        Map<String, Integer> runningByRecipe = Map.of();
+        Map<String, Integer> runningByTenant = Map.of();
+        int scan = max;
+        if (limits.isLimited()) {
+            jdbcTemplate.query("SELECT pg_advisory_xact_lock(?)", rs -> null, CLAIM_LOCK);
+            runningByRecipe = countRunning("recipe_id");
+            runningByTenant = countRunning("tenant_id");
+            scan = max * LIMITED_SCAN_FACTOR;
+        }
+        List<QueuedRun> candidates = jdbcTemplate.query("SELECT * FROM " + QUEUE_TABLE + " WHERE status = 'QUEUED' AND available_at <= now() " +
+                                                                "ORDER BY enqueued_at LIMIT ? FOR UPDATE SKIP LOCKED", this::mapRow, scan);
+        Map<String, Integer> recipes = new HashMap<>(runningByRecipe);
+        Map<String, Integer> tenants = new HashMap<>(runningByTenant);
+        List<Object> args = new ArrayList<>();
+        args.add(workerId);
+        args.add(lease.toMillis());
+        for (QueuedRun candidate : candidates) {
+            if (args.size() - 2 >= max) {
+                break;
+            }
+            if (!limits.allows(recipes.getOrDefault(candidate.recipeId(), 0), tenants.getOrDefault(candidate.tenantId(), 0))) {
+                continue;
+            }
+            recipes.merge(candidate.recipeId(), 1, Integer::sum);
+            tenants.merge(candidate.tenantId(), 1, Integer::sum);
+            args.add(candidate.runId());
+        }
+        if (args.size() == 2) {
+            return List.of();
+        }
+        String ids = String.join(", ", Collections.nCopies(args.size() - 2, "?"));
+        return jdbcTemplate.query("UPDATE " + QUEUE_TABLE + " SET status = 'RUNNING', lease_owner = ?, " +
+                                          "lease_expires_at = now() + ? * interval '1 millisecond', attempts = attempts + 1, updated_at = now() " +
+                                          "WHERE run_id IN (" + ids + ") RETURNING *", this::mapRow, args.toArray());
+    }
+
+    private Map<String, Integer> countRunning(String column) {
+        return jdbcTemplate.query("SELECT " + column + ", count(*) FROM " + QUEUE_TABLE + " WHERE status = 'RUNNING' GROUP BY " + column, rs -> {
+            Map<String, Integer> counts = new HashMap<>();
+            while (rs.next()) {
+                counts.put(rs.getString(1), rs.getInt(2));
+            }
+            return counts;
+        });
+    }
+
+    @Override
+    public boolean renew(String runId, String workerId, Duration lease) {
+        return update("UPDATE " + QUEUE_TABLE + " SET lease_expires_at = now() + ? * interval '1 millisecond', updated_at = now() " +
+                              "WHERE run_id = ? AND lease_owner = ? AND status = 'RUNNING'", lease.toMillis(), runId, workerId);
+    }
+
+    @Override
+    public boolean complete(String runId, String workerId) {
+        return update("UPDATE " + QUEUE_TABLE + " SET status = 'COMPLETED', lease_owner = NULL, lease_expires_at = NULL, error = NULL, " +
+                              "updated_at = now() WHERE run_id = ? AND lease_owner = ? AND status = 'RUNNING'", runId, workerId);
+    }
+
+    @Override
+    public boolean fail(String runId, String workerId, String error, int maxAttempts, Duration retryDelay) {
+        return update("UPDATE " + QUEUE_TABLE + " SET status = CASE WHEN attempts >= ? THEN 'FAILED' ELSE 'QUEUED' END, " +
+                              "lease_owner = NULL, lease_expires_at = NULL, error = ?, " +
+                              "available_at = now() + ? * interval '1 millisecond', updated_at = now() " +
+                              "WHERE run_id = ? AND lease_owner = ? AND status = 'RUNNING'",
+                      maxAttempts, error, retryDelay != null ? retryDelay.toMillis() : 0L, runId, workerId);
+    }
+
+    @Override
+    public int requeueExpired(int maxAttempts) {
+        try {
+            return jdbcTemplate.update("UPDATE " + QUEUE_TABLE + " SET status = CASE WHEN attempts >= ? THEN 'FAILED' ELSE 'QUEUED' END, " +
+                                               "lease_owner = NULL, lease_expires_at = NULL, error = 'Lease expired', " +
+                                               "available_at = now(), updated_at = now() " +
+                                               "WHERE status = 'RUNNING' AND lease_expires_at < now()", maxAttempts);
+        } catch (DataAccessException e) {
+            throw new AgentQueueException("Cannot requeue expired runs", e);
+        }
+    }
+
+    @Override
+    public Optional<QueuedRun> find(String runId) {
+        try {
+            List<QueuedRun> runs = jdbcTemplate.query("SELECT * FROM " + QUEUE_TABLE + " WHERE run_id = ?", this::mapRow, runId);
+            return runs.isEmpty() ? Optional.empty() : Optional.of(runs.get(0));
+        } catch (DataAccessException e) {
+            throw new AgentQueueException("Cannot read queued run " + runId, e);
+        }
+    }
+
+    private boolean update(String sql, Object... args) {
+        try {
+            return jdbcTemplate.update(sql, args) > 0;
+        } catch (DataAccessException e) {
+            throw new AgentQueueException("Cannot update queued run", e);
+        }
+    }
+
+    private QueuedRun mapRow(ResultSet rs, int rowNum) throws SQLException {
+        String message = rs.getString("message");
+        return new QueuedRun(rs.getString("run_id"),
+                             rs.getString("recipe_id"),
+                             rs.getString("tenant_id"),
+                             message != null ? read(message) : null,
+                             QueuedRunStatus.valueOf(rs.getString("status")),
+                             rs.getInt("attempts"),
+                             rs.getString("lease_owner"),
+                             instant(rs.getTimestamp("lease_expires_at")),
+                             instant(rs.getTimestamp("enqueued_at")),
+                             rs.getString("error"));
+    }
+
+    private static Instant instant(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toInstant() : null;
+    }
+
+    private static String write(AgentCheckpoint.CheckpointMessage message) {
+        try {
+            return MAPPER.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new AgentQueueException("Cannot serialize message " + message.id(), e);
+        }
+    }
+
+    private static AgentCheckpoint.CheckpointMessage read(String json) {
+        try {
+            return MAPPER.readValue(json, AgentCheckpoint.CheckpointMessage.class);
+        } catch (JsonProcessingException e) {
+            throw new AgentQueueException("Cannot deserialize queued message", e);
+        }
+    }
+}
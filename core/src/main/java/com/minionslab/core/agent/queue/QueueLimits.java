@@ -0,0 +1,32 @@
+package com.minionslab.core.agent.queue;
+
+/**
+ * Caps on the runs executing at once across all workers.
+ *
+ * @param perRecipe the running runs allowed per recipe, 0 for no cap
+ * @param perTenant the running runs allowed per tenant, 0 for no cap
+ */
+public record QueueLimits(int perRecipe, int perTenant) {
+    public static final QueueLimits NONE = new QueueLimits(0, 0);
+
+    public QueueLimits {
+        if (perRecipe < 0 || perTenant < 0) {
+            throw new IllegalArgumentException("Queue limits must not be negative: " + perRecipe + ", " + perTenant);
+        }
+    }
+
+    public boolean isLimited() {
+        return perRecipe > 0 || perTenant > 0;
+    }
+
+    /**
+     * Returns whether one more run may start given the runs already running for its recipe and tenant.
+     *
+     * @param runningForRecipe the running runs of the recipe
+     * @param runningForTenant the running runs of the tenant
+     * @return true if the run may start
+     */
+    public boolean allows(int runningForRecipe, int runningForTenant) {
+        return (perRecipe == 0 || runningForRecipe < perRecipe) && (perTenant == 0 || runningForTenant < perTenant);
+    }
+}
@@ -0,0 +1,31 @@
+package com.minionslab.core.agent.queue;
+
+import com.minionslab.core.agent.checkpoint.AgentCheckpoint;
+
+import java.time.Instant;
+
+/**
+ * An agent run in the {@link AgentWorkQueue}.
+ *
+ * @param runId          the run id, also the id of the run's agent context and checkpoints
+ * @param recipeId       the recipe to run
+ * @param tenantId       the tenant the run belongs to, or null
+ * @param message        the message the run starts with, or null
+ * @param status         the queue status
+ * @param attempts       how often the run was claimed
+ * @param leaseOwner     the worker holding the run, or null if it is not running
+ * @param leaseExpiresAt when the worker's lease ends unless renewed, or null if it is not running
+ * @param enqueuedAt     when the run was enqueued
+ * @param error          the error of the last failed attempt, or null
+ */
+public record QueuedRun(String runId,
+                        String recipeId,
+                        String tenantId,
+                        AgentCheckpoint.CheckpointMessage message,
+                        QueuedRunStatus status,
+                        int attempts,
+                        String leaseOwner,
+                        Instant leaseExpiresAt,
+                        Instant enqueuedAt,
+                        String error) {
+}
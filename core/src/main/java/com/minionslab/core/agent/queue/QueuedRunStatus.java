@@ -0,0 +1,23 @@
+package com.minionslab.core.agent.queue;
+
+/**
+ * Lifecycle of a {@link QueuedRun}.
+ */
+public enum QueuedRunStatus {
+    /**
+     * Waiting to be claimed by a worker.
+     */
+    QUEUED,
+    /**
+     * Claimed by a worker that holds its lease.
+     */
+    RUNNING,
+    /**
+     * Ended successfully.
+     */
+    COMPLETED,
+    /**
+     * Ended with an error after its last attempt.
+     */
+    FAILED
+}
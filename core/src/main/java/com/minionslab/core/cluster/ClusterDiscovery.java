@@ -0,0 +1,39 @@
+package com.minionslab.core.cluster;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * ClusterDiscovery tells a node who the members of its cluster are.
+ * <p>
+ * <b>Extensibility:</b>
+ * <ul>
+ *   <li>Implement this interface as a bean to discover members from a registry (Kubernetes endpoints, Consul,
+ *   a database table, ...). {@link StaticClusterDiscovery} is the configured-list implementation.</li>
+ *   <li>Implementations call the registered listeners whenever the member list changes, so conversations can be
+ *   handed to their new owners.</li>
+ * </ul>
+ */
+public interface ClusterDiscovery {
+
+    /**
+     * Returns this node.
+     *
+     * @return the local node
+     */
+    ClusterNode getLocalNode();
+
+    /**
+     * Returns the current members, including this node while it is part of the cluster.
+     *
+     * @return the members
+     */
+    List<ClusterNode> getMembers();
+
+    /**
+     * Registers a listener called with the new member list on every membership change.
+     *
+     * @param listener the listener
+     */
+    void addMembershipListener(Consumer<List<ClusterNode>> listener);
+}
@@ -0,0 +1,39 @@
+package com.minionslab.core.cluster;
+
+import java.util.Objects;
+
+/**
+ * A member of the cluster.
+ *
+ * @param id      the node id, unique within the cluster
+ * @param address where the node serves requests (e.g. {@code http://10.0.0.7:8080}), or null if unknown
+ */
+public record ClusterNode(String id, String address) {
+
+    public ClusterNode {
+        Objects.requireNonNull(id, "id");
+    }
+
+    /**
+     * Parses a node from {@code id=address} or a bare {@code id}.
+     *
+     * @param spec the node spec
+     * @return the node
+     * @throws IllegalArgumentException if the spec has no id
+     */
+    public static ClusterNode parse(String spec) {
+        String trimmed = spec != null ? spec.trim() : "";
+        int separator = trimmed.indexOf('=');
+        String id = separator >= 0 ? trimmed.substring(0, separator).trim() : trimmed;
+        String address = separator >= 0 ? trimmed.substring(separator + 1).trim() : null;
+        if (id.isEmpty()) {
+            throw new IllegalArgumentException("Cluster node without id: '" + spec + "'");
+        }
+        return new ClusterNode(id, address == null || address.isEmpty() ? null : address);
+    }
+
+    @Override
+    public String toString() {
+        return address != null ? id + "=" + address : id;
+    }
+}
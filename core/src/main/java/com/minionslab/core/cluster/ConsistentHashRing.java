@@ -0,0 +1,119 @@
+package com.minionslab.core.cluster;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ConsistentHashRing assigns keys to cluster nodes by consistent hashing.
+ * <p>
+ * Every node is placed on a 64-bit ring at {@code virtualNodes} points; a key belongs to the node at the first point
+ * at or after the key's hash. Adding or removing a node therefore only moves the keys between that node and its
+ * neighbours, about {@code 1/n} of all keys, and spreads them evenly over the other nodes. Rings are immutable;
+ * membership changes build a new ring.
+ */
+public final class ConsistentHashRing {
+    public static final int DEFAULT_VIRTUAL_NODES = 128;
+
+    private static final ConsistentHashRing EMPTY = new ConsistentHashRing(List.of(), new long[0], new ClusterNode[0]);
+
+    private final List<ClusterNode> nodes;
+    private final long[] points;
+    private final ClusterNode[] owners;
+
+    private ConsistentHashRing(List<ClusterNode> nodes, long[] points, ClusterNode[] owners) {
+        this.nodes = nodes;
+        this.points = points;
+        this.owners = owners;
+    }
+
+    /**
+     * Builds a ring over the given nodes.
+     *
+     * @param members      the nodes; repeated ids count once
+     * @param virtualNodes the points per node, at least 1
+     * @return the ring
+     */
+    public static ConsistentHashRing of(Collection<ClusterNode> members, int virtualNodes) {
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("virtualNodes must be at least 1: " + virtualNodes);
+        }
+        Map<String, ClusterNode> byId = new LinkedHashMap<>();
+        if (members != null) {
+            members.forEach(member -> byId.putIfAbsent(member.id(), member));
+        }
+        if (byId.isEmpty()) {
+            return EMPTY;
+        }
+        List<Point> ring = new ArrayList<>(byId.size() * virtualNodes);
+        for (ClusterNode node : byId.values()) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.add(new Point(hash(node.id() + "#" + i), node));
+            }
+        }
+        // ties are broken by node id so every node builds the same ring from the same members
+        ring.sort(Comparator.comparingLong(Point::hash).thenComparing(p -> p.node().id()));
+        long[] points = new long[ring.size()];
+        ClusterNode[] owners = new ClusterNode[ring.size()];
+        for (int i = 0; i < ring.size(); i++) {
+            points[i] = ring.get(i).hash();
+            owners[i] = ring.get(i).node();
+        }
+        return new ConsistentHashRing(List.copyOf(byId.values()), points, owners);
+    }
+
+    /**
+     * Returns the node owning a key.
+     *
+     * @param key the key, e.g. a conversation id
+     * @return the owner, or null if the ring is empty
+     */
+    public ClusterNode ownerOf(String key) {
+        if (points.length == 0) {
+            return null;
+        }
+        long hash = hash(key);
+        int low = 0;
+        int high = points.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (points[mid] < hash) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return owners[low == points.length ? 0 : low];
+    }
+
+    public List<ClusterNode> getNodes() {
+        return nodes;
+    }
+
+    public boolean isEmpty() {
+        return points.length == 0;
+    }
+
+    /**
+     * 64-bit FNV-1a over the key's characters, finished with the MurmurHash3 mixer for an even spread.
+     */
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private record Point(long hash, ClusterNode node) {
+    }
+}
@@ -0,0 +1,269 @@
+package com.minionslab.core.cluster;
+
+import com.minionslab.core.agent.checkpoint.AgentCheckpoint;
+import com.minionslab.core.common.logging.LoggingTopics;
+import com.minionslab.core.common.message.Message;
+import com.minionslab.core.memory.MemoryManager;
+import com.minionslab.core.memory.MemorySubsystem;
+import com.minionslab.core.memory.query.MemoryQuery;
+import com.minionslab.core.memory.query.expression.Expr;
+import com.minionslab.core.memory.session.MemorySession;
+import com.minionslab.core.memory.session.MemorySessionKey;
+import com.minionslab.core.memory.session.MemorySessionLease;
+import com.minionslab.core.memory.session.MemorySessionManager;
+import com.minionslab.core.memory.session.MemorySessionState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ConversationRouter assigns every conversation to one owner node of the cluster, so a conversation's memory only
+ * needs to live on one JVM while capacity grows with the number of nodes.
+ * <p>
+ * Owners are chosen by a {@link ConsistentHashRing} over the members reported by the {@link ClusterDiscovery}. Runs
+ * of a conversation this node does not own are refused with a {@link NotConversationOwnerException} naming the owner,
+ * for the caller to forward the request. When membership changes, the conversations this node holds but no longer
+ * owns are sent to their new owners through the {@link ConversationTransport} and evicted locally. Conversations
+ * with runs in flight finish those runs on this node and are handed off once their last run ends, see
+ * {@link #handOff(MemorySessionKey)}.
+ * <p>
+ * Without a {@link ClusterDiscovery} bean the router is standalone and every conversation is local.
+ * <p>
+ * Properties:
+ * <ul>
+ *   <li>{@code minions.cluster.discovery} - {@code static} for {@link StaticClusterDiscovery}</li>
+ *   <li>{@code minions.cluster.virtual-nodes} - points per node on the hash ring (default 128)</li>
+ * </ul>
+ * <p>
+ * <b>Usage:</b> to run several nodes in one JVM, give each node its own {@link MemorySessionManager} and
+ * {@link StaticClusterDiscovery}, and connect their routers with an {@link InMemoryConversationTransport}.
+ */
+@Slf4j(topic = LoggingTopics.AGENT)
+@Component
+public class ConversationRouter {
+    private final ClusterDiscovery discovery;
+    private final ConversationTransport transport;
+    private final MemorySessionManager memorySessionManager;
+    private final int virtualNodes;
+    private volatile ConsistentHashRing ring;
+
+    @Autowired
+    public ConversationRouter(ObjectProvider<ClusterDiscovery> discovery, ObjectProvider<ConversationTransport> transport,
+                              MemorySessionManager memorySessionManager,
+                              @Value("${minions.cluster.virtual-nodes:128}") int virtualNodes) {
+        this(discovery.getIfAvailable(), transport.getIfAvailable(), memorySessionManager, virtualNodes);
+    }
+
+    /**
+     * Creates a router.
+     *
+     * @param discovery            the discovery of the cluster members, or null for a standalone node
+     * @param transport            the transport handing conversations to other nodes, or null to keep them
+     * @param memorySessionManager the pool of this node's conversation memories
+     * @param virtualNodes         the points per node on the hash ring
+     */
+    public ConversationRouter(ClusterDiscovery discovery, ConversationTransport transport,
+                              MemorySessionManager memorySessionManager, int virtualNodes) {
+        this.discovery = discovery;
+        this.transport = transport;
+        this.memorySessionManager = memorySessionManager;
+        this.virtualNodes = virtualNodes;
+        this.ring = ConsistentHashRing.of(discovery != null ? discovery.getMembers() : List.of(), virtualNodes);
+        if (discovery != null) {
+            discovery.addMembershipListener(this::membershipChanged);
+            log.info("Cluster node {} joined with members {}", discovery.getLocalNode(), ring.getNodes());
+        }
+    }
+
+    /**
+     * Returns a router for a node outside any cluster, owning every conversation.
+     *
+     * @return a standalone router
+     */
+    public static ConversationRouter standalone() {
+        return new ConversationRouter(null, null, null, 1);
+    }
+
+    public boolean isClustered() {
+        return discovery != null;
+    }
+
+    /**
+     * Returns this node.
+     *
+     * @return the local node, or null if the router is standalone
+     */
+    public ClusterNode getLocalNode() {
+        return discovery != null ? discovery.getLocalNode() : null;
+    }
+
+    public ConsistentHashRing getRing() {
+        return ring;
+    }
+
+    /**
+     * Returns the node owning a conversation.
+     *
+     * @param conversationId the conversation
+     * @return the owner, or null if the router is standalone or the cluster has no members
+     */
+    public ClusterNode ownerOf(String conversationId) {
+        return discovery != null ? ring.ownerOf(conversationId) : null;
+    }
+
+    /**
+     * Returns whether this node owns a conversation.
+     *
+     * @param conversationId the conversation
+     * @return true if the conversation is local
+     */
+    public boolean isLocal(String conversationId) {
+        return discovery == null || isLocalNode(ring.ownerOf(conversationId));
+    }
+
+    /**
+     * Checks that this node owns a conversation.
+     *
+     * @param conversationId the conversation
+     * @throws NotConversationOwnerException if another node owns it
+     */
+    public void checkOwner(String conversationId) {
+        if (!isLocal(conversationId)) {
+            throw new NotConversationOwnerException(conversationId, ownerOf(conversationId));
+        }
+    }
+
+    /**
+     * Sends the idle conversations this node holds but no longer owns to their owners and evicts them locally.
+     * Conversations that runs still hold, or that cannot be delivered, stay on this node.
+     *
+     * @return the number of conversations handed off
+     */
+    public synchronized int handOff() {
+        if (discovery == null || memorySessionManager == null) {
+            return 0;
+        }
+        int handedOff = 0;
+        int deferred = 0;
+        for (MemorySessionKey key : memorySessionManager.getSessionKeys()) {
+            ClusterNode owner = ring.ownerOf(key.conversationId());
+            if (owner == null || isLocalNode(owner)) {
+                continue;
+            }
+            if (transport == null) {
+                log.warn("No conversation transport configured, conversations moved to other nodes start over there");
+                return handedOff;
+            }
+            if (!isIdle(key)) {
+                deferred++;
+            } else if (transfer(key, owner)) {
+                handedOff++;
+            }
+        }
+        if (handedOff > 0) {
+            log.info("Handed {} conversations to their new owners", handedOff);
+        }
+        if (deferred > 0) {
+            log.info("Deferred the hand-off of {} conversations until their runs end", deferred);
+        }
+        return handedOff;
+    }
+
+    /**
+     * Hands a conversation to its owner if this node no longer owns it and no run holds its session. Called when a
+     * run of the conversation ends, to send a conversation whose hand-off was deferred while it ran.
+     *
+     * @param key the conversation's session key
+     * @return true if the conversation was handed off
+     */
+    public boolean handOff(MemorySessionKey key) {
+        if (discovery == null || memorySessionManager == null || transport == null || isLocal(key.conversationId())) {
+            return false;
+        }
+        synchronized (this) {
+            ClusterNode owner = ring.ownerOf(key.conversationId());
+            if (owner == null || isLocalNode(owner) || !isIdle(key)) {
+                return false;
+            }
+            if (transfer(key, owner)) {
+                log.info("Handed conversation {} to its new owner {}", key, owner);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Takes over a conversation handed off by another node, storing its messages into this node's memories.
+     *
+     * @param state the conversation's state
+     */
+    public void receive(ConversationState state) {
+        Map<MemorySubsystem, List<Message>> bySubsystem = new LinkedHashMap<>();
+        for (AgentCheckpoint.MemoryEntry entry : state.memory()) {
+            bySubsystem.computeIfAbsent(entry.subsystem(), s -> new ArrayList<>()).add(entry.message().toMessage());
+        }
+        try (MemorySessionLease lease = memorySessionManager.open(new MemorySessionKey(state.tenantId(), state.conversationId()))) {
+            MemoryManager memoryManager = lease.getMemoryManager(new ArrayList<>(bySubsystem.keySet()));
+            bySubsystem.forEach((subsystem, messages) -> memoryManager.storeAll(messages, subsystem));
+        }
+    }
+
+    /**
+     * Collects the messages of a conversation from the memories its session built.
+     */
+    ConversationState export(MemorySessionKey key) {
+        List<AgentCheckpoint.MemoryEntry> memory = new ArrayList<>();
+        try (MemorySessionLease lease = memorySessionManager.open(key)) {
+            MemorySession session = lease.getSession();
+            for (MemorySubsystem subsystem : session.getResidentSubsystems()) {
+                MemoryQuery query = MemoryQuery.builder()
+                                               .subsystems(subsystem)
+                                               .limit(Integer.MAX_VALUE)
+                                               .expression(Expr.eq("conversationId", key.conversationId()))
+                                               .build();
+                session.getMemoryManager(List.of(subsystem)).query(query).stream()
+                       .sorted(Comparator.comparing(Message::getTimestamp, Comparator.nullsFirst(Comparator.<Instant>naturalOrder())))
+                       .forEach(message -> memory.add(new AgentCheckpoint.MemoryEntry(subsystem, AgentCheckpoint.CheckpointMessage.of(message))));
+            }
+        }
+        return new ConversationState(key.tenantId(), key.conversationId(), memory);
+    }
+
+    /**
+     * Sends a conversation to its owner and evicts it, unless a run opened it meanwhile; such a conversation is
+     * sent again when that run ends.
+     */
+    private boolean transfer(MemorySessionKey key, ClusterNode owner) {
+        try {
+            transport.transfer(owner, export(key));
+        } catch (RuntimeException e) {
+            log.warn("Failed to hand conversation {} to node {}", key, owner, e);
+            return false;
+        }
+        return memorySessionManager.evictIfIdle(key);
+    }
+
+    private boolean isIdle(MemorySessionKey key) {
+        MemorySession session = memorySessionManager.get(key);
+        return session != null && session.getState() == MemorySessionState.IDLE;
+    }
+
+    private synchronized void membershipChanged(List<ClusterNode> members) {
+        ring = ConsistentHashRing.of(members, virtualNodes);
+        handOff();
+    }
+
+    private boolean isLocalNode(ClusterNode node) {
+        return node != null && node.id().equals(discovery.getLocalNode().id());
+    }
+}
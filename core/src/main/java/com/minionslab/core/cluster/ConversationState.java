@@ -0,0 +1,19 @@
+package com.minionslab.core.cluster;
+
+import com.minionslab.core.agent.checkpoint.AgentCheckpoint;
+
+import java.util.List;
+
+/**
+ * The memory of a conversation as it is handed from one node to another, in a form that serializes to JSON.
+ *
+ * @param tenantId       the tenant of the conversation, or null
+ * @param conversationId the conversation
+ * @param memory         the messages the conversation's memories hold, per subsystem, in storage order
+ */
+public record ConversationState(String tenantId, String conversationId, List<AgentCheckpoint.MemoryEntry> memory) {
+
+    public ConversationState {
+        memory = memory != null ? List.copyOf(memory) : List.of();
+    }
+}
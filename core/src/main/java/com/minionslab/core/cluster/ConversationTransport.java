@@ -0,0 +1,23 @@
+package com.minionslab.core.cluster;
+
+/**
+ * ConversationTransport delivers the state of a conversation to its new owner when cluster membership changes.
+ * <p>
+ * <b>Extensibility:</b>
+ * <ul>
+ *   <li>Implement this interface as a bean to send state over the network, e.g. as JSON to an endpoint of the target
+ *   node that passes it to {@link ConversationRouter#receive(ConversationState)}.</li>
+ *   <li>{@link InMemoryConversationTransport} connects nodes running in one JVM.</li>
+ * </ul>
+ */
+public interface ConversationTransport {
+
+    /**
+     * Delivers a conversation's state to a node. Returns once the target holds the state.
+     *
+     * @param target the new owner
+     * @param state  the state
+     * @throws RuntimeException if the state could not be delivered; the sender keeps the conversation
+     */
+    void transfer(ClusterNode target, ConversationState state);
+}
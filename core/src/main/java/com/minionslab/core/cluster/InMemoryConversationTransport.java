@@ -0,0 +1,30 @@
+package com.minionslab.core.cluster;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * InMemoryConversationTransport hands conversations between {@link ConversationRouter}s running in the same JVM, e.g.
+ * to run several nodes in one process for tests or local development.
+ */
+public class InMemoryConversationTransport implements ConversationTransport {
+    private final Map<String, ConversationRouter> routers = new ConcurrentHashMap<>();
+
+    /**
+     * Makes a router reachable under its local node id.
+     *
+     * @param router the router of a node
+     */
+    public void register(ConversationRouter router) {
+        routers.put(router.getLocalNode().id(), router);
+    }
+
+    @Override
+    public void transfer(ClusterNode target, ConversationState state) {
+        ConversationRouter router = routers.get(target.id());
+        if (router == null) {
+            throw new IllegalStateException("No node registered for " + target);
+        }
+        router.receive(state);
+    }
+}
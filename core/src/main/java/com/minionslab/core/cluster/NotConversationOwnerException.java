@@ -0,0 +1,29 @@
+package com.minionslab.core.cluster;
+
+/**
+ * Thrown when a run of a conversation reaches a node that does not own the conversation. Callers forward the
+ * request to {@link #getOwner()}.
+ */
+public class NotConversationOwnerException extends RuntimeException {
+    private final String conversationId;
+    private final ClusterNode owner;
+
+    public NotConversationOwnerException(String conversationId, ClusterNode owner) {
+        super("Conversation " + conversationId + " is owned by node " + owner);
+        this.conversationId = conversationId;
+        this.owner = owner;
+    }
+
+    public String getConversationId() {
+        return conversationId;
+    }
+
+    /**
+     * Returns the node owning the conversation.
+     *
+     * @return the owner, or null if the cluster has no members
+     */
+    public ClusterNode getOwner() {
+        return owner;
+    }
+}
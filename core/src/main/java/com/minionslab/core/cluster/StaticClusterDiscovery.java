@@ -0,0 +1,107 @@
+package com.minionslab.core.cluster;
+
+import com.minionslab.core.common.logging.LoggingTopics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * StaticClusterDiscovery reads the cluster members from configuration.
+ * <p>
+ * Properties:
+ * <ul>
+ *   <li>{@code minions.cluster.discovery=static} enables it.</li>
+ *   <li>{@code minions.cluster.node-id} - the id of this node.</li>
+ *   <li>{@code minions.cluster.members} - comma-separated {@code id=address} entries, e.g.
+ *   {@code a=http://localhost:8081,b=http://localhost:8082}.</li>
+ * </ul>
+ * Membership changes are applied with {@link #setMembers(List)}, e.g. from an admin endpoint or a configuration
+ * refresh, and reach the registered listeners synchronously.
+ */
+@Slf4j(topic = LoggingTopics.AGENT)
+@Component
+@ConditionalOnProperty(name = "minions.cluster.discovery", havingValue = "static")
+public class StaticClusterDiscovery implements ClusterDiscovery {
+    private final String localNodeId;
+    private final List<Consumer<List<ClusterNode>>> listeners = new CopyOnWriteArrayList<>();
+    private volatile List<ClusterNode> members;
+
+    @Autowired
+    public StaticClusterDiscovery(@Value("${minions.cluster.node-id}") String localNodeId,
+                                  @Value("${minions.cluster.members:}") String[] members) {
+        this(localNodeId, Arrays.stream(members).filter(m -> m != null && !m.isBlank()).map(ClusterNode::parse).toList());
+    }
+
+    /**
+     * Creates a discovery with the given members.
+     *
+     * @param localNodeId the id of this node
+     * @param members     the members
+     */
+    public StaticClusterDiscovery(String localNodeId, List<ClusterNode> members) {
+        if (localNodeId == null || localNodeId.isBlank()) {
+            throw new IllegalArgumentException("minions.cluster.node-id is required");
+        }
+        this.localNodeId = localNodeId;
+        this.members = distinct(members);
+    }
+
+    @Override
+    public ClusterNode getLocalNode() {
+        for (ClusterNode member : members) {
+            if (member.id().equals(localNodeId)) {
+                return member;
+            }
+        }
+        return new ClusterNode(localNodeId, null);
+    }
+
+    @Override
+    public List<ClusterNode> getMembers() {
+        return members;
+    }
+
+    @Override
+    public void addMembershipListener(Consumer<List<ClusterNode>> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Replaces the members and notifies the listeners if they changed.
+     *
+     * @param members the new members
+     */
+    public void setMembers(List<ClusterNode> members) {
+        List<ClusterNode> next = distinct(members);
+        synchronized (this) {
+            if (next.equals(this.members)) {
+                return;
+            }
+            this.members = next;
+        }
+        log.info("Cluster members changed: {}", next);
+        for (Consumer<List<ClusterNode>> listener : listeners) {
+            listener.accept(next);
+        }
+    }
+
+    /**
+     * Drops repeated node ids, keeping the first entry of each.
+     */
+    private static List<ClusterNode> distinct(List<ClusterNode> members) {
+        Map<String, ClusterNode> byId = new LinkedHashMap<>();
+        if (members != null) {
+            members.forEach(member -> byId.putIfAbsent(member.id(), member));
+        }
+        return List.copyOf(byId.values());
+    }
+}
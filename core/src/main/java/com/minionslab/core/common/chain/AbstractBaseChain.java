@@ -1,10 +1,23 @@
 package com.minionslab.core.common.chain;
 
+import com.minionslab.core.common.context.ExecutionContext;
 import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.ResolvableType;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 /**
  * AbstractBaseChain provides a flexible, extensible implementation of the Chain of Responsibility pattern
@@ -17,19 +30,53 @@ import java.util.List;
  * <p>
  * This class is designed for extension: you can create custom chains by subclassing and registering your own
  * processors and customizers, or by overriding the process flow.
+ * <p>
+ * The processors of the chain are held as an immutable {@link ChainExecutionPlan} published through an atomic
+ * reference: processors are frozen into an array and pre-bucketed by the {@link ProcessContext} type they accept,
+ * and dispatch is a plain array loop over the processors applicable to the context's runtime class. Every change to
+ * the chain builds a new plan from the current one and publishes it with a compare-and-set, so the chain can be
+ * reconfigured while it is processing: a run never locks, always sees one consistent snapshot from start to end,
+ * and picks up the new processors on its next call. Before first use, processors are registered if none were
+ * added yet.
+ * <p>
+ * {@link #processAsync(ProcessContext)} runs the same plan without blocking: each processor's
+ * {@link Processor#processAsync(ProcessContext)} stage is composed with its before/after/error hooks, and the chain
+ * resumes on its {@link #getExecutor() executor} (virtual threads by default) once an asynchronous stage completes.
+ * <p>
+ * Both paths honour the context's {@link ProcessContext#getCancellationToken() cancellation token}: it is checked
+ * before each processor and after the last one, and once it is cancelled the chain records a single failed
+ * {@link ProcessResult} carrying a {@link ChainCancelledException} and returns. A pending asynchronous stage is
+ * abandoned as soon as the token fires, so the chain does not wait for I/O that has outlived its deadline.
  *
  * @param <T> the type of Processor in the chain
  * @param <R> the type of ProcessContext processed by the chain
  */
 public abstract class AbstractBaseChain<T extends Processor, R extends ProcessContext> implements Chain<T, R> {
     /**
-     * The list of processors in the chain, in execution order.
+     * Read-only view of the processors in the chain, in execution order. Each iteration walks the snapshot published
+     * when the iterator was created; use the add and remove methods to change the chain.
      */
-    protected final List<T> processors = new ArrayList<>();
+    protected final List<T> processors = new SnapshotView();
     /**
      * The list of customizers to apply to processors before adding them to the chain.
      */
     protected final List<ProcessorCustomizer> customizers = new ArrayList<>();
+    /**
+     * The current processor snapshot; replaced, never mutated.
+     */
+    private final AtomicReference<ChainExecutionPlan<T>> executionPlan = new AtomicReference<>(new ChainExecutionPlan<>(List.of()));
+    /**
+     * Whether the initial processors have been registered, either by the container or on first use.
+     */
+    private volatile boolean registered;
+    /**
+     * The executor asynchronous execution runs and resumes on.
+     */
+    private volatile Executor executor = ChainExecutors.defaultExecutor();
+    /**
+     * Receives per-processor and per-chain timing and outcome callbacks.
+     */
+    private volatile ChainInstrumentation instrumentation = ChainInstrumentation.NOOP;
     
     /**
      * Constructs a new AbstractBaseChain with optional providers for processors and customizers.
@@ -53,8 +100,7 @@ public abstract class AbstractBaseChain<T extends Processor, R extends ProcessCo
     @Override
     public Chain addToStart(T processor) {
         doCustomize(processor);
-        this.processors.add(0, processor);
-        return this;
+        return update(list -> list.add(0, processor));
     }
     
     /**
@@ -78,8 +124,44 @@ public abstract class AbstractBaseChain<T extends Processor, R extends ProcessCo
     @Override
     public Chain addToEnd(T processor) {
         doCustomize(processor);
-        this.processors.add(processor);
-        return this;
+        return update(list -> list.add(processor));
+    }
+    
+    /**
+     * Adds a {@link ParallelProcessorGroup} of the given processors to the end of the chain, applying all customizers
+     * to each member first. The members run concurrently on this chain's executor and the chain continues once the
+     * group completes, or fails according to the failure policy. The group is created by
+     * {@link #newParallelGroup(List, ParallelProcessorGroup.FailurePolicy)}.
+     *
+     * @param failurePolicy how the group reacts to a failing member
+     * @param members       the processors to run concurrently
+     * @return this chain instance for fluent API
+     * @throws UnsupportedOperationException if the chain cannot hold a parallel group as one of its processors
+     */
+    public Chain addParallelToEnd(ParallelProcessorGroup.FailurePolicy failurePolicy, List<? extends T> members) {
+        members.forEach(this::doCustomize);
+        T group = newParallelGroup(List.copyOf(members), failurePolicy);
+        return update(list -> list.add(group));
+    }
+    
+    /**
+     * Creates the processor running a parallel group of this chain's processors. The default returns a plain
+     * {@link ParallelProcessorGroup}, which only chains of {@link Processor}s can hold; chains of a narrower processor
+     * type override it to return a group of that type, as {@code DefaultStepProcessorChain} does.
+     *
+     * @param members       the processors to run concurrently
+     * @param failurePolicy how the group reacts to a failing member
+     * @return the group, as a processor of this chain
+     * @throws UnsupportedOperationException if the chain's processor type is narrower than {@link Processor}
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    protected T newParallelGroup(List<T> members, ParallelProcessorGroup.FailurePolicy failurePolicy) {
+        Class<?> processorType = ResolvableType.forClass(getClass()).as(AbstractBaseChain.class).resolveGeneric(0);
+        if (processorType != null && !processorType.isAssignableFrom(ParallelProcessorGroup.class)) {
+            throw new UnsupportedOperationException(getClass().getSimpleName() + " cannot hold a parallel group as a "
+                                                            + processorType.getSimpleName());
+        }
+        return (T) new ParallelProcessorGroup<R>((List) members, failurePolicy, this::getExecutor);
     }
     
     /**
@@ -93,13 +175,14 @@ public abstract class AbstractBaseChain<T extends Processor, R extends ProcessCo
     @Override
     public Chain addBefore(T target, T processor) {
         doCustomize(processor);
-        int idx = processors.indexOf(target);
-        if (idx >= 0) {
-            processors.add(idx, processor);
-        } else {
-            processors.add(0, processor);
-        }
-        return this;
+        return update(list -> {
+            int idx = list.indexOf(target);
+            if (idx >= 0) {
+                list.add(idx, processor);
+            } else {
+                list.add(0, processor);
+            }
+        });
     }
     
     /**
@@ -113,13 +196,14 @@ public abstract class AbstractBaseChain<T extends Processor, R extends ProcessCo
     @Override
     public Chain addAfter(T target, T processor) {
         doCustomize(processor);
-        int idx = processors.indexOf(target);
-        if (idx >= 0 && idx < processors.size() - 1) {
-            processors.add(idx + 1, processor);
-        } else {
-            processors.add(processor);
-        }
-        return this;
+        return update(list -> {
+            int idx = list.indexOf(target);
+            if (idx >= 0 && idx < list.size() - 1) {
+                list.add(idx + 1, processor);
+            } else {
+                list.add(processor);
+            }
+        });
     }
     
     /**
@@ -130,8 +214,7 @@ public abstract class AbstractBaseChain<T extends Processor, R extends ProcessCo
      */
     @Override
     public Chain remove(T processor) {
-        processors.remove(processor);
-        return this;
+        return update(list -> list.remove(processor));
     }
     
     /**
@@ -147,26 +230,300 @@ public abstract class AbstractBaseChain<T extends Processor, R extends ProcessCo
     /**
      * Processes the input through the chain, invoking each processor that accepts the input.
      * Hooks for before/after/error are called on each processor. Subclasses can override for custom flow.
+     * <p>
+     * Only the processors the current plan holds for the input's runtime class are visited. Changes made to the
+     * chain while the input is processed apply from the next call.
      *
      * @param input the context to process
      * @return the processed context
      */
     @Override
     public R process(R input) {
-        if (processors == null || processors.isEmpty())
-            registerProcessors();
-        for (T processor : processors) {
-            if (!processor.accepts(input))
+        ChainInstrumentation instrumentation = this.instrumentation;
+        boolean instrumented = instrumentation != ChainInstrumentation.NOOP;
+        long chainStart = instrumented ? System.nanoTime() : 0L;
+        CancellationToken token = tokenOf(input);
+        try {
+            Processor[] plan = getExecutionPlan().processorsFor(input);
+            for (int i = 0; i <= plan.length; i++) {
+                if (stopIfCancelled(input, token) || i == plan.length)
+                    break;
+                T processor = (T) plan[i];
+                if (!processor.accepts(input)) {
+                    if (instrumented)
+                        instrumentation.onProcessorSkipped(this, processor, input);
+                    continue;
+                }
+                long start = instrumented ? System.nanoTime() : 0L;
+                Exception failure = null;
+                try {
+                    processor.beforeProcess(input);
+                    processor.process(input);
+                    processor.afterProcess(input);
+                } catch (Exception e) {
+                    failure = e;
+                    processor.onError(input, e);
+                }
+                if (instrumented)
+                    instrumentation.onProcessorCompleted(this, processor, input, System.nanoTime() - start, failure);
+            }
+        } catch (RuntimeException e) {
+            if (instrumented)
+                instrumentation.onChainCompleted(this, input, System.nanoTime() - chainStart, e);
+            throw e;
+        }
+        if (instrumented)
+            instrumentation.onChainCompleted(this, input, System.nanoTime() - chainStart, null);
+        return input;
+    }
+    
+    /**
+     * Processes the input asynchronously through the chain with the same semantics as {@link #process(ProcessContext)}.
+     * Processors whose {@link Processor#processAsync(ProcessContext)} completes immediately are chained inline;
+     * when a processor returns a pending future the remaining processors continue on this chain's executor once it
+     * completes, so no thread is blocked waiting on processor I/O. Failures of a stage are routed to
+     * {@link Processor#onError(ProcessContext, Exception)} and processing continues with the next processor.
+     *
+     * @param input the context to process
+     * @return a CompletableFuture completed with the processed context
+     */
+    @Override
+    public CompletableFuture<R> processAsync(R input) {
+        Executor executor = this.executor;
+        ChainInstrumentation instrumentation = this.instrumentation;
+        boolean instrumented = instrumentation != ChainInstrumentation.NOOP;
+        long chainStart = instrumented ? System.nanoTime() : 0L;
+        CompletableFuture<R> result = CompletableFuture.supplyAsync(() -> processFrom(getExecutionPlan().processorsFor(input), 0, input, executor), executor)
+                                                       .thenCompose(future -> future);
+        if (!instrumented)
+            return result;
+        return result.whenComplete((processed, error) -> instrumentation.onChainCompleted(this, input, System.nanoTime() - chainStart, error));
+    }
+    
+    @SuppressWarnings("unchecked")
+    private CompletableFuture<R> processFrom(Processor[] plan, int index, R input, Executor executor) {
+        ChainInstrumentation instrumentation = this.instrumentation;
+        boolean instrumented = instrumentation != ChainInstrumentation.NOOP;
+        CancellationToken token = tokenOf(input);
+        for (int i = index; i <= plan.length; i++) {
+            if (stopIfCancelled(input, token) || i == plan.length)
+                break;
+            T processor = (T) plan[i];
+            if (!processor.accepts(input)) {
+                if (instrumented)
+                    instrumentation.onProcessorSkipped(this, processor, input);
                 continue;
+            }
+            long start = instrumented ? System.nanoTime() : 0L;
+            CompletableFuture<?> stage;
             try {
                 processor.beforeProcess(input);
-                processor.process(input);
-                processor.afterProcess(input);
+                stage = processor.processAsync(input);
             } catch (Exception e) {
                 processor.onError(input, e);
+                if (instrumented)
+                    instrumentation.onProcessorCompleted(this, processor, input, System.nanoTime() - start, e);
+                continue;
             }
+            if (stage == null || stage.isDone() && !stage.isCompletedExceptionally()) {
+                completeStage(processor, input, null, instrumentation, start);
+                continue;
+            }
+            int next = i + 1;
+            return bind(stage, token).handleAsync((result, error) -> {
+                            completeStage(processor, input, error, instrumentation, start);
+                            return next;
+                        }, executor)
+                        .thenCompose(resumeAt -> processFrom(plan, resumeAt, input, executor));
+        }
+        return CompletableFuture.completedFuture(input);
+    }
+    
+    private void completeStage(T processor, R input, Throwable error, ChainInstrumentation instrumentation, long start) {
+        Exception failure = error != null ? unwrap(error) : null;
+        if (failure == null) {
+            try {
+                processor.afterProcess(input);
+            } catch (Exception e) {
+                failure = e;
+            }
+        }
+        if (failure != null)
+            processor.onError(input, failure);
+        if (instrumentation != ChainInstrumentation.NOOP)
+            instrumentation.onProcessorCompleted(this, processor, input, System.nanoTime() - start, failure);
+    }
+    
+    /**
+     * Returns a stage that completes with the given stage, or exceptionally with a {@link ChainCancelledException}
+     * as soon as the token is cancelled. The abandoned stage is cancelled so interruptible work can stop.
+     */
+    private static CompletableFuture<?> bind(CompletableFuture<?> stage, CancellationToken token) {
+        if (token == CancellationToken.NONE) {
+            return stage;
+        }
+        CompletableFuture<Object> bound = new CompletableFuture<>();
+        CancellationToken.Registration registration = token.onCancel(() -> {
+            bound.completeExceptionally(token.toException());
+            stage.cancel(true);
+        });
+        stage.whenComplete((result, error) -> {
+            registration.close();
+            if (error != null) {
+                bound.completeExceptionally(error);
+            } else {
+                bound.complete(result);
+            }
+        });
+        return bound;
+    }
+    
+    /**
+     * Records a failed result for the chain if the token is cancelled. Checked before each processor and once after
+     * the last, so a run that overran its budget always ends with a timeout result.
+     */
+    private boolean stopIfCancelled(R input, CancellationToken token) {
+        if (!token.isCancelled())
+            return false;
+        input.addResult(ProcessResult.failure(ChainInstrumentation.nameOf(this), token.toException(), System.currentTimeMillis()));
+        return true;
+    }
+    
+    private static CancellationToken tokenOf(ProcessContext input) {
+        CancellationToken token = input != null ? input.getCancellationToken() : null;
+        return token != null ? token : CancellationToken.NONE;
+    }
+    
+    private static Exception unwrap(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof Exception exception ? exception : new CompletionException(cause);
+    }
+    
+    @Override
+    public Executor getExecutor() {
+        return executor;
+    }
+    
+    /**
+     * Returns the instrumentation receiving this chain's timing and outcome callbacks.
+     *
+     * @return the instrumentation, {@link ChainInstrumentation#NOOP} if none is set
+     */
+    public ChainInstrumentation getInstrumentation() {
+        return instrumentation;
+    }
+    
+    /**
+     * Sets the instrumentation receiving this chain's timing and outcome callbacks.
+     *
+     * @param instrumentation the instrumentation, or null to disable instrumentation
+     */
+    public void setInstrumentation(ChainInstrumentation instrumentation) {
+        this.instrumentation = instrumentation != null ? instrumentation : ChainInstrumentation.NOOP;
+    }
+    
+    /**
+     * Sets the executor asynchronous execution of this chain runs and resumes on. Tasks run in the
+     * {@link ExecutionContext} they were submitted from.
+     *
+     * @param executor the executor
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor != null ? ExecutionContext.propagating(executor) : ChainExecutors.defaultExecutor();
+    }
+    
+    /**
+     * Resolves the context type from the chain's generic signature, falling back to {@link ProcessContext}
+     * for raw or anonymous chains. Subclasses that cannot be resolved should override.
+     *
+     * @return the context type handled by this chain
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Class<? extends ProcessContext> getContextType() {
+        Class<?> resolved = ResolvableType.forClass(getClass()).as(AbstractBaseChain.class).resolveGeneric(1);
+        return resolved != null ? (Class<? extends ProcessContext>) resolved : ProcessContext.class;
+    }
+    
+    /**
+     * Returns the current execution plan of this chain, registering the initial processors first if needed.
+     *
+     * @return the execution plan
+     */
+    protected ChainExecutionPlan<T> getExecutionPlan() {
+        if (!registered) {
+            return compile();
+        }
+        return executionPlan.get();
+    }
+    
+    /**
+     * Returns the current execution plan. Registers the initial processors through {@link #registerProcessors()}
+     * if none have been added yet. Customizers have already been applied when each processor was added, so this
+     * never re-runs them.
+     *
+     * @return the current plan
+     */
+    public synchronized ChainExecutionPlan<T> compile() {
+        if (executionPlan.get().isEmpty())
+            registerProcessors();
+        registered = true;
+        return executionPlan.get();
+    }
+    
+    /**
+     * Applies a change to a copy of the current processor list and publishes the result as the new plan, retrying
+     * if another change was published concurrently. Readers never observe a partially applied change.
+     *
+     * @param change the change to apply
+     * @return this chain instance for fluent API
+     */
+    @SuppressWarnings("unchecked")
+    private Chain update(Consumer<List<T>> change) {
+        ChainExecutionPlan<T> current;
+        ChainExecutionPlan<T> next;
+        do {
+            current = executionPlan.get();
+            List<T> updated = new ArrayList<>(current.size() + 1);
+            for (Processor processor : current.getProcessors())
+                updated.add((T) processor);
+            change.accept(updated);
+            next = new ChainExecutionPlan<>(updated);
+        } while (!executionPlan.compareAndSet(current, next));
+        return this;
+    }
+    
+    /**
+     * Live, read-only list view of the current plan. Iterators and streams are bound to the snapshot current when
+     * they are created.
+     */
+    private final class SnapshotView extends AbstractList<T> implements RandomAccess {
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int index) {
+            return (T) executionPlan.get().getProcessors()[index];
+        }
+        
+        @Override
+        public int size() {
+            return executionPlan.get().size();
+        }
+        
+        @Override
+        @SuppressWarnings("unchecked")
+        public Iterator<T> iterator() {
+            return (Iterator<T>) Arrays.asList(executionPlan.get().getProcessors()).iterator();
+        }
+        
+        @Override
+        public Object[] toArray() {
+            return executionPlan.get().getProcessors().clone();
+        }
+        
+        @Override
+        public Spliterator<T> spliterator() {
+            return Spliterators.spliterator(toArray(), Spliterator.ORDERED | Spliterator.IMMUTABLE);
         }
-        return input;
     }
     
     /**
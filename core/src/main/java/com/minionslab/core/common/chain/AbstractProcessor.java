@@ -1,8 +1,5 @@
 package com.minionslab.core.common.chain;
 
-import java.time.Instant;
-import java.util.List;
-
 public abstract class AbstractProcessor<T extends ProcessContext, C > implements Processor<T> {
     protected String id;
     
@@ -16,7 +13,7 @@ public abstract class AbstractProcessor<T extends ProcessContext, C > implements
     
     @Override
     public final T process(T input) {
-        Instant start = Instant.now();
+        long start = System.currentTimeMillis();
         
         ProcessResult<C> result = null;
         C c = null;
@@ -25,13 +22,13 @@ public abstract class AbstractProcessor<T extends ProcessContext, C > implements
             if (c == null) {
                 result = ProcessResult.skipped(this.id);
             } else {
-                result = ProcessResult.success(this.id, List.of(c), start);
+                result = ProcessResult.success(this.id, c, start);
             }
         } catch (Exception e) {
             result = ProcessResult.failure(this.id, e, start);
         }
         
-        input.addResult(result);
+        ResultSink.deliver(input, result);
         return input;
     }
     
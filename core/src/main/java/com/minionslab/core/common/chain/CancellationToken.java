@@ -0,0 +1,246 @@
+package com.minionslab.core.common.chain;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * CancellationToken carries a deadline and a cancellation signal along a {@link ProcessContext} and the contexts
+ * derived from it (agent, step, model call, tool call).
+ * <p>
+ * A token is cancelled explicitly through {@link #cancel(String)} or implicitly once its deadline passes.
+ * {@link AbstractBaseChain} checks the token between processors and stops the chain once it is cancelled;
+ * processors doing blocking or asynchronous I/O register a callback with {@link #onCancel(Runnable)} to abort the
+ * pending work (see {@link ChainExecutors#supplyInterruptibly}). Deadlines are measured on the monotonic
+ * {@link System#nanoTime()} clock; callbacks of a token with a deadline are fired by a shared daemon timer.
+ * <p>
+ * <b>Usage:</b>
+ * <pre>{@code
+ * CancellationToken token = CancellationToken.withTimeout(Duration.ofMinutes(2));
+ * agentContext.setCancellationToken(token);
+ * }</pre>
+ * {@link #NONE} is the token of contexts without a deadline; it is never cancelled.
+ */
+public final class CancellationToken {
+
+    /**
+     * Token that is never cancelled.
+     */
+    public static final CancellationToken NONE = new CancellationToken(null, false, 0L);
+
+    private static final Registration NO_REGISTRATION = () -> { };
+
+    private final CancellationToken parent;
+    private final boolean hasDeadline;
+    private final long deadlineNanos;
+    private final AtomicReference<State> state = new AtomicReference<>();
+    private final Queue<Runnable> callbacks = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean timerScheduled = new AtomicBoolean();
+    private volatile ScheduledFuture<?> timer;
+
+    private CancellationToken(CancellationToken parent, boolean hasDeadline, long deadlineNanos) {
+        this.parent = parent;
+        this.hasDeadline = hasDeadline;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Creates a token without a deadline that is cancelled only through {@link #cancel(String)}.
+     *
+     * @return a new token
+     */
+    public static CancellationToken create() {
+        return new CancellationToken(null, false, 0L);
+    }
+
+    /**
+     * Creates a token that is cancelled once the given timeout elapses.
+     *
+     * @param timeout the time budget, measured from now
+     * @return a new token
+     */
+    public static CancellationToken withTimeout(Duration timeout) {
+        return new CancellationToken(null, true, System.nanoTime() + timeout.toNanos());
+    }
+
+    /**
+     * Derives a token that is cancelled when this token is cancelled or when the given timeout elapses, whichever
+     * comes first. Cancelling the child does not cancel this token.
+     *
+     * @param timeout the time budget of the child, measured from now
+     * @return the child token
+     */
+    public CancellationToken child(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        if (hasDeadline && deadlineNanos - deadline < 0) {
+            deadline = deadlineNanos;
+        }
+        return new CancellationToken(this == NONE ? null : this, true, deadline);
+    }
+
+    /**
+     * Returns true if the token was cancelled or its deadline passed.
+     *
+     * @return true if cancelled
+     */
+    public boolean isCancelled() {
+        if (state.get() != null) {
+            return true;
+        }
+        if (hasDeadline && System.nanoTime() - deadlineNanos >= 0) {
+            fire(new State("deadline exceeded", true));
+            return true;
+        }
+        if (parent != null && parent.isCancelled()) {
+            State inherited = parent.state.get();
+            fire(inherited != null ? inherited : new State("parent cancelled", false));
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Cancels the token. Has no effect on {@link #NONE} or on a token that is already cancelled.
+     *
+     * @param reason a short description of why the work is cancelled
+     * @return true if this call cancelled the token
+     */
+    public boolean cancel(String reason) {
+        return this != NONE && fire(new State(reason, false));
+    }
+
+    /**
+     * Throws a {@link ChainCancelledException} if the token is cancelled.
+     *
+     * @throws ChainCancelledException if the token is cancelled or its deadline passed
+     */
+    public void throwIfCancelled() {
+        if (isCancelled()) {
+            throw toException();
+        }
+    }
+
+    /**
+     * Returns an exception describing the cancellation of this token.
+     *
+     * @return the exception, describing a plain cancellation if the token is not cancelled
+     */
+    public ChainCancelledException toException() {
+        State current = state.get();
+        if (current == null) {
+            return new ChainCancelledException("cancelled", false);
+        }
+        return new ChainCancelledException(current.reason(), current.timeout());
+    }
+
+    /**
+     * Returns true if the token was cancelled because a deadline passed.
+     *
+     * @return true for a timeout
+     */
+    public boolean isTimedOut() {
+        State current = isCancelled() ? state.get() : null;
+        return current != null && current.timeout();
+    }
+
+    /**
+     * Returns the time left until the deadline.
+     *
+     * @return the remaining time, zero if cancelled, or null if the token has no deadline
+     */
+    public Duration getRemaining() {
+        if (!hasDeadline) {
+            return parent != null ? parent.getRemaining() : null;
+        }
+        return isCancelled() ? Duration.ZERO : Duration.ofNanos(deadlineNanos - System.nanoTime());
+    }
+
+    /**
+     * Registers a callback run once when the token is cancelled, on the cancelling thread or the timer thread.
+     * If the token is already cancelled the callback runs immediately.
+     *
+     * @param callback the callback
+     * @return a registration that removes the callback when closed
+     */
+    public Registration onCancel(Runnable callback) {
+        if (this == NONE) {
+            return NO_REGISTRATION;
+        }
+        if (isCancelled()) {
+            callback.run();
+            return NO_REGISTRATION;
+        }
+        callbacks.add(callback);
+        Registration parentRegistration = parent != null ? parent.onCancel(() -> isCancelled()) : NO_REGISTRATION;
+        scheduleTimer();
+        if (state.get() != null && callbacks.remove(callback)) {
+            callback.run();
+        }
+        return () -> {
+            callbacks.remove(callback);
+            parentRegistration.close();
+        };
+    }
+
+    private void scheduleTimer() {
+        if (hasDeadline && timerScheduled.compareAndSet(false, true)) {
+            long delay = Math.max(0L, deadlineNanos - System.nanoTime());
+            timer = Timer.SCHEDULER.schedule(this::isCancelled, delay, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private boolean fire(State cancelled) {
+        if (!state.compareAndSet(null, cancelled)) {
+            return false;
+        }
+        ScheduledFuture<?> pending = timer;
+        if (pending != null) {
+            pending.cancel(false);
+        }
+        Runnable callback;
+        while ((callback = callbacks.poll()) != null) {
+            try {
+                callback.run();
+            } catch (RuntimeException ignored) {
+                // a failing callback must not prevent the others from running
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Handle of a callback registered through {@link #onCancel(Runnable)}.
+     */
+    @FunctionalInterface
+    public interface Registration extends AutoCloseable {
+        /**
+         * Removes the callback; has no effect if it already ran.
+         */
+        @Override
+        void close();
+    }
+
+    private record State(String reason, boolean timeout) {
+    }
+
+    private static final class Timer {
+        private static final ScheduledThreadPoolExecutor SCHEDULER = createScheduler();
+
+        private static ScheduledThreadPoolExecutor createScheduler() {
+            ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+                thread.setName("minion-deadline-timer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.setRemoveOnCancelPolicy(true);
+            return scheduler;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.minionslab.core.common.chain;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Chain defines the contract for a flexible, extensible chain of responsibility pattern
@@ -14,6 +16,15 @@ import java.util.List;
  * @param <R> the type of ProcessContext processed by the chain
  */
 public interface Chain<T extends Processor, R extends ProcessContext> {
+    /**
+     * Priority of a regular chain.
+     */
+    int DEFAULT_PRIORITY = 0;
+    /**
+     * Priority of a framework-provided fallback chain that any application chain for the same context type overrides.
+     */
+    int FALLBACK_PRIORITY = Integer.MIN_VALUE;
+    
     /**
      * Adds a processor to the start of the chain.
      *
@@ -79,15 +90,44 @@ public interface Chain<T extends Processor, R extends ProcessContext> {
      * @return true if any processor accepts, false otherwise
      */
     boolean accepts(ProcessContext context);
+    
+    /**
+     * Returns the {@link ProcessContext} type this chain processes. Used by {@link ChainRegistry} to index chains
+     * by context type. The default of {@link ProcessContext} marks a chain that may accept any context.
+     *
+     * @return the context type handled by this chain
+     */
+    default Class<? extends ProcessContext> getContextType() {
+        return ProcessContext.class;
+    }
+    
+    /**
+     * Returns the dispatch priority of this chain (higher is preferred) among chains handling the same context type.
+     *
+     * @return the priority value
+     */
+    default int getPriority() {
+        return DEFAULT_PRIORITY;
+    }
+
+    /**
+     * Returns the executor used for asynchronous execution of this chain.
+     *
+     * @return the executor, by default {@link ChainExecutors#defaultExecutor()}
+     */
+    default Executor getExecutor() {
+        return ChainExecutors.defaultExecutor();
+    }
 
     /**
-     * Processes the input asynchronously through the chain. Default implementation uses a thread pool.
+     * Processes the input asynchronously through the chain. Default implementation runs {@link #process(ProcessContext)}
+     * on the chain's {@link #getExecutor() executor}.
      *
      * @param input the context to process
      * @return a CompletableFuture for the processed context
      */
-    default java.util.concurrent.CompletableFuture<R> processAsync(R input) {
-        return java.util.concurrent.CompletableFuture.supplyAsync(() -> process(input));
+    default CompletableFuture<R> processAsync(R input) {
+        return CompletableFuture.supplyAsync(() -> process(input), getExecutor());
     }
     
 
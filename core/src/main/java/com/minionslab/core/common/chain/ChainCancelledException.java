@@ -0,0 +1,30 @@
+package com.minionslab.core.common.chain;
+
+/**
+ * ChainCancelledException is thrown when processing is stopped because the {@link CancellationToken} of the
+ * context was cancelled or its deadline passed.
+ */
+public class ChainCancelledException extends RuntimeException {
+
+    private final boolean timeout;
+
+    /**
+     * Constructs a new ChainCancelledException.
+     *
+     * @param message the detail message
+     * @param timeout true if the token was cancelled because its deadline passed
+     */
+    public ChainCancelledException(String message, boolean timeout) {
+        super(message);
+        this.timeout = timeout;
+    }
+
+    /**
+     * Returns true if processing was stopped because the deadline passed rather than by an explicit cancel.
+     *
+     * @return true for a timeout
+     */
+    public boolean isTimeout() {
+        return timeout;
+    }
+}
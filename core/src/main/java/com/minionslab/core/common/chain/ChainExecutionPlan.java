@@ -0,0 +1,125 @@
+package com.minionslab.core.common.chain;
+
+import org.springframework.core.ResolvableType;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ChainExecutionPlan is the compiled, immutable form of a chain's processor list.
+ * <p>
+ * A plan freezes the processors of an {@link AbstractBaseChain} into an array and resolves, once per
+ * processor, the {@link ProcessContext} type it is declared for. Processors are then pre-bucketed by the
+ * concrete runtime class of the context being processed, so dispatching a context only walks the processors
+ * that can possibly accept it. Buckets are computed lazily on first use of a context class and cached.
+ * <p>
+ * Plans are never mutated after construction; chains build a new plan whenever their processor list changes.
+ *
+ * @param <T> the type of Processor in the plan
+ */
+public final class ChainExecutionPlan<T extends Processor> {
+
+    private static final Processor[] EMPTY = new Processor[0];
+
+    /**
+     * The processors of the chain, in execution order.
+     */
+    private final Processor[] processors;
+    /**
+     * The context type each processor is declared for, index-aligned with {@link #processors}.
+     */
+    private final Class<?>[] contextTypes;
+    /**
+     * Cache of processors applicable to a given concrete context class.
+     */
+    private final Map<Class<?>, Processor[]> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * Compiles a plan from the given processors.
+     *
+     * @param processors the processors in execution order
+     */
+    public ChainExecutionPlan(List<T> processors) {
+        this.processors = processors.isEmpty() ? EMPTY : processors.toArray(new Processor[0]);
+        this.contextTypes = new Class<?>[this.processors.length];
+        for (int i = 0; i < this.processors.length; i++) {
+            contextTypes[i] = resolveContextType(this.processors[i]);
+        }
+    }
+
+    /**
+     * Resolves the {@link ProcessContext} type a processor is declared for from its generic signature.
+     * Falls back to {@link ProcessContext} when the type cannot be resolved (raw types, proxies, mocks).
+     *
+     * @param processor the processor
+     * @return the declared context type
+     */
+    static Class<?> resolveContextType(Processor processor) {
+        if (processor == null) {
+            return ProcessContext.class;
+        }
+        Class<?> resolved = ResolvableType.forClass(processor.getClass()).as(Processor.class).resolveGeneric(0);
+        return resolved != null ? resolved : ProcessContext.class;
+    }
+
+    /**
+     * Returns the processors that may accept a context of the given runtime type, in execution order.
+     * The returned array is shared and must not be modified.
+     *
+     * @param context the context to dispatch
+     * @return the applicable processors
+     */
+    public Processor[] processorsFor(ProcessContext context) {
+        if (context == null || processors.length == 0) {
+            return processors;
+        }
+        return buckets.computeIfAbsent(context.getClass(), this::bucket);
+    }
+
+    private Processor[] bucket(Class<?> contextClass) {
+        int count = 0;
+        Processor[] matching = new Processor[processors.length];
+        for (int i = 0; i < processors.length; i++) {
+            if (contextTypes[i].isAssignableFrom(contextClass)) {
+                matching[count++] = processors[i];
+            }
+        }
+        if (count == processors.length) {
+            return processors;
+        }
+        if (count == 0) {
+            return EMPTY;
+        }
+        Processor[] trimmed = new Processor[count];
+        System.arraycopy(matching, 0, trimmed, 0, count);
+        return trimmed;
+    }
+
+    /**
+     * Returns all processors of the plan, in execution order. The returned array is shared and must not be modified.
+     *
+     * @return the processors
+     */
+    public Processor[] getProcessors() {
+        return processors;
+    }
+
+    /**
+     * Returns the number of processors in the plan.
+     *
+     * @return the processor count
+     */
+    public int size() {
+        return processors.length;
+    }
+
+    /**
+     * Returns true if the plan contains no processors.
+     *
+     * @return true if empty
+     */
+    public boolean isEmpty() {
+        return processors.length == 0;
+    }
+}
@@ -0,0 +1,36 @@
+package com.minionslab.core.common.chain;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executor;
+
+/**
+ * ChainExecutorCustomizer applies an application-defined executor to every {@link AbstractBaseChain} registered
+ * with the {@link ChainRegistry}.
+ * <p>
+ * Declare an {@link Executor} bean named {@value #EXECUTOR_BEAN_NAME} to run asynchronous chain execution on it.
+ * Without such a bean, chains keep the virtual-thread executor from {@link ChainExecutors#defaultExecutor()}.
+ */
+@Component
+public class ChainExecutorCustomizer implements ChainCustomizer {
+
+    public static final String EXECUTOR_BEAN_NAME = "chainExecutor";
+
+    private final ObjectProvider<Executor> executorProvider;
+
+    public ChainExecutorCustomizer(@Qualifier(EXECUTOR_BEAN_NAME) ObjectProvider<Executor> executorProvider) {
+        this.executorProvider = executorProvider;
+    }
+
+    @Override
+    public void customize(Chain chain) {
+        executorProvider.ifAvailable(((AbstractBaseChain<?, ?>) chain)::setExecutor);
+    }
+
+    @Override
+    public boolean accepts(Chain chain) {
+        return chain instanceof AbstractBaseChain;
+    }
+}
@@ -0,0 +1,100 @@
+package com.minionslab.core.common.chain;
+
+import com.minionslab.core.common.context.ExecutionContext;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * ChainExecutors holds the default {@link Executor} used for asynchronous chain and processor execution.
+ * <p>
+ * The default executor starts one virtual thread per task, so processors that block on model, tool or memory I/O
+ * park a virtual thread instead of occupying a thread of the common ForkJoin pool. Chains and processors can be
+ * given a different executor, e.g. through {@link ChainExecutorCustomizer}.
+ * <p>
+ * {@link #supplyInterruptibly(Supplier, Executor, CancellationToken)} runs blocking work bound to a
+ * {@link CancellationToken}: when the token fires, the returned future fails immediately and the worker thread is
+ * interrupted, so blocked model or tool I/O releases its thread and connection.
+ * <p>
+ * Tasks run in the {@link ExecutionContext} of the thread that submitted them: the default executor and executors
+ * passed to {@link #supplyInterruptibly(Supplier, Executor, CancellationToken)} are wrapped with
+ * {@link ExecutionContext#propagating(Executor)}.
+ */
+public final class ChainExecutors {
+
+    private ChainExecutors() {
+    }
+
+    /**
+     * Returns the shared virtual-thread-per-task executor, propagating the submitter's {@link ExecutionContext}.
+     *
+     * @return the default executor
+     */
+    public static Executor defaultExecutor() {
+        return Holder.DEFAULT;
+    }
+
+    /**
+     * Runs the supplier on the executor, bound to the given token. If the token is cancelled before the supplier
+     * returns, the future completes exceptionally with a {@link ChainCancelledException} and the worker thread is
+     * interrupted. The interrupt never outlives the task.
+     *
+     * @param supplier the blocking work
+     * @param executor the executor to run on
+     * @param token    the token the work is bound to
+     * @param <U>      the result type
+     * @return a future completed with the supplier's result
+     */
+    public static <U> CompletableFuture<U> supplyInterruptibly(Supplier<U> supplier, Executor executor, CancellationToken token) {
+        executor = ExecutionContext.propagating(executor);
+        if (token == null || token == CancellationToken.NONE) {
+            return CompletableFuture.supplyAsync(supplier, executor);
+        }
+        CompletableFuture<U> future = new CompletableFuture<>();
+        if (token.isCancelled()) {
+            future.completeExceptionally(token.toException());
+            return future;
+        }
+        try {
+            executor.execute(() -> runInterruptibly(supplier, future, token));
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private static <U> void runInterruptibly(Supplier<U> supplier, CompletableFuture<U> future, CancellationToken token) {
+        Thread worker = Thread.currentThread();
+        Object lock = new Object();
+        boolean[] running = {true};
+        CancellationToken.Registration registration = token.onCancel(() -> {
+            future.completeExceptionally(token.toException());
+            synchronized (lock) {
+                if (running[0]) {
+                    worker.interrupt();
+                }
+            }
+        });
+        try {
+            future.complete(supplier.get());
+        } catch (Throwable e) {
+            future.completeExceptionally(token.isCancelled() ? token.toException() : e);
+        } finally {
+            registration.close();
+            synchronized (lock) {
+                running[0] = false;
+            }
+            Thread.interrupted();
+        }
+    }
+
+    private static final class Holder {
+        private static final ExecutorService VIRTUAL_THREADS = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("minion-chain-", 0).factory());
+        private static final Executor DEFAULT = ExecutionContext.propagating(VIRTUAL_THREADS);
+    }
+}
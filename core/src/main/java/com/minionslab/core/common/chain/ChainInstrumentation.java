@@ -0,0 +1,74 @@
+package com.minionslab.core.common.chain;
+
+/**
+ * ChainInstrumentation receives callbacks from {@link AbstractBaseChain} as a context moves through a chain, so
+ * latency, throughput, error and accept/skip statistics can be gathered for every chain and processor without
+ * aspects around each call.
+ * <p>
+ * Callbacks run on the processing thread and must be cheap and non-blocking. Durations are in nanoseconds.
+ * A chain without instrumentation uses {@link #NOOP} and does not read the clock.
+ * <p>
+ * <b>Extensibility:</b>
+ * <ul>
+ *   <li>Declare a bean implementing this interface; {@link ChainInstrumentationCustomizer} applies all such beans
+ *   to every registered chain.</li>
+ *   <li>Override only the callbacks of interest; all callbacks default to no-ops.</li>
+ * </ul>
+ */
+public interface ChainInstrumentation {
+
+    /**
+     * Instrumentation that ignores all callbacks.
+     */
+    ChainInstrumentation NOOP = new ChainInstrumentation() {
+    };
+
+    /**
+     * Called when a processor in the chain's plan declined the context.
+     *
+     * @param chain     the chain
+     * @param processor the processor that did not accept the context
+     * @param context   the context
+     */
+    default void onProcessorSkipped(Chain chain, Processor processor, ProcessContext context) {
+    }
+
+    /**
+     * Called after a processor has run its before/process/after hooks on the context.
+     *
+     * @param chain        the chain
+     * @param processor    the processor
+     * @param context      the context
+     * @param elapsedNanos the time spent in the processor
+     * @param error        the error raised by the processor, or null on success
+     */
+    default void onProcessorCompleted(Chain chain, Processor processor, ProcessContext context, long elapsedNanos, Throwable error) {
+    }
+
+    /**
+     * Called after the chain has finished processing the context.
+     *
+     * @param chain        the chain
+     * @param context      the context
+     * @param elapsedNanos the time spent in the chain
+     * @param error        the error that escaped the chain, or null on success
+     */
+    default void onChainCompleted(Chain chain, ProcessContext context, long elapsedNanos, Throwable error) {
+    }
+
+    /**
+     * Returns a stable, human-readable name for a chain or processor, used for tags and log lines.
+     * Anonymous classes are named after the type they extend or implement.
+     *
+     * @param component the chain or processor
+     * @return the name
+     */
+    static String nameOf(Object component) {
+        Class<?> type = component.getClass();
+        while (type.isAnonymousClass() || type.isSynthetic()) {
+            Class<?>[] interfaces = type.getInterfaces();
+            type = type.getSuperclass() != Object.class || interfaces.length == 0 ? type.getSuperclass() : interfaces[0];
+        }
+        return type.getSimpleName();
+    }
+}
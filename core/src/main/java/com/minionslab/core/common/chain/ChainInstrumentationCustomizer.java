@@ -0,0 +1,69 @@
+package com.minionslab.core.common.chain;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * ChainInstrumentationCustomizer applies every {@link ChainInstrumentation} bean to each {@link AbstractBaseChain}
+ * registered with the {@link ChainRegistry}. A single bean is applied as is; several beans are combined into one
+ * instrumentation that forwards each callback to all of them in order.
+ */
+@Component
+public class ChainInstrumentationCustomizer implements ChainCustomizer {
+
+    private final ObjectProvider<ChainInstrumentation> instrumentationProvider;
+
+    public ChainInstrumentationCustomizer(ObjectProvider<ChainInstrumentation> instrumentationProvider) {
+        this.instrumentationProvider = instrumentationProvider;
+    }
+
+    @Override
+    public void customize(Chain chain) {
+        List<ChainInstrumentation> instrumentations = instrumentationProvider.orderedStream().toList();
+        if (!instrumentations.isEmpty()) {
+            ((AbstractBaseChain<?, ?>) chain).setInstrumentation(combine(instrumentations));
+        }
+    }
+
+    @Override
+    public boolean accepts(Chain chain) {
+        return chain instanceof AbstractBaseChain;
+    }
+
+    /**
+     * Combines instrumentations into one that forwards each callback to all of them, in order.
+     *
+     * @param instrumentations the instrumentations
+     * @return the combined instrumentation
+     */
+    static ChainInstrumentation combine(List<ChainInstrumentation> instrumentations) {
+        if (instrumentations.size() == 1) {
+            return instrumentations.get(0);
+        }
+        ChainInstrumentation[] delegates = instrumentations.toArray(new ChainInstrumentation[0]);
+        return new ChainInstrumentation() {
+            @Override
+            public void onProcessorSkipped(Chain chain, Processor processor, ProcessContext context) {
+                for (ChainInstrumentation delegate : delegates) {
+                    delegate.onProcessorSkipped(chain, processor, context);
+                }
+            }
+
+            @Override
+            public void onProcessorCompleted(Chain chain, Processor processor, ProcessContext context, long elapsedNanos, Throwable error) {
+                for (ChainInstrumentation delegate : delegates) {
+                    delegate.onProcessorCompleted(chain, processor, context, elapsedNanos, error);
+                }
+            }
+
+            @Override
+            public void onChainCompleted(Chain chain, ProcessContext context, long elapsedNanos, Throwable error) {
+                for (ChainInstrumentation delegate : delegates) {
+                    delegate.onChainCompleted(chain, context, elapsedNanos, error);
+                }
+            }
+        };
+    }
+}
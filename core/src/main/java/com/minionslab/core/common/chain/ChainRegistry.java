@@ -4,57 +4,149 @@ import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * ChainRegistry routes a {@link ProcessContext} to the chain that processes it.
+ * <p>
+ * Chains are indexed by the context type they declare through {@link Chain#getContextType()}. For each concrete
+ * context class the registry resolves, once, the ordered list of candidate chains and caches it, so routing an
+ * {@code AgentContext}, {@code StepContext} or {@code ModelCall} is a single map lookup followed by the first
+ * candidate's {@link Chain#accepts(ProcessContext)} check.
+ * <p>
+ * Candidates are ordered deterministically: higher {@link Chain#getPriority()} first, then chains declaring a
+ * specific context type before catch-all chains, then registration order. Registering two different chains for
+ * the same specific context type with the same priority is rejected as ambiguous.
+ */
 @Service
 public class ChainRegistry {
-    
+
+    private static final Chain[] NO_CHAINS = new Chain[0];
+
     private final ObjectProvider<List<ChainCustomizer>> chainCustomizerProviders;
     private final ObjectProvider<List<ProcessorCustomizer>> processorCustomizerProviders;
-    private final Map<String, Chain> chains = new ConcurrentHashMap<>();
-    
+    private final Map<String, Registration> chains = new ConcurrentHashMap<>();
+    /**
+     * Resolved candidate chains, keyed by the runtime class of the context.
+     */
+    private final Map<Class<?>, Chain[]> dispatchIndex = new ConcurrentHashMap<>();
+    private final AtomicLong registrationSequence = new AtomicLong();
+
     @Autowired
     public ChainRegistry(ObjectProvider<List<ChainCustomizer>> chainCustomizerProviders, ObjectProvider<List<ProcessorCustomizer>> processorCustomizerProviders, Map<String, Chain> chains) {
         this.chainCustomizerProviders = chainCustomizerProviders;
         this.processorCustomizerProviders = processorCustomizerProviders;
         chains.forEach(this::register);
     }
-    
-    public void register(String chainName, Chain chain) {
+
+    /**
+     * Registers a chain under the given name, replacing any chain previously registered under that name.
+     *
+     * @param chainName the chain name
+     * @param chain     the chain
+     * @throws IllegalStateException if another chain is already registered for the same context type and priority
+     */
+    public synchronized void register(String chainName, Chain chain) {
         chainCustomizerProviders.ifAvailable(customizers -> customizers.stream().filter(c -> c.accepts(chain)).forEach(c -> c.customize(chain)));
-        chains.put(chainName, chain);
+        Registration registration = new Registration(chainName, chain, contextTypeOf(chain), chain.getPriority(), registrationSequence.incrementAndGet());
+        checkAmbiguity(registration);
+        chains.put(chainName, registration);
+        dispatchIndex.clear();
+    }
+
+    private void checkAmbiguity(Registration candidate) {
+        if (candidate.contextType() == ProcessContext.class) {
+            return;
+        }
+        for (Registration existing : chains.values()) {
+            if (existing.name().equals(candidate.name()) || existing.chain() == candidate.chain()) {
+                continue;
+            }
+            if (existing.contextType() == candidate.contextType() && existing.priority() == candidate.priority()) {
+                throw new IllegalStateException("Ambiguous chains for context " + candidate.contextType().getSimpleName()
+                                                        + ": '" + existing.name() + "' and '" + candidate.name()
+                                                        + "' have the same priority " + candidate.priority());
+            }
+        }
     }
-    
-    
-    public void unregisterChain(Chain chain) {
-        chains.entrySet().removeIf(c -> c.getValue() == chain);
+
+
+    public synchronized void unregisterChain(Chain chain) {
+        chains.entrySet().removeIf(c -> c.getValue().chain() == chain);
+        dispatchIndex.clear();
     }
-    
-    
-    public void unregisterChain(String chainName) {
+
+
+    public synchronized void unregisterChain(String chainName) {
         chains.remove(chainName);
+        dispatchIndex.clear();
     }
-    
-    
+
+
     public boolean canProcess(ProcessContext context) {
-        return chains.values().stream().anyMatch(chain -> chain.accepts(context));
+        return resolve(context) != null;
     }
-    
-    
-    //todo this method picks the first chain that accepts the context. Investigate whether we need to iterate over all chains.
-    
+
+
+    /**
+     * Processes the context with the highest-ranked chain that accepts it.
+     *
+     * @param context the context to process
+     * @return the processed context
+     * @throws IllegalArgumentException if no registered chain accepts the context
+     */
     public ProcessContext process(ProcessContext context) {
-        for (Chain chain : chains.values()) {
+        Chain chain = resolve(context);
+        if (chain == null) {
+            throw new IllegalArgumentException("No chain found for context: " + (context == null ? "null" : context.getClass().getSimpleName()));
+        }
+        return chain.process(context);
+    }
+
+    private Chain resolve(ProcessContext context) {
+        if (context == null) {
+            return null;
+        }
+        Chain[] candidates = dispatchIndex.computeIfAbsent(context.getClass(), this::candidatesFor);
+        for (Chain chain : candidates) {
             if (chain.accepts(context)) {
-                return chain.process(context);
+                return chain;
+            }
+        }
+        return null;
+    }
+
+    private Chain[] candidatesFor(Class<?> contextClass) {
+        List<Registration> candidates = new ArrayList<>();
+        for (Registration registration : chains.values()) {
+            if (registration.contextType().isAssignableFrom(contextClass)) {
+                candidates.add(registration);
             }
         }
-        throw new IllegalArgumentException("No chain found for context: " + (context == null ? "null" : context.getClass().getSimpleName()));
+        if (candidates.isEmpty()) {
+            return NO_CHAINS;
+        }
+        candidates.sort(Comparator.comparingInt(Registration::priority).reversed()
+                                  .thenComparing(r -> r.contextType() == ProcessContext.class)
+                                  .thenComparingLong(Registration::sequence));
+        return candidates.stream().map(Registration::chain).distinct().toArray(Chain[]::new);
+    }
+
+    private static Class<? extends ProcessContext> contextTypeOf(Chain chain) {
+        Class<? extends ProcessContext> contextType = chain.getContextType();
+        return contextType != null ? contextType : ProcessContext.class;
     }
-    
+
     public Chain<Processor, ProcessContext> getChain(String chainName) {
-        return chains.get(chainName);
+        Registration registration = chains.get(chainName);
+        return registration != null ? registration.chain() : null;
+    }
+
+    private record Registration(String name, Chain chain, Class<? extends ProcessContext> contextType, int priority, long sequence) {
     }
-}
\ No newline at end of file
+}
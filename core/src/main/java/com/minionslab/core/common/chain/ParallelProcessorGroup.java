@@ -0,0 +1,213 @@
+package com.minionslab.core.common.chain;
+
+import com.minionslab.core.common.context.ExecutionContext;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * ParallelProcessorGroup is a composite {@link Processor} that runs its member processors concurrently
+ * (fan-out) and completes once the group is done (fan-in), so independent work such as querying several memory
+ * subsystems while a tool catalog is prepared no longer runs one step after another.
+ * <p>
+ * Each accepting member runs its before/process/after hooks as its own task on the group's executor (virtual
+ * threads by default). Results members record through {@link ResultSink#deliver(ProcessContext, ProcessResult)}
+ * are collected in a per-member {@link ResultSink} and merged into the context in member order when the group
+ * completes, so the context's result store is only ever written from one thread. A failed member has its
+ * {@link Processor#onError(ProcessContext, Exception)} hook invoked and a failure result recorded.
+ * <p>
+ * Members share the context: they must not mutate other context state concurrently unless that state is
+ * thread-safe. Results recorded from threads other than the member's task (e.g. inside a member's own async
+ * stages) bypass the sink.
+ * <p>
+ * <b>Usage:</b> declare a group in a chain with {@link AbstractBaseChain#addParallelToEnd(FailurePolicy, List)}.
+ *
+ * @param <C> the type of ProcessContext processed by the group
+ */
+public class ParallelProcessorGroup<C extends ProcessContext> implements Processor<C> {
+
+    /**
+     * How the group reacts to a failing member.
+     */
+    public enum FailurePolicy {
+        /**
+         * Fail the group as soon as any member fails, without waiting for the other members. Results of
+         * members that have not finished by then are discarded.
+         */
+        FAIL_FAST,
+        /**
+         * Wait for every member; member failures are recorded and the group itself completes normally.
+         */
+        COMPLETE_ALL
+    }
+
+    private final List<Processor<C>> members;
+    private final FailurePolicy failurePolicy;
+    private final Supplier<Executor> executorSupplier;
+
+    /**
+     * Creates a group running on the default virtual-thread executor.
+     *
+     * @param members       the member processors
+     * @param failurePolicy the failure policy
+     */
+    public ParallelProcessorGroup(List<? extends Processor<C>> members, FailurePolicy failurePolicy) {
+        this(members, failurePolicy, ChainExecutors::defaultExecutor);
+    }
+
+    /**
+     * Creates a group whose members run on the executor returned by the supplier at execution time.
+     *
+     * @param members          the member processors
+     * @param failurePolicy    the failure policy
+     * @param executorSupplier supplies the executor to fan out on
+     */
+    public ParallelProcessorGroup(List<? extends Processor<C>> members, FailurePolicy failurePolicy, Supplier<Executor> executorSupplier) {
+        this.members = List.copyOf(members);
+        this.failurePolicy = failurePolicy != null ? failurePolicy : FailurePolicy.FAIL_FAST;
+        this.executorSupplier = executorSupplier;
+    }
+
+    /**
+     * Returns true if any member accepts the context.
+     *
+     * @param input the context to check
+     * @return true if any member accepts
+     */
+    @Override
+    public boolean accepts(C input) {
+        for (Processor<C> member : members) {
+            if (member.accepts(input)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Runs the group and waits for it to complete.
+     *
+     * @param input the context to process
+     * @return the processed context
+     */
+    @Override
+    public C process(C input) {
+        try {
+            return processAsync(input).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Fans out the accepting members and returns a future that completes when the group completes, after
+     * all collected results have been merged into the context.
+     *
+     * @param input the context to process
+     * @return a future for the processed context
+     */
+    @Override
+    public CompletableFuture<C> processAsync(C input) {
+        Executor executor = ExecutionContext.propagating(executorSupplier.get());
+        int size = members.size();
+        ResultSink[] sinks = new ResultSink[size];
+        CompletableFuture<?>[] runs = new CompletableFuture<?>[size];
+        CompletableFuture<Void> firstFailure = new CompletableFuture<>();
+        for (int i = 0; i < size; i++) {
+            sinks[i] = new ResultSink();
+            runs[i] = runMember(members.get(i), input, sinks[i], executor);
+            if (failurePolicy == FailurePolicy.FAIL_FAST) {
+                runs[i].whenComplete((ignored, error) -> {
+                    if (error != null) {
+                        firstFailure.completeExceptionally(error);
+                    }
+                });
+            }
+        }
+        CompletableFuture<?> done = CompletableFuture.allOf(runs);
+        if (failurePolicy == FailurePolicy.FAIL_FAST) {
+            done = CompletableFuture.anyOf(done, firstFailure);
+        }
+        return done.handle((ignored, error) -> {
+            for (ResultSink sink : sinks) {
+                sink.drainTo(input);
+            }
+            if (error != null && failurePolicy == FailurePolicy.FAIL_FAST) {
+                throw error instanceof CompletionException completion ? completion : new CompletionException(error);
+            }
+            return input;
+        });
+    }
+
+    private CompletableFuture<Void> runMember(Processor<C> member, C input, ResultSink sink, Executor executor) {
+        if (!member.accepts(input)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        long start = System.currentTimeMillis();
+        return CompletableFuture.supplyAsync(() -> {
+                                    ResultSink previous = ResultSink.bind(sink);
+                                    try {
+                                        member.beforeProcess(input);
+                                        CompletableFuture<C> stage = member.processAsync(input);
+                                        return stage != null ? stage : CompletableFuture.completedFuture(input);
+                                    } finally {
+                                        ResultSink.restore(previous);
+                                    }
+                                }, executor)
+                                .thenCompose(stage -> stage)
+                                .handle((ignored, error) -> {
+                                    ResultSink previous = ResultSink.bind(sink);
+                                    try {
+                                        Throwable failure = error;
+                                        if (failure == null) {
+                                            try {
+                                                member.afterProcess(input);
+                                                return null;
+                                            } catch (Exception e) {
+                                                failure = e;
+                                            }
+                                        }
+                                        Exception cause = unwrap(failure);
+                                        member.onError(input, cause);
+                                        sink.add(ProcessResult.failure(member.getDescription(), cause, start));
+                                        throw new CompletionException(cause);
+                                    } finally {
+                                        ResultSink.restore(previous);
+                                    }
+                                });
+    }
+
+    private static Exception unwrap(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof Exception exception ? exception : new CompletionException(cause);
+    }
+
+    /**
+     * Returns the member processors of the group.
+     *
+     * @return the members
+     */
+    public List<Processor<C>> getMembers() {
+        return members;
+    }
+
+    /**
+     * Returns the failure policy of the group.
+     *
+     * @return the failure policy
+     */
+    public FailurePolicy getFailurePolicy() {
+        return failurePolicy;
+    }
+
+    @Override
+    public String getDescription() {
+        return "ParallelProcessorGroup" + members.stream().map(Processor::getDescription).toList();
+    }
+}
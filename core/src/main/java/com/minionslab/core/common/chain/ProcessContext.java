@@ -23,7 +23,23 @@ public interface ProcessContext<T extends ProcessResult> {
         this.getResults().add(result);
     }
     
-
+    /**
+     * Returns the id of the agent recipe this context is processed for, used to attribute metrics and traces.
+     *
+     * @return the recipe id, or null if the context is not tied to a recipe
+     */
+    default String getRecipeId() {
+        return null;
+    }
+    
+    /**
+     * Returns the token bounding how long processing of this context may take. Derived contexts (steps, model
+     * calls, tool calls) return the token of the context they were created from.
+     *
+     * @return the cancellation token, {@link CancellationToken#NONE} if processing is unbounded
+     */
+    default CancellationToken getCancellationToken() {
+        return CancellationToken.NONE;
+    }
     
-
 } 
\ No newline at end of file
@@ -1,7 +1,11 @@
 package com.minionslab.core.common.chain;
 
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 import lombok.experimental.Accessors;
 
 import java.time.Duration;
@@ -14,13 +18,18 @@ import java.util.List;
  * <p>
  * This class is designed for extensibility: you can subclass to add custom fields, behaviors,
  * or aggregation logic. Use the static factory methods for common result types (success, skipped, failure).
+ * <p>
+ * Results recorded on hot paths can be created in a compact form ({@link #success(String, Object, long)},
+ * {@link #failure(String, Throwable, long)}) that stores a single payload and epoch-millisecond timestamps; the
+ * results list and {@link Instant}s are only materialized when read.
  *
  * @param <T> the type of sub-results or payloads held by this result
  */
 @Data
 @Accessors(chain = true)
-@AllArgsConstructor
 public class ProcessResult<T> {
+    private static final long UNSET = Long.MIN_VALUE;
+    
     /**
      * The ID of the processor that produced this result.
      */
@@ -45,12 +54,58 @@ public class ProcessResult<T> {
      * The time processing ended.
      */
     private  Instant endedAt;
+    /**
+     * Single payload of a compact result, materialized into {@link #results} on first read.
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private T payload;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private long startedAtMillis = UNSET;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private long endedAtMillis = UNSET;
     
     /**
      * Protected no-arg constructor for subclassing.
      */
     protected ProcessResult() {}
     
+    /**
+     * Constructs a result with all fields.
+     *
+     * @param processorId the processor ID
+     * @param handled     whether the processor handled the context
+     * @param results     the list of sub-results or payloads
+     * @param error       the error thrown, if any
+     * @param startedAt   the start time
+     * @param endedAt     the end time
+     */
+    public ProcessResult(String processorId, boolean handled, List<T> results, Throwable error, Instant startedAt, Instant endedAt) {
+        this.processorId = processorId;
+        this.handled = handled;
+        this.results = results;
+        this.error = error;
+        this.startedAt = startedAt;
+        this.endedAt = endedAt;
+    }
+    
+    private ProcessResult(String processorId, boolean handled, T payload, Throwable error, long startedAtMillis, long endedAtMillis) {
+        this.processorId = processorId;
+        this.handled = handled;
+        this.payload = payload;
+        this.error = error;
+        this.startedAtMillis = startedAtMillis;
+        this.endedAtMillis = endedAtMillis;
+    }
+    
     /**
      * Creates a successful result with the given processor ID, results, and start time.
      *
@@ -70,7 +125,31 @@ public class ProcessResult<T> {
      * @return a skipped ProcessResult
      */
     public static <T> ProcessResult<T> skipped(String processorId) {
-        return new ProcessResult<>(processorId, false, null, null, null, Instant.now());
+        return new ProcessResult<>(processorId, false, (T) null, null, UNSET, System.currentTimeMillis());
+    }
+    
+    /**
+     * Creates a compact successful result holding a single payload.
+     *
+     * @param processorId     the processor ID
+     * @param payload         the payload
+     * @param startedAtMillis the start time in epoch milliseconds
+     * @return a successful ProcessResult
+     */
+    public static <T> ProcessResult<T> success(String processorId, T payload, long startedAtMillis) {
+        return new ProcessResult<>(processorId, true, payload, null, startedAtMillis, System.currentTimeMillis());
+    }
+    
+    /**
+     * Creates a compact failed result.
+     *
+     * @param processorId     the processor ID
+     * @param error           the error thrown
+     * @param startedAtMillis the start time in epoch milliseconds
+     * @return a failed ProcessResult
+     */
+    public static <T> ProcessResult<T> failure(String processorId, Throwable error, long startedAtMillis) {
+        return new ProcessResult<>(processorId, true, (T) null, error, startedAtMillis, System.currentTimeMillis());
     }
     
     /**
@@ -109,6 +188,63 @@ public class ProcessResult<T> {
      * @return the duration of processing
      */
     public Duration getDuration() {
-        return Duration.between(startedAt, endedAt);
+        if (startedAt == null && endedAt == null && startedAtMillis != UNSET && endedAtMillis != UNSET) {
+            return Duration.ofMillis(endedAtMillis - startedAtMillis);
+        }
+        return Duration.between(getStartedAt(), getEndedAt());
+    }
+    
+    /**
+     * Returns the sub-results or payloads, materializing the single payload of a compact result.
+     *
+     * @return the results, or null if there are none
+     */
+    public List<T> getResults() {
+        if (results == null && payload != null) {
+            results = List.of(payload);
+        }
+        return results;
+    }
+    
+    public ProcessResult<T> setResults(List<T> results) {
+        this.results = results;
+        this.payload = null;
+        return this;
+    }
+    
+    /**
+     * Returns the time processing started.
+     *
+     * @return the start time, or null if unknown
+     */
+    public Instant getStartedAt() {
+        if (startedAt == null && startedAtMillis != UNSET) {
+            startedAt = Instant.ofEpochMilli(startedAtMillis);
+        }
+        return startedAt;
+    }
+    
+    public ProcessResult<T> setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+        this.startedAtMillis = UNSET;
+        return this;
+    }
+    
+    /**
+     * Returns the time processing ended.
+     *
+     * @return the end time, or null if unknown
+     */
+    public Instant getEndedAt() {
+        if (endedAt == null && endedAtMillis != UNSET) {
+            endedAt = Instant.ofEpochMilli(endedAtMillis);
+        }
+        return endedAt;
+    }
+    
+    public ProcessResult<T> setEndedAt(Instant endedAt) {
+        this.endedAt = endedAt;
+        this.endedAtMillis = UNSET;
+        return this;
     }
 }
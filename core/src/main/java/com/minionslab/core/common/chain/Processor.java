@@ -23,6 +23,10 @@ public interface Processor<T extends ProcessContext> {
     
     /**
      * Asynchronously execute the logic for the given context.
+     * <p>
+     * The default runs {@link #process(ProcessContext)} on the calling thread and returns a completed future.
+     * Processors that wait on I/O (model, tool or memory calls) should override this to return a future that
+     * completes when the I/O does, so asynchronous chains do not block on them.
      *
      * @param input the context to process
      * @return a CompletableFuture for the processed context
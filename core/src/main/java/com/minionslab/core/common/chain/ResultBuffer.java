@@ -0,0 +1,195 @@
+package com.minionslab.core.common.chain;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * ResultBuffer is the append-only, ordered store for the results of a {@link ProcessContext}.
+ * <p>
+ * Appends are safe from concurrent processors and keep arrival order. Reads never lock: {@link #get(int)},
+ * {@link #size()} and iteration work on the state published by the last completed append, and iterators are
+ * weakly consistent (they see the results present when they were created and never throw
+ * {@link java.util.ConcurrentModificationException}). Nothing is copied on read.
+ * <p>
+ * The buffer is bounded by a capacity and a {@link Mode}:
+ * <ul>
+ *   <li>{@link Mode#RING} keeps the most recent {@code capacity} results, overwriting the oldest.</li>
+ *   <li>{@link Mode#CAPPED} keeps the first {@code capacity} results and drops later ones.</li>
+ * </ul>
+ * Overwritten or dropped results are counted in {@link #getDropped()}. Storage grows on demand up to the capacity,
+ * so short runs do not pay for a large cap.
+ * <p>
+ * <b>Usage:</b> return a ResultBuffer from {@link ProcessContext#getResults()} and append through
+ * {@link ProcessContext#addResult(ProcessResult)}. Removal of individual elements is not supported;
+ * {@link #clear()} resets the buffer.
+ *
+ * @param <T> the type of result held by the buffer
+ */
+public final class ResultBuffer<T> extends AbstractList<T> implements RandomAccess {
+
+    /**
+     * Behavior when the buffer is full.
+     */
+    public enum Mode {
+        /**
+         * Overwrite the oldest result.
+         */
+        RING,
+        /**
+         * Drop the new result.
+         */
+        CAPPED
+    }
+
+    /**
+     * Default capacity of context result buffers.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static final int INITIAL_SLOTS = 8;
+
+    private final int capacity;
+    private final Mode mode;
+    private volatile Object[] slots;
+    /**
+     * Total number of results ever appended since the last clear; written last on append to publish the slot.
+     */
+    private volatile long appended;
+    private volatile long dropped;
+
+    /**
+     * Creates a ring buffer with the {@link #DEFAULT_CAPACITY}.
+     */
+    public ResultBuffer() {
+        this(DEFAULT_CAPACITY, Mode.RING);
+    }
+
+    /**
+     * Creates a buffer with the given capacity and mode.
+     *
+     * @param capacity the maximum number of results kept, at least 1
+     * @param mode     the behavior when the buffer is full
+     */
+    public ResultBuffer(int capacity, Mode mode) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1: " + capacity);
+        }
+        this.capacity = capacity;
+        this.mode = mode != null ? mode : Mode.RING;
+        this.slots = new Object[Math.min(capacity, INITIAL_SLOTS)];
+    }
+
+    /**
+     * Appends a result.
+     *
+     * @param result the result to append
+     * @return true if the result was stored, false if a capped buffer was full
+     */
+    @Override
+    public synchronized boolean add(T result) {
+        long count = appended;
+        Object[] current = slots;
+        if (count >= capacity) {
+            if (mode == Mode.CAPPED) {
+                dropped++;
+                return false;
+            }
+            current[(int) (count % capacity)] = result;
+            dropped++;
+        } else {
+            if (count == current.length) {
+                Object[] grown = new Object[(int) Math.min(capacity, Math.max(INITIAL_SLOTS, (long) current.length << 1))];
+                System.arraycopy(current, 0, grown, 0, current.length);
+                current = grown;
+                slots = grown;
+            }
+            current[(int) count] = result;
+        }
+        appended = count + 1;
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        long count = appended;
+        Object[] current = slots;
+        int size = (int) Math.min(count, capacity);
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return (T) current[slot(count, index)];
+    }
+
+    private int slot(long count, int index) {
+        return count <= capacity ? index : (int) ((count - capacity + index) % capacity);
+    }
+
+    @Override
+    public int size() {
+        return (int) Math.min(appended, capacity);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        long count = appended;
+        Object[] current = slots;
+        int size = (int) Math.min(count, capacity);
+        return new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T next() {
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                return (T) current[slot(count, next++)];
+            }
+        };
+    }
+
+    /**
+     * Removes all results and resets the dropped count.
+     */
+    @Override
+    public synchronized void clear() {
+        slots = new Object[Math.min(capacity, INITIAL_SLOTS)];
+        dropped = 0;
+        appended = 0;
+    }
+
+    /**
+     * Returns the number of results overwritten (ring mode) or rejected (capped mode).
+     *
+     * @return the dropped count
+     */
+    public long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Returns the maximum number of results the buffer keeps.
+     *
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the behavior of the buffer when full.
+     *
+     * @return the mode
+     */
+    public Mode getMode() {
+        return mode;
+    }
+}
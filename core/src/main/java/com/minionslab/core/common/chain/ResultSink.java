@@ -0,0 +1,102 @@
+package com.minionslab.core.common.chain;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * ResultSink is a thread-safe collector of {@link ProcessResult}s produced by processors running concurrently
+ * against a shared {@link ProcessContext}.
+ * <p>
+ * While a processor runs inside a {@link ParallelProcessorGroup}, a sink is bound to its thread and
+ * {@link #deliver(ProcessContext, ProcessResult)} routes results into the sink instead of the context, whose result
+ * store is not required to be thread-safe. The group then drains all sinks into the context from a single thread,
+ * in member order, once the group completes.
+ * <p>
+ * <b>Usage:</b> processors that record results should call {@link #deliver(ProcessContext, ProcessResult)} rather
+ * than {@link ProcessContext#addResult(ProcessResult)}, as {@link AbstractProcessor} does.
+ */
+public final class ResultSink {
+
+    private static final ThreadLocal<ResultSink> CURRENT = new ThreadLocal<>();
+
+    private final Queue<ProcessResult> results = new ConcurrentLinkedQueue<>();
+    private volatile boolean closed;
+
+    /**
+     * Adds a result to the sink. Results added after the sink has been drained are discarded.
+     *
+     * @param result the result to add
+     */
+    public void add(ProcessResult result) {
+        if (!closed && result != null) {
+            results.add(result);
+        }
+    }
+
+    /**
+     * Closes the sink and moves its results, in arrival order, into the given context.
+     *
+     * @param context the context to merge into
+     * @return the number of results merged
+     */
+    public int drainTo(ProcessContext context) {
+        closed = true;
+        int drained = 0;
+        ProcessResult result;
+        while ((result = results.poll()) != null) {
+            context.addResult(result);
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * Returns the number of results currently held by the sink.
+     *
+     * @return the result count
+     */
+    public int size() {
+        return results.size();
+    }
+
+    /**
+     * Records a result for the given context: into the sink bound to the current thread if there is one,
+     * otherwise directly into the context.
+     *
+     * @param context the context the result belongs to
+     * @param result  the result
+     */
+    public static void deliver(ProcessContext context, ProcessResult result) {
+        ResultSink sink = CURRENT.get();
+        if (sink != null) {
+            sink.add(result);
+        } else {
+            context.addResult(result);
+        }
+    }
+
+    /**
+     * Binds a sink to the current thread.
+     *
+     * @param sink the sink to bind
+     * @return the previously bound sink, to be passed to {@link #restore(ResultSink)}
+     */
+    static ResultSink bind(ResultSink sink) {
+        ResultSink previous = CURRENT.get();
+        CURRENT.set(sink);
+        return previous;
+    }
+
+    /**
+     * Restores the sink that was bound before {@link #bind(ResultSink)}.
+     *
+     * @param previous the previously bound sink, may be null
+     */
+    static void restore(ResultSink previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
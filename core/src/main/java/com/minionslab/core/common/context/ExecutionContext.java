@@ -0,0 +1,169 @@
+package com.minionslab.core.common.context;
+
+import com.minionslab.core.agent.AgentConfig;
+import com.minionslab.core.agent.AgentContext;
+import com.minionslab.core.common.security.context.TenantContextHolder;
+import org.slf4j.MDC;
+
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * ExecutionContext is an immutable snapshot of the thread-bound state the framework depends on: the
+ * {@link AgentConfig} read through {@link AgentContext#getConfig()}, the tenant and user of
+ * {@link TenantContextHolder}, and the logging {@link MDC} (trace and span ids of tracing bridges, request ids).
+ * <p>
+ * That state lives in {@link ThreadLocal}s, which a task handed to another thread, virtual or not, does not see.
+ * A snapshot is captured on the submitting thread and applied around the task on the executing thread, restoring
+ * whatever the executing thread held before once the task ends:
+ * <pre>
+ * ExecutionContext captured = ExecutionContext.capture();
+ * executor.execute(() -> {
+ *     try (ExecutionContext.Scope scope = captured.apply()) {
+ *         ...
+ *     }
+ * });
+ * </pre>
+ * The framework's executors do this already: {@link com.minionslab.core.common.chain.ChainExecutors#defaultExecutor()}
+ * and executors given to chains and model adaptors are wrapped with {@link #propagating(Executor)}, and the
+ * {@link com.minionslab.core.agent.AgentRuntime} runs submitted agents in the context they were submitted from.
+ * <p>
+ * <b>Extensibility:</b>
+ * <ul>
+ *   <li>Wrap custom executors with {@link #propagating(Executor)}, or tasks with the {@code wrap} methods.</li>
+ *   <li>{@link AgentContext#getExecutionContext()} carries the snapshot taken when the run started, with the
+ *   recipe's agent config, for code that hands work to threads it does not control.</li>
+ * </ul>
+ */
+public final class ExecutionContext {
+    /**
+     * A context holding nothing; applying it clears the thread-bound state for the scope.
+     */
+    public static final ExecutionContext EMPTY = new ExecutionContext(null, null, null, null);
+    
+    private final AgentConfig agentConfig;
+    private final String tenantId;
+    private final String userId;
+    private final Map<String, String> mdc;
+    
+    private ExecutionContext(AgentConfig agentConfig, String tenantId, String userId, Map<String, String> mdc) {
+        this.agentConfig = agentConfig;
+        this.tenantId = tenantId;
+        this.userId = userId;
+        this.mdc = mdc;
+    }
+    
+    /**
+     * Captures the state bound to the current thread.
+     *
+     * @return the snapshot
+     */
+    public static ExecutionContext capture() {
+        return new ExecutionContext(AgentContext.getConfig(), TenantContextHolder.getTenantId(),
+                                    TenantContextHolder.getUserId(), MDC.getCopyOfContextMap());
+    }
+    
+    /**
+     * Returns an executor that runs every task in the context captured when the task is submitted.
+     *
+     * @param executor the executor to wrap
+     * @return the propagating executor; the executor itself if it already propagates
+     */
+    public static Executor propagating(Executor executor) {
+        if (executor == null || executor instanceof PropagatingExecutor) {
+            return executor;
+        }
+        return new PropagatingExecutor(executor);
+    }
+    
+    public AgentConfig getAgentConfig() {
+        return agentConfig;
+    }
+    
+    public String getTenantId() {
+        return tenantId;
+    }
+    
+    public String getUserId() {
+        return userId;
+    }
+    
+    /**
+     * Returns a copy of this context with another agent config.
+     *
+     * @param agentConfig the agent config
+     * @return the new context
+     */
+    public ExecutionContext withAgentConfig(AgentConfig agentConfig) {
+        return new ExecutionContext(agentConfig, tenantId, userId, mdc);
+    }
+    
+    /**
+     * Binds this context to the current thread until the returned scope is closed, which restores the state the
+     * thread held before.
+     *
+     * @return the scope to close
+     */
+    public Scope apply() {
+        ExecutionContext previous = capture();
+        bind(this);
+        return () -> bind(previous);
+    }
+    
+    public Runnable wrap(Runnable task) {
+        return () -> {
+            try (Scope scope = apply()) {
+                task.run();
+            }
+        };
+    }
+    
+    public <T> Supplier<T> wrap(Supplier<T> task) {
+        return () -> {
+            try (Scope scope = apply()) {
+                return task.get();
+            }
+        };
+    }
+    
+    public <T, R> Function<T, R> wrap(Function<T, R> task) {
+        return input -> {
+            try (Scope scope = apply()) {
+                return task.apply(input);
+            }
+        };
+    }
+    
+    private static void bind(ExecutionContext context) {
+        if (context.agentConfig != null) {
+            AgentContext.setConfig(context.agentConfig);
+        } else {
+            AgentContext.clear();
+        }
+        TenantContextHolder.setTenantId(context.tenantId);
+        TenantContextHolder.setUserId(context.userId);
+        if (context.mdc != null) {
+            MDC.setContextMap(context.mdc);
+        } else {
+            MDC.clear();
+        }
+    }
+    
+    /**
+     * The binding of an {@link ExecutionContext} to a thread; closing it restores the previous state.
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+    
+    private record PropagatingExecutor(Executor delegate) implements Executor {
+        @Override
+        public void execute(Runnable command) {
+            delegate.execute(capture().wrap(command));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.minionslab.core.common.logging;
+
+import com.minionslab.core.common.chain.Chain;
+import com.minionslab.core.common.chain.ChainInstrumentation;
+import com.minionslab.core.common.chain.ProcessContext;
+import com.minionslab.core.common.chain.Processor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ChainLoggingInstrumentation logs chain and processor activity through the chain instrumentation hooks.
+ * <p>
+ * Successful chain and processor completions are logged at debug level for a sampled fraction of calls
+ * ({@code minions.instrumentation.chain.sample-rate}). Contexts are rendered as bounded summaries, never through
+ * their {@code toString}. Failures escaping a chain are always logged at error level and processor failures at
+ * warn level. With debug logging disabled, the success path costs one level check.
+ * <p>
+ * Enabled unless {@code minions.instrumentation.logging.enabled} is {@code false}. Without any instrumentation bean,
+ * chains keep {@link ChainInstrumentation#NOOP} and skip timing altogether.
+ */
+@Slf4j(topic = LoggingTopics.CHAIN)
+@Component
+@ConditionalOnProperty(name = "minions.instrumentation.logging.enabled", havingValue = "true", matchIfMissing = true)
+public class ChainLoggingInstrumentation implements ChainInstrumentation {
+
+    private final InstrumentationSettings settings;
+
+    public ChainLoggingInstrumentation(InstrumentationSettings settings) {
+        this.settings = settings;
+    }
+
+    @Override
+    public void onProcessorCompleted(Chain chain, Processor processor, ProcessContext context, long elapsedNanos, Throwable error) {
+        if (error != null) {
+            log.warn("[{}] Processor {} failed on {}: {}", ChainInstrumentation.nameOf(chain), ChainInstrumentation.nameOf(processor),
+                     LogSampling.render(context, settings.getMaxRenderLength()), error.getMessage());
+        } else if (LogSampling.sampled(log, settings.getChainSampleRate())) {
+            log.debug("[{}] Processor {} completed in {} us on {}", ChainInstrumentation.nameOf(chain), ChainInstrumentation.nameOf(processor),
+                      TimeUnit.NANOSECONDS.toMicros(elapsedNanos), LogSampling.render(context, settings.getMaxRenderLength()));
+        }
+    }
+
+    @Override
+    public void onChainCompleted(Chain chain, ProcessContext context, long elapsedNanos, Throwable error) {
+        if (error != null) {
+            log.error("[{}] Processing failed on {}: {}", ChainInstrumentation.nameOf(chain),
+                      LogSampling.render(context, settings.getMaxRenderLength()), error.getMessage(), error);
+        } else if (LogSampling.sampled(log, settings.getChainSampleRate())) {
+            log.debug("[{}] Processing completed in {} us with {}", ChainInstrumentation.nameOf(chain),
+                      TimeUnit.NANOSECONDS.toMicros(elapsedNanos), LogSampling.render(context, settings.getMaxRenderLength()));
+        }
+    }
+}
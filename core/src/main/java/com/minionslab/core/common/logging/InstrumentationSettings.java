@@ -0,0 +1,56 @@
+package com.minionslab.core.common.logging;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * InstrumentationSettings holds the sampling rates and rendering bounds used by the framework's debug
+ * instrumentation. Rates are probabilities in {@code [0, 1]}: {@code 0} never logs, {@code 1} logs every call.
+ * <p>
+ * Components that are not Spring beans (memories, memory managers) are handed the bean by the
+ * {@link com.minionslab.core.memory.MemoryFactory} that creates them, and use {@link #DEFAULTS} when created
+ * without it.
+ * <p>
+ * Properties:
+ * <ul>
+ *   <li>{@code minions.instrumentation.chain.sample-rate} (default 0.01)</li>
+ *   <li>{@code minions.instrumentation.memory.sample-rate} (default 0.01)</li>
+ *   <li>{@code minions.instrumentation.max-render-length} (default 256 characters per rendered argument)</li>
+ *   <li>{@code minions.instrumentation.logging.enabled} (default true; registers {@link ChainLoggingInstrumentation})</li>
+ * </ul>
+ */
+@Component
+public class InstrumentationSettings {
+
+    public static final double DEFAULT_SAMPLE_RATE = 0.01;
+    public static final int DEFAULT_MAX_RENDER_LENGTH = 256;
+
+    /**
+     * The settings of components created without a settings bean.
+     */
+    public static final InstrumentationSettings DEFAULTS = new InstrumentationSettings(DEFAULT_SAMPLE_RATE, DEFAULT_SAMPLE_RATE, DEFAULT_MAX_RENDER_LENGTH);
+
+    private final double chainSampleRate;
+    private final double memorySampleRate;
+    private final int maxRenderLength;
+
+    public InstrumentationSettings(@Value("${minions.instrumentation.chain.sample-rate:0.01}") double chainSampleRate,
+                                   @Value("${minions.instrumentation.memory.sample-rate:0.01}") double memorySampleRate,
+                                   @Value("${minions.instrumentation.max-render-length:256}") int maxRenderLength) {
+        this.chainSampleRate = chainSampleRate;
+        this.memorySampleRate = memorySampleRate;
+        this.maxRenderLength = maxRenderLength;
+    }
+
+    public double getChainSampleRate() {
+        return chainSampleRate;
+    }
+
+    public double getMemorySampleRate() {
+        return memorySampleRate;
+    }
+
+    public int getMaxRenderLength() {
+        return maxRenderLength;
+    }
+}
@@ -0,0 +1,103 @@
+package com.minionslab.core.common.logging;
+
+import com.minionslab.core.common.chain.ProcessContext;
+import com.minionslab.core.common.message.Message;
+import com.minionslab.core.memory.query.MemoryQuery;
+import org.slf4j.Logger;
+
+import java.time.temporal.TemporalAccessor;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * LogSampling provides the sampling decision and size-bounded argument rendering used by debug instrumentation.
+ * <p>
+ * {@link #sampled(Logger, double)} checks the logger level first, so with debug logging off a call costs a single
+ * level check. {@link #render(Object, int)} never calls {@code toString} on contexts or collections: contexts are
+ * summarized by type, recipe and result count, collections and maps by size and a bounded prefix, queries by
+ * subsystem and limit, and every rendering is truncated to the given length. Only strings, numbers, enums, times and
+ * ids are rendered with {@code toString}; any other value is rendered as its type and identity hash.
+ */
+public final class LogSampling {
+
+    private static final int MAX_RENDERED_ELEMENTS = 3;
+
+    private LogSampling() {
+    }
+
+    /**
+     * Returns true if debug logging is enabled for the logger and this call falls within the sample rate.
+     *
+     * @param log        the logger
+     * @param sampleRate the probability of logging, in {@code [0, 1]}
+     * @return true if the call should be logged
+     */
+    public static boolean sampled(Logger log, double sampleRate) {
+        if (sampleRate <= 0 || !log.isDebugEnabled()) {
+            return false;
+        }
+        return sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    /**
+     * Renders a value for a log line without exceeding the given length.
+     *
+     * @param value     the value to render
+     * @param maxLength the maximum number of characters
+     * @return the bounded rendering
+     */
+    public static String render(Object value, int maxLength) {
+        StringBuilder out = new StringBuilder(Math.min(maxLength, 64));
+        append(out, value, maxLength);
+        return truncate(out, maxLength);
+    }
+
+    private static void append(StringBuilder out, Object value, int maxLength) {
+        if (value == null) {
+            out.append("null");
+        } else if (value instanceof CharSequence text) {
+            out.append(text, 0, Math.min(text.length(), maxLength + 1));
+        } else if (value instanceof ProcessContext<?> context) {
+            out.append(value.getClass().getSimpleName())
+               .append("{recipe=").append(context.getRecipeId())
+               .append(", results=").append(context.getResults() != null ? context.getResults().size() : 0)
+               .append('}');
+        } else if (value instanceof Message message) {
+            out.append(value.getClass().getSimpleName())
+               .append("{id=").append(message.getId())
+               .append(", role=").append(message.getRole())
+               .append('}');
+        } else if (value instanceof Collection<?> collection) {
+            out.append(value.getClass().getSimpleName()).append("[size=").append(collection.size());
+            Iterator<?> iterator = collection.iterator();
+            for (int i = 0; i < MAX_RENDERED_ELEMENTS && iterator.hasNext() && out.length() < maxLength; i++) {
+                out.append(i == 0 ? ": " : ", ");
+                append(out, iterator.next(), maxLength - out.length());
+            }
+            out.append(']');
+        } else if (value instanceof Map<?, ?> map) {
+            out.append(value.getClass().getSimpleName()).append("{size=").append(map.size()).append('}');
+        } else if (value instanceof MemoryQuery query) {
+            out.append("MemoryQuery{subsystem=").append(query.getSubsystems())
+               .append(", limit=").append(query.getLimit())
+               .append('}');
+        } else if (value instanceof Object[] array) {
+            out.append("Object[").append(array.length).append(']');
+        } else if (value instanceof Number || value instanceof Boolean || value instanceof Character || value instanceof Enum<?>
+                           || value instanceof TemporalAccessor || value instanceof UUID) {
+            out.append(value);
+        } else {
+            out.append(value.getClass().getSimpleName()).append('@').append(Integer.toHexString(System.identityHashCode(value)));
+        }
+    }
+
+    private static String truncate(StringBuilder out, int maxLength) {
+        if (out.length() <= maxLength) {
+            return out.toString();
+        }
+        return out.substring(0, Math.max(0, maxLength - 3)) + "...";
+    }
+}
@@ -7,56 +7,94 @@ import lombok.experimental.SuperBuilder;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Supplier;
+import java.util.function.Function;
 
+/**
+ * Base class of the messages kept in memory, laid out to stay small when millions of them are held at once.
+ * <p>
+ * The accessors {@link #getFieldValue(String)} queries through are one static table per class, not a map of
+ * lambdas per instance. Metadata is only allocated once a message has some: a message built without metadata
+ * returns a shared, read-only empty map from {@link #getMetadata()} until {@link #putMetadata(String, Object)} gives
+ * it its own. Role and scope are enum constants, shared by every message.
+ * <p>
+ * <b>Extensibility:</b> a subclass adding a field that should be queryable declares its own table with
+ * {@link #extendFieldAccessors(Map, Map)} and returns it from {@link #fieldAccessors()}; otherwise queries against
+ * that field will not see it.
+ */
 @Data
 @Accessors
 @SuperBuilder(toBuilder = true)
 public abstract class AbstractMessage implements Message {
-    
+
+    protected static final Map<String, Function<AbstractMessage, Object>> FIELD_ACCESSORS = Map.of(
+            "id", AbstractMessage::getId,
+            "content", AbstractMessage::getContent,
+            "role", AbstractMessage::getRole,
+            "scope", AbstractMessage::getScope,
+            "tokenCount", AbstractMessage::getTokenCount,
+            "metadata", AbstractMessage::getMetadata,
+            "conversationId", AbstractMessage::getConversationId,
+            "timestamp", AbstractMessage::getTimestamp);
+
     protected String id;
     protected String conversationId;
     protected Instant timestamp;
     protected MessageRole role;
     protected MessageScope scope;
-    /*
-     * This is a map of getter suppliers. If you want to be able to query messages by their static fields then they need to be added to this map otherwise they won't be visible
-     * to the query executor
-     * */
     protected int tokenCount;
-    private Map<String, Object> metadata = new HashMap<>();
-    protected final Map<String, Supplier<Object>> fieldAccessors = populateFieldAccessors();
-    
-    
+    private Map<String, Object> metadata;
+
+
     protected AbstractMessage() {
-    
+
     }
-    
-    
+
+    /**
+     * Returns the accessors of the queryable fields of this class. Subclasses with queryable fields of their own
+     * override this to return their static table.
+     *
+     * @return the accessors by field name, shared by every instance of the class
+     */
+    protected Map<String, Function<AbstractMessage, Object>> fieldAccessors() {
+        return FIELD_ACCESSORS;
+    }
+
     /**
-     * It is important to remember that if a field added to this entity, you need to add its accessor to this map otherwise the qurying against that field will not work
-     * @return a map of all the fieldAccessors for this object
+     * Builds the accessor table of a subclass from the table of its superclass.
+     *
+     * @param inherited the table of the superclass
+     * @param added     the accessors of the fields the subclass adds
+     * @return an immutable table with both
      */
-    protected Map<String, Supplier<Object>> populateFieldAccessors() {
-        Map<String, Supplier<Object>> accessors = new HashMap<>();
-        accessors.putAll(Map.of(
-                "id", this::getId,
-                "content", this::getContent,
-                "role", this::getRole,
-                "scope", this::getScope,
-                "tokenCount", this::getTokenCount,
-                "metadata", this::getMetadata,
-                "conversationId", this::getConversationId));
-        return accessors;
+    protected static Map<String, Function<AbstractMessage, Object>> extendFieldAccessors(
+            Map<String, Function<AbstractMessage, Object>> inherited, Map<String, Function<AbstractMessage, Object>> added) {
+        Map<String, Function<AbstractMessage, Object>> accessors = new HashMap<>(inherited);
+        accessors.putAll(added);
+        return Map.copyOf(accessors);
     }
-    
+
     @Override
     public Object getFieldValue(String field) {
-        Supplier<Object> supplier = this.getFieldAccessors().get(field);
-        if (supplier != null)
-            return supplier.get();
+        Function<AbstractMessage, Object> accessor = fieldAccessors().get(field);
+        if (accessor != null)
+            return accessor.apply(this);
         return null;
     }
-    
-    
+
+    /**
+     * Returns the metadata of this message: the map it was given, or a shared read-only empty map if it has none yet.
+     * Use {@link #putMetadata(String, Object)} to add an entry to a message that may have no metadata.
+     */
+    @Override
+    public Map<String, Object> getMetadata() {
+        return metadata != null ? metadata : Map.of();
+    }
+
+    @Override
+    public void putMetadata(String key, Object value) {
+        if (metadata == null) {
+            metadata = new HashMap<>();
+        }
+        metadata.put(key, value);
+    }
 }
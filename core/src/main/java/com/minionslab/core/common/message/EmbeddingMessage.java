@@ -6,20 +6,21 @@ import lombok.experimental.Accessors;
 import lombok.experimental.SuperBuilder;
 
 import java.util.Map;
-import java.util.function.Supplier;
+import java.util.function.Function;
 
 @Data
 @Accessors
 @SuperBuilder
 public class EmbeddingMessage extends SimpleMessage {
     
+    protected static final Map<String, Function<AbstractMessage, Object>> FIELD_ACCESSORS = extendFieldAccessors(
+            SimpleMessage.FIELD_ACCESSORS, Map.of("embedding", message -> ((EmbeddingMessage) message).getEmbedding()));
+    
     private float[] embedding;
     
     
     @Override
-    protected Map<String, Supplier<Object>> populateFieldAccessors() {
-        Map<String, Supplier<Object>> supplierMap = super.populateFieldAccessors();
-        supplierMap.put("embedding", this::getEmbedding);
-        return supplierMap;
+    protected Map<String, Function<AbstractMessage, Object>> fieldAccessors() {
+        return FIELD_ACCESSORS;
     }
 }
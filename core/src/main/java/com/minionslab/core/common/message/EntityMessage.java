@@ -5,13 +5,16 @@ import lombok.experimental.Accessors;
 import lombok.experimental.SuperBuilder;
 
 import java.util.Map;
-import java.util.function.Supplier;
+import java.util.function.Function;
 
 @Data
 @Accessors
 @SuperBuilder
 public class EntityMessage extends SimpleMessage {
     
+    protected static final Map<String, Function<AbstractMessage, Object>> FIELD_ACCESSORS = extendFieldAccessors(
+            SimpleMessage.FIELD_ACCESSORS, Map.of("entity", message -> ((EntityMessage) message).getEntity()));
+    
     
     /**
      * The entity extracted or created by the LLM. Can be a Map or a POJO.
@@ -28,9 +31,7 @@ public class EntityMessage extends SimpleMessage {
     
     
     @Override
-    protected Map<String, Supplier<Object>> populateFieldAccessors() {
-        Map<String, Supplier<Object>> supplierMap = super.populateFieldAccessors();
-        supplierMap.put("entity", this::getEntity);
-        return supplierMap;
+    protected Map<String, Function<AbstractMessage, Object>> fieldAccessors() {
+        return FIELD_ACCESSORS;
     }
 }
@@ -4,9 +4,6 @@ import lombok.Data;
 import lombok.experimental.Accessors;
 import lombok.experimental.SuperBuilder;
 
-import java.util.Map;
-import java.util.function.Supplier;
-
 
 
 @Data
@@ -17,13 +14,6 @@ public class SimpleMessage extends AbstractMessage {
     private String content;
     
     
-    @Override
-    protected Map<String, Supplier<Object>> populateFieldAccessors() {
-        Map<String, Supplier<Object>> supplierMap = super.populateFieldAccessors();
-        supplierMap.put("content", this::getContent);
-        return supplierMap;
-    }
-    
     @Override
     public String toPromptString() {
         return "[" + role + "] " + content;
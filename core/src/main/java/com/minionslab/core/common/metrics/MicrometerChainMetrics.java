@@ -0,0 +1,155 @@
+package com.minionslab.core.common.metrics;
+
+import com.minionslab.core.common.chain.Chain;
+import com.minionslab.core.common.chain.ChainInstrumentation;
+import com.minionslab.core.common.chain.ProcessContext;
+import com.minionslab.core.common.chain.Processor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * MicrometerChainMetrics exports chain and processor statistics to Micrometer.
+ * <p>
+ * Meters (all tagged with {@code chain} and {@code recipe}; processor meters also with {@code processor}):
+ * <ul>
+ *   <li>{@value #CHAIN_TIMER} - chain latency and throughput, tagged with {@code outcome}.</li>
+ *   <li>{@value #PROCESSOR_TIMER} - processor latency and throughput, tagged with {@code outcome}
+ *   ({@code success} or {@code error}); the count of {@code error} samples is the error count.</li>
+ *   <li>{@value #PROCESSOR_SKIPPED} - how often a processor declined a context. Together with the processor timer's
+ *   count it gives the accept/skip ratio.</li>
+ * </ul>
+ * The recipe tag is taken from {@link ProcessContext#getRecipeId()}; contexts not tied to a recipe are tagged
+ * {@value #UNKNOWN}. Meters are cached per chain and processor class, then per recipe, so recording after the first
+ * sample is a few lookups and a meter update, without allocating. Timers do not publish percentile histograms; enable
+ * them per meter with {@code management.metrics.distribution.percentiles-histogram.<meter name>=true}.
+ * <p>
+ * Enabled unless {@code minions.instrumentation.metrics.enabled} is {@code false}. Uses the application's
+ * {@link MeterRegistry} when one is available, otherwise Micrometer's global registry.
+ */
+@Component
+@ConditionalOnProperty(name = "minions.instrumentation.metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class MicrometerChainMetrics implements ChainInstrumentation {
+
+    public static final String CHAIN_TIMER = "minions.chain.duration";
+    public static final String PROCESSOR_TIMER = "minions.processor.duration";
+    public static final String PROCESSOR_SKIPPED = "minions.processor.skipped";
+    public static final String UNKNOWN = "none";
+
+    private static final String OUTCOME_SUCCESS = "success";
+    private static final String OUTCOME_ERROR = "error";
+
+    private final MeterRegistry registry;
+    private final Map<Class<?>, ChainMeters> chains = new ConcurrentHashMap<>();
+
+    @Autowired
+    public MicrometerChainMetrics(ObjectProvider<MeterRegistry> registryProvider) {
+        this(registryProvider.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    public MicrometerChainMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void onProcessorSkipped(Chain chain, Processor processor, ProcessContext context) {
+        metersOf(chain).of(processor).skipped(recipeOf(context)).increment();
+    }
+
+    @Override
+    public void onProcessorCompleted(Chain chain, Processor processor, ProcessContext context, long elapsedNanos, Throwable error) {
+        metersOf(chain).of(processor).timer(recipeOf(context), error).record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void onChainCompleted(Chain chain, ProcessContext context, long elapsedNanos, Throwable error) {
+        metersOf(chain).timer(recipeOf(context), error).record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private ChainMeters metersOf(Chain chain) {
+        ChainMeters meters = chains.get(chain.getClass());
+        return meters != null ? meters : chains.computeIfAbsent(chain.getClass(), type -> new ChainMeters(ChainInstrumentation.nameOf(chain)));
+    }
+
+    private static String recipeOf(ProcessContext context) {
+        String recipeId = context != null ? context.getRecipeId() : null;
+        return recipeId != null ? recipeId : UNKNOWN;
+    }
+
+    private static <M> M lookup(Map<String, M> meters, String recipe, Function<String, M> register) {
+        M meter = meters.get(recipe);
+        return meter != null ? meter : meters.computeIfAbsent(recipe, register);
+    }
+
+    public MeterRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * The meters of one chain: its own timers by recipe and the meters of its processors by processor class.
+     */
+    private final class ChainMeters {
+        private final String chain;
+        private final Map<String, Timer> succeeded = new ConcurrentHashMap<>();
+        private final Map<String, Timer> failed = new ConcurrentHashMap<>();
+        private final Map<Class<?>, ProcessorMeters> processors = new ConcurrentHashMap<>();
+
+        private ChainMeters(String chain) {
+            this.chain = chain;
+        }
+
+        private ProcessorMeters of(Processor processor) {
+            ProcessorMeters meters = processors.get(processor.getClass());
+            return meters != null ? meters : processors.computeIfAbsent(processor.getClass(), type -> new ProcessorMeters(chain, ChainInstrumentation.nameOf(processor)));
+        }
+
+        private Timer timer(String recipe, Throwable error) {
+            String outcome = error == null ? OUTCOME_SUCCESS : OUTCOME_ERROR;
+            return lookup(error == null ? succeeded : failed, recipe, r -> Timer.builder(CHAIN_TIMER)
+                                                                             .description("Time spent processing a context through a chain")
+                                                                             .tags("chain", chain, "recipe", r, "outcome", outcome)
+                                                                             .register(registry));
+        }
+    }
+
+    /**
+     * The meters of one processor within one chain, by recipe.
+     */
+    private final class ProcessorMeters {
+        private final String chain;
+        private final String processor;
+        private final Map<String, Timer> succeeded = new ConcurrentHashMap<>();
+        private final Map<String, Timer> failed = new ConcurrentHashMap<>();
+        private final Map<String, Counter> skipped = new ConcurrentHashMap<>();
+
+        private ProcessorMeters(String chain, String processor) {
+            this.chain = chain;
+            this.processor = processor;
+        }
+
+        private Timer timer(String recipe, Throwable error) {
+            String outcome = error == null ? OUTCOME_SUCCESS : OUTCOME_ERROR;
+            return lookup(error == null ? succeeded : failed, recipe, r -> Timer.builder(PROCESSOR_TIMER)
+                                                                             .description("Time spent in a chain processor")
+                                                                             .tags("chain", chain, "processor", processor, "recipe", r, "outcome", outcome)
+                                                                             .register(registry));
+        }
+
+        private Counter skipped(String recipe) {
+            return lookup(skipped, recipe, r -> Counter.builder(PROCESSOR_SKIPPED)
+                                                       .description("Contexts declined by a processor")
+                                                       .tags("chain", chain, "processor", processor, "recipe", r)
+                                                       .register(registry));
+        }
+    }
+}
@@ -40,6 +40,19 @@ public class DeafultChainConfiguration {
             public boolean accepts(ProcessContext context) {
                 return context instanceof AgentContext;
             }
+            
+            @Override
+            public Class<? extends ProcessContext> getContextType() {
+                return AgentContext.class;
+            }
+            
+            /**
+             * Default agent chain; yields to any application-defined chain for {@link AgentContext}.
+             */
+            @Override
+            public int getPriority() {
+                return Chain.FALLBACK_PRIORITY;
+            }
         };
         return chain;
         
@@ -1,6 +1,8 @@
 package com.minionslab.core.memory;
 
 import com.minionslab.core.common.chain.ProcessContext;
+import com.minionslab.core.common.logging.InstrumentationSettings;
+import com.minionslab.core.common.logging.LogSampling;
 import com.minionslab.core.common.message.Message;
 import com.minionslab.core.memory.query.MemoryQuery;
 import com.minionslab.core.memory.strategy.MemoryPersistenceStrategy;
@@ -10,6 +12,7 @@ import org.slf4j.LoggerFactory;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 //todo should memory context carry the level of operators, like Agent, Step, Model call?
@@ -19,6 +22,7 @@ public abstract class AbstractMemory<T extends ProcessContext, K extends Message
     
     private final MemorySubsystem memorySubsystem;
     private final MemoryPersistenceStrategy persistenceStrategy;
+    private volatile InstrumentationSettings instrumentationSettings = InstrumentationSettings.DEFAULTS;
     
     
     public AbstractMemory(MemorySubsystem memorySubsystem, MemoryPersistenceStrategy persistenceStrategy) {
@@ -59,9 +63,8 @@ public abstract class AbstractMemory<T extends ProcessContext, K extends Message
                 break;
             case RETRIEVE:
             case QUERY:
-                log.debug("[{}] Querying messages", memorySubsystem);
                 Instant startedAt = Instant.now();
-                List<Message> results = persistenceStrategy.fetchCandidateMessages(memoryContext.getMemoryRequest().getQuery());
+                List<Message> results = fetch(memoryContext.getMemoryRequest().getQuery());
                 input.getResults().clear();
                 if (results != null && !results.isEmpty()) {
                     MemoryResult<Message> result = new MemoryResult<>(
@@ -175,13 +178,40 @@ public abstract class AbstractMemory<T extends ProcessContext, K extends Message
      */
     @Override
     public List<K> query(MemoryQuery query) {
-        log.debug("[{}] Querying messages", memorySubsystem);
-        Instant startedAt = Instant.now();
-        List list = persistenceStrategy.fetchCandidateMessages(query);
+        List list = fetch(query);
         List<K> results = list;
         return results;
     }
     
+    /**
+     * Fetches the messages matching a query from the persistence strategy. A sampled fraction of queries
+     * ({@code minions.instrumentation.memory.sample-rate}) is logged at debug level with its latency and a
+     * size-bounded rendering of the query.
+     *
+     * @param query the memory query
+     * @return the matching messages
+     */
+    private List<Message> fetch(MemoryQuery query) {
+        InstrumentationSettings settings = instrumentationSettings;
+        if (!LogSampling.sampled(log, settings.getMemorySampleRate())) {
+            return persistenceStrategy.fetchCandidateMessages(query);
+        }
+        long start = System.nanoTime();
+        List<Message> results = persistenceStrategy.fetchCandidateMessages(query);
+        log.debug("[{}] Query {} returned {} messages in {} us", memorySubsystem, LogSampling.render(query, settings.getMaxRenderLength()),
+                  results != null ? results.size() : 0, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+        return results;
+    }
+    
+    /**
+     * Sets the sampling settings of this memory's query log.
+     *
+     * @param instrumentationSettings the settings, or null for {@link InstrumentationSettings#DEFAULTS}
+     */
+    public void setInstrumentationSettings(InstrumentationSettings instrumentationSettings) {
+        this.instrumentationSettings = instrumentationSettings != null ? instrumentationSettings : InstrumentationSettings.DEFAULTS;
+    }
+    
     /**
      * Determines if this memory accepts the given context. Accepts all by default.
      *
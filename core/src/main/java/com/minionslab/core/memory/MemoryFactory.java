@@ -1,10 +1,14 @@
 package com.minionslab.core.memory;
 
 import com.minionslab.core.common.chain.Processor;
+import com.minionslab.core.common.logging.InstrumentationSettings;
+import com.minionslab.core.common.logging.LogSampling;
+import com.minionslab.core.common.logging.LoggingTopics;
 import com.minionslab.core.common.message.Message;
 import com.minionslab.core.memory.strategy.MemoryQueryStrategy;
 import com.minionslab.core.memory.strategy.MemoryStrategy;
 import com.minionslab.core.memory.strategy.MemoryStrategyRegistry;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -20,7 +24,11 @@ import java.util.List;
  * This class is designed for extensibility: you can override or extend it to support custom
  * memory types, registration logic, or advanced memory construction patterns. It supports
  * dynamic discovery and registration of memory strategies and definitions.
+ * <p>
+ * Memories and managers it creates log with the factory's {@link InstrumentationSettings}; a sampled fraction of the
+ * memories it builds is logged at debug level.
  */
+@Slf4j(topic = LoggingTopics.MEMORY_STRATEGY)
 @Component
 public class MemoryFactory {
     /**
@@ -35,16 +43,32 @@ public class MemoryFactory {
     
     private List<MemoryQueryStrategy> queryStrategies;
     
+    private final InstrumentationSettings instrumentationSettings;
+    
+    /**
+     * Constructs a MemoryFactory with the given strategy and definition registries and the default instrumentation
+     * settings.
+     *
+     * @param registry                 the memory strategy registry
+     * @param memoryDefinitionRegistry the memory definition registry
+     */
+    public MemoryFactory(MemoryStrategyRegistry registry, MemoryDefinitionRegistry memoryDefinitionRegistry, ObjectProvider<List<MemoryQueryStrategy>> objectProvider) {
+        this(registry, memoryDefinitionRegistry, objectProvider, InstrumentationSettings.DEFAULTS);
+    }
+    
     /**
      * Constructs a MemoryFactory with the given strategy and definition registries.
      *
      * @param registry                 the memory strategy registry
      * @param memoryDefinitionRegistry the memory definition registry
+     * @param instrumentationSettings  the log sampling settings handed to the memories and managers it creates
      */
     @Autowired
-    public MemoryFactory(MemoryStrategyRegistry registry, MemoryDefinitionRegistry memoryDefinitionRegistry, ObjectProvider<List<MemoryQueryStrategy>> objectProvider) {
+    public MemoryFactory(MemoryStrategyRegistry registry, MemoryDefinitionRegistry memoryDefinitionRegistry, ObjectProvider<List<MemoryQueryStrategy>> objectProvider,
+                         InstrumentationSettings instrumentationSettings) {
         this.registry = registry;
         this.memoryDefinitionRegistry = memoryDefinitionRegistry;
+        this.instrumentationSettings = instrumentationSettings != null ? instrumentationSettings : InstrumentationSettings.DEFAULTS;
         
         objectProvider.ifAvailable(queryStrategies -> this.queryStrategies = queryStrategies);
     }
@@ -57,28 +81,89 @@ public class MemoryFactory {
      * @throws IllegalArgumentException if a memory name is null, blank, or not found
      */
     public MemoryManager createMemories(List<MemorySubsystem> memoryNames) {
+        return createMemoriesByDefinitions(resolveDefinitions(memoryNames));
+    }
+    
+    /**
+     * Resolves the definitions of the given memory subsystems, e.g. once per recipe so that runs can build their
+     * memories with {@link #createMemoriesByDefinitions(List)} without looking them up again.
+     *
+     * @param memoryNames the memory subsystems, or null for none
+     * @return the definitions, in the order of the subsystems
+     * @throws IllegalArgumentException if a subsystem is null or has no definition
+     */
+    public List<MemoryDefinition> resolveDefinitions(List<MemorySubsystem> memoryNames) {
         List<MemoryDefinition> definitions = new ArrayList<>();
-        for (MemorySubsystem memoryName : memoryNames) {
-            if (memoryName == null) {
-                throw new IllegalArgumentException("Memory name is null or blank");
-            }
-            MemoryDefinition def = memoryDefinitionRegistry.getMemoryDefinition(memoryName);
-            if (def == null) {
-                throw new IllegalArgumentException("Memory definition not found for name: " + memoryName);
+        if (memoryNames != null) {
+            for (MemorySubsystem memoryName : memoryNames) {
+                definitions.add(getDefinition(memoryName));
             }
-            definitions.add(def);
         }
-        return createMemoriesByDefinitions(definitions);
+        return definitions;
+    }
+    
+    /**
+     * Creates a single memory for the given subsystem, using its definition. Each call builds a new memory with its
+     * own store.
+     *
+     * @param memoryName the memory subsystem
+     * @return the new memory
+     * @throws IllegalArgumentException if the subsystem is null or has no definition
+     */
+    public Memory<MemoryContext, Message> createMemory(MemorySubsystem memoryName) {
+        return build(getDefinition(memoryName));
+    }
+    
+    /**
+     * Creates a MemoryManager over existing memories, e.g. the pooled memories of a
+     * {@link com.minionslab.core.memory.session.MemorySession}.
+     *
+     * @param memories the memories to coordinate
+     * @return a MemoryManager using this factory's query strategies
+     */
+    public MemoryManager createMemoryManager(List<Memory<MemoryContext, Message>> memories) {
+        return new MemoryManager(memories, queryStrategies, instrumentationSettings);
+    }
+    
+    private MemoryDefinition getDefinition(MemorySubsystem memoryName) {
+        if (memoryName == null) {
+            throw new IllegalArgumentException("Memory name is null or blank");
+        }
+        MemoryDefinition def = memoryDefinitionRegistry.getMemoryDefinition(memoryName);
+        if (def == null) {
+            throw new IllegalArgumentException("Memory definition not found for name: " + memoryName);
+        }
+        return def;
     }
     
     // Create the Memory Chain using strategies from the recipe, filling in missing types with defaults
     public MemoryManager createMemoriesByDefinitions(List<MemoryDefinition> definitions) {
+        return createMemoryManager(buildMemories(definitions));
+    }
+    
+    /**
+     * Builds one memory per definition, in order, without a MemoryManager over them, e.g. to pool the memories and
+     * hand each run a manager of its own with {@link #createMemoryManager(List)}.
+     *
+     * @param definitions the resolved memory definitions
+     * @return the new memories
+     */
+    public List<Memory<MemoryContext, Message>> buildMemories(List<MemoryDefinition> definitions) {
         List<Memory<MemoryContext,Message>> memories = new ArrayList<>();
         
         for (MemoryDefinition definition : definitions) {
-            AbstractMemory abstractMemory = definition.buildMemory();
-            memories.add(abstractMemory);
+            memories.add(build(definition));
+        }
+        return memories;
+    }
+    
+    private AbstractMemory build(MemoryDefinition definition) {
+        AbstractMemory memory = definition.buildMemory();
+        memory.setInstrumentationSettings(instrumentationSettings);
+        if (LogSampling.sampled(log, instrumentationSettings.getMemorySampleRate())) {
+            log.debug("Built {} memory {} with {}", definition.getMemorySubsystem(), definition.getMemoryName(),
+                      LogSampling.render(definition.getPersistStrategy(), instrumentationSettings.getMaxRenderLength()));
         }
-        return new MemoryManager(memories, queryStrategies);
+        return memory;
     }
 }
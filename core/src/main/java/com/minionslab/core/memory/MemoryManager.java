@@ -2,16 +2,22 @@ package com.minionslab.core.memory;
 
 import com.minionslab.core.common.chain.ProcessContext;
 import com.minionslab.core.common.chain.Processor;
+import com.minionslab.core.common.logging.InstrumentationSettings;
+import com.minionslab.core.common.logging.LogSampling;
+import com.minionslab.core.common.logging.LoggingTopics;
 import com.minionslab.core.common.message.Message;
 import com.minionslab.core.memory.query.MemoryQuery;
 import com.minionslab.core.memory.query.expression.Expr;
 import com.minionslab.core.memory.strategy.MemoryQueryStrategy;
 import jdk.jshell.spi.ExecutionControl;
+import lombok.extern.slf4j.Slf4j;
 
 import javax.naming.OperationNotSupportedException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 
 /**
  * MemoryManager coordinates memory operations (store, retrieve, flush, etc.)
@@ -22,13 +28,22 @@ import java.util.Objects;
  * The chain-of-responsibility design enables custom memory strategies, ordering,
  * and composition. You can extend this class or provide custom processors to
  * support new memory types, hybrid memory, or advanced behaviors.
+ * <p>
+ * A sampled fraction of stores and queries ({@code minions.instrumentation.memory.sample-rate}) is logged at debug
+ * level; failed queries are always logged.
  */
+@Slf4j(topic = LoggingTopics.MEMORY_STRATEGY)
 public class MemoryManager implements Memory {
     /**
      * The list of memory processors (strategies) in the chain.
      */
     private final List<Memory<MemoryContext, Message>> memories;
     private final List<MemoryQueryStrategy> queryStrategies;
+    /**
+     * Notified of every message stored through this manager, e.g. to checkpoint the run's memory delta.
+     */
+    private volatile BiConsumer<MemorySubsystem, Message> storeListener;
+    private final InstrumentationSettings instrumentationSettings;
     
     /**
      * Constructs a MemoryManager with the given list of memory processors.
@@ -36,8 +51,21 @@ public class MemoryManager implements Memory {
      * @param memories the list of memory processors (strategies)
      */
     public MemoryManager(List<Memory<MemoryContext, Message>> memories, List<MemoryQueryStrategy> strategies) {
+        this(memories, strategies, InstrumentationSettings.DEFAULTS);
+    }
+    
+    /**
+     * Constructs a MemoryManager with the given list of memory processors and log sampling settings.
+     *
+     * @param memories                the list of memory processors (strategies)
+     * @param strategies              the query strategies
+     * @param instrumentationSettings the sampling settings of the debug log, or null for the defaults
+     */
+    public MemoryManager(List<Memory<MemoryContext, Message>> memories, List<MemoryQueryStrategy> strategies,
+                         InstrumentationSettings instrumentationSettings) {
         this.memories = memories;
         this.queryStrategies = strategies;
+        this.instrumentationSettings = instrumentationSettings != null ? instrumentationSettings : InstrumentationSettings.DEFAULTS;
     }
     
     /**
@@ -108,6 +136,27 @@ public class MemoryManager implements Memory {
                 memory.store(message);
             }
         }
+        if (LogSampling.sampled(log, instrumentationSettings.getMemorySampleRate())) {
+            log.debug("[{}] Stored {}", memorySubsystem, LogSampling.render(message, instrumentationSettings.getMaxRenderLength()));
+        }
+        notifyStored(memorySubsystem, message);
+    }
+    
+    /**
+     * Sets the listener notified of every message stored through {@link #store(MemorySubsystem, Message)} and
+     * {@link #storeAll(List, MemorySubsystem)}, after the memories stored it.
+     *
+     * @param storeListener the listener, or null to remove it
+     */
+    public void setStoreListener(BiConsumer<MemorySubsystem, Message> storeListener) {
+        this.storeListener = storeListener;
+    }
+    
+    private void notifyStored(MemorySubsystem memorySubsystem, Message message) {
+        BiConsumer<MemorySubsystem, Message> listener = storeListener;
+        if (listener != null) {
+            listener.accept(memorySubsystem, message);
+        }
     }
     
     @Override
@@ -116,9 +165,24 @@ public class MemoryManager implements Memory {
     }
     
     private List<Message> execute(MemoryQuery query) {
-        return memories.stream()
-                       .flatMap(memory -> memory.query(query).stream())
-                       .toList();
+        boolean sampled = LogSampling.sampled(log, instrumentationSettings.getMemorySampleRate());
+        long start = sampled ? System.nanoTime() : 0L;
+        List<Message> results;
+        try {
+            results = memories.stream()
+                              .flatMap(memory -> memory.query(query).stream())
+                              .toList();
+        } catch (RuntimeException e) {
+            log.error("[{}] Query {} failed: {}", getMemorySubsystem(), LogSampling.render(query, instrumentationSettings.getMaxRenderLength()),
+                      e.getMessage(), e);
+            throw e;
+        }
+        if (sampled) {
+            log.debug("[{}] Query {} returned {} messages from {} memories in {} us", getMemorySubsystem(),
+                      LogSampling.render(query, instrumentationSettings.getMaxRenderLength()), results.size(), memories.size(),
+                      TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+        }
+        return results;
     }
     
     public List<Message> query(ProcessContext context) {
@@ -149,5 +213,8 @@ public class MemoryManager implements Memory {
                      .forEach(memory -> {
                          memory.storeAll(messages);
                      });
+        if (storeListener != null && messages != null) {
+            messages.forEach(message -> notifyStored(memorySubsystem, message));
+        }
     }
 }
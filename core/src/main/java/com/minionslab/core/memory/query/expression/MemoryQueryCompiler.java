@@ -0,0 +1,234 @@
+package com.minionslab.core.memory.query.expression;
+
+import com.minionslab.core.common.message.Message;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * MemoryQueryCompiler turns a {@link MemoryQueryExpression} tree into a {@link Predicate} over messages, once per
+ * query, for stores and callers that filter messages in memory.
+ * <p>
+ * {@link MemoryQueryExpression#evaluate(Message)} resolves every field by name through
+ * {@link Message#getFieldValue(String)} and walks logical nodes with a stream per node and message. The compiled
+ * predicate does that work up front:
+ * <ul>
+ *   <li>fields declared by {@link Message} ({@code id}, {@code conversationId}, {@code content}, {@code role},
+ *   {@code scope}, {@code timestamp}, {@code tokenCount}, {@code metadata}) are read through their getters; other
+ *   fields still go through {@link Message#getFieldValue(String)}</li>
+ *   <li>enum values are compared by identity, and {@code tokenCount} without boxing</li>
+ *   <li>ANDs and ORs of up to three children are unrolled into one predicate, longer ones loop over an array;
+ *   always-true and never-true children are folded away</li>
+ * </ul>
+ * Testing a message allocates nothing. The predicate accepts the messages {@code evaluate} accepts, except that
+ * expressions comparing against a null value or time, which {@code evaluate} fails on with a
+ * {@link NullPointerException}, match no message.
+ * <p>
+ * <b>Extensibility:</b> expression types the compiler does not know are kept as {@code expression::evaluate}, so
+ * custom expressions work unchanged inside compiled trees.
+ */
+public final class MemoryQueryCompiler {
+    private static final Predicate<Message> ALWAYS = message -> true;
+    private static final Predicate<Message> NEVER = message -> false;
+
+    private MemoryQueryCompiler() {
+    }
+
+    /**
+     * Compiles an expression.
+     *
+     * @param expression the expression
+     * @return a predicate accepting the messages the expression matches
+     */
+    public static Predicate<Message> compile(MemoryQueryExpression expression) {
+        return switch (expression) {
+            case FieldEqualsExpression equals -> compileEquals(equals.field(), equals.value());
+            case ContainsKeywordExpression contains -> compileContains(contains.field(), contains.keyword());
+            case RangeExpression range -> compileRange(range.field(), range.time(), range.rangeType());
+            case MetadataMatchExpression metadata -> compileMetadata(metadata.key(), metadata.expectedValue());
+            case LogicalExpression logical -> compileLogical(logical.operator(), logical.expressions());
+            case AlwaysTrueExpression ignored -> ALWAYS;
+            // similarity is ranked by the vector store; as a filter it accepts every message
+            case VectorSimilarityExpression ignored -> ALWAYS;
+            default -> expression::evaluate;
+        };
+    }
+
+    private static Predicate<Message> compileEquals(String field, Object value) {
+        if (value == null) {
+            return NEVER;
+        }
+        if ("role".equals(field)) {
+            return message -> message.getRole() == value;
+        }
+        if ("scope".equals(field)) {
+            return message -> message.getScope() == value;
+        }
+        if ("tokenCount".equals(field)) {
+            if (!(value instanceof Integer tokens)) {
+                return NEVER;
+            }
+            int expected = tokens;
+            return message -> message.getTokenCount() == expected;
+        }
+        Function<Message, Object> accessor = accessor(field);
+        if (value instanceof Enum<?>) {
+            return message -> accessor.apply(message) == value;
+        }
+        return message -> value.equals(accessor.apply(message));
+    }
+
+    private static Predicate<Message> compileContains(String field, String keyword) {
+        if (keyword == null) {
+            return NEVER;
+        }
+        Function<Message, Object> accessor = accessor(field);
+        return message -> accessor.apply(message) instanceof String text && text.contains(keyword);
+    }
+
+    private static Predicate<Message> compileRange(String field, Instant time, RangeType rangeType) {
+        if (time == null || rangeType == null) {
+            return NEVER;
+        }
+        Function<Message, Object> accessor = accessor(field);
+        return rangeType == RangeType.AFTER
+                ? message -> accessor.apply(message) instanceof Instant timestamp && timestamp.isAfter(time)
+                : message -> accessor.apply(message) instanceof Instant timestamp && timestamp.isBefore(time);
+    }
+
+    private static Predicate<Message> compileMetadata(String key, Object expectedValue) {
+        if (expectedValue == null) {
+            return NEVER;
+        }
+        return message -> {
+            Map<String, Object> metadata = message.getMetadata();
+            return metadata != null && expectedValue.equals(metadata.get(key));
+        };
+    }
+
+    private static Predicate<Message> compileLogical(LogicalOperator operator, List<MemoryQueryExpression> expressions) {
+        List<MemoryQueryExpression> children = expressions != null ? expressions : List.of();
+        return switch (operator) {
+            case AND -> compileAnd(children);
+            case OR -> compileOr(children);
+            case NOT -> children.size() == 1 ? negate(compile(children.get(0))) : NEVER;
+        };
+    }
+
+    private static Predicate<Message> compileAnd(List<MemoryQueryExpression> expressions) {
+        List<Predicate<Message>> conjuncts = new ArrayList<>(expressions.size());
+        for (MemoryQueryExpression expression : expressions) {
+            Predicate<Message> conjunct = compile(expression);
+            if (conjunct == NEVER) {
+                return NEVER;
+            }
+            if (conjunct != ALWAYS) {
+                conjuncts.add(conjunct);
+            }
+        }
+        return switch (conjuncts.size()) {
+            case 0 -> ALWAYS;
+            case 1 -> conjuncts.get(0);
+            case 2 -> and(conjuncts.get(0), conjuncts.get(1));
+            case 3 -> and(conjuncts.get(0), conjuncts.get(1), conjuncts.get(2));
+            default -> and(toArray(conjuncts));
+        };
+    }
+
+    private static Predicate<Message> compileOr(List<MemoryQueryExpression> expressions) {
+        List<Predicate<Message>> disjuncts = new ArrayList<>(expressions.size());
+        for (MemoryQueryExpression expression : expressions) {
+            Predicate<Message> disjunct = compile(expression);
+            if (disjunct == ALWAYS) {
+                return ALWAYS;
+            }
+            if (disjunct != NEVER) {
+                disjuncts.add(disjunct);
+            }
+        }
+        return switch (disjuncts.size()) {
+            case 0 -> NEVER;
+            case 1 -> disjuncts.get(0);
+            case 2 -> or(disjuncts.get(0), disjuncts.get(1));
+            case 3 -> or(disjuncts.get(0), disjuncts.get(1), disjuncts.get(2));
+            default -> or(toArray(disjuncts));
+        };
+    }
+
+    private static Predicate<Message> and(Predicate<Message> a, Predicate<Message> b) {
+        return message -> a.test(message) && b.test(message);
+    }
+
+    private static Predicate<Message> and(Predicate<Message> a, Predicate<Message> b, Predicate<Message> c) {
+        return message -> a.test(message) && b.test(message) && c.test(message);
+    }
+
+    private static Predicate<Message> and(Predicate<Message>[] conjuncts) {
+        return message -> {
+            for (Predicate<Message> conjunct : conjuncts) {
+                if (!conjunct.test(message)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    private static Predicate<Message> or(Predicate<Message> a, Predicate<Message> b) {
+        return message -> a.test(message) || b.test(message);
+    }
+
+    private static Predicate<Message> or(Predicate<Message> a, Predicate<Message> b, Predicate<Message> c) {
+        return message -> a.test(message) || b.test(message) || c.test(message);
+    }
+
+    private static Predicate<Message> or(Predicate<Message>[] disjuncts) {
+        return message -> {
+            for (Predicate<Message> disjunct : disjuncts) {
+                if (disjunct.test(message)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    private static Predicate<Message> negate(Predicate<Message> predicate) {
+        if (predicate == ALWAYS) {
+            return NEVER;
+        }
+        if (predicate == NEVER) {
+            return ALWAYS;
+        }
+        return message -> !predicate.test(message);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Predicate<Message>[] toArray(List<Predicate<Message>> predicates) {
+        return predicates.toArray(new Predicate[0]);
+    }
+
+    /**
+     * Resolves a field to the getter of {@link Message} that reads it, or to {@link Message#getFieldValue(String)}.
+     */
+    private static Function<Message, Object> accessor(String field) {
+        if (field == null) {
+            return message -> null;
+        }
+        return switch (field) {
+            case "id" -> Message::getId;
+            case "conversationId" -> Message::getConversationId;
+            case "content" -> Message::getContent;
+            case "role" -> Message::getRole;
+            case "scope" -> Message::getScope;
+            case "timestamp" -> Message::getTimestamp;
+            case "tokenCount" -> Message::getTokenCount;
+            case "metadata" -> Message::getMetadata;
+            default -> message -> message.getFieldValue(field);
+        };
+    }
+}
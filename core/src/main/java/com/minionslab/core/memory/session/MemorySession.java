@@ -0,0 +1,103 @@
+package com.minionslab.core.memory.session;
+
+import com.minionslab.core.common.message.Message;
+import com.minionslab.core.memory.Memory;
+import com.minionslab.core.memory.MemoryContext;
+import com.minionslab.core.memory.MemoryFactory;
+import com.minionslab.core.memory.MemoryManager;
+import com.minionslab.core.memory.MemorySubsystem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * MemorySession holds the memories of one conversation across agent runs.
+ * <p>
+ * Each memory subsystem is built once per session, on first use, and reused by every later run of the conversation,
+ * so short-term memory survives between requests and stores are not rebuilt per run. Sessions are pooled and
+ * evicted by the {@link MemorySessionManager}; see {@link MemorySessionState} for the lifecycle.
+ * <p>
+ * <b>Usage:</b> runs hold a session through the {@link MemorySessionLease} returned by
+ * {@link MemorySessionManager#open(MemorySessionKey)}, and build their {@link MemoryManager} with
+ * {@link #getMemoryManager(List)}.
+ */
+public class MemorySession {
+    private static final Logger log = LoggerFactory.getLogger(MemorySession.class);
+
+    private final MemorySessionKey key;
+    private final MemoryFactory memoryFactory;
+    private final Map<MemorySubsystem, Memory<MemoryContext, Message>> memories = new ConcurrentHashMap<>();
+    private volatile MemorySessionState state = MemorySessionState.IDLE;
+    /**
+     * Open leases on the session and the time of the last open or close; guarded by the manager's lock.
+     */
+    int leases;
+    long lastAccessNanos;
+
+    MemorySession(MemorySessionKey key, MemoryFactory memoryFactory) {
+        this.key = key;
+        this.memoryFactory = memoryFactory;
+    }
+
+    public MemorySessionKey getKey() {
+        return key;
+    }
+
+    public MemorySessionState getState() {
+        return state;
+    }
+
+    /**
+     * Returns a MemoryManager over this session's memories for the given subsystems, building the memories that do
+     * not exist yet.
+     *
+     * @param subsystems the memory subsystems of the run, null or empty for none
+     * @return a MemoryManager sharing this session's memories
+     * @throws IllegalStateException    if the session was evicted
+     * @throws IllegalArgumentException if a subsystem has no definition
+     */
+    public MemoryManager getMemoryManager(List<MemorySubsystem> subsystems) {
+        if (state == MemorySessionState.EVICTED) {
+            throw new IllegalStateException("Memory session " + key + " was evicted");
+        }
+        List<Memory<MemoryContext, Message>> selected = new ArrayList<>();
+        if (subsystems != null) {
+            for (MemorySubsystem subsystem : subsystems) {
+                selected.add(memories.computeIfAbsent(subsystem, memoryFactory::createMemory));
+            }
+        }
+        return memoryFactory.createMemoryManager(selected);
+    }
+
+    /**
+     * Returns the memory subsystems built so far.
+     *
+     * @return the resident subsystems
+     */
+    public List<MemorySubsystem> getResidentSubsystems() {
+        return List.copyOf(memories.keySet());
+    }
+
+    void setState(MemorySessionState state) {
+        this.state = state;
+    }
+
+    /**
+     * Flushes and drops the memories. Called by the manager once the session has left the pool.
+     */
+    void evict() {
+        state = MemorySessionState.EVICTED;
+        for (Memory<MemoryContext, Message> memory : memories.values()) {
+            try {
+                memory.flush();
+            } catch (RuntimeException e) {
+                log.warn("Failed to flush {} memory of session {}", memory.getMemorySubsystem(), key, e);
+            }
+        }
+        memories.clear();
+    }
+}
@@ -0,0 +1,22 @@
+package com.minionslab.core.memory.session;
+
+import java.util.Objects;
+
+/**
+ * Identifies a {@link MemorySession}: a conversation, optionally within a tenant. Runs with equal keys share memories;
+ * runs with different keys never see each other's messages.
+ *
+ * @param tenantId       the tenant, or null for single-tenant deployments
+ * @param conversationId the conversation
+ */
+public record MemorySessionKey(String tenantId, String conversationId) {
+    
+    public MemorySessionKey {
+        Objects.requireNonNull(conversationId, "conversationId");
+    }
+    
+    @Override
+    public String toString() {
+        return tenantId != null ? tenantId + "/" + conversationId : conversationId;
+    }
+}
@@ -0,0 +1,78 @@
+package com.minionslab.core.memory.session;
+
+import com.minionslab.core.memory.MemoryManager;
+import com.minionslab.core.memory.MemorySubsystem;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * MemorySessionLease is one run's hold on a {@link MemorySession}, returned by
+ * {@link MemorySessionManager#open(MemorySessionKey)}.
+ * <p>
+ * Every open returns its own lease, and closing a lease releases only that lease: repeated closes are no-ops, so a
+ * run closing twice cannot release the hold of another run of the same conversation.
+ * <p>
+ * <b>Usage:</b>
+ * <pre>
+ * try (MemorySessionLease lease = sessions.open(key)) {
+ *     MemoryManager memoryManager = lease.getMemoryManager(recipe.getMemoryDefintions());
+ *     ...
+ * }
+ * </pre>
+ */
+public final class MemorySessionLease implements AutoCloseable {
+
+    private final MemorySession session;
+    private final MemorySessionManager owner;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    MemorySessionLease(MemorySession session, MemorySessionManager owner) {
+        this.session = session;
+        this.owner = owner;
+    }
+
+    /**
+     * Returns the leased session.
+     *
+     * @return the session
+     */
+    public MemorySession getSession() {
+        return session;
+    }
+
+    public MemorySessionKey getKey() {
+        return session.getKey();
+    }
+
+    /**
+     * Returns a MemoryManager over the session's memories for the given subsystems.
+     *
+     * @param subsystems the memory subsystems of the run, null or empty for none
+     * @return a MemoryManager sharing the session's memories
+     * @see MemorySession#getMemoryManager(List)
+     */
+    public MemoryManager getMemoryManager(List<MemorySubsystem> subsystems) {
+        return session.getMemoryManager(subsystems);
+    }
+
+    /**
+     * Returns true once the lease has been closed.
+     *
+     * @return whether the lease is closed
+     */
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    /**
+     * Releases this lease. The session becomes {@link MemorySessionState#IDLE} once no lease holds it. Closing an
+     * already closed lease does nothing.
+     */
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            owner.release(session);
+        }
+    }
+}
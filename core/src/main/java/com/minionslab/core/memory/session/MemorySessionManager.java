@@ -0,0 +1,321 @@
+package com.minionslab.core.memory.session;
+
+import com.minionslab.core.memory.MemoryFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * MemorySessionManager pools {@link MemorySession}s per conversation (and tenant), so the runs of a conversation
+ * share their memories instead of building new stores per request.
+ * <p>
+ * Sessions are {@link MemorySessionState#OPEN} while runs hold them and {@link MemorySessionState#IDLE} otherwise.
+ * Idle sessions are evicted, flushing their memories, when:
+ * <ul>
+ *   <li>they have been idle longer than {@code minions.memory.session.idle-timeout} (default 30m), or</li>
+ *   <li>the pool holds more than {@code minions.memory.session.max-sessions} sessions (default 10000); the least
+ *   recently used idle sessions go first.</li>
+ * </ul>
+ * Open sessions are never evicted implicitly, so the limit can be exceeded by the number of conversations running
+ * at the same moment. Expired sessions are swept when sessions are opened and every
+ * {@code minions.memory.session.sweep-interval} (default 1m, {@code 0} to sweep only on open).
+ * <p>
+ * Sessions scope data by building separate memories per key. Memory definitions backed by a shared store (Mongo,
+ * Postgres) are expected to filter by the conversation id of the messages they hold.
+ * <p>
+ * <b>Extensibility:</b>
+ * <ul>
+ *   <li>Call {@link #evict(MemorySessionKey)} when a conversation ends to release its memories immediately.</li>
+ * </ul>
+ */
+@Component
+public class MemorySessionManager implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(MemorySessionManager.class);
+
+    public static final int DEFAULT_MAX_SESSIONS = 10_000;
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(30);
+
+    private final MemoryFactory memoryFactory;
+    private final int maxSessions;
+    private final long idleTimeoutNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    /**
+     * Sessions in access order, least recently used first.
+     */
+    private final LinkedHashMap<MemorySessionKey, MemorySession> sessions = new LinkedHashMap<>(16, 0.75f, true);
+    private final ScheduledExecutorService sweeper;
+
+    @Autowired
+    public MemorySessionManager(MemoryFactory memoryFactory,
+                                @Value("${minions.memory.session.max-sessions:10000}") int maxSessions,
+                                @Value("${minions.memory.session.idle-timeout:30m}") Duration idleTimeout,
+                                @Value("${minions.memory.session.sweep-interval:1m}") Duration sweepInterval) {
+        if (maxSessions < 1) {
+            throw new IllegalArgumentException("maxSessions must be at least 1: " + maxSessions);
+        }
+        this.memoryFactory = memoryFactory;
+        this.maxSessions = maxSessions;
+        this.idleTimeoutNanos = idleTimeout != null && !idleTimeout.isNegative() ? idleTimeout.toNanos() : DEFAULT_IDLE_TIMEOUT.toNanos();
+        if (sweepInterval != null && !sweepInterval.isZero() && !sweepInterval.isNegative()) {
+            sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "minion-memory-sweeper");
+                thread.setDaemon(true);
+                return thread;
+            });
+            sweeper.scheduleWithFixedDelay(this::evictIdle, sweepInterval.toNanos(), sweepInterval.toNanos(), TimeUnit.NANOSECONDS);
+        } else {
+            sweeper = null;
+        }
+    }
+
+    /**
+     * Creates a manager with the default limits that sweeps only when sessions are opened.
+     *
+     * @param memoryFactory the factory building the sessions' memories
+     */
+    public MemorySessionManager(MemoryFactory memoryFactory) {
+        this(memoryFactory, DEFAULT_MAX_SESSIONS, DEFAULT_IDLE_TIMEOUT, Duration.ZERO);
+    }
+
+    /**
+     * Opens the session of a conversation, creating it if it is not pooled. The caller holds the session until it
+     * closes the returned lease.
+     *
+     * @param tenantId       the tenant, or null
+     * @param conversationId the conversation
+     * @return the caller's lease on the open session
+     */
+    public MemorySessionLease open(String tenantId, String conversationId) {
+        return open(new MemorySessionKey(tenantId, conversationId));
+    }
+
+    /**
+     * Opens the session with the given key, creating it if it is not pooled. The caller holds the session until it
+     * closes the returned lease.
+     *
+     * @param key the session key
+     * @return the caller's lease on the open session
+     */
+    public MemorySessionLease open(MemorySessionKey key) {
+        List<MemorySession> evicted = new ArrayList<>();
+        MemorySession session;
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            collectExpired(now, evicted);
+            session = sessions.computeIfAbsent(key, k -> new MemorySession(k, memoryFactory));
+            session.leases++;
+            session.lastAccessNanos = now;
+            session.setState(MemorySessionState.OPEN);
+            collectOverflow(evicted);
+        } finally {
+            lock.unlock();
+        }
+        evictAll(evicted);
+        return new MemorySessionLease(session, this);
+    }
+
+    /**
+     * Returns the pooled session with the given key without opening it.
+     *
+     * @param key the session key
+     * @return the session, or null if it is not pooled
+     */
+    public MemorySession get(MemorySessionKey key) {
+        lock.lock();
+        try {
+            return sessions.get(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Evicts a session whether or not runs hold it. Runs still holding it keep their memory managers, but cannot
+     * build new ones from it.
+     *
+     * @param key the session key
+     * @return true if the session was pooled
+     */
+    public boolean evict(MemorySessionKey key) {
+        MemorySession session;
+        lock.lock();
+        try {
+            session = sessions.remove(key);
+        } finally {
+            lock.unlock();
+        }
+        if (session == null) {
+            return false;
+        }
+        evictAll(List.of(session));
+        return true;
+    }
+
+    /**
+     * Evicts a session unless a run holds it.
+     *
+     * @param key the session key
+     * @return true if the session was pooled and idle, and is now evicted
+     */
+    public boolean evictIfIdle(MemorySessionKey key) {
+        MemorySession session;
+        lock.lock();
+        try {
+            session = sessions.get(key);
+            if (session == null || session.leases > 0) {
+                return false;
+            }
+            sessions.remove(key);
+            session.setState(MemorySessionState.EVICTED);
+        } finally {
+            lock.unlock();
+        }
+        evictAll(List.of(session));
+        return true;
+    }
+
+    /**
+     * Evicts the sessions that have been idle longer than the idle timeout.
+     *
+     * @return the number of evicted sessions
+     */
+    public int evictIdle() {
+        List<MemorySession> evicted = new ArrayList<>();
+        lock.lock();
+        try {
+            collectExpired(System.nanoTime(), evicted);
+        } finally {
+            lock.unlock();
+        }
+        evictAll(evicted);
+        return evicted.size();
+    }
+
+    /**
+     * Returns the number of pooled sessions, open and idle.
+     *
+     * @return the pool size
+     */
+    public int getSessionCount() {
+        lock.lock();
+        try {
+            return sessions.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the keys of the pooled sessions, open and idle.
+     *
+     * @return the session keys, least recently used first
+     */
+    public List<MemorySessionKey> getSessionKeys() {
+        lock.lock();
+        try {
+            return List.copyOf(sessions.keySet());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getMaxSessions() {
+        return maxSessions;
+    }
+
+    @Override
+    public void destroy() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+        List<MemorySession> evicted;
+        lock.lock();
+        try {
+            evicted = new ArrayList<>(sessions.values());
+            sessions.clear();
+        } finally {
+            lock.unlock();
+        }
+        evictAll(evicted);
+    }
+
+    /**
+     * Releases one lease on the session. Called once per lease by {@link MemorySessionLease#close()}.
+     */
+    void release(MemorySession session) {
+        lock.lock();
+        try {
+            if (session.getState() == MemorySessionState.EVICTED || session.leases == 0) {
+                return;
+            }
+            session.leases--;
+            session.lastAccessNanos = System.nanoTime();
+            // moves the session to the most recently used end, keeping the pool ordered by last access
+            sessions.get(session.getKey());
+            if (session.leases == 0) {
+                session.setState(MemorySessionState.IDLE);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes idle sessions past the idle timeout. Called with the lock held.
+     */
+    private void collectExpired(long now, List<MemorySession> evicted) {
+        Iterator<MemorySession> it = sessions.values().iterator();
+        while (it.hasNext()) {
+            MemorySession session = it.next();
+            if (now - session.lastAccessNanos < idleTimeoutNanos) {
+                // access order: every later session was used more recently
+                break;
+            }
+            if (session.leases == 0) {
+                it.remove();
+                session.setState(MemorySessionState.EVICTED);
+                evicted.add(session);
+            }
+        }
+    }
+
+    /**
+     * Removes least recently used idle sessions while the pool exceeds its limit. Called with the lock held.
+     */
+    private void collectOverflow(List<MemorySession> evicted) {
+        Iterator<Map.Entry<MemorySessionKey, MemorySession>> it = sessions.entrySet().iterator();
+        while (sessions.size() > maxSessions && it.hasNext()) {
+            MemorySession session = it.next().getValue();
+            if (session.leases == 0) {
+                it.remove();
+                session.setState(MemorySessionState.EVICTED);
+                evicted.add(session);
+            }
+        }
+    }
+
+    /**
+     * Flushes evicted sessions outside the lock, as flushing may write to a store.
+     */
+    private void evictAll(List<MemorySession> evicted) {
+        for (MemorySession session : evicted) {
+            session.evict();
+            log.debug("Evicted memory session {}", session.getKey());
+        }
+    }
+}
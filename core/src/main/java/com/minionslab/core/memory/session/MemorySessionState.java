@@ -0,0 +1,19 @@
+package com.minionslab.core.memory.session;
+
+/**
+ * Lifecycle of a {@link MemorySession}.
+ */
+public enum MemorySessionState {
+    /**
+     * At least one agent run holds the session; it cannot be evicted.
+     */
+    OPEN,
+    /**
+     * No run holds the session; its memories stay resident until the idle timeout or the session limit evicts it.
+     */
+    IDLE,
+    /**
+     * The session was flushed and removed from the pool; its memories are released and it can no longer be used.
+     */
+    EVICTED
+}
@@ -0,0 +1,118 @@
+package com.minionslab.core.memory.strategy.persistence.inmemory;
+
+import com.minionslab.core.common.message.Message;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Secondary indexes of an {@link InMemoryPersistenceStrategy}: hash indexes from the values of
+ * {@link #HASH_FIELDS} to the ids of the messages holding them, and a sorted index from timestamps to message ids.
+ * <p>
+ * Messages are indexed by the values {@link Message#getFieldValue(String)} returns when they are saved, the same
+ * values query expressions evaluate. Writes must be serialized by the caller; reads may run concurrently with them and
+ * see each message either before or after a write, like iterations of a {@link ConcurrentHashMap}.
+ */
+final class InMemoryMessageIndexes {
+    /**
+     * The fields with a hash index.
+     */
+    static final List<String> HASH_FIELDS = List.of("conversationId", "role", "scope");
+    static final String TIMESTAMP_FIELD = "timestamp";
+
+    private final Map<String, Map<Object, Set<String>>> hashIndexes = new HashMap<>();
+    private final ConcurrentSkipListMap<Instant, Set<String>> timestampIndex = new ConcurrentSkipListMap<>();
+    /**
+     * The indexed values of every message, to unindex it when it is replaced or deleted.
+     */
+    private final Map<String, IndexedValues> indexedValues = new ConcurrentHashMap<>();
+
+    InMemoryMessageIndexes() {
+        HASH_FIELDS.forEach(field -> hashIndexes.put(field, new ConcurrentHashMap<>()));
+    }
+
+    void add(Message message) {
+        remove(message.getId());
+        Object[] values = new Object[HASH_FIELDS.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = message.getFieldValue(HASH_FIELDS.get(i));
+            if (values[i] != null) {
+                hashIndexes.get(HASH_FIELDS.get(i)).computeIfAbsent(values[i], v -> ConcurrentHashMap.newKeySet()).add(message.getId());
+            }
+        }
+        Instant timestamp = message.getFieldValue(TIMESTAMP_FIELD) instanceof Instant instant ? instant : null;
+        if (timestamp != null) {
+            timestampIndex.computeIfAbsent(timestamp, t -> ConcurrentHashMap.newKeySet()).add(message.getId());
+        }
+        indexedValues.put(message.getId(), new IndexedValues(values, timestamp));
+    }
+
+    void remove(String id) {
+        IndexedValues indexed = indexedValues.remove(id);
+        if (indexed == null) {
+            return;
+        }
+        for (int i = 0; i < HASH_FIELDS.size(); i++) {
+            if (indexed.values()[i] != null) {
+                unindex(hashIndexes.get(HASH_FIELDS.get(i)), indexed.values()[i], id);
+            }
+        }
+        if (indexed.timestamp() != null) {
+            unindex(timestampIndex, indexed.timestamp(), id);
+        }
+    }
+
+    void clear() {
+        hashIndexes.values().forEach(Map::clear);
+        timestampIndex.clear();
+        indexedValues.clear();
+    }
+
+    boolean isHashIndexed(String field) {
+        return hashIndexes.containsKey(field);
+    }
+
+    /**
+     * Returns the ids of the messages whose field equals a value.
+     */
+    Set<String> lookup(String field, Object value) {
+        return hashIndexes.get(field).getOrDefault(value, Set.of());
+    }
+
+    /**
+     * Returns the ids of the messages with a timestamp strictly between two bounds, grouped by timestamp.
+     *
+     * @param after  the exclusive lower bound, or null
+     * @param before the exclusive upper bound, or null
+     */
+    Collection<Set<String>> range(Instant after, Instant before) {
+        if (after != null && before != null && !after.isBefore(before)) {
+            return List.of();
+        }
+        NavigableMap<Instant, Set<String>> range = timestampIndex;
+        if (after != null) {
+            range = range.tailMap(after, false);
+        }
+        if (before != null) {
+            range = range.headMap(before, false);
+        }
+        return range.values();
+    }
+
+    private static <K> void unindex(Map<K, Set<String>> index, K key, String id) {
+        index.computeIfPresent(key, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private record IndexedValues(Object[] values, Instant timestamp) {
+    }
+}
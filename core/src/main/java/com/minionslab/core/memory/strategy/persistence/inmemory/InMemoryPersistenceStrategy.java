@@ -4,6 +4,7 @@ import com.minionslab.core.common.chain.ProcessContext;
 import com.minionslab.core.common.message.Message;
 import com.minionslab.core.common.message.SimpleMessage;
 import com.minionslab.core.memory.query.MemoryQuery;
+import com.minionslab.core.memory.query.expression.MemoryQueryCompiler;
 import com.minionslab.core.memory.query.expression.MemoryQueryExpression;
 import com.minionslab.core.memory.strategy.MemoryItem;
 import com.minionslab.core.memory.strategy.MemoryPersistenceStrategy;
@@ -11,12 +12,28 @@ import com.minionslab.core.memory.strategy.MemoryPersistenceStrategy;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * InMemoryPersistenceStrategy keeps messages in a map by id, with secondary indexes on {@code conversationId},
+ * {@code role}, {@code scope} and {@code timestamp} (see {@link InMemoryMessageIndexes}).
+ * <p>
+ * Queries read their candidates from the most selective index the {@link InMemoryQueryPlanner} finds for their
+ * expression, so their cost follows the size of that index entry rather than the number of stored messages, and fall
+ * back to a scan of all messages for expressions no index can answer. The candidates are filtered with the
+ * expression compiled by {@link MemoryQueryCompiler}. Messages are indexed by their values when they
+ * are saved; save a message again after changing an indexed field.
+ * <p>
+ * Writes are serialized; queries run concurrently with them.
+ */
 public class InMemoryPersistenceStrategy implements MemoryPersistenceStrategy<Message> {
     private final Map<String, Message> messageStore = new ConcurrentHashMap<>();
+    private final InMemoryMessageIndexes indexes = new InMemoryMessageIndexes();
+    private final Object writeLock = new Object();
     
     @Override
     public  List<Message> saveAll(List<Message> items) {
@@ -28,7 +45,10 @@ public class InMemoryPersistenceStrategy implements MemoryPersistenceStrategy<Me
     @Override
     public  Message save(Message item) {
         if (item instanceof Message msg) {
-            messageStore.put(msg.getId(), msg);
+            synchronized (writeLock) {
+                messageStore.put(msg.getId(), msg);
+                indexes.add(msg);
+            }
             return item;
         }
         throw new UnsupportedOperationException("Save not implemented for type: " + item.getClass().getName());
@@ -50,7 +70,10 @@ public class InMemoryPersistenceStrategy implements MemoryPersistenceStrategy<Me
     @Override
     public  boolean deleteById(String id, Class<Message> itemType) {
         if (Message.class.isAssignableFrom(itemType) || SimpleMessage.class.isAssignableFrom(itemType)) {
-            return messageStore.remove(id) != null;
+            synchronized (writeLock) {
+                indexes.remove(id);
+                return messageStore.remove(id) != null;
+            }
         }
         return false;
     }
@@ -58,7 +81,10 @@ public class InMemoryPersistenceStrategy implements MemoryPersistenceStrategy<Me
     @Override
     public  void deleteAllOfType(Class<Message> itemType) {
         if (Message.class.isAssignableFrom(itemType) || SimpleMessage.class.isAssignableFrom(itemType)) {
-            messageStore.clear();
+            synchronized (writeLock) {
+                messageStore.clear();
+                indexes.clear();
+            }
         }
     }
     
@@ -74,8 +100,11 @@ public class InMemoryPersistenceStrategy implements MemoryPersistenceStrategy<Me
     @Override
     public List<Message> fetchCandidateMessages(MemoryQuery query) {
         MemoryQueryExpression expression = query.getExpression();
-        return messageStore.values().stream()
-                           .filter(expression::evaluate)
+        InMemoryQueryPlanner.AccessPath path = InMemoryQueryPlanner.plan(expression, indexes);
+        Stream<Message> candidates = path == null
+                ? messageStore.values().stream()
+                : path.ids().map(messageStore::get).filter(Objects::nonNull);
+        return candidates.filter(MemoryQueryCompiler.compile(expression))
                            .limit(query.getLimit())
                            .toList();
     }
@@ -0,0 +1,186 @@
+package com.minionslab.core.memory.strategy.persistence.inmemory;
+
+import com.minionslab.core.memory.query.expression.FieldEqualsExpression;
+import com.minionslab.core.memory.query.expression.LogicalExpression;
+import com.minionslab.core.memory.query.expression.MemoryQueryExpression;
+import com.minionslab.core.memory.query.expression.RangeExpression;
+import com.minionslab.core.memory.query.expression.RangeType;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Chooses the index an {@link InMemoryPersistenceStrategy} reads the candidates of a query from.
+ * <p>
+ * Equality on a hash-indexed field and {@code after}/{@code before} ranges on the timestamp can be read from an
+ * index. Of the conjuncts of an AND, the planner picks the one with the fewest candidates, intersecting the timestamp
+ * ranges of the AND into one range first; an OR can be read from its branches' indexes if every branch can. Hash
+ * index entries know their size, ranges are counted only up to the best count found so far, and ORs count the sum of
+ * their branches. Other expressions (NOT, keyword, metadata and vector matches) cannot be planned; queries are then
+ * answered by a full scan.
+ * <p>
+ * Candidates are a superset of the matches: the store still evaluates the whole expression on each of them.
+ */
+final class InMemoryQueryPlanner {
+
+    private InMemoryQueryPlanner() {
+    }
+
+    /**
+     * Plans a query expression.
+     *
+     * @param expression the expression
+     * @param indexes    the indexes of the store
+     * @return the candidates to evaluate the expression on, or null to scan the whole store
+     */
+    static AccessPath plan(MemoryQueryExpression expression, InMemoryMessageIndexes indexes) {
+        if (expression instanceof FieldEqualsExpression equals) {
+            return equals.value() != null && indexes.isHashIndexed(equals.field())
+                    ? new IndexLookup(indexes.lookup(equals.field(), equals.value())) : null;
+        }
+        if (expression instanceof RangeExpression range) {
+            return isTimestampRange(range)
+                    ? range.rangeType() == RangeType.AFTER ? rangeScan(indexes, range.time(), null) : rangeScan(indexes, null, range.time())
+                    : null;
+        }
+        if (expression instanceof LogicalExpression logical && logical.expressions() != null && !logical.expressions().isEmpty()) {
+            return switch (logical.operator()) {
+                case AND -> planAnd(logical.expressions(), indexes);
+                case OR -> planOr(logical.expressions(), indexes);
+                case NOT -> null;
+            };
+        }
+        return null;
+    }
+
+    private static AccessPath planAnd(List<MemoryQueryExpression> conjuncts, InMemoryMessageIndexes indexes) {
+        List<AccessPath> lookups = new ArrayList<>();
+        List<AccessPath> others = new ArrayList<>();
+        Instant after = null;
+        Instant before = null;
+        boolean ranged = false;
+        for (MemoryQueryExpression conjunct : conjuncts) {
+            if (conjunct instanceof RangeExpression range && isTimestampRange(range)) {
+                ranged = true;
+                if (range.rangeType() == RangeType.AFTER) {
+                    after = after == null || range.time().isAfter(after) ? range.time() : after;
+                } else {
+                    before = before == null || range.time().isBefore(before) ? range.time() : before;
+                }
+                continue;
+            }
+            AccessPath path = plan(conjunct, indexes);
+            if (path instanceof IndexLookup) {
+                lookups.add(path);
+            } else if (path != null) {
+                others.add(path);
+            }
+        }
+        if (ranged) {
+            others.add(rangeScan(indexes, after, before));
+        }
+        // cheap exact sizes first, so ranges and unions are counted against the smallest lookup
+        AccessPath best = null;
+        int bestSize = Integer.MAX_VALUE;
+        for (AccessPath path : Stream.concat(lookups.stream(), others.stream()).toList()) {
+            int size = path.count(bestSize);
+            if (best == null || size < bestSize) {
+                best = path;
+                bestSize = size;
+            }
+        }
+        return best;
+    }
+
+    private static AccessPath planOr(List<MemoryQueryExpression> branches, InMemoryMessageIndexes indexes) {
+        List<AccessPath> paths = new ArrayList<>(branches.size());
+        for (MemoryQueryExpression branch : branches) {
+            AccessPath path = plan(branch, indexes);
+            if (path == null) {
+                return null;
+            }
+            paths.add(path);
+        }
+        return paths.size() == 1 ? paths.get(0) : new Union(paths);
+    }
+
+    private static boolean isTimestampRange(RangeExpression range) {
+        return InMemoryMessageIndexes.TIMESTAMP_FIELD.equals(range.field()) && range.time() != null && range.rangeType() != null;
+    }
+
+    private static AccessPath rangeScan(InMemoryMessageIndexes indexes, Instant after, Instant before) {
+        return new RangeScan(indexes.range(after, before));
+    }
+
+    /**
+     * The candidates of a planned query.
+     */
+    sealed interface AccessPath permits IndexLookup, RangeScan, Union {
+        /**
+         * Counts the candidates, stopping at a bound.
+         *
+         * @param bound the count to stop at
+         * @return the number of candidates, or {@code bound} if there are at least that many
+         */
+        int count(int bound);
+
+        /**
+         * Returns the ids of the candidates, each once.
+         */
+        Stream<String> ids();
+    }
+
+    record IndexLookup(Set<String> messageIds) implements AccessPath {
+        @Override
+        public int count(int bound) {
+            return Math.min(messageIds.size(), bound);
+        }
+
+        @Override
+        public Stream<String> ids() {
+            return messageIds.stream();
+        }
+    }
+
+    record RangeScan(Collection<Set<String>> buckets) implements AccessPath {
+        @Override
+        public int count(int bound) {
+            long count = 0;
+            for (Set<String> bucket : buckets) {
+                count += bucket.size();
+                if (count >= bound) {
+                    return bound;
+                }
+            }
+            return (int) count;
+        }
+
+        @Override
+        public Stream<String> ids() {
+            return buckets.stream().flatMap(Set::stream);
+        }
+    }
+
+    record Union(List<AccessPath> paths) implements AccessPath {
+        @Override
+        public int count(int bound) {
+            long count = 0;
+            for (AccessPath path : paths) {
+                count += path.count(bound);
+                if (count >= bound) {
+                    return bound;
+                }
+            }
+            return (int) count;
+        }
+
+        @Override
+        public Stream<String> ids() {
+            return paths.stream().flatMap(AccessPath::ids).distinct();
+        }
+    }
+}
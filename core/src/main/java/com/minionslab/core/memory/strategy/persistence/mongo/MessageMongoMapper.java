@@ -63,8 +63,6 @@ public class MessageMongoMapper {
         Object metaObj = document.get("metadata");
         if (metaObj instanceof Map) {
             msgBuilder.metadata(new HashMap<>((Map<String, Object>) metaObj));
-        } else {
-            msgBuilder.metadata(new HashMap<>());
         }
         msgBuilder.content(document.getString("content"));
         String roleStr = document.getString("role");
@@ -13,7 +13,6 @@ import org.springframework.stereotype.Component;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
-import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -73,10 +72,8 @@ public class PostgresMessageMapper implements RowMapper<Message> {
             } catch (JsonProcessingException e) {
                 log.error("Failed to parse metadata JSON for message ID {}: '{}'. Error: {}",
                         rs.getString("id"), metaJson, e.getMessage(), e);
-                msgBuilder.metadata(new HashMap<>()); // Default to empty map on error
+                // Left unset: the message reads the shared empty metadata
             }
-        } else {
-            msgBuilder.metadata(new HashMap<>());
         }
         
         // Content
@@ -24,8 +24,7 @@ public class MessageBundle {
     
     public MessageBundle(MessageBundle messageBundle) {
         if (messageBundle != null && messageBundle.messagesByRole != null)
-            messagesByRole.putAll(messageBundle.messagesByRole);
-//       messageBundle.messagesByRole.forEach((role, msgs) -> messagesByRole.put(role, new ArrayList<>(msgs)));
+            messageBundle.messagesByRole.forEach((role, msgs) -> messagesByRole.put(role, new ArrayList<>(msgs)));
     
     }
     
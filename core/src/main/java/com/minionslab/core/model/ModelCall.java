@@ -1,5 +1,7 @@
 package com.minionslab.core.model;
 
+import com.minionslab.core.agent.budget.RunBudget;
+import com.minionslab.core.common.chain.CancellationToken;
 import com.minionslab.core.common.chain.ProcessContext;
 import com.minionslab.core.common.chain.ProcessResult;
 import com.minionslab.core.common.message.Message;
@@ -31,6 +33,18 @@ public class ModelCall implements ProcessContext {
     private ModelCallResponse response;
     private ModelCallError error;
     private List<ToolCall> toolCalls = new ArrayList<>();
+    /**
+     * The id of the recipe this call is made for, if known.
+     */
+    private String recipeId;
+    /**
+     * The token of the run this call is made for; model providers abort the call when it fires.
+     */
+    private CancellationToken cancellationToken = CancellationToken.NONE;
+    /**
+     * The budget of the run this call is made for; the model call service charges the call to it.
+     */
+    private RunBudget budget = RunBudget.NONE;
     
     //todo figure out how to pass the model config around, and what to do if there is no ModelConfig
     public ModelCall(ModelConfig modelConfig, MessageBundle bundle) {
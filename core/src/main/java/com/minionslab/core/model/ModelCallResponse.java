@@ -28,6 +28,14 @@ public class ModelCallResponse {
     private final List<ToolCall> toolCalls;
     private StepCompletionInstruction completionInstruction;
     private List<EntityMessage> entities;
+    /**
+     * The prompt tokens the provider reported for the call, or 0 if it reported none.
+     */
+    private int inputTokens;
+    /**
+     * The completion tokens the provider reported for the call, or 0 if it reported none.
+     */
+    private int outputTokens;
     
 
     
@@ -1,6 +1,10 @@
 package com.minionslab.core.service;
 
+import com.minionslab.core.agent.budget.RunBudget;
+import com.minionslab.core.agent.budget.RunBudgetExceededException;
+import com.minionslab.core.common.message.Message;
 import com.minionslab.core.model.ModelCall;
+import com.minionslab.core.model.ModelCallResponse;
 import com.minionslab.core.model.ModelInfo;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.ObjectProvider;
@@ -9,6 +13,7 @@ import org.springframework.stereotype.Service;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -43,11 +48,34 @@ public class ModelCallService {
         return modelInfoCache.size();
     }
     
+    /**
+     * Calls the model through the first provider accepting the call, charging the call and its tokens to the call's
+     * {@link RunBudget}. Tokens are taken from the usage the provider reported, or else from the token counts of the
+     * request and response messages.
+     *
+     * @param modelCall the model call
+     * @return the model call with its response attached
+     * @throws RunBudgetExceededException if the run's budget has no room for the call
+     */
     public ModelCall call(ModelCall modelCall) {
+        RunBudget budget = modelCall.getBudget() != null ? modelCall.getBudget() : RunBudget.NONE;
+        budget.beginModelCall();
         modelCallProviders.stream().filter(provider -> provider.accepts(modelCall)).findFirst().ifPresent(provider -> {provider.process(modelCall);});
+        if (budget != RunBudget.NONE) {
+            ModelCallResponse response = modelCall.getResponse();
+            long input = response != null && response.getInputTokens() > 0 ? response.getInputTokens()
+                    : modelCall.getRequest() != null ? tokenCount(modelCall.getRequest().messages()) : 0;
+            long output = response != null && response.getOutputTokens() > 0 ? response.getOutputTokens()
+                    : response != null ? tokenCount(response.getMessages()) : 0;
+            budget.chargeTokens(input, output);
+        }
         return modelCall;
     }
     
+    private static long tokenCount(List<Message> messages) {
+        return messages == null ? 0 : messages.stream().filter(Objects::nonNull).mapToLong(Message::getTokenCount).sum();
+    }
+    
     
     /**
      * Retrieves ModelInfo by provider and modelId (case-insensitive).
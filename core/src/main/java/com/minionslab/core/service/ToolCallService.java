@@ -1,12 +1,27 @@
 package com.minionslab.core.service;
 
+import com.minionslab.core.agent.budget.RunBudget;
+import com.minionslab.core.agent.budget.RunBudgetExceededException;
 import com.minionslab.core.tool.ToolCall;
 import org.springframework.stereotype.Service;
 
 @Service
 public class ToolCallService {
     
+    /**
+     * Calls a tool, charging the call to the call's {@link RunBudget}. The call is charged when it is attempted, before
+     * the tool runs, so the budget counts attempted calls whether or not the tool succeeds. This service does not run
+     * the tool itself yet.
+     *
+     * @param toolCall the tool call
+     * @return the tool call
+     * @throws RunBudgetExceededException if the run's budget has no room for the call
+     */
     public ToolCall call(ToolCall toolCall) {
+        RunBudget budget = toolCall.getBudget();
+        if (budget != null) {
+            budget.beginToolCall();
+        }
         return toolCall;
     }
 }
@@ -1,5 +1,9 @@
 package com.minionslab.core.service.adaptor;
 
+import com.minionslab.core.common.chain.CancellationToken;
+import com.minionslab.core.common.chain.ChainCancelledException;
+import com.minionslab.core.common.chain.ChainExecutors;
+import com.minionslab.core.common.context.ExecutionContext;
 import com.minionslab.core.common.message.Message;
 import com.minionslab.core.common.util.MessageConverter;
 import com.minionslab.core.config.ModelConfig;
@@ -8,6 +12,7 @@ import com.minionslab.core.model.ModelCall;
 import com.minionslab.core.model.ModelCallResponse;
 import com.minionslab.core.service.AIModelProvider;
 import com.minionslab.core.tool.ToolCall;
+import org.springframework.ai.chat.metadata.Usage;
 import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.chat.prompt.Prompt;
@@ -15,11 +20,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 @Component
 public class SpringAIModelAdaptor implements AIModelProvider {
     
     private final ChatModelRepository chatModelRepository;
+    private volatile Executor executor = ChainExecutors.defaultExecutor();
     
     @Autowired
     public SpringAIModelAdaptor(ChatModelRepository chatModelRepository) {
@@ -38,8 +47,31 @@ public class SpringAIModelAdaptor implements AIModelProvider {
         }
     }
     
+    /**
+     * Calls the model. If the call carries a {@link CancellationToken}, the blocking call runs on the executor and
+     * this method returns with a {@link ChainCancelledException} as soon as the token fires; the abandoned call's
+     * thread is interrupted.
+     *
+     * @param input the model call
+     * @return the model call with its response attached
+     */
     @Override
     public ModelCall process(ModelCall input) {
+        CancellationToken token = input.getCancellationToken();
+        if (token == null || token == CancellationToken.NONE) {
+            return call(input);
+        }
+        try {
+            return ChainExecutors.supplyInterruptibly(() -> call(input), executor, token).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+    
+    private ModelCall call(ModelCall input) {
         ModelConfig modelConfig = input.getModelConfig();
         if (modelConfig == null) throw new IllegalArgumentException("ModelConfig is required");
         
@@ -63,6 +95,28 @@ public class SpringAIModelAdaptor implements AIModelProvider {
         return input;
     }
     
+    /**
+     * Calls the model off the caller's thread. The blocking {@link ChatModel#call(Prompt)} parks a virtual thread of
+     * the configured executor, and the returned future completes when the model responds. When the call's
+     * {@link CancellationToken} fires, the future fails immediately and the blocked thread is interrupted.
+     *
+     * @param input the model call
+     * @return a future completed with the model call once its response is attached
+     */
+    @Override
+    public CompletableFuture<ModelCall> processAsync(ModelCall input) {
+        return ChainExecutors.supplyInterruptibly(() -> call(input), executor, input.getCancellationToken());
+    }
+    
+    /**
+     * Sets the executor model calls are issued on by {@link #processAsync(ModelCall)}.
+     *
+     * @param executor the executor
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor != null ? ExecutionContext.propagating(executor) : ChainExecutors.defaultExecutor();
+    }
+    
     private ModelCallResponse extractResponse(ChatResponse chatResponse) {
         List<Message> messages = MessageConverter.toMCPMessages(
                 chatResponse.getResults().stream()
@@ -74,6 +128,12 @@ public class SpringAIModelAdaptor implements AIModelProvider {
                                                .map(MessageConverter::fromSpringToolCall)
                                                .toList();
         
-        return new ModelCallResponse(messages, toolCalls);
+        ModelCallResponse response = new ModelCallResponse(messages, toolCalls);
+        Usage usage = chatResponse.getMetadata() != null ? chatResponse.getMetadata().getUsage() : null;
+        if (usage != null) {
+            response.setInputTokens(usage.getPromptTokens() != null ? usage.getPromptTokens() : 0);
+            response.setOutputTokens(usage.getCompletionTokens() != null ? usage.getCompletionTokens() : 0);
+        }
+        return response;
     }
 }
\ No newline at end of file
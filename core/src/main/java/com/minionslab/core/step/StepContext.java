@@ -2,9 +2,14 @@ package com.minionslab.core.step;
 
 import com.minionslab.core.agent.AgentConfig;
 import com.minionslab.core.agent.AgentContext;
+import com.minionslab.core.agent.budget.RunBudget;
+import com.minionslab.core.agent.event.AgentEvent;
+import com.minionslab.core.agent.event.AgentEventType;
+import com.minionslab.core.common.chain.CancellationToken;
 import com.minionslab.core.common.chain.ChainRegistry;
 import com.minionslab.core.common.chain.ProcessContext;
 import com.minionslab.core.common.chain.ProcessResult;
+import com.minionslab.core.common.chain.ResultBuffer;
 import com.minionslab.core.common.message.Message;
 import com.minionslab.core.config.ModelConfig;
 import com.minionslab.core.memory.MemoryManager;
@@ -60,7 +65,7 @@ public class StepContext implements ProcessContext {
         this.step = step;
         this.startedAt = Instant.now();
         this.status = StepStatus.IN_PROGRESS;
-        this.results = new ArrayList<>();
+        this.results = new ResultBuffer<>();
         this.metadata = new HashMap<>();
         this.memoryManager = agentContext.getMemoryManager();
         this.chainRegistry = agentContext.getChainRegistry();
@@ -74,8 +79,46 @@ public class StepContext implements ProcessContext {
         return agentContext.getConversationId();
     }
     
+    @Override
+    public String getRecipeId() {
+        return agentContext != null ? agentContext.getRecipeId() : null;
+    }
     
-
+    @Override
+    public CancellationToken getCancellationToken() {
+        return agentContext != null ? agentContext.getCancellationToken() : CancellationToken.NONE;
+    }
+    
+    
+    public RunBudget getBudget() {
+        return agentContext != null && agentContext.getBudget() != null ? agentContext.getBudget() : RunBudget.NONE;
+    }
+    
+    /**
+     * Publishes a progress event of this step to the agent run's listener.
+     *
+     * @param type the event type
+     * @param name the tool name of tool call events, or null
+     * @param data the event data, or null
+     */
+    public void publish(AgentEventType type, String name, String data) {
+        if (agentContext != null) {
+            agentContext.publish(AgentEvent.of(type, agentContext.getRunId(), step != null ? step.getId() : null, name, data));
+        }
+    }
+    
+    /**
+     * Records an output of the model: publishes it as {@link AgentEventType#MODEL_OUTPUT} and, unless it is empty,
+     * keeps it as the agent run's latest output.
+     *
+     * @param output the model's output, or null
+     */
+    public void recordModelOutput(String output) {
+        if (agentContext != null && output != null && !output.isBlank()) {
+            agentContext.setOutput(output);
+        }
+        publish(AgentEventType.MODEL_OUTPUT, null, output);
+    }
     
     public void addModelCall(ModelCall modelCall) {
         this.modelCalls.add(modelCall);
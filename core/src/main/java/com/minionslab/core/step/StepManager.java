@@ -2,6 +2,7 @@ package com.minionslab.core.step;
 
 import com.minionslab.core.agent.AgentContext;
 import com.minionslab.core.agent.AgentRecipe;
+import com.minionslab.core.step.graph.StepCursor;
 import com.minionslab.core.step.graph.StepGraph;
 import com.minionslab.core.step.graph.StepGraphCompletionStrategy;
 import lombok.extern.slf4j.Slf4j;
@@ -15,12 +16,16 @@ import lombok.extern.slf4j.Slf4j;
  *   <li>Override methods to add logging, metrics, or advanced orchestration logic.</li>
  *   <li>Plug in custom {@link StepGraph} or {@link StepGraphCompletionStrategy} for advanced workflows.</li>
  * </ul>
+ * The step graph is shared by all runs of the recipe; StepManager is created per run and keeps the run's position
+ * in a {@link StepCursor} of its own.
+ * <p>
  * <b>Usage:</b> Use StepManager to coordinate step execution, check workflow completion, and advance steps in agent orchestration.
  */
 @Slf4j
 public class StepManager {
     private final StepGraph stepGraph;
     private final StepGraphCompletionStrategy completionStrategy;
+    private final StepCursor cursor;
     
     
     private boolean workflowComplete;
@@ -29,7 +34,7 @@ public class StepManager {
     public StepManager(AgentRecipe recipe) {
         this.stepGraph = recipe.getStepGraph();
         this.completionStrategy = recipe.getCompletionStrategy();
-        
+        this.cursor = StepCursor.of(stepGraph);
     }
     
     
@@ -37,24 +42,34 @@ public class StepManager {
         return stepGraph;
     }
     
+    /**
+     * Returns this run's position in the step graph.
+     *
+     * @return the step cursor
+     */
+    public StepCursor getCursor() {
+        return cursor;
+    }
+    
     public Step getCurrentStep() {
-        return stepGraph.getCurrentStep();
+        return cursor.getCurrentStep();
     }
     
     
     public boolean isWorkflowComplete() {
-        if (!workflowComplete && stepGraph.getCurrentStep() != null) {
-            workflowComplete = completionStrategy.isComplete(stepGraph, stepGraph.getCurrentStep(), null);
+        Step currentStep = cursor.getCurrentStep();
+        if (!workflowComplete && currentStep != null) {
+            workflowComplete = completionStrategy.isComplete(stepGraph, currentStep, null);
         }
         return workflowComplete;
     }
     
     public void advanceToNextStep(AgentContext context) {
-        stepGraph.advanceToNextStep(context);
+        cursor.advance(context);
     }
     
     public void setWorkflowComplete() {
-        stepGraph.complete();
+        cursor.complete();
         this.workflowComplete = true;
         log.info("[StepManager] Workflow marked as complete.");
     }
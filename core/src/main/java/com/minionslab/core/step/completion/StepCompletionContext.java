@@ -1,5 +1,6 @@
 package com.minionslab.core.step.completion;
 
+import com.minionslab.core.common.chain.CancellationToken;
 import com.minionslab.core.common.chain.ProcessContext;
 import com.minionslab.core.common.chain.ProcessResult;
 import com.minionslab.core.step.Step;
@@ -30,4 +31,14 @@ public class StepCompletionContext<T extends ProcessResult> implements ProcessCo
     private boolean memoryUpdateFailed;
     private Throwable error;
     private boolean goalAchieved;
+    
+    @Override
+    public String getRecipeId() {
+        return stepContext != null ? stepContext.getRecipeId() : null;
+    }
+    
+    @Override
+    public CancellationToken getCancellationToken() {
+        return stepContext != null ? stepContext.getCancellationToken() : CancellationToken.NONE;
+    }
 }
@@ -1,11 +1,28 @@
 package com.minionslab.core.step.completion;
 
 import com.minionslab.core.common.chain.AbstractProcessor;
+import com.minionslab.core.step.StepContext;
 
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * TimeoutProcessor interrupts a step whose run has been cancelled or has exceeded its time budget.
+ * <p>
+ * The step is {@link StepCompletionOutcome#INTERRUPTED} when the context's cancellation token fired, or when a
+ * positive {@link StepCompletionContext#getTimeout() timeout} (in milliseconds) has elapsed since the step started.
+ */
 public class TimeoutProcessor extends AbstractProcessor<StepCompletionContext, StepCompletionOutcome> {
     @Override
     protected StepCompletionOutcome doProcess(StepCompletionContext input) throws Exception {
-//todo figure out how to handle timeout
+        if (input.getCancellationToken().isCancelled()) {
+            return StepCompletionOutcome.INTERRUPTED;
+        }
+        StepContext stepContext = input.getStepContext();
+        if (input.getTimeout() > 0 && stepContext != null && stepContext.getStartedAt() != null
+                    && Duration.between(stepContext.getStartedAt(), Instant.now()).toMillis() >= input.getTimeout()) {
+            return StepCompletionOutcome.INTERRUPTED;
+        }
         return null;
     }
 }
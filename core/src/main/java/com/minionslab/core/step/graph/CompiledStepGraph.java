@@ -0,0 +1,216 @@
+package com.minionslab.core.step.graph;
+
+import com.minionslab.core.agent.AgentContext;
+import com.minionslab.core.step.Step;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CompiledStepGraph is the immutable, thread-safe form of a step graph.
+ * <p>
+ * Compiling indexes the steps by position and id and resolves every transition to an index-addressed list of
+ * successor steps, so moving a {@link StepCursor} is an array lookup and a {@link TransitionStrategy} call. A
+ * compiled graph has no position of its own: any number of concurrent runs share one instance, each with its own
+ * cursor from {@link #newCursor()}.
+ * <p>
+ * <b>Usage:</b> Compile a {@link StepGraphDefinition} once per recipe with {@link #compile(StepGraphDefinition)}, or
+ * let {@link DefaultStepGraph#compile()} do it, and hand out cursors per run.
+ */
+public final class CompiledStepGraph {
+
+    static final CompiledStepGraph EMPTY = new CompiledStepGraph(new Step[0], Map.of(), List.of(), -1, new NextStepTransitionStrategy());
+
+    private final Step[] steps;
+    private final Map<String, Integer> indexById;
+    private final List<List<Step>> successors;
+    private final int startIndex;
+    private final TransitionStrategy transitionStrategy;
+
+    private CompiledStepGraph(Step[] steps, Map<String, Integer> indexById, List<List<Step>> successors, int startIndex,
+                              TransitionStrategy transitionStrategy) {
+        this.steps = steps;
+        this.indexById = indexById;
+        this.successors = successors;
+        this.startIndex = startIndex;
+        this.transitionStrategy = transitionStrategy;
+    }
+
+    /**
+     * Compiles a graph definition.
+     *
+     * @param definition the definition
+     * @return the compiled graph
+     * @throws IllegalArgumentException if step ids are duplicated, or a transition refers to an unknown step
+     */
+    public static CompiledStepGraph compile(StepGraphDefinition definition) {
+        return compile(definition.getSteps(), definition.getTransitions(), definition.getStartStep(), definition.getTransitionStrategy());
+    }
+
+    /**
+     * Compiles steps and transitions given by step id.
+     *
+     * @param steps              the steps
+     * @param transitions        the successor ids of each step id, in the order the strategy sees them
+     * @param startStep          the start step, added to the steps if it is not one of them
+     * @param transitionStrategy the strategy choosing among successors, null for {@link NextStepTransitionStrategy}
+     * @return the compiled graph
+     * @throws IllegalArgumentException if step ids are duplicated, or a transition refers to an unknown step
+     */
+    public static CompiledStepGraph compile(List<Step> steps, Map<String, List<String>> transitions, Step startStep,
+                                            TransitionStrategy transitionStrategy) {
+        List<Step> ordered = new ArrayList<>(steps.size() + 1);
+        Map<String, Integer> indexById = new HashMap<>();
+        for (Step step : steps) {
+            Integer previous = indexById.putIfAbsent(step.getId(), ordered.size());
+            if (previous == null) {
+                ordered.add(step);
+            } else if (ordered.get(previous) != step) {
+                throw new IllegalArgumentException("Duplicate step id: " + step.getId());
+            }
+        }
+        if (startStep != null && !indexById.containsKey(startStep.getId())) {
+            indexById.put(startStep.getId(), ordered.size());
+            ordered.add(startStep);
+        }
+
+        List<List<Step>> successors = new ArrayList<>(ordered.size());
+        for (Step step : ordered) {
+            List<String> next = transitions.getOrDefault(step.getId(), List.of());
+            Step[] resolved = new Step[next.size()];
+            for (int i = 0; i < resolved.length; i++) {
+                Integer index = indexById.get(next.get(i));
+                if (index == null) {
+                    throw new IllegalArgumentException("Transition from " + step.getId() + " to unknown step: " + next.get(i));
+                }
+                resolved[i] = ordered.get(index);
+            }
+            successors.add(List.of(resolved));
+        }
+        for (String from : transitions.keySet()) {
+            if (!indexById.containsKey(from)) {
+                throw new IllegalArgumentException("Transition from unknown step: " + from);
+            }
+        }
+
+        return new CompiledStepGraph(ordered.toArray(Step[]::new), Map.copyOf(indexById), List.copyOf(successors),
+                                     startStep != null ? indexById.get(startStep.getId()) : -1,
+                                     transitionStrategy != null ? transitionStrategy : new NextStepTransitionStrategy());
+    }
+
+    /**
+     * Returns a new cursor positioned at the start step.
+     *
+     * @return the cursor
+     */
+    public StepCursor newCursor() {
+        return new Cursor(this);
+    }
+
+    /**
+     * Returns the start step.
+     *
+     * @return the start step, or null if the graph has none
+     */
+    public Step getStartStep() {
+        return startIndex >= 0 ? steps[startIndex] : null;
+    }
+
+    /**
+     * Returns the steps in definition order.
+     *
+     * @return an unmodifiable list of the steps
+     */
+    public List<Step> getSteps() {
+        return List.of(steps);
+    }
+
+    /**
+     * Returns the step with the given id.
+     *
+     * @param id the step id
+     * @return the step, or null if the graph has no such step
+     */
+    public Step getStep(String id) {
+        Integer index = indexById.get(id);
+        return index != null ? steps[index] : null;
+    }
+
+    /**
+     * Returns the successors of a step.
+     *
+     * @param step the step
+     * @return an unmodifiable list of the successors; empty for a step without transitions or outside the graph
+     */
+    public List<Step> getSuccessors(Step step) {
+        Integer index = step != null ? indexById.get(step.getId()) : null;
+        return index != null ? successors.get(index) : List.of();
+    }
+
+    public int size() {
+        return steps.length;
+    }
+
+    public TransitionStrategy getTransitionStrategy() {
+        return transitionStrategy;
+    }
+
+    /**
+     * Per-run position in a compiled graph: the current step and its index, -1 if the run has left the graph or a
+     * transition strategy chose a step that is not part of it.
+     */
+    private static final class Cursor implements StepCursor {
+        private final CompiledStepGraph graph;
+        private int index;
+        private Step current;
+
+        Cursor(CompiledStepGraph graph) {
+            this.graph = graph;
+            reset();
+        }
+
+        @Override
+        public Step getCurrentStep() {
+            return current;
+        }
+
+        @Override
+        public Step next(AgentContext context) {
+            if (current == null) {
+                return null;
+            }
+            List<Step> candidates = index >= 0 ? graph.successors.get(index) : graph.getSuccessors(current);
+            Step next = graph.transitionStrategy.selectNext(current, candidates, context);
+            moveTo(next);
+            return next;
+        }
+
+        @Override
+        public void reset() {
+            moveTo(graph.getStartStep());
+        }
+
+        @Override
+        public void complete() {
+            moveTo(null);
+        }
+
+        @Override
+        public Step seek(String stepId) {
+            Integer position = graph.indexById.get(stepId);
+            if (position == null) {
+                throw new IllegalArgumentException("Unknown step: " + stepId);
+            }
+            moveTo(graph.steps[position]);
+            return current;
+        }
+
+        private void moveTo(Step step) {
+            current = step;
+            Integer position = step != null ? graph.indexById.get(step.getId()) : null;
+            index = position != null && graph.steps[position] == step ? position : -1;
+        }
+    }
+}
@@ -3,41 +3,80 @@ package com.minionslab.core.step.graph;
 import com.minionslab.core.agent.AgentContext;
 import com.minionslab.core.step.Step;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
+/**
+ * DefaultStepGraph builds a step graph from a {@link StepGraphDefinition}.
+ * <p>
+ * Runs do not move this graph: {@link #newCursor()} hands every run its own cursor over the
+ * {@link CompiledStepGraph}, which is compiled on first use and shared by all runs of the recipe. Adding steps or
+ * transitions recompiles the graph for cursors created afterwards; cursors already handed out keep the graph they
+ * started with.
+ * <p>
+ * {@link #getCurrentStep()} and {@link #getNextStep(AgentContext)} keep a single position on the graph itself for
+ * callers that drive the graph directly; that position is shared by everyone using the graph.
+ */
 public class DefaultStepGraph implements StepGraph {
-    
+
     private final Map<String, Step> stepById;
     private final Map<String, List<Step>> transitions;
     private final TransitionStrategy transitionStrategy;
     private final Step startStep;
-    
+    private volatile CompiledStepGraph compiled;
+
     private Step currentStep;
-    
+
     public DefaultStepGraph(StepGraphDefinition definition) {
-        
-        
         transitionStrategy = definition.getTransitionStrategy();
-        this.stepById = definition.getSteps().stream()
-                                  .collect(Collectors.toMap(Step::getId, s -> s));
-        
-        this.transitions = definition.getTransitions().entrySet().stream()
-                                     .collect(Collectors.toMap(
-                                             Map.Entry::getKey,
-                                             e -> e.getValue().stream().map(stepById::get).toList()
-                                                              ));
-        
+        this.stepById = new LinkedHashMap<>();
+        for (Step step : definition.getSteps()) {
+            Step previous = stepById.putIfAbsent(step.getId(), step);
+            if (previous != null && previous != step) {
+                throw new IllegalArgumentException("Duplicate step id: " + step.getId());
+            }
+        }
+        this.transitions = new LinkedHashMap<>();
+        definition.getTransitions().forEach((from, to) ->
+                transitions.put(from, new ArrayList<>(to.stream().map(stepById::get).toList())));
+
         this.startStep = currentStep = definition.getStartStep();
     }
-    
-    
+
+    /**
+     * Returns the compiled form of this graph, compiling it if the graph changed since the last call.
+     *
+     * @return the compiled graph
+     * @throws IllegalArgumentException if a transition refers to a step that is not part of the graph
+     */
+    public CompiledStepGraph compile() {
+        CompiledStepGraph graph = compiled;
+        if (graph == null) {
+            synchronized (this) {
+                graph = compiled;
+                if (graph == null) {
+                    Map<String, List<String>> transitionIds = new LinkedHashMap<>();
+                    transitions.forEach((from, to) -> transitionIds.put(from, to.stream().map(s -> s != null ? s.getId() : null).toList()));
+                    graph = CompiledStepGraph.compile(new ArrayList<>(stepById.values()), transitionIds, startStep, transitionStrategy);
+                    compiled = graph;
+                }
+            }
+        }
+        return graph;
+    }
+
+    @Override
+    public StepCursor newCursor() {
+        return compile().newCursor();
+    }
+
     @Override
     public Step getCurrentStep() {
         return currentStep;
     }
-    
+
     @Override
     public Step getNextStep(AgentContext context) {
         List<Step> nextSteps = transitions.getOrDefault(currentStep.getId(), List.of());
@@ -45,37 +84,39 @@ public class DefaultStepGraph implements StepGraph {
         this.currentStep = next;
         return next;
     }
-    
+
     @Override
     public void reset() {
         currentStep = startStep;
     }
-    
+
     @Override
     public List<Step> getAllSteps() {
         return stepById.values().stream().toList();
     }
-    
+
     @Override
-    public void addStep(Step step) {
+    public synchronized void addStep(Step step) {
         if (stepById.containsKey(step.getId())) {
             throw new IllegalArgumentException("Step already exists: " + step.getId());
         }
         stepById.put(step.getId(), step);
+        compiled = null;
     }
-    
+
     @Override
-    public void addTransition(Step from, Step to) {
-        transitions.computeIfAbsent(from.getId(), k -> new java.util.ArrayList<>()).add(to);
+    public synchronized void addTransition(Step from, Step to) {
+        transitions.computeIfAbsent(from.getId(), k -> new ArrayList<>()).add(to);
+        compiled = null;
     }
-    
+
     @Override
     public void advanceToNextStep(AgentContext context) {
-    
+
     }
-    
+
     @Override
     public void complete() {
-    
+
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,41 @@
+package com.minionslab.core.step.graph;
+
+import com.minionslab.core.agent.AgentContext;
+import com.minionslab.core.step.Step;
+
+/**
+ * Cursor delegating to the position a {@link StepGraph} keeps itself, for graphs that cannot hand out per-run
+ * cursors. All cursors of such a graph share one position.
+ */
+class SharedStepCursor implements StepCursor {
+    private final StepGraph graph;
+    
+    SharedStepCursor(StepGraph graph) {
+        this.graph = graph;
+    }
+    
+    @Override
+    public Step getCurrentStep() {
+        return graph.getCurrentStep();
+    }
+    
+    @Override
+    public Step next(AgentContext context) {
+        return graph.getNextStep(context);
+    }
+    
+    @Override
+    public void advance(AgentContext context) {
+        graph.advanceToNextStep(context);
+    }
+    
+    @Override
+    public void reset() {
+        graph.reset();
+    }
+    
+    @Override
+    public void complete() {
+        graph.complete();
+    }
+}
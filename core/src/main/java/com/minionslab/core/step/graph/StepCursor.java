@@ -0,0 +1,84 @@
+package com.minionslab.core.step.graph;
+
+import com.minionslab.core.agent.AgentContext;
+import com.minionslab.core.step.Step;
+
+/**
+ * StepCursor is the position of one agent run in a {@link StepGraph}.
+ * <p>
+ * Graphs are shared by every run of a recipe, so the position is kept apart from the graph: each run owns a cursor
+ * (see {@link com.minionslab.core.step.StepManager#getCursor()}) and moves only that. Cursors are cheap, hold no
+ * copy of the graph, and are not thread-safe; a run drives its cursor from one thread at a time.
+ * <p>
+ * <b>Extensibility:</b>
+ * <ul>
+ *   <li>Graphs hand out cursors through {@link StepGraph#newCursor()}; {@link DefaultStepGraph} returns cursors over
+ *   its {@link CompiledStepGraph}.</li>
+ *   <li>Graphs that do not override {@link StepGraph#newCursor()} get a cursor that delegates to the graph's own
+ *   position, which is shared by all runs of the graph.</li>
+ * </ul>
+ * <b>Usage:</b> Use {@link #of(StepGraph)} to obtain a cursor positioned at the start step, then call
+ * {@link #next(AgentContext)} until it returns null.
+ */
+public interface StepCursor {
+    
+    /**
+     * Returns the step the run is at.
+     *
+     * @return the current step, or null once the run has left the graph
+     */
+    Step getCurrentStep();
+    
+    /**
+     * Moves to the successor chosen by the graph's {@link TransitionStrategy}.
+     *
+     * @param context the agent context the transition is evaluated for
+     * @return the new current step, or null if there is none
+     */
+    Step next(AgentContext context);
+    
+    /**
+     * Advances the run past the current step.
+     *
+     * @param context the agent context the transition is evaluated for
+     */
+    default void advance(AgentContext context) {
+        next(context);
+    }
+    
+    /**
+     * Moves back to the start step.
+     */
+    void reset();
+    
+    /**
+     * Moves past the last step, so that {@link #getCurrentStep()} returns null.
+     */
+    void complete();
+    
+    /**
+     * Moves to the step with the given id, for example to continue a run from a checkpoint.
+     *
+     * @param stepId the step id
+     * @return the new current step
+     * @throws IllegalArgumentException      if the graph has no step with that id
+     * @throws UnsupportedOperationException if the cursor cannot be positioned
+     */
+    default Step seek(String stepId) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " cannot seek");
+    }
+    
+    /**
+     * Returns a new cursor positioned at the start of the graph.
+     *
+     * @param graph the graph, may be null
+     * @return a cursor over the graph; a cursor without steps if the graph is null
+     */
+    static StepCursor of(StepGraph graph) {
+        if (graph == null) {
+            return CompiledStepGraph.EMPTY.newCursor();
+        }
+        StepCursor cursor = graph.newCursor();
+        return cursor != null ? cursor : new SharedStepCursor(graph);
+    }
+}
@@ -12,6 +12,8 @@ import java.util.List;
  * <ul>
  *   <li>Implement this interface to define custom step graph structures, transitions, or execution logic.</li>
  *   <li>Override methods to add advanced branching, looping, or conditional transitions.</li>
+ *   <li>Override {@link #newCursor()} to give every run its own position, so runs of a shared recipe do not move
+ *   each other; {@link DefaultStepGraph} does so with a {@link CompiledStepGraph}.</li>
  * </ul>
  * <b>Usage:</b> Use StepGraph to represent and manage the flow of steps in agent workflows. Extend for custom orchestration patterns.
  */
@@ -28,4 +30,14 @@ public interface StepGraph {
     void advanceToNextStep(AgentContext context);
     
     void complete();
+    
+    /**
+     * Returns a new cursor positioned at the start of this graph, for one run.
+     * The default cursor delegates to this graph's own position, which all runs share.
+     *
+     * @return a cursor over this graph
+     */
+    default StepCursor newCursor() {
+        return new SharedStepCursor(this);
+    }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.minionslab.core.step.processor;
 
 import com.minionslab.core.common.chain.AbstractBaseChain;
+import com.minionslab.core.common.chain.ParallelProcessorGroup;
 import com.minionslab.core.common.chain.ProcessContext;
 import com.minionslab.core.common.chain.ProcessorCustomizer;
 import com.minionslab.core.step.StepContext;
@@ -9,6 +10,8 @@ import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 @Component
 public class DefaultStepProcessorChain extends AbstractBaseChain<StepProcessor, StepContext> {
@@ -57,4 +60,18 @@ public class DefaultStepProcessorChain extends AbstractBaseChain<StepProcessor,
     public boolean accepts(ProcessContext context) {
         return context instanceof StepContext;
     }
+    
+    @Override
+    protected StepProcessor newParallelGroup(List<StepProcessor> members, ParallelProcessorGroup.FailurePolicy failurePolicy) {
+        return new ParallelStepProcessorGroup(members, failurePolicy, this::getExecutor);
+    }
+    
+    /**
+     * A parallel group of step processors, held by the chain as a step processor.
+     */
+    static final class ParallelStepProcessorGroup extends ParallelProcessorGroup<StepContext> implements StepProcessor {
+        ParallelStepProcessorGroup(List<StepProcessor> members, FailurePolicy failurePolicy, Supplier<Executor> executorSupplier) {
+            super(members, failurePolicy, executorSupplier);
+        }
+    }
 }
@@ -3,6 +3,7 @@ package com.minionslab.core.step.processor;
 import com.minionslab.core.common.chain.AbstractProcessor;
 import com.minionslab.core.common.message.Message;
 import com.minionslab.core.config.ModelConfig;
+import com.minionslab.core.model.ModelCall;
 import com.minionslab.core.model.ModelCallStatus;
 import com.minionslab.core.service.ModelCallService;
 import com.minionslab.core.step.StepContext;
@@ -11,6 +12,8 @@ import org.springframework.stereotype.Component;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 @Component
 public class ModelCallStepProcessor extends AbstractProcessor<StepContext,String> implements StepProcessor {
@@ -32,6 +35,7 @@ public class ModelCallStepProcessor extends AbstractProcessor<StepContext,String
         
         input.getModelCalls().forEach(modelCall -> {
             List<ToolCall> toolCalls = modelCall.getToolCalls();
+            toolCalls.forEach(toolCall -> toolCall.setCancellationToken(input.getCancellationToken()).setBudget(input.getBudget()));
             input.getToolCalls().addAll(toolCalls);
         });
         return input;
@@ -46,14 +50,26 @@ public class ModelCallStepProcessor extends AbstractProcessor<StepContext,String
     protected String doProcess(StepContext input) throws Exception {
 
         input.getUnfinishedModelCalls().forEach(modelCall -> {
+            input.getCancellationToken().throwIfCancelled();
             List<Message> messages = modelCall.getRequest().messages();
             Map<String, Object> parameters = modelCall.getRequest().parameters();
             ModelConfig modelConfig = modelCall.getModelConfig();
             modelCall = modelService.call(modelCall);
             modelCall.setStatus(ModelCallStatus.COMPLETED);
             input.increaseModelCalls();
+            input.recordModelOutput(outputOf(modelCall));
         });
         return "completed";
         
     }
+    
+    private static String outputOf(ModelCall modelCall) {
+        if (modelCall == null || modelCall.getResponse() == null || modelCall.getResponse().getMessages() == null) {
+            return null;
+        }
+        return modelCall.getResponse().getMessages().stream()
+                        .map(Message::getContent)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.joining("\n"));
+    }
 }
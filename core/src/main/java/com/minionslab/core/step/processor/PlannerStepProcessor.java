@@ -55,7 +55,9 @@ public class PlannerStepProcessor extends AbstractProcessor<StepContext, List<Mo
             messages.add(SimpleMessage.builder().scope(MessageScope.STEP).role(MessageRole.SYSTEM).content(value).build());
             
         }
-        ModelCall modelCall = new ModelCall(ModelConfig.builder().build(), new MessageBundle(messages));
+        ModelCall modelCall = new ModelCall(ModelConfig.builder().build(), new MessageBundle(messages)).setRecipeId(input.getRecipeId())
+                                        .setCancellationToken(input.getCancellationToken())
+                                        .setBudget(input.getBudget());
         input.addModelCall(modelCall);
         return List.of(modelCall);
     }
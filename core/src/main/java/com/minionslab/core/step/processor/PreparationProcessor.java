@@ -18,7 +18,9 @@ public class PreparationProcessor extends AbstractProcessor<StepContext, StepCon
         Message userRequest = input.getUserRequest();
         MessageBundle messageBundle = new MessageBundle(List.of(systemPrompt, userRequest));
         input.getMemoryManager().process(input);
-        ModelCall modelCall = new ModelCall(input.getModelCallConfig(), messageBundle);
+        ModelCall modelCall = new ModelCall(input.getModelCallConfig(), messageBundle).setRecipeId(input.getRecipeId())
+                                        .setCancellationToken(input.getCancellationToken())
+                                        .setBudget(input.getBudget());
         input.getModelCalls().add(modelCall);
         return input;
     }
@@ -1,5 +1,7 @@
 package com.minionslab.core.step.processor;
 
+import com.minionslab.core.agent.event.AgentEventType;
+import com.minionslab.core.common.chain.CancellationToken;
 import com.minionslab.core.service.ToolCallService;
 import com.minionslab.core.step.StepContext;
 import com.minionslab.core.tool.ToolCall;
@@ -23,8 +25,16 @@ public class ToolCallStepProcessor implements StepProcessor {
     @Override
     public StepContext process(StepContext input) {
         List<ToolCall> toolCalls = input.getToolCalls();
+        CancellationToken token = input.getCancellationToken();
         for (ToolCall toolCall : toolCalls) {
+            token.throwIfCancelled();
+            toolCall.setCancellationToken(token).setBudget(input.getBudget());
+            input.publish(AgentEventType.TOOL_CALL_STARTED, toolCall.getName(),
+                          toolCall.getRequest() != null ? toolCall.getRequest().input() : null);
             toolCallService.call(toolCall);
+            ToolCall.ToolCallResponse response = toolCall.getResponse();
+            input.publish(AgentEventType.TOOL_CALL_COMPLETED, toolCall.getName(),
+                          response == null ? null : response.error() != null ? response.error() : response.response());
         }
         return input;
     }
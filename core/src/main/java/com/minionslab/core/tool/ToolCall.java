@@ -1,5 +1,7 @@
 package com.minionslab.core.tool;
 
+import com.minionslab.core.agent.budget.RunBudget;
+import com.minionslab.core.common.chain.CancellationToken;
 import com.minionslab.core.common.chain.ProcessContext;
 import com.minionslab.core.common.chain.ProcessResult;
 import lombok.AllArgsConstructor;
@@ -31,6 +33,16 @@ public class ToolCall implements ProcessContext {
     private ToolCallResponse response;
     @Builder.Default
     private ToolCallStatus status = ToolCallStatus.PENDING;
+    /**
+     * The token of the run this call is made for; tool implementations abort the call when it fires.
+     */
+    @Builder.Default
+    private CancellationToken cancellationToken = CancellationToken.NONE;
+    /**
+     * The budget of the run this call is made for; the tool call service charges the call to it.
+     */
+    @Builder.Default
+    private RunBudget budget = RunBudget.NONE;
     
     @Override
     public String toString() {
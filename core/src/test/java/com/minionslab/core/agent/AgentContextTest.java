@@ -1,8 +1,15 @@
 package com.minionslab.core.agent;
 
+import com.minionslab.core.common.chain.CancellationToken;
+import com.minionslab.core.common.chain.ChainCancelledException;
+import com.minionslab.core.common.chain.ProcessResult;
 import com.minionslab.core.step.StepManager;
 import com.minionslab.core.memory.MemoryManager;
 import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -12,6 +19,8 @@ import static org.mockito.Mockito.*;
  * Scenarios:
  * <ul>
  *   <li>Metadata and results management</li>
+ *   <li>Results recorded back to back are all kept, in order</li>
+ *   <li>The failure of a run is its first failed result, else the cancellation of its token</li>
  * </ul>
  * <p>
  * Setup: Mocks Agent, StepManager, and MemoryManager. Initializes AgentContext.
@@ -36,4 +45,47 @@ class AgentContextTest {
         assertNotNull(context.getConversationId());
         assertNotNull(context.getResults());
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Tests that results recorded in the same clock tick do not overwrite each other.
+     * Setup: Adds many results back to back.
+     * Expected: All results are kept in insertion order.
+     */
+    @Test
+    void testResultsRecordedInSameTickAreKept() {
+        Agent agent = mock(Agent.class);
+        when(agent.getRecipe()).thenReturn(mock(AgentRecipe.class));
+        AgentContext context = new AgentContext(agent, mock(StepManager.class), mock(MemoryManager.class));
+        
+        for (int i = 0; i < 100; i++) {
+            context.addResult(ProcessResult.skipped("p" + i));
+        }
+        assertEquals(100, context.getResults().size());
+        assertEquals("p0", context.getResults().get(0).getProcessorId());
+        assertEquals("p99", context.getResults().get(99).getProcessorId());
+    }
+
+    /**
+     * Tests that a run reports the error of its first failed result, and its token's cancellation otherwise.
+     * Setup: A context with a successful result, then a cancelled token, then two failed results.
+     * Expected: no failure at first, then the cancellation, then the first recorded error.
+     */
+    @Test
+    void testFailureIsFirstFailedResultOrCancellation() {
+        Agent agent = mock(Agent.class);
+        when(agent.getRecipe()).thenReturn(mock(AgentRecipe.class));
+        AgentContext context = new AgentContext(agent, mock(StepManager.class), mock(MemoryManager.class));
+        CancellationToken token = CancellationToken.create();
+        context.setCancellationToken(token);
+        context.addResult(ProcessResult.success("p0", List.of(), Instant.now()));
+        assertNull(context.getFailure());
+        
+        token.cancel("stopped");
+        assertInstanceOf(ChainCancelledException.class, context.getFailure());
+        
+        IllegalStateException first = new IllegalStateException("first");
+        context.addResult(ProcessResult.failure("p1", first, Instant.now()));
+        context.addResult(ProcessResult.failure("p2", new IllegalStateException("second"), Instant.now()));
+        assertSame(first, context.getFailure());
+    }
+}
@@ -0,0 +1,125 @@
+package com.minionslab.core.agent;
+
+import com.minionslab.core.common.chain.CancellationToken;
+import com.minionslab.core.common.chain.ChainCancelledException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for {@link AgentRuntime}.
+ * <p>
+ * Scenarios:
+ * <ul>
+ *   <li>Submitted runs execute on virtual threads and complete their handle</li>
+ *   <li>Runs beyond the in-flight limit queue and start as slots free up</li>
+ *   <li>REJECT fails submissions once the queue is full</li>
+ *   <li>BLOCK rejects after the admission timeout</li>
+ *   <li>Cancelling a queued run removes it from the queue</li>
+ *   <li>Queue depth, in-flight runs and run latency are metered</li>
+ * </ul>
+ */
+class AgentRuntimeTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private AgentRuntime runtime;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        runtime.destroy();
+    }
+
+    private Function<CancellationToken, AgentContext> blocking(AgentContext context) {
+        return token -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return context;
+        };
+    }
+
+    @Test
+    void runsOnVirtualThread() {
+        runtime = new AgentRuntime(2, 2, AgentRuntime.OverflowPolicy.REJECT, Duration.ZERO, registry);
+        AgentContext context = mock(AgentContext.class);
+        boolean[] virtual = new boolean[1];
+
+        AgentRun run = runtime.submit(token -> {
+            virtual[0] = Thread.currentThread().isVirtual();
+            return context;
+        }, null);
+
+        assertSame(context, run.join());
+        assertTrue(virtual[0]);
+        assertEquals(AgentRun.Status.COMPLETED, run.getStatus());
+        assertEquals(1, registry.get(AgentRuntime.RUN_TIMER).tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void queuesBeyondLimit() throws Exception {
+        runtime = new AgentRuntime(1, 2, AgentRuntime.OverflowPolicy.REJECT, Duration.ZERO, registry);
+        AgentContext first = mock(AgentContext.class);
+        AgentContext second = mock(AgentContext.class);
+
+        AgentRun running = runtime.submit(blocking(first), null);
+        AgentRun queued = runtime.submit(token -> second, null);
+
+        assertEquals(AgentRun.Status.QUEUED, queued.getStatus());
+        assertEquals(1, runtime.getInFlight());
+        assertEquals(1, runtime.getQueueDepth());
+        assertEquals(1.0, registry.get(AgentRuntime.QUEUE_DEPTH).gauge().value());
+
+        release.countDown();
+        assertSame(first, running.getCompletion().get(5, TimeUnit.SECONDS));
+        assertSame(second, queued.getCompletion().get(5, TimeUnit.SECONDS));
+        assertEquals(0, runtime.getQueueDepth());
+    }
+
+    @Test
+    void rejectsWhenFull() {
+        runtime = new AgentRuntime(1, 1, AgentRuntime.OverflowPolicy.REJECT, Duration.ZERO, registry);
+        runtime.submit(blocking(null), null);
+        runtime.submit(blocking(null), null);
+
+        assertThrows(AgentRejectedException.class, () -> runtime.submit(blocking(null), null));
+        assertEquals(1.0, registry.get(AgentRuntime.REJECTED).counter().count());
+    }
+
+    @Test
+    void blockRejectsAfterTimeout() {
+        runtime = new AgentRuntime(1, 0, AgentRuntime.OverflowPolicy.BLOCK, Duration.ofMillis(50), registry);
+        runtime.submit(blocking(null), null);
+
+        long start = System.nanoTime();
+        assertThrows(AgentRejectedException.class, () -> runtime.submit(blocking(null), null));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    void cancelQueuedRun() {
+        runtime = new AgentRuntime(1, 1, AgentRuntime.OverflowPolicy.REJECT, Duration.ZERO, registry);
+        runtime.submit(blocking(null), null);
+        AgentRun queued = runtime.submit(token -> fail("cancelled run must not start"), null);
+
+        assertTrue(queued.cancel("no longer needed"));
+
+        CompletionException error = assertThrows(CompletionException.class, queued::join);
+        assertInstanceOf(ChainCancelledException.class, error.getCause());
+        assertEquals(AgentRun.Status.CANCELLED, queued.getStatus());
+        assertEquals(0, runtime.getQueueDepth());
+        // the freed queue slot admits the next run
+        assertDoesNotThrow(() -> runtime.submit(blocking(null), null));
+    }
+}
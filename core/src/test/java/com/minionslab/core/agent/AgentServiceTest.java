@@ -1,14 +1,30 @@
 package com.minionslab.core.agent;
 
+import com.minionslab.core.agent.event.AgentEvent;
+import com.minionslab.core.cluster.ClusterNode;
+import com.minionslab.core.cluster.ConversationRouter;
+import com.minionslab.core.cluster.NotConversationOwnerException;
+import com.minionslab.core.cluster.StaticClusterDiscovery;
+import com.minionslab.core.agent.event.AgentEventType;
+import com.minionslab.core.common.chain.CancellationToken;
 import com.minionslab.core.common.chain.ChainRegistry;
 import com.minionslab.core.common.chain.ProcessContext;
 import com.minionslab.core.common.chain.ProcessResult;
 import com.minionslab.core.memory.MemoryFactory;
+import com.minionslab.core.memory.query.QueryConfig;
+import com.minionslab.core.memory.session.MemorySessionManager;
 import com.minionslab.core.common.message.Message;
 import com.minionslab.core.model.MessageBundle;
 import com.minionslab.core.service.ModelCallService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -18,6 +34,9 @@ import static org.mockito.Mockito.*;
  * Scenarios:
  * <ul>
  *   <li>Run agent by ID fetches recipe and delegates to runAgent</li>
+ *   <li>A run is bound to its recipe's agent config while it executes</li>
+ *   <li>A completed run ends with its final output, a failed or cancelled one with the reason</li>
+ *   <li>Submitting a run of a conversation another node owns is refused before the run is queued</li>
  * </ul>
  * <p>
  * Setup: Mocks AgentRecipeRepository, ModelCallService, ChainRegistry, MemoryFactory, AgentRecipe, and Message.
@@ -42,7 +61,9 @@ class AgentServiceTest {
         modelCallService = mock(ModelCallService.class);
         chainRegistry = mock(ChainRegistry.class);
         memoryFactory = mock(MemoryFactory.class);
-        service = new AgentService(recipeRepository, modelCallService, chainRegistry, memoryFactory);
+        service = new AgentService(recipeRepository, modelCallService, chainRegistry, memoryFactory,
+                                   mock(AgentRuntime.class), new MemorySessionManager(memoryFactory),
+                                   null, null, null, null);
         recipe = mock(AgentRecipe.class);
         message = mock(Message.class);
         MessageBundle messageBundle = mock(MessageBundle.class);
@@ -66,6 +87,36 @@ class AgentServiceTest {
         verify(spyService).runAgent(recipe);
     }
 
+    /**
+     * Tests that a run of a conversation owned by another node is refused on the submitting thread.
+     * Setup: A clustered service on node a; the conversation is owned by node b.
+     * Expected: submitAgent throws a NotConversationOwnerException naming b, and nothing reaches the runtime.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSubmitRefusesConversationsOwnedElsewhere() {
+        ClusterNode a = new ClusterNode("a", "http://localhost:8081");
+        ClusterNode b = new ClusterNode("b", "http://localhost:8082");
+        MemorySessionManager sessions = new MemorySessionManager(memoryFactory);
+        ConversationRouter router = new ConversationRouter(new StaticClusterDiscovery("a", List.of(a, b)), null, sessions, 64);
+        ObjectProvider<ConversationRouter> routerProvider = mock(ObjectProvider.class);
+        when(routerProvider.getIfAvailable()).thenReturn(router);
+        AgentRuntime runtime = mock(AgentRuntime.class);
+        AgentService clustered = new AgentService(recipeRepository, modelCallService, chainRegistry, memoryFactory, runtime,
+                                                  sessions, null, null, null, routerProvider);
+        String conversationId = "conversation-0";
+        for (int i = 1; router.isLocal(conversationId); i++) {
+            conversationId = "conversation-" + i;
+        }
+        when(recipeRepository.findById("id")).thenReturn(recipe);
+        when(message.getConversationId()).thenReturn(conversationId);
+
+        NotConversationOwnerException refused = assertThrows(NotConversationOwnerException.class,
+                                                             () -> clustered.submitAgent("id", message, event -> { }));
+        assertEquals(b, refused.getOwner());
+        verifyNoInteractions(runtime);
+    }
+
     @Test
     void testRunAgentByIdThrowsIfNotFound() {
         when(recipeRepository.findById("id")).thenReturn(null);
@@ -103,4 +154,63 @@ class AgentServiceTest {
         assertEquals(context, spyService.runAgent(recipe, "msg"));
         verify(spyService).runAgent(eq(recipe), any(Message.class));
     }
-} 
\ No newline at end of file
+
+    /**
+     * Tests that the recipe's agent config is bound to the thread of the run while its chain executes.
+     * Setup: A recipe with a query config; the chain records the config bound when it runs.
+     * Expected: the chain sees the recipe's query config, the run's execution context carries it, and the thread is
+     * unbound once the run ends.
+     */
+    @Test
+    void testRunBindsRecipeAgentConfig() {
+        QueryConfig queryConfig = new QueryConfig().setLimit(7);
+        when(recipe.getAgentConfig()).thenReturn(new AgentConfig().setQueryConfig(queryConfig));
+        AtomicReference<AgentConfig> bound = new AtomicReference<>();
+        when(chainRegistry.process(any(ProcessContext.class))).thenAnswer(inv -> {
+            bound.set(AgentContext.getConfig());
+            return inv.getArgument(0);
+        });
+
+        AgentContext context = service.runAgent(recipe, message);
+
+        assertSame(queryConfig, bound.get().getQueryConfig());
+        assertSame(bound.get(), context.getExecutionContext().getAgentConfig());
+        assertNull(AgentContext.getConfig());
+    }
+
+    /**
+     * Tests the terminal event of runs that complete, record a failure, or are cancelled.
+     * Setup: The chain records a model output; then a failed result; then the run's token is cancelled up front.
+     * Expected: RUN_COMPLETED carries the output; RUN_FAILED carries the failure's message, then the cancellation's.
+     */
+    @Test
+    void testTerminalEventReflectsOutcome() {
+        when(chainRegistry.process(any(ProcessContext.class))).thenAnswer(inv -> {
+            AgentContext running = inv.getArgument(0);
+            running.setOutput("the answer");
+            return running;
+        });
+        List<AgentEvent> completed = new ArrayList<>();
+        service.runAgent(recipe, message, CancellationToken.NONE, completed::add);
+        assertEquals(AgentEventType.RUN_COMPLETED, completed.get(completed.size() - 1).type());
+        assertEquals("the answer", completed.get(completed.size() - 1).data());
+
+        when(chainRegistry.process(any(ProcessContext.class))).thenAnswer(inv -> {
+            AgentContext running = inv.getArgument(0);
+            running.addResult(ProcessResult.failure("s1", new IllegalStateException("model unavailable"), Instant.now()));
+            return running;
+        });
+        List<AgentEvent> failed = new ArrayList<>();
+        service.runAgent(recipe, message, CancellationToken.NONE, failed::add);
+        assertEquals(AgentEventType.RUN_FAILED, failed.get(failed.size() - 1).type());
+        assertEquals("model unavailable", failed.get(failed.size() - 1).data());
+
+        when(chainRegistry.process(any(ProcessContext.class))).thenAnswer(inv -> inv.getArgument(0));
+        CancellationToken token = CancellationToken.create();
+        token.cancel("stopped by user");
+        List<AgentEvent> cancelled = new ArrayList<>();
+        service.runAgent(recipe, message, token, cancelled::add);
+        assertEquals(AgentEventType.RUN_FAILED, cancelled.get(cancelled.size() - 1).type());
+        assertTrue(cancelled.get(cancelled.size() - 1).data().contains("stopped by user"));
+    }
+}
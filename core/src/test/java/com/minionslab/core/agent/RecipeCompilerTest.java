@@ -0,0 +1,115 @@
+package com.minionslab.core.agent;
+
+import com.minionslab.core.common.message.Message;
+import com.minionslab.core.common.message.MessageRole;
+import com.minionslab.core.memory.MemoryFactory;
+import com.minionslab.core.memory.query.QueryConfig;
+import com.minionslab.core.model.MessageBundle;
+import com.minionslab.core.tool.ToolException;
+import com.minionslab.core.tool.ToolRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.tool.ToolCallback;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link RecipeCompiler} and the compiled recipe cache of {@link InMemoryAgentRecipeRepository}.
+ * <p>
+ * Scenarios:
+ * <ul>
+ *   <li>Compiling merges tool names, resolves available tools and records missing ones</li>
+ *   <li>Message bundles handed to runs do not share lists with the recipe or each other</li>
+ *   <li>The repository compiles a recipe once and recompiles it after it is saved again</li>
+ *   <li>The agent config of the runs keeps the recipe's settings and defaults the rest</li>
+ * </ul>
+ */
+class RecipeCompilerTest {
+    private ToolRegistry toolRegistry;
+    private MemoryFactory memoryFactory;
+    private RecipeCompiler compiler;
+    private AgentRecipe recipe;
+    
+    @BeforeEach
+    void setUp() {
+        toolRegistry = mock(ToolRegistry.class);
+        memoryFactory = mock(MemoryFactory.class);
+        compiler = spy(new RecipeCompiler(toolRegistry, memoryFactory));
+        MessageBundle bundle = new MessageBundle();
+        bundle.addMessage(message(MessageRole.USER));
+        recipe = AgentRecipe.builder()
+                            .id("r")
+                            .systemPrompt("be helpful")
+                            .requiredTools(List.of("search", "calc", "search"))
+                            .messageBundle(bundle)
+                            .build();
+    }
+    
+    @Test
+    void resolvesTools() {
+        ToolCallback search = mock(ToolCallback.class);
+        when(toolRegistry.getTool("search")).thenReturn(search);
+        when(toolRegistry.getTool("calc")).thenThrow(new ToolException.ToolNotAvailableException("calc"));
+        
+        CompiledRecipe compiled = compiler.compile(recipe);
+        
+        assertEquals(List.of("search", "calc"), compiled.getToolNames());
+        assertEquals(List.of("calc"), compiled.getMissingTools());
+        verify(toolRegistry, times(1)).getTool("search");
+    }
+    
+    @Test
+    void bundlesAreIndependent() {
+        CompiledRecipe compiled = compiler.compile(recipe);
+        
+        DefaultAgent first = new DefaultAgent(compiled, message(MessageRole.USER));
+        DefaultAgent second = new DefaultAgent(compiled, message(MessageRole.USER));
+        
+        assertEquals(2, first.getMessageBundle().getMessages(MessageRole.USER).size());
+        assertEquals(2, second.getMessageBundle().getMessages(MessageRole.USER).size());
+        assertEquals(1, recipe.getMessageBundle().getMessages(MessageRole.USER).size());
+        assertEquals(List.of("search", "calc"), first.getAvailableTools());
+    }
+    
+    @Test
+    void repositoryCachesPerVersion() {
+        InMemoryAgentRecipeRepository repository = new InMemoryAgentRecipeRepository();
+        repository.save("r", recipe);
+        assertEquals(1L, recipe.getVersion());
+        
+        CompiledRecipe first = repository.findCompiledById("r", compiler);
+        assertSame(first, repository.findCompiledById("r", compiler));
+        verify(compiler, times(1)).compile(any());
+        
+        repository.save("r", recipe);
+        CompiledRecipe second = repository.findCompiledById("r", compiler);
+        assertNotSame(first, second);
+        assertEquals(2L, second.getVersion());
+        assertNull(repository.findCompiledById("missing", compiler));
+    }
+    
+    private static Message message(MessageRole role) {
+        Message message = mock(Message.class);
+        when(message.getRole()).thenReturn(role);
+        return message;
+    }
+
+    @Test
+    void compilesAgentConfig() {
+        AgentConfig defaults = compiler.compile(recipe).getAgentConfig();
+        
+        assertEquals(CompiledRecipe.DEFAULT_QUERY_LIMIT, defaults.getQueryConfig().getLimit());
+        assertEquals(CompiledRecipe.DEFAULT_SUMMARIZATION_INPUT_LIMIT, defaults.getSummarizationConfig().getInputMessageLimit());
+        
+        QueryConfig queryConfig = new QueryConfig().setLimit(5);
+        recipe.setAgentConfig(new AgentConfig().setQueryConfig(queryConfig));
+        AgentConfig configured = compiler.compile(recipe).getAgentConfig();
+        
+        assertSame(queryConfig, configured.getQueryConfig());
+        assertNotNull(configured.getSummarizationConfig());
+    }
+}
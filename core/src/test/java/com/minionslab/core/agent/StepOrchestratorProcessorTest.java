@@ -1,14 +1,28 @@
 package com.minionslab.core.agent;
 
+import com.minionslab.core.agent.budget.RunBudget;
+import com.minionslab.core.agent.budget.RunBudgetExceededException;
+import com.minionslab.core.agent.budget.RunBudgetLimits;
+import com.minionslab.core.agent.checkpoint.CheckpointedRun;
 import com.minionslab.core.agent.processor.StepOrchestratorProcessor;
+import com.minionslab.core.agent.event.AgentEvent;
+import com.minionslab.core.agent.event.AgentEventType;
 import com.minionslab.core.common.chain.ChainRegistry;
+import com.minionslab.core.common.chain.ProcessResult;
 import com.minionslab.core.step.Step;
 import com.minionslab.core.step.StepContext;
 import com.minionslab.core.step.StepService;
+import com.minionslab.core.step.StepStatus;
+import com.minionslab.core.step.graph.StepCursor;
 import com.minionslab.core.step.graph.StepGraph;
 import com.minionslab.core.memory.MemoryManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -18,15 +32,20 @@ import static org.mockito.Mockito.*;
  * Scenarios:
  * <ul>
  *   <li>Snapshot and flush memory on process</li>
- *   <li>Restore memory on error</li>
+ *   <li>Restore memory and record the failure on error</li>
  *   <li>Accepts valid context</li>
  *   <li>Processes steps and calls ChainRegistry</li>
+ *   <li>Frames every step with started and completed events</li>
+ *   <li>Stops before the next step once the run budget is exhausted</li>
+ *   <li>Records the failure of a step on the agent context</li>
+ *   <li>Checkpoints completed steps, but never past a failed step</li>
  * </ul>
  * <p>
  * Setup: Mocks ChainRegistry, StepService, AgentContext, Agent, AgentRecipe, StepGraph, Step, StepContext, and MemoryManager.
  */
 class StepOrchestratorProcessorTest {
     private ChainRegistry chainRegistry;
+    private StepService stepService;
     private StepOrchestratorProcessor processor;
     private AgentContext context;
     private Agent agent;
@@ -44,7 +63,7 @@ class StepOrchestratorProcessorTest {
     @BeforeEach
     void setUp() {
         chainRegistry = mock(ChainRegistry.class);
-        StepService stepService = mock(StepService.class);
+        stepService = mock(StepService.class);
         processor = new StepOrchestratorProcessor(stepService);
         context = mock(AgentContext.class);
         agent = mock(Agent.class);
@@ -86,13 +105,14 @@ class StepOrchestratorProcessorTest {
     /**
      * Tests that onError calls restoreLatestSnapshot on MemoryManager.
      * Setup: Mocks MemoryManager in AgentContext.
-     * Expected: restoreLatestSnapshot is called and context is returned.
+     * Expected: restoreLatestSnapshot is called, the error is recorded as a failed result and context is returned.
      */
     @Test
     void testOnErrorCallsRestoreLatestSnapshot() {
         Exception e = new RuntimeException("fail");
         AgentContext result = processor.onError(context, e);
         verify(memoryManager).restoreLatestSnapshot();
+        verify(context).addResult(argThat(recorded -> recorded.getError() == e));
         assertEquals(context, result);
     }
 
@@ -119,4 +139,121 @@ class StepOrchestratorProcessorTest {
         AgentContext result = processor.process(context);
         assertEquals(context, result);
     }
-} 
\ No newline at end of file
+
+    /**
+     * Tests that each executed step is framed by STEP_STARTED and STEP_COMPLETED events.
+     * Setup: A real AgentContext with an event listener over a one-step cursor; the step completes.
+     * Expected: the listener receives both events for the step, carrying the run id and final status.
+     */
+    @Test
+    void publishesStepEvents() {
+        StepCursor cursor = mock(StepCursor.class);
+        when(stepGraph.newCursor()).thenReturn(cursor);
+        when(cursor.getCurrentStep()).thenReturn(step);
+        when(step.getId()).thenReturn("s1");
+        when(agent.getRecipe()).thenReturn(recipe);
+        when(stepService.executeStep(any(StepContext.class))).thenAnswer(inv -> {
+            StepContext executed = inv.getArgument(0);
+            executed.setStatus(StepStatus.COMPLETED);
+            return executed;
+        });
+        List<AgentEvent> events = new ArrayList<>();
+        AgentContext running = new AgentContext(agent, null, memoryManager)
+                .setRunId("run-1")
+                .setEventListener(events::add);
+
+        processor.process(running);
+
+        assertEquals(List.of(AgentEventType.STEP_STARTED, AgentEventType.STEP_COMPLETED),
+                     events.stream().map(AgentEvent::type).toList());
+        assertTrue(events.stream().allMatch(e -> "run-1".equals(e.runId()) && "s1".equals(e.stepId())));
+        assertEquals(StepStatus.COMPLETED.name(), events.get(1).data());
+    }
+
+    /**
+     * Tests that the loop stops before the next step once the run's budget is exhausted.
+     * Setup: A real AgentContext allowed one model call, over a cursor that always has a next step; every step makes
+     * a model call.
+     * Expected: only the first step executes and a failed result records the exhausted budget.
+     */
+    @Test
+    void stopsWhenBudgetExhausted() {
+        StepCursor cursor = mock(StepCursor.class);
+        when(stepGraph.newCursor()).thenReturn(cursor);
+        when(cursor.getCurrentStep()).thenReturn(step);
+        when(cursor.next(any())).thenReturn(step);
+        when(agent.getRecipe()).thenReturn(recipe);
+        when(stepService.executeStep(any(StepContext.class))).thenAnswer(inv -> {
+            StepContext executed = inv.getArgument(0);
+            executed.getBudget().beginModelCall();
+            return executed;
+        });
+        AgentContext running = new AgentContext(agent, null, memoryManager)
+                .setBudget(RunBudget.start(new RunBudgetLimits(0, 0, 1, 0, null)));
+
+        processor.process(running);
+
+        verify(stepService, times(1)).executeStep(any(StepContext.class));
+        assertTrue(running.getResults().stream().anyMatch(result -> result.getError() instanceof RunBudgetExceededException));
+    }
+
+    /**
+     * Tests that a failed step makes the run report the step's failure.
+     * Setup: A real AgentContext over a one-step cursor; a processor of the step fails.
+     * Expected: the agent context records a failed result for the step, carrying the step's error.
+     */
+    @Test
+    void recordsStepFailure() {
+        StepCursor cursor = mock(StepCursor.class);
+        when(stepGraph.newCursor()).thenReturn(cursor);
+        when(cursor.getCurrentStep()).thenReturn(step);
+        when(step.getId()).thenReturn("s1");
+        when(agent.getRecipe()).thenReturn(recipe);
+        IllegalStateException error = new IllegalStateException("model unavailable");
+        when(stepService.executeStep(any(StepContext.class))).thenAnswer(inv -> {
+            StepContext executed = inv.getArgument(0);
+            executed.addResult(ProcessResult.failure("ModelCallStepProcessor", error, Instant.now()));
+            return executed;
+        });
+        AgentContext running = new AgentContext(agent, null, memoryManager);
+
+        processor.process(running);
+
+        assertSame(error, running.getFailure());
+        assertEquals("s1", running.getResults().get(0).getProcessorId());
+    }
+
+    /**
+     * Tests that a checkpointed run is not checkpointed past a failed step, so resuming it retries that step.
+     * Setup: A real AgentContext with a checkpointed run over a three-step cursor; the second step fails.
+     * Expected: only the first step is checkpointed, although the third step still runs.
+     */
+    @Test
+    void checkpointsUntilStepFails() {
+        Step second = mock(Step.class);
+        Step third = mock(Step.class);
+        when(step.getId()).thenReturn("s1");
+        when(second.getId()).thenReturn("s2");
+        when(third.getId()).thenReturn("s3");
+        StepCursor cursor = mock(StepCursor.class);
+        when(stepGraph.newCursor()).thenReturn(cursor);
+        when(cursor.getCurrentStep()).thenReturn(step);
+        when(cursor.next(any())).thenReturn(second, third, null);
+        when(agent.getRecipe()).thenReturn(recipe);
+        when(stepService.executeStep(any(StepContext.class))).thenAnswer(inv -> {
+            StepContext executed = inv.getArgument(0);
+            if (executed.getStep() == second) {
+                executed.addResult(ProcessResult.failure("ModelCallStepProcessor", new IllegalStateException("boom"), Instant.now()));
+            }
+            return executed;
+        });
+        CheckpointedRun checkpointedRun = mock(CheckpointedRun.class);
+        AgentContext running = new AgentContext(agent, null, memoryManager).setCheckpointedRun(checkpointedRun);
+
+        processor.process(running);
+
+        verify(stepService, times(3)).executeStep(any(StepContext.class));
+        verify(checkpointedRun, times(1)).stepCompleted(any(StepContext.class), any());
+        verify(checkpointedRun).stepCompleted(any(StepContext.class), eq(second));
+    }
+}
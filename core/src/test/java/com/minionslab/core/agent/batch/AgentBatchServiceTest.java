@@ -0,0 +1,160 @@
+package com.minionslab.core.agent.batch;
+
+import com.minionslab.core.agent.Agent;
+import com.minionslab.core.agent.AgentContext;
+import com.minionslab.core.agent.AgentRecipe;
+import com.minionslab.core.agent.AgentRecipeRepository;
+import com.minionslab.core.agent.AgentService;
+import com.minionslab.core.common.chain.CancellationToken;
+import com.minionslab.core.common.chain.ChainCancelledException;
+import com.minionslab.core.common.chain.ProcessResult;
+import com.minionslab.core.common.message.Message;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link AgentBatchService}.
+ * <p>
+ * Scenarios:
+ * <ul>
+ *   <li>Items run with at most the configured parallelism and every item yields one result</li>
+ *   <li>Failing items, runs that record a failure and unknown recipes produce failed results without stopping the
+ *   batch</li>
+ *   <li>Recipes referenced by id are resolved once per batch</li>
+ *   <li>Cancelling a batch stops taking items from the input; the runs it cancels are failed results</li>
+ * </ul>
+ */
+class AgentBatchServiceTest {
+    private AgentService agentService;
+    private AgentRecipeRepository recipeRepository;
+    private AgentRecipe recipe;
+    private AgentBatchService batchService;
+    
+    @BeforeEach
+    void setUp() {
+        agentService = mock(AgentService.class);
+        recipeRepository = mock(AgentRecipeRepository.class);
+        recipe = mock(AgentRecipe.class);
+        when(recipeRepository.findById("r")).thenReturn(recipe);
+        batchService = new AgentBatchService(agentService, recipeRepository, 4, Duration.ZERO);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        batchService.destroy();
+    }
+    
+    @Test
+    void boundsParallelism() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        when(agentService.runAgent(any(AgentRecipe.class), any(), any(CancellationToken.class))).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(5);
+            running.decrementAndGet();
+            return mock(AgentContext.class);
+        });
+        List<AgentBatchResult> results = new CopyOnWriteArrayList<>();
+        
+        AgentBatchProgress progress = batchService.submit(items(100), results::add).join();
+        
+        assertEquals(100, results.size());
+        assertEquals(100, progress.succeeded());
+        assertTrue(progress.isDone());
+        assertTrue(maxRunning.get() <= 4, "max running " + maxRunning.get());
+    }
+    
+    @Test
+    void isolatesFailures() {
+        IllegalStateException modelDown = new IllegalStateException("model unavailable");
+        when(agentService.runAgent(any(AgentRecipe.class), any(), any(CancellationToken.class))).thenAnswer(invocation -> {
+            Message message = invocation.getArgument(1);
+            if ("boom".equals(message.getContent())) {
+                throw new IllegalStateException("boom");
+            }
+            AgentContext context = context(invocation.getArgument(2));
+            if ("down".equals(message.getContent())) {
+                // processors that fail inside the chain leave a failed result; the run still returns
+                context.addResult(ProcessResult.failure("StepOrchestratorProcessor", modelDown, Instant.now()));
+            }
+            return context;
+        });
+        Message boom = mock(Message.class);
+        when(boom.getContent()).thenReturn("boom");
+        Message down = mock(Message.class);
+        when(down.getContent()).thenReturn("down");
+        Map<String, AgentBatchResult> results = new ConcurrentHashMap<>();
+        
+        AgentBatchProgress progress = batchService.submit(
+                Stream.of(AgentBatchItem.of("ok", "r", mock(Message.class)),
+                                           AgentBatchItem.of("bad", "r", boom),
+                                           AgentBatchItem.of("failed", "r", down),
+                                           AgentBatchItem.of("missing", "unknown", mock(Message.class))),
+                result -> results.put(result.item().id(), result)).join();
+        
+        assertEquals(1, progress.succeeded());
+        assertEquals(3, progress.failed());
+        assertTrue(results.get("ok").isSuccess());
+        assertInstanceOf(IllegalStateException.class, results.get("bad").error());
+        assertFalse(results.get("failed").isSuccess());
+        assertSame(modelDown, results.get("failed").error());
+        assertNotNull(results.get("failed").context());
+        assertInstanceOf(IllegalArgumentException.class, results.get("missing").error());
+        verify(recipeRepository, times(1)).findById("r");
+    }
+    
+    @Test
+    void cancelStopsInput() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        when(agentService.runAgent(any(AgentRecipe.class), any(), any(CancellationToken.class))).thenAnswer(invocation -> {
+            CancellationToken token = invocation.getArgument(2);
+            started.countDown();
+            while (!token.isCancelled()) {
+                Thread.sleep(1);
+            }
+            // like the chain, a cancelled run stops before its next processor and returns its context
+            return context(token);
+        });
+        AtomicInteger pulled = new AtomicInteger();
+        List<AgentBatchResult> results = new CopyOnWriteArrayList<>();
+        
+        AgentBatch batch = batchService.submit(items(1000).peek(item -> pulled.incrementAndGet()),
+                                               AgentBatchOptions.builder().parallelism(2).build(), results::add);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        batch.cancel("stop");
+        AgentBatchProgress progress = batch.getCompletion().get(5, TimeUnit.SECONDS);
+        
+        assertTrue(pulled.get() < 1000);
+        assertEquals(0, progress.running());
+        assertEquals(progress.submitted(), progress.failed());
+        assertTrue(results.stream().allMatch(result -> result.error() instanceof ChainCancelledException));
+    }
+    
+    /**
+     * Returns the context a run over the given token returns, as AgentService builds it.
+     */
+    private static AgentContext context(CancellationToken token) {
+        return new AgentContext(mock(Agent.class), null, null).setCancellationToken(token);
+    }
+    
+    private static Stream<AgentBatchItem> items(int count) {
+        return IntStream.range(0, count).mapToObj(i -> AgentBatchItem.of("item-" + i, "r", mock(Message.class)));
+    }
+}
@@ -0,0 +1,133 @@
+package com.minionslab.core.agent.budget;
+
+import com.minionslab.core.common.message.Message;
+import com.minionslab.core.common.message.MessageRole;
+import com.minionslab.core.common.message.SimpleMessage;
+import com.minionslab.core.config.ModelConfig;
+import com.minionslab.core.model.ModelCall;
+import com.minionslab.core.model.ModelCallResponse;
+import com.minionslab.core.service.AIModelProvider;
+import com.minionslab.core.service.ModelCallService;
+import com.minionslab.core.service.ToolCallService;
+import com.minionslab.core.tool.ToolCall;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link RunBudget} and its charging by {@link ModelCallService} and {@link ToolCallService}.
+ * <p>
+ * Scenarios:
+ * <ul>
+ *   <li>Call limits admit calls up to the limit and refuse the next one</li>
+ *   <li>Model calls are charged the tokens the provider reports, or else the tokens of their messages, and are
+ *   refused once a token limit is reached</li>
+ *   <li>Recipe constraints override the default limits, and the wall time exhausts the budget</li>
+ * </ul>
+ */
+class RunBudgetTest {
+    private AIModelProvider provider;
+    private ModelCallService modelCallService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        provider = mock(AIModelProvider.class);
+        when(provider.accepts(any())).thenReturn(true);
+        ObjectProvider<List<AIModelProvider>> providers = mock(ObjectProvider.class);
+        doAnswer(invocation -> {
+            invocation.<Consumer<List<AIModelProvider>>>getArgument(0).accept(List.of(provider));
+            return null;
+        }).when(providers).ifAvailable(any());
+        modelCallService = new ModelCallService(providers);
+    }
+
+    @Test
+    void limitsCalls() {
+        RunBudget budget = RunBudget.start(new RunBudgetLimits(0, 0, 2, 1, null));
+        ToolCallService toolCallService = new ToolCallService();
+
+        budget.beginModelCall();
+        assertNull(budget.getExhausted());
+        budget.beginModelCall();
+        RunBudgetExceededException refused = assertThrows(RunBudgetExceededException.class, budget::beginModelCall);
+        toolCallService.call(ToolCall.builder().name("search").budget(budget).build());
+        assertThrows(RunBudgetExceededException.class, () -> toolCallService.call(ToolCall.builder().name("search").budget(budget).build()));
+
+        assertEquals("model calls 2/2", refused.getReason());
+        assertEquals(2, budget.getModelCalls());
+        assertEquals(1, budget.getToolCalls());
+        assertEquals("model calls 2/2", budget.getExhausted());
+    }
+
+    @Test
+    void chargesTokens() {
+        RunBudget budget = RunBudget.start(new RunBudgetLimits(0, 100, 0, 0, null));
+        when(provider.process(any())).thenAnswer(invocation -> {
+            ModelCall call = invocation.getArgument(0);
+            call.setResponse(new ModelCallResponse(List.of(message(MessageRole.ASSISTANT, 0)), List.of())
+                                     .setInputTokens(30)
+                                     .setOutputTokens(60));
+            return call;
+        }).thenAnswer(invocation -> {
+            ModelCall call = invocation.getArgument(0);
+            call.setResponse(new ModelCallResponse(List.of(message(MessageRole.ASSISTANT, 45)), List.of()));
+            return call;
+        });
+
+        modelCallService.call(modelCall(budget));
+        modelCallService.call(modelCall(budget));
+        RunBudgetExceededException refused = assertThrows(RunBudgetExceededException.class, () -> modelCallService.call(modelCall(budget)));
+
+        assertEquals(30 + 12, budget.getInputTokens());
+        assertEquals(60 + 45, budget.getOutputTokens());
+        assertEquals("output tokens 105/100", refused.getReason());
+        assertEquals(2, budget.getModelCalls());
+        verify(provider, times(2)).process(any());
+    }
+
+    @Test
+    void appliesRecipeOverrides() throws InterruptedException {
+        RunBudgetLimits defaults = new RunBudgetLimits(1000, 1000, 10, 10, null);
+        Map<String, Object> constraints = new HashMap<>();
+        constraints.put("maxModelCalls", 3);
+        constraints.put("maxWallTime", "PT0.001S");
+
+        RunBudgetLimits limits = defaults.withOverrides(constraints);
+        RunBudget budget = RunBudget.start(limits);
+        Thread.sleep(5);
+
+        assertEquals(new RunBudgetLimits(1000, 1000, 3, 10, Duration.ofMillis(1)), limits);
+        assertSame(defaults, defaults.withOverrides(null));
+        assertFalse(RunBudgetLimits.UNLIMITED.isLimited());
+        assertTrue(budget.getExhausted().startsWith("wall time"));
+        assertThrows(RunBudgetExceededException.class, budget::beginToolCall);
+        RunBudget.NONE.beginModelCall();
+        RunBudget.NONE.chargeTokens(10, 10);
+        assertEquals(0, RunBudget.NONE.getInputTokens());
+    }
+
+    private static ModelCall modelCall(RunBudget budget) {
+        return new ModelCall(ModelConfig.builder().build(), new ModelCall.ModelCallRequest(List.of(message(MessageRole.USER, 12)), Map.of(), null))
+                       .setBudget(budget);
+    }
+
+    private static Message message(MessageRole role, int tokenCount) {
+        return SimpleMessage.builder()
+                            .role(role)
+                            .content("text")
+                            .tokenCount(tokenCount)
+                            .metadata(new HashMap<>())
+                            .build();
+    }
+}
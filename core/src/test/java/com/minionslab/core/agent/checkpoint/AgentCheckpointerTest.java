@@ -0,0 +1,78 @@
+package com.minionslab.core.agent.checkpoint;
+
+import com.minionslab.core.agent.Agent;
+import com.minionslab.core.agent.AgentContext;
+import com.minionslab.core.agent.AgentRecipe;
+import com.minionslab.core.common.chain.CancellationToken;
+import com.minionslab.core.common.chain.ProcessResult;
+import com.minionslab.core.common.message.MessageRole;
+import com.minionslab.core.common.message.SimpleMessage;
+import com.minionslab.core.memory.MemoryManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link AgentCheckpointer}.
+ * <p>
+ * Scenarios:
+ * <ul>
+ *   <li>A run that completes without failure has its checkpoint deleted</li>
+ *   <li>Failed and cancelled runs keep their checkpoint, to be resumed</li>
+ *   <li>A disabled checkpointer deletes nothing</li>
+ * </ul>
+ */
+class AgentCheckpointerTest {
+    @TempDir
+    Path directory;
+    private FileCheckpointStore store;
+    private AgentCheckpointer checkpointer;
+    private AgentContext context;
+
+    @BeforeEach
+    void setUp() {
+        store = new FileCheckpointStore(directory);
+        checkpointer = new AgentCheckpointer(store);
+        Agent agent = mock(Agent.class);
+        when(agent.getRecipe()).thenReturn(mock(AgentRecipe.class));
+        context = new AgentContext(agent, null, mock(MemoryManager.class)).setRunId("run-1");
+        checkpointer.begin(context, SimpleMessage.builder().id("m1").content("hello").role(MessageRole.USER).build());
+    }
+
+    @Test
+    void deletesOnSuccess() {
+        assertTrue(store.load("run-1").isPresent());
+
+        assertTrue(checkpointer.complete(context));
+        assertTrue(store.load("run-1").isEmpty());
+    }
+
+    @Test
+    void keepsFailedAndCancelledRuns() {
+        context.addResult(ProcessResult.failure("StepOrchestratorProcessor", new IllegalStateException("boom"), Instant.now()));
+        assertFalse(checkpointer.complete(context));
+        assertTrue(store.load("run-1").isPresent());
+
+        CancellationToken token = CancellationToken.create();
+        token.cancel("stopped");
+        AgentContext cancelled = new AgentContext(context.getAgent(), null, context.getMemoryManager())
+                .setRunId("run-2")
+                .setCancellationToken(token);
+        checkpointer.begin(cancelled, null);
+        assertFalse(checkpointer.complete(cancelled));
+        assertTrue(store.load("run-2").isPresent());
+    }
+
+    @Test
+    void disabledDeletesNothing() {
+        assertFalse(AgentCheckpointer.disabled().complete(context));
+        assertTrue(store.load("run-1").isPresent());
+    }
+}
@@ -0,0 +1,103 @@
+package com.minionslab.core.agent.checkpoint;
+
+import com.minionslab.core.common.message.MessageRole;
+import com.minionslab.core.common.message.SimpleMessage;
+import com.minionslab.core.memory.MemorySubsystem;
+import com.minionslab.core.step.Step;
+import com.minionslab.core.step.StepContext;
+import com.minionslab.core.step.StepStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link FileCheckpointStore} and {@link CheckpointedRun}.
+ * <p>
+ * Scenarios:
+ * <ul>
+ *   <li>Saved checkpoints load back with their steps and memory delta</li>
+ *   <li>Completed steps accumulate into the latest checkpoint of the run</li>
+ *   <li>Deleted and unknown runs have no checkpoint</li>
+ *   <li>Run ids that are not plain file names are rejected</li>
+ * </ul>
+ */
+class FileCheckpointStoreTest {
+    @TempDir
+    Path directory;
+    private FileCheckpointStore store;
+    private AgentCheckpoint initial;
+    
+    @BeforeEach
+    void setUp() {
+        store = new FileCheckpointStore(directory);
+        SimpleMessage request = SimpleMessage.builder().id("m1").content("hello").role(MessageRole.USER)
+                                             .timestamp(Instant.now()).metadata(new HashMap<>()).build();
+        initial = new AgentCheckpoint("run-1", "recipe", 0, Instant.now(), AgentCheckpoint.CheckpointMessage.of(request),
+                                      "s1", List.of(), List.of());
+    }
+    
+    @Test
+    void roundTrip() {
+        store.save(initial);
+        
+        AgentCheckpoint loaded = store.load("run-1").orElseThrow();
+        assertEquals(initial, loaded);
+        assertEquals("hello", loaded.userRequest().toMessage().getContent());
+    }
+    
+    @Test
+    void stepsAccumulate() {
+        CheckpointedRun run = new CheckpointedRun(store, initial);
+        run.recordStored(MemorySubsystem.SHORT_TERM, SimpleMessage.builder().id("m2").content("answer")
+                                                                  .role(MessageRole.ASSISTANT).metadata(new HashMap<>()).build());
+        run.stepCompleted(stepContext("s1"), step("s2"));
+        run.stepCompleted(stepContext("s2"), null);
+        
+        AgentCheckpoint loaded = store.load("run-1").orElseThrow();
+        assertEquals(2, loaded.sequence());
+        assertTrue(loaded.isFinished());
+        assertEquals(List.of("s1", "s2"), loaded.steps().stream().map(AgentCheckpoint.StepOutcome::stepId).toList());
+        assertEquals(1, loaded.memoryDelta().size());
+        assertEquals("answer", loaded.memoryDelta().get(0).message().content());
+        assertEquals(MemorySubsystem.SHORT_TERM, loaded.memoryDelta().get(0).subsystem());
+    }
+    
+    @Test
+    void deleteRemovesCheckpoint() {
+        store.save(initial);
+        
+        assertTrue(store.delete("run-1"));
+        assertTrue(store.load("run-1").isEmpty());
+        assertFalse(store.delete("run-1"));
+    }
+    
+    @Test
+    void rejectsPathRunIds() {
+        assertThrows(IllegalArgumentException.class, () -> store.load("../run-1"));
+        assertThrows(IllegalArgumentException.class, () -> store.load("a/b"));
+    }
+    
+    private static Step step(String id) {
+        Step step = mock(Step.class);
+        when(step.getId()).thenReturn(id);
+        return step;
+    }
+    
+    private static StepContext stepContext(String stepId) {
+        StepContext context = mock(StepContext.class);
+        Step step = step(stepId);
+        when(context.getStep()).thenReturn(step);
+        when(context.getStatus()).thenReturn(StepStatus.COMPLETED);
+        when(context.getStartedAt()).thenReturn(Instant.now());
+        return context;
+    }
+}
@@ -0,0 +1,148 @@
+package com.minionslab.core.agent.pool;
+
+import com.minionslab.core.agent.AgentRecipe;
+import com.minionslab.core.agent.CompiledRecipe;
+import com.minionslab.core.agent.InMemoryAgentRecipeRepository;
+import com.minionslab.core.agent.RecipeCompiler;
+import com.minionslab.core.common.message.Message;
+import com.minionslab.core.common.message.MessageRole;
+import com.minionslab.core.common.message.SimpleMessage;
+import com.minionslab.core.memory.DefaultMemory;
+import com.minionslab.core.memory.Memory;
+import com.minionslab.core.memory.MemoryContext;
+import com.minionslab.core.memory.MemoryFactory;
+import com.minionslab.core.memory.MemorySubsystem;
+import com.minionslab.core.memory.strategy.persistence.inmemory.InMemoryPersistenceStrategy;
+import com.minionslab.core.tool.ToolRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link AgentPools} and {@link AgentPool}.
+ * <p>
+ * Scenarios:
+ * <ul>
+ *   <li>Returned shells are replaced by shells lent to the next run, only while the pool is below its target</li>
+ *   <li>A shell returned to the pool starts its next run with empty memories</li>
+ *   <li>The target size follows arrival rate and hold time, and falls back to the minimum when traffic stops</li>
+ *   <li>A new recipe version replaces the pooled one; unpooled and ad-hoc compiled recipes are not pooled</li>
+ * </ul>
+ */
+class AgentPoolsTest {
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private InMemoryAgentRecipeRepository repository;
+    private RecipeCompiler compiler;
+    private AgentRecipe recipe;
+    private MemoryFactory memoryFactory;
+    private AgentPools pools;
+
+    @BeforeEach
+    void setUp() {
+        memoryFactory = mock(MemoryFactory.class);
+        repository = new InMemoryAgentRecipeRepository();
+        compiler = new RecipeCompiler((ToolRegistry) null, memoryFactory);
+        recipe = AgentRecipe.builder().id("r").systemPrompt("be helpful").build();
+        repository.save("r", recipe);
+        pools = new AgentPools(repository, compiler, memoryFactory, List.of("r"), 1, 8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pools.destroy();
+    }
+
+    @Test
+    void reusesShells() {
+        CompiledRecipe compiled = repository.findCompiledById("r", compiler);
+        AgentPool pool = new AgentPool("r", 1, 8);
+        pool.reset(compiled);
+        assertEquals(1, pool.reserve(0));
+        AgentShell shell = new AgentShell(compiled, List.of());
+        pool.built(shell);
+
+        assertSame(shell, pool.poll(compiled, 10 * MS));
+        assertNull(pool.poll(compiled, 20 * MS));
+        assertTrue(pool.offer(shell, 30 * MS));
+        AgentShell renewed = new AgentShell(compiled, List.of());
+        pool.built(renewed);
+        assertSame(renewed, pool.poll(compiled, 40 * MS));
+
+        // a full pool builds no replacement for a returned shell
+        for (int missing = pool.reserve(40 * MS); missing > 0; missing--) {
+            pool.built(new AgentShell(compiled, List.of()));
+        }
+        assertFalse(pool.offer(renewed, 50 * MS));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void releasedShellsStartEmpty() {
+        when(memoryFactory.buildMemories(any())).thenAnswer(invocation -> List.<Memory<MemoryContext, Message>>of(
+                new DefaultMemory(MemorySubsystem.SHORT_TERM, new InMemoryPersistenceStrategy())));
+        CompiledRecipe compiled = repository.findCompiledById("r", compiler);
+        AgentShell first = pools.borrow(compiled);
+        Memory<MemoryContext, Message> used = first.getMemories().get(0);
+        used.store(SimpleMessage.builder().id("m1").content("secret").role(MessageRole.USER).build());
+        pools.release(first);
+
+        // whichever shell the pool lends next, the message the first run stored is gone
+        for (int i = 0; i < 2; i++) {
+            AgentShell next = pools.borrow(compiled);
+            assertNotSame(first, next);
+            assertNotSame(used, next.getMemories().get(0));
+            assertNull(next.getMemories().get(0).retrieve("m1"));
+        }
+        assertNotNull(used.retrieve("m1"));
+    }
+
+    @Test
+    void targetFollowsLoad() {
+        CompiledRecipe compiled = repository.findCompiledById("r", compiler);
+        AgentPool pool = new AgentPool("r", 1, 8);
+        pool.reset(compiled);
+        long now = 0;
+        for (int i = 0; i < 50; i++) {
+            now = i * 10 * MS;
+            AgentShell shell = pool.poll(compiled, now);
+            if (shell == null) {
+                shell = new AgentShell(compiled, List.of());
+                shell.borrowedAtNanos = now;
+            }
+            if (pool.offer(shell, now + 50 * MS)) {
+                pool.built(new AgentShell(compiled, List.of()));
+            }
+        }
+
+        assertEquals(5, pool.targetSize(now));
+        assertEquals(1, pool.targetSize(now + 1000 * MS));
+    }
+
+    @Test
+    void switchesToNewVersion() {
+        CompiledRecipe first = repository.findCompiledById("r", compiler);
+        AgentShell shell = pools.borrow(first);
+        assertSame(first, shell.getCompiledRecipe());
+        assertNull(pools.borrow(compiler.compile(recipe)));
+
+        repository.save("r", recipe);
+        CompiledRecipe second = repository.findCompiledById("r", compiler);
+        assertSame(second, pools.borrow(second).getCompiledRecipe());
+        assertSame(second, pools.getPool("r").getCompiledRecipe());
+        assertNull(pools.borrow(first));
+        pools.release(shell);
+        assertTrue(pools.getPool("r").getIdleCount() <= 1);
+
+        assertFalse(pools.isPooled("other"));
+        assertNull(AgentPools.disabled().borrow(second));
+    }
+}
@@ -2,6 +2,7 @@ package com.minionslab.core.agent.processor;
 
 import com.minionslab.core.agent.AgentContext;
 import com.minionslab.core.agent.SummarizationConfig;
+import com.minionslab.core.common.chain.CancellationToken;
 import com.minionslab.core.common.message.Message;
 import com.minionslab.core.common.message.MessageRole;
 import com.minionslab.core.config.ModelConfig;
@@ -15,6 +16,7 @@ import com.minionslab.core.service.ModelCallService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.MockitoAnnotations;
@@ -103,4 +105,18 @@ class MemorySummarizerProcessorTest {
         verify(memoryManager).storeAll(anyList(), eq(MemorySubsystem.VECTOR));
 
     }
+    
+    @Test
+    void testDoProcessPassesCancellationToken() {
+        CancellationToken token = CancellationToken.create();
+        when(agentContext.getCancellationToken()).thenReturn(token);
+        when(memoryManager.query(any(MemoryQuery.class))).thenReturn(new ArrayList<>(List.of(message1)));
+        when(modelCallService.call(any(ModelCall.class))).thenReturn(modelCall);
+        
+        processor.process(agentContext);
+        
+        ArgumentCaptor<ModelCall> call = ArgumentCaptor.forClass(ModelCall.class);
+        verify(modelCallService).call(call.capture());
+        assertSame(token, call.getValue().getCancellationToken());
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,183 @@
+package com.minionslab.core.agent.queue;
+
+import com.minionslab.core.agent.Agent;
+import com.minionslab.core.agent.AgentContext;
+import com.minionslab.core.agent.AgentRecipe;
+import com.minionslab.core.agent.AgentRecipeRepository;
+import com.minionslab.core.agent.AgentService;
+import com.minionslab.core.common.chain.CancellationToken;
+import com.minionslab.core.common.chain.ProcessResult;
+import com.minionslab.core.common.message.MessageRole;
+import com.minionslab.core.common.message.SimpleMessage;
+import com.minionslab.core.common.security.context.TenantContextHolder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link AgentQueueWorker} over an {@link InMemoryAgentWorkQueue}.
+ * <p>
+ * Scenarios:
+ * <ul>
+ *   <li>Claimed runs execute under their run id and tenant and are marked completed</li>
+ *   <li>Runs whose lease expired are queued again and fail once they used up their attempts</li>
+ *   <li>Per-recipe limits hold across workers</li>
+ *   <li>Failed runs are retried, and runs of unknown recipes fail right away</li>
+ *   <li>Runs that record a failure are retried, then left failed once they used up their attempts</li>
+ * </ul>
+ */
+class AgentQueueWorkerTest {
+    private InMemoryAgentWorkQueue queue;
+    private AgentService agentService;
+    private AgentRecipeRepository recipeRepository;
+    private AgentQueueWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        queue = new InMemoryAgentWorkQueue();
+        agentService = mock(AgentService.class);
+        recipeRepository = mock(AgentRecipeRepository.class);
+        when(recipeRepository.findById("r")).thenReturn(mock(AgentRecipe.class));
+        worker = worker("w1", 4, Duration.ofSeconds(30), 3, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        worker.destroy();
+    }
+
+    @Test
+    void runsAndCompletes() {
+        String[] tenant = new String[1];
+        when(agentService.runOrResume(any(), any(), any(), any(CancellationToken.class))).thenAnswer(invocation -> {
+            tenant[0] = TenantContextHolder.getTenantId();
+            return mock(AgentContext.class);
+        });
+        String runId = queue.enqueue("r", "t1", SimpleMessage.builder()
+                                                          .id("m1")
+                                                          .role(MessageRole.USER)
+                                                          .content("hello")
+                                                          .metadata(new HashMap<>())
+                                                          .build());
+
+        assertEquals(1, worker.poll());
+
+        awaitStatus(runId, QueuedRunStatus.COMPLETED);
+        verify(agentService).runOrResume(eq(runId), any(), argThat(message -> "hello".equals(message.getContent())), any());
+        assertEquals("t1", tenant[0]);
+        assertEquals(1, queue.find(runId).orElseThrow().attempts());
+    }
+
+    @Test
+    void requeuesExpiredLeases() throws InterruptedException {
+        String runId = queue.enqueue("r", null, null);
+        for (int attempt = 1; attempt <= 2; attempt++) {
+            assertEquals(1, queue.claim("crashed", 1, Duration.ofMillis(1), QueueLimits.NONE).size());
+            Thread.sleep(5);
+            assertEquals(1, queue.requeueExpired(2));
+        }
+
+        QueuedRun run = queue.find(runId).orElseThrow();
+        assertEquals(QueuedRunStatus.FAILED, run.status());
+        assertEquals("Lease expired", run.error());
+        assertFalse(queue.complete(runId, "crashed"));
+    }
+
+    @Test
+    void enforcesLimits() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        when(agentService.runOrResume(any(), any(), any(), any(CancellationToken.class))).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return mock(AgentContext.class);
+        });
+        AgentQueueWorker limited = worker("w3", 4, Duration.ofSeconds(30), 3, 2);
+        try {
+            List<String> runIds = List.of(queue.enqueue("r", null, null), queue.enqueue("r", null, null),
+                                          queue.enqueue("r", null, null));
+
+            assertEquals(1, queue.claim("w2", 1, Duration.ofSeconds(30), new QueueLimits(2, 0)).size());
+            assertEquals(1, limited.poll());
+            assertEquals(0, limited.poll());
+            assertEquals(QueuedRunStatus.QUEUED, queue.find(runIds.get(2)).orElseThrow().status());
+
+            release.countDown();
+            awaitStatus(runIds.get(1), QueuedRunStatus.COMPLETED);
+            assertEquals(1, limited.poll());
+            awaitStatus(runIds.get(2), QueuedRunStatus.COMPLETED);
+        } finally {
+            release.countDown();
+            limited.destroy();
+        }
+    }
+
+    @Test
+    void retriesFailures() {
+        when(agentService.runOrResume(any(), any(), any(), any(CancellationToken.class)))
+                .thenThrow(new IllegalStateException("model unavailable"))
+                .thenReturn(mock(AgentContext.class));
+        String runId = queue.enqueue("r", null, null);
+        String unknown = queue.enqueue("missing", null, null);
+
+        assertEquals(2, worker.poll());
+        awaitStatus(unknown, QueuedRunStatus.FAILED);
+        awaitStatus(runId, QueuedRunStatus.QUEUED);
+        assertEquals("model unavailable", queue.find(runId).orElseThrow().error());
+
+        assertEquals(1, worker.poll());
+        awaitStatus(runId, QueuedRunStatus.COMPLETED);
+        assertEquals(2, queue.find(runId).orElseThrow().attempts());
+        assertEquals(1, queue.find(unknown).orElseThrow().attempts());
+    }
+
+    @Test
+    void deadLettersRecordedFailures() {
+        // a processor failing inside the chain leaves a failed result; the run still returns its context
+        when(agentService.runOrResume(any(), any(), any(), any(CancellationToken.class))).thenAnswer(invocation -> {
+            AgentContext context = new AgentContext(mock(Agent.class), null, null);
+            context.addResult(ProcessResult.failure("StepOrchestratorProcessor", new IllegalStateException("model unavailable"), Instant.now()));
+            return context;
+        });
+        AgentQueueWorker twice = worker("w4", 4, Duration.ofSeconds(30), 2, 0);
+        try {
+            String runId = queue.enqueue("r", null, null);
+
+            assertEquals(1, twice.poll());
+            awaitStatus(runId, QueuedRunStatus.QUEUED);
+            assertEquals("model unavailable", queue.find(runId).orElseThrow().error());
+
+            assertEquals(1, twice.poll());
+            awaitStatus(runId, QueuedRunStatus.FAILED);
+            assertEquals(2, queue.find(runId).orElseThrow().attempts());
+            verify(agentService, times(2)).runOrResume(eq(runId), any(), any(), any());
+        } finally {
+            twice.destroy();
+        }
+    }
+
+    private AgentQueueWorker worker(String id, int concurrency, Duration lease, int maxAttempts, int perRecipeLimit) {
+        return new AgentQueueWorker(queue, agentService, recipeRepository, id, concurrency, lease, Duration.ofSeconds(1),
+                                    maxAttempts, Duration.ZERO, perRecipeLimit, 0);
+    }
+
+    private void awaitStatus(String runId, QueuedRunStatus status) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (queue.find(runId).orElseThrow().status() != status) {
+            if (System.nanoTime() > deadline) {
+                fail("run " + runId + " is " + queue.find(runId).orElseThrow().status() + ", expected " + status);
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.minionslab.core.cluster;
+
+import com.minionslab.core.common.message.Message;
+import com.minionslab.core.common.message.MessageRole;
+import com.minionslab.core.common.message.SimpleMessage;
+import com.minionslab.core.memory.DefaultMemory;
+import com.minionslab.core.memory.MemoryFactory;
+import com.minionslab.core.memory.MemoryManager;
+import com.minionslab.core.memory.MemorySubsystem;
+import com.minionslab.core.memory.session.MemorySessionKey;
+import com.minionslab.core.memory.session.MemorySessionLease;
+import com.minionslab.core.memory.session.MemorySessionManager;
+import com.minionslab.core.memory.strategy.persistence.inmemory.InMemoryPersistenceStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link ConsistentHashRing} and {@link ConversationRouter}, with several nodes in one JVM.
+ * <p>
+ * Scenarios:
+ * <ul>
+ *   <li>The ring spreads conversations evenly, and a joining node only takes conversations from the others</li>
+ *   <li>When a node joins, conversations it now owns move to it with their memory, and the old owner refuses them</li>
+ *   <li>A conversation a run holds during the hand-off stays on the old owner until the run ends, then moves with
+ *   what the run stored</li>
+ *   <li>Standalone routers own every conversation</li>
+ * </ul>
+ */
+class ConversationRouterTest {
+    private static final ClusterNode A = new ClusterNode("a", "http://localhost:8081");
+    private static final ClusterNode B = new ClusterNode("b", "http://localhost:8082");
+    private static final ClusterNode C = new ClusterNode("c", "http://localhost:8083");
+    private static final ClusterNode D = new ClusterNode("d", "http://localhost:8084");
+
+    @Test
+    void ringIsBalancedAndStable() {
+        ConsistentHashRing three = ConsistentHashRing.of(List.of(A, B, C), ConsistentHashRing.DEFAULT_VIRTUAL_NODES);
+        ConsistentHashRing four = ConsistentHashRing.of(List.of(A, B, C, D), ConsistentHashRing.DEFAULT_VIRTUAL_NODES);
+        Map<String, Integer> counts = new HashMap<>();
+        int moved = 0;
+        for (int i = 0; i < 30_000; i++) {
+            String conversationId = "conversation-" + i;
+            ClusterNode before = three.ownerOf(conversationId);
+            ClusterNode after = four.ownerOf(conversationId);
+            counts.merge(before.id(), 1, Integer::sum);
+            if (!before.equals(after)) {
+                assertEquals(D, after);
+                moved++;
+            }
+        }
+
+        counts.values().forEach(count -> assertTrue(count > 7_000 && count < 13_000, counts.toString()));
+        assertTrue(moved > 5_000 && moved < 10_000, "moved " + moved);
+        assertNull(ConsistentHashRing.of(List.of(), 8).ownerOf("x"));
+    }
+
+    @Test
+    void handsOffOnJoin() {
+        InMemoryConversationTransport transport = new InMemoryConversationTransport();
+        StaticClusterDiscovery discoveryA = new StaticClusterDiscovery("a", List.of(A));
+        StaticClusterDiscovery discoveryB = new StaticClusterDiscovery("b", List.of(A));
+        MemorySessionManager sessionsA = new MemorySessionManager(memoryFactory());
+        MemorySessionManager sessionsB = new MemorySessionManager(memoryFactory());
+        ConversationRouter routerA = new ConversationRouter(discoveryA, transport, sessionsA, 64);
+        ConversationRouter routerB = new ConversationRouter(discoveryB, transport, sessionsB, 64);
+        transport.register(routerA);
+        transport.register(routerB);
+
+        List<String> conversations = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            String conversationId = "conversation-" + i;
+            conversations.add(conversationId);
+            assertTrue(routerA.isLocal(conversationId));
+            try (MemorySessionLease session = sessionsA.open(null, conversationId)) {
+                MemoryManager memoryManager = session.getMemoryManager(List.of(MemorySubsystem.SHORT_TERM));
+                memoryManager.store(MemorySubsystem.SHORT_TERM, message(conversationId, "hello " + i));
+            }
+        }
+
+        discoveryB.setMembers(List.of(A, B));
+        discoveryA.setMembers(List.of(A, B));
+
+        int movedToB = 0;
+        for (String conversationId : conversations) {
+            MemorySessionKey key = new MemorySessionKey(null, conversationId);
+            if (routerA.isLocal(conversationId)) {
+                assertNotNull(sessionsA.get(key));
+                continue;
+            }
+            movedToB++;
+            assertEquals(B, routerA.ownerOf(conversationId));
+            assertTrue(routerB.isLocal(conversationId));
+            NotConversationOwnerException refused = assertThrows(NotConversationOwnerException.class, () -> routerA.checkOwner(conversationId));
+            assertEquals(B, refused.getOwner());
+            assertNull(sessionsA.get(key));
+            List<Message> received = routerB.export(key).memory().stream().map(entry -> entry.message().toMessage()).toList();
+            assertEquals(1, received.size());
+            assertEquals("hello " + conversationId.substring("conversation-".length()), received.get(0).getContent());
+        }
+        assertTrue(movedToB > 0 && movedToB < conversations.size(), "moved " + movedToB);
+    }
+
+    @Test
+    void defersHandOffWhileRunning() {
+        InMemoryConversationTransport transport = new InMemoryConversationTransport();
+        StaticClusterDiscovery discoveryA = new StaticClusterDiscovery("a", List.of(A));
+        StaticClusterDiscovery discoveryB = new StaticClusterDiscovery("b", List.of(A, B));
+        MemorySessionManager sessionsA = new MemorySessionManager(memoryFactory());
+        MemorySessionManager sessionsB = new MemorySessionManager(memoryFactory());
+        ConversationRouter routerA = new ConversationRouter(discoveryA, transport, sessionsA, 64);
+        ConversationRouter routerB = new ConversationRouter(discoveryB, transport, sessionsB, 64);
+        transport.register(routerA);
+        transport.register(routerB);
+        String conversationId = "conversation-0";
+        for (int i = 1; !routerB.isLocal(conversationId); i++) {
+            conversationId = "conversation-" + i;
+        }
+        MemorySessionKey key = new MemorySessionKey(null, conversationId);
+
+        MemorySessionLease running = sessionsA.open(key);
+        MemoryManager memoryManager = running.getMemoryManager(List.of(MemorySubsystem.SHORT_TERM));
+        discoveryA.setMembers(List.of(A, B));
+
+        assertFalse(routerA.isLocal(conversationId));
+        assertSame(running.getSession(), sessionsA.get(key));
+        assertNull(sessionsB.get(key));
+        // the run keeps using its memories after the membership change
+        memoryManager.store(MemorySubsystem.SHORT_TERM, message(conversationId, "stored while moving"));
+        assertFalse(routerA.handOff(key));
+
+        running.close();
+        assertTrue(routerA.handOff(key));
+        assertNull(sessionsA.get(key));
+        List<Message> received = routerB.export(key).memory().stream().map(entry -> entry.message().toMessage()).toList();
+        assertEquals(1, received.size());
+        assertEquals("stored while moving", received.get(0).getContent());
+        assertFalse(routerA.handOff(key));
+    }
+
+    @Test
+    void standaloneOwnsEverything() {
+        ConversationRouter router = ConversationRouter.standalone();
+        assertFalse(router.isClustered());
+        assertTrue(router.isLocal("any"));
+        assertNull(router.ownerOf("any"));
+        assertEquals(0, router.handOff());
+    }
+
+    /**
+     * A factory building memories over a store of their own, as separate nodes would have.
+     */
+    private static MemoryFactory memoryFactory() {
+        MemoryFactory memoryFactory = mock(MemoryFactory.class);
+        InMemoryPersistenceStrategy store = new InMemoryPersistenceStrategy();
+        when(memoryFactory.createMemory(any())).thenAnswer(inv -> new DefaultMemory(inv.getArgument(0), store));
+        when(memoryFactory.createMemoryManager(any())).thenAnswer(inv -> new MemoryManager(inv.getArgument(0), List.of()));
+        return memoryFactory;
+    }
+
+    private static Message message(String conversationId, String content) {
+        return SimpleMessage.builder()
+                            .id(conversationId + "-1")
+                            .conversationId(conversationId)
+                            .role(MessageRole.USER)
+                            .content(content)
+                            .metadata(new HashMap<>())
+                            .build();
+    }
+}
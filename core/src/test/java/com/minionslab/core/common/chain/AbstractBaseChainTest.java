@@ -4,7 +4,15 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.ObjectProvider;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -97,4 +105,257 @@ class AbstractBaseChainTest {
         when(p2.accepts(context)).thenReturn(false);
         assertFalse(chain.accepts(context));
     }
-}
\ No newline at end of file
+    
+    @Test
+    void testRegisterProcessorsCalledOnceWhenCompiled() {
+        CountingChain countingChain = new CountingChain();
+        countingChain.process(context);
+        countingChain.process(context);
+        assertEquals(1, countingChain.registrations);
+    }
+    
+    @Test
+    void testProcessSkipsProcessorsDeclaredForOtherContextTypes() {
+        TypedProcessor typed = new TypedProcessor();
+        chain.addToEnd(typed).addToEnd(p1);
+        when(p1.accepts(context)).thenReturn(true);
+        chain.process(context);
+        assertEquals(0, typed.acceptCalls);
+        verify(p1).process(context);
+        
+        TypedContext typedContext = new TypedContext();
+        chain.process(typedContext);
+        assertEquals(1, typed.acceptCalls);
+        assertEquals(1, typed.processCalls);
+    }
+    
+    @Test
+    void testMutationRecompilesPlan() {
+        chain.addToEnd(p1);
+        when(p1.accepts(context)).thenReturn(true);
+        when(p2.accepts(context)).thenReturn(true);
+        chain.process(context);
+        ChainExecutionPlan<Processor> first = chain.getExecutionPlan();
+        chain.addToEnd(p2);
+        chain.process(context);
+        assertNotSame(first, chain.getExecutionPlan());
+        assertEquals(2, chain.getExecutionPlan().size());
+        verify(p2).process(context);
+    }
+    
+    @Test
+    void testIterationSeesSnapshotTakenWhenItStarted() {
+        chain.addToEnd(p1).addToEnd(p2);
+        Iterator<Processor> iterator = chain.processors.iterator();
+        chain.remove(p1);
+        chain.addToEnd(p3);
+        List<Processor> seen = new ArrayList<>();
+        iterator.forEachRemaining(seen::add);
+        assertEquals(List.of(p1, p2), seen);
+        assertEquals(List.of(p2, p3), chain.getProcessors());
+        assertThrows(UnsupportedOperationException.class, () -> chain.processors.add(p1));
+    }
+    
+    @Test
+    void testReconfigurationUnderLoadKeepsEveryRunConsistent() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        Processor<ProcessContext> counting = new RecordingProcessor("fixed", new ArrayList<>(), null) {
+            @Override
+            public ProcessContext process(ProcessContext input) {
+                runs.incrementAndGet();
+                return input;
+            }
+        };
+        chain.addToEnd(counting);
+        CompletableFuture<Void> reconfigure = CompletableFuture.runAsync(() -> {
+            for (int i = 0; i < 200; i++) {
+                Processor<ProcessContext> transientProcessor = mock(Processor.class);
+                chain.addToStart(transientProcessor);
+                chain.addAfter(counting, mock(Processor.class));
+                chain.remove(transientProcessor);
+            }
+        });
+        int calls = 0;
+        while (!reconfigure.isDone()) {
+            chain.process(context);
+            calls++;
+        }
+        reconfigure.get(5, TimeUnit.SECONDS);
+        assertEquals(calls, runs.get());
+        assertEquals(201, chain.getProcessors().size());
+    }
+    
+    @Test
+    void testProcessAsyncComposesPendingStagesInOrder() throws Exception {
+        List<String> calls = new CopyOnWriteArrayList<>();
+        CompletableFuture<ProcessContext> pending = new CompletableFuture<>();
+        chain.addToEnd(new RecordingProcessor("first", calls, pending)).addToEnd(new RecordingProcessor("second", calls, null));
+        
+        CompletableFuture<ProcessContext> result = chain.processAsync(context);
+        assertFalse(result.isDone());
+        assertEquals(List.of("first.before"), waitFor(calls, 1));
+        
+        pending.complete(context);
+        assertSame(context, result.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of("first.before", "first.after", "second.before", "second.process", "second.after"), calls);
+    }
+    
+    @Test
+    void testProcessAsyncRoutesFailedStageToOnErrorAndContinues() throws Exception {
+        List<String> calls = new CopyOnWriteArrayList<>();
+        CompletableFuture<ProcessContext> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException("boom"));
+        chain.addToEnd(new RecordingProcessor("first", calls, failed)).addToEnd(new RecordingProcessor("second", calls, null));
+        
+        chain.processAsync(context).get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("first.before", "first.error:boom", "second.before", "second.process", "second.after"), calls);
+    }
+    
+    @Test
+    void testProcessAsyncRunsOnConfiguredExecutor() throws Exception {
+        AtomicInteger submitted = new AtomicInteger();
+        Executor executor = command -> {
+            submitted.incrementAndGet();
+            command.run();
+        };
+        chain.setExecutor(executor);
+        chain.addToEnd(new RecordingProcessor("only", new CopyOnWriteArrayList<>(), null));
+        chain.processAsync(context).get(5, TimeUnit.SECONDS);
+        assertSame(executor, chain.getExecutor());
+        assertEquals(1, submitted.get());
+    }
+    
+    @Test
+    void testProcessStopsOnceCancellationTokenFires() {
+        CancellationToken token = CancellationToken.create();
+        when(context.getCancellationToken()).thenReturn(token);
+        List<String> calls = new CopyOnWriteArrayList<>();
+        Processor<ProcessContext> cancelling = new RecordingProcessor("first", calls, null) {
+            @Override
+            public ProcessContext process(ProcessContext input) {
+                token.cancel("stop");
+                return super.process(input);
+            }
+        };
+        chain.addToEnd(cancelling).addToEnd(new RecordingProcessor("second", calls, null));
+        
+        chain.process(context);
+        assertEquals(List.of("first.before", "first.process", "first.after"), calls);
+        verify(context).addResult(argThat(result -> result.getError() instanceof ChainCancelledException));
+    }
+    
+    @Test
+    void testProcessAsyncAbandonsPendingStageWhenTokenFires() throws Exception {
+        CancellationToken token = CancellationToken.withTimeout(Duration.ofMillis(50));
+        when(context.getCancellationToken()).thenReturn(token);
+        List<String> calls = new CopyOnWriteArrayList<>();
+        CompletableFuture<ProcessContext> hung = new CompletableFuture<>();
+        chain.addToEnd(new RecordingProcessor("first", calls, hung)).addToEnd(new RecordingProcessor("second", calls, null));
+        
+        chain.processAsync(context).get(5, TimeUnit.SECONDS);
+        assertTrue(hung.isCancelled());
+        assertEquals(List.of("first.before", "first.error:deadline exceeded"), calls);
+        verify(context).addResult(argThat(result -> result.getError() instanceof ChainCancelledException cancelled && cancelled.isTimeout()));
+    }
+    
+    private static List<String> waitFor(List<String> calls, int size) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (calls.size() < size && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        return List.copyOf(calls);
+    }
+    
+    /**
+     * Records hook invocations; returns the given future from processAsync, or runs synchronously when it is null.
+     */
+    static class RecordingProcessor implements Processor<ProcessContext> {
+        private final String name;
+        private final List<String> calls;
+        private final CompletableFuture<ProcessContext> stage;
+        
+        RecordingProcessor(String name, List<String> calls, CompletableFuture<ProcessContext> stage) {
+            this.name = name;
+            this.calls = calls;
+            this.stage = stage;
+        }
+        
+        @Override
+        public boolean accepts(ProcessContext input) {
+            return true;
+        }
+        
+        @Override
+        public CompletableFuture<ProcessContext> processAsync(ProcessContext input) {
+            return stage != null ? stage : Processor.super.processAsync(input);
+        }
+        
+        @Override
+        public ProcessContext process(ProcessContext input) {
+            calls.add(name + ".process");
+            return input;
+        }
+        
+        @Override
+        public ProcessContext beforeProcess(ProcessContext input) {
+            calls.add(name + ".before");
+            return input;
+        }
+        
+        @Override
+        public ProcessContext afterProcess(ProcessContext input) {
+            calls.add(name + ".after");
+            return input;
+        }
+        
+        @Override
+        public ProcessContext onError(ProcessContext input, Exception e) {
+            calls.add(name + ".error:" + e.getMessage());
+            return input;
+        }
+    }
+    
+    static class CountingChain extends AbstractBaseChain<Processor, ProcessContext> {
+        int registrations;
+        
+        CountingChain() {
+            super(mock(ObjectProvider.class), mock(ObjectProvider.class));
+        }
+        
+        @Override
+        protected void registerProcessors() {
+            registrations++;
+        }
+        
+        @Override
+        public boolean accepts(ProcessContext context) {
+            return true;
+        }
+    }
+    
+    static class TypedContext implements ProcessContext<ProcessResult> {
+        private final List<ProcessResult> results = new ArrayList<>();
+        
+        @Override
+        public List<ProcessResult> getResults() {
+            return results;
+        }
+    }
+    
+    static class TypedProcessor implements Processor<TypedContext> {
+        int acceptCalls;
+        int processCalls;
+        
+        @Override
+        public boolean accepts(TypedContext input) {
+            acceptCalls++;
+            return true;
+        }
+        
+        @Override
+        public TypedContext process(TypedContext input) {
+            processCalls++;
+            return input;
+        }
+    }
+}
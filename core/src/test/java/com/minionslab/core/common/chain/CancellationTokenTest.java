@@ -0,0 +1,109 @@
+package com.minionslab.core.common.chain;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link CancellationToken} and {@link ChainExecutors#supplyInterruptibly}.
+ * <p>
+ * Scenarios:
+ * <ul>
+ *   <li>Explicit cancellation, deadlines and child tokens</li>
+ *   <li>Callbacks run once, and immediately when registered on a cancelled token</li>
+ *   <li>Blocking work bound to a token fails promptly and its thread is interrupted</li>
+ * </ul>
+ */
+class CancellationTokenTest {
+
+    @Test
+    void testNoneIsNeverCancelled() {
+        assertFalse(CancellationToken.NONE.cancel("stop"));
+        assertFalse(CancellationToken.NONE.isCancelled());
+        assertNull(CancellationToken.NONE.getRemaining());
+        assertDoesNotThrow(CancellationToken.NONE::throwIfCancelled);
+    }
+
+    @Test
+    void testCancelRunsCallbacksOnce() {
+        CancellationToken token = CancellationToken.create();
+        AtomicInteger calls = new AtomicInteger();
+        token.onCancel(calls::incrementAndGet);
+
+        assertTrue(token.cancel("stop"));
+        assertFalse(token.cancel("again"));
+        assertEquals(1, calls.get());
+
+        token.onCancel(calls::incrementAndGet);
+        assertEquals(2, calls.get());
+        ChainCancelledException exception = assertThrows(ChainCancelledException.class, token::throwIfCancelled);
+        assertEquals("stop", exception.getMessage());
+        assertFalse(exception.isTimeout());
+    }
+
+    @Test
+    void testClosedRegistrationIsNotRun() {
+        CancellationToken token = CancellationToken.create();
+        AtomicInteger calls = new AtomicInteger();
+        token.onCancel(calls::incrementAndGet).close();
+        token.cancel("stop");
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    void testDeadlineFiresCallbacks() throws Exception {
+        CancellationToken token = CancellationToken.withTimeout(Duration.ofMillis(20));
+        CountDownLatch fired = new CountDownLatch(1);
+        token.onCancel(fired::countDown);
+
+        assertTrue(fired.await(5, TimeUnit.SECONDS));
+        assertTrue(token.isCancelled());
+        assertTrue(token.isTimedOut());
+        assertEquals(Duration.ZERO, token.getRemaining());
+    }
+
+    @Test
+    void testChildFollowsParentButNotTheOtherWayAround() {
+        CancellationToken parent = CancellationToken.create();
+        CancellationToken child = parent.child(Duration.ofMinutes(1));
+        CancellationToken sibling = parent.child(Duration.ofMinutes(1));
+
+        child.cancel("child only");
+        assertFalse(parent.isCancelled());
+        assertFalse(sibling.isCancelled());
+
+        parent.cancel("all");
+        assertTrue(sibling.isCancelled());
+    }
+
+    @Test
+    void testSupplyInterruptiblyInterruptsBlockedWork() throws Exception {
+        CancellationToken token = CancellationToken.create();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        CompletableFuture<String> future = ChainExecutors.supplyInterruptibly(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                return "done";
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw new IllegalStateException(e);
+            }
+        }, ChainExecutors.defaultExecutor(), token);
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        token.cancel("stop");
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(ChainCancelledException.class, failure.getCause());
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+}
@@ -4,11 +4,12 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.ObjectProvider;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 /**
  * Unit tests for {@link ChainRegistry}.
@@ -17,6 +18,8 @@ import static org.mockito.Mockito.when;
  * <ul>
  *   <li>Register, process, and unregister chains by name and instance</li>
  *   <li>Throws exception if no chain accepts the context</li>
+ *   <li>Dispatches by declared context type, priority and registration order</li>
+ *   <li>Rejects ambiguous registrations for the same context type and priority</li>
  * </ul>
  * <p>
  * Setup: Mocks Chain and ProcessContext. Initializes ChainRegistry with mock ObjectProviders and a chain map.
@@ -87,4 +90,154 @@ class ChainRegistryTest {
     void testProcessThrowsIfNoChainAccepts() {
         assertThrows(IllegalArgumentException.class, () -> registry.process(context));
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Tests that a typed context is routed only to chains declared for its type.
+     * Setup: A catch-all mock chain and a chain typed for {@link TypedContext}.
+     * Expected: The typed chain processes the context; the chain for another context type is never consulted.
+     */
+    @Test
+    void testDispatchesToChainDeclaredForContextType() {
+        TypedChain typed = new TypedChain(Chain.DEFAULT_PRIORITY);
+        OtherChain other = new OtherChain();
+        registry.register("typed", typed);
+        registry.register("other", other);
+        
+        TypedContext typedContext = new TypedContext();
+        assertSame(typedContext, registry.process(typedContext));
+        assertEquals(1, typed.processed);
+        assertEquals(0, other.acceptsCalls);
+    }
+    
+    /**
+     * Tests that a higher priority chain wins over a fallback chain for the same context type.
+     * Setup: A fallback typed chain registered first, then a default priority typed chain.
+     * Expected: The default priority chain processes the context.
+     */
+    @Test
+    void testHigherPriorityChainWins() {
+        TypedChain fallback = new TypedChain(Chain.FALLBACK_PRIORITY);
+        TypedChain preferred = new TypedChain(Chain.DEFAULT_PRIORITY);
+        registry.register("fallback", fallback);
+        registry.register("preferred", preferred);
+        
+        registry.process(new TypedContext());
+        assertEquals(1, preferred.processed);
+        assertEquals(0, fallback.processed);
+    }
+    
+    /**
+     * Tests that specific chains are preferred over catch-all chains of the same priority.
+     * Setup: The catch-all mock chain accepts every context; a typed chain is registered after it.
+     * Expected: The typed chain processes the context and the mock is not invoked.
+     */
+    @Test
+    void testSpecificChainPreferredOverCatchAll() {
+        when(chain.accepts(any())).thenReturn(true);
+        TypedChain typed = new TypedChain(Chain.DEFAULT_PRIORITY);
+        registry.register("typed", typed);
+        
+        registry.process(new TypedContext());
+        assertEquals(1, typed.processed);
+        verify(chain, never()).process(any());
+    }
+    
+    /**
+     * Tests that two chains for the same context type and priority are rejected.
+     * Setup: Registers two distinct typed chains with equal priority.
+     * Expected: The second registration throws IllegalStateException.
+     */
+    @Test
+    void testAmbiguousRegistrationThrows() {
+        registry.register("first", new TypedChain(Chain.DEFAULT_PRIORITY));
+        assertThrows(IllegalStateException.class, () -> registry.register("second", new TypedChain(Chain.DEFAULT_PRIORITY)));
+    }
+    
+    /**
+     * Tests that re-registering a name replaces the previous chain and refreshes the dispatch cache.
+     * Setup: Dispatches once, then replaces the chain under the same name.
+     * Expected: The replacement chain processes subsequent contexts.
+     */
+    @Test
+    void testReRegistrationInvalidatesDispatchCache() {
+        TypedChain first = new TypedChain(Chain.DEFAULT_PRIORITY);
+        TypedChain second = new TypedChain(Chain.DEFAULT_PRIORITY);
+        registry.register("typed", first);
+        registry.process(new TypedContext());
+        
+        registry.register("typed", second);
+        registry.process(new TypedContext());
+        assertEquals(1, first.processed);
+        assertEquals(1, second.processed);
+        assertSame(second, registry.getChain("typed"));
+    }
+    
+    static class TypedContext implements ProcessContext<ProcessResult> {
+        private final List<ProcessResult> results = new ArrayList<>();
+        
+        @Override
+        public List<ProcessResult> getResults() {
+            return results;
+        }
+    }
+    
+    static class OtherContext implements ProcessContext<ProcessResult> {
+        private final List<ProcessResult> results = new ArrayList<>();
+        
+        @Override
+        public List<ProcessResult> getResults() {
+            return results;
+        }
+    }
+    
+    /**
+     * Chain whose context type is resolved from its generic signature.
+     */
+    static class TypedChain extends AbstractBaseChain<Processor, TypedContext> {
+        private final int priority;
+        int processed;
+        
+        TypedChain(int priority) {
+            super(mock(ObjectProvider.class), mock(ObjectProvider.class));
+            this.priority = priority;
+        }
+        
+        @Override
+        protected void registerProcessors() {
+        }
+        
+        @Override
+        public boolean accepts(ProcessContext context) {
+            return context instanceof TypedContext;
+        }
+        
+        @Override
+        public int getPriority() {
+            return priority;
+        }
+        
+        @Override
+        public TypedContext process(TypedContext input) {
+            processed++;
+            return input;
+        }
+    }
+    
+    static class OtherChain extends AbstractBaseChain<Processor, OtherContext> {
+        int acceptsCalls;
+        
+        OtherChain() {
+            super(mock(ObjectProvider.class), mock(ObjectProvider.class));
+        }
+        
+        @Override
+        protected void registerProcessors() {
+        }
+        
+        @Override
+        public boolean accepts(ProcessContext context) {
+            acceptsCalls++;
+            return context instanceof OtherContext;
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.minionslab.core.common.chain;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for {@link ParallelProcessorGroup}.
+ * <p>
+ * Scenarios:
+ * <ul>
+ *   <li>Members run concurrently and their results are merged in member order</li>
+ *   <li>FAIL_FAST completes the group exceptionally without waiting for slow members</li>
+ *   <li>COMPLETE_ALL records member failures and completes normally</li>
+ *   <li>A group declared in a chain runs before the next processor</li>
+ *   <li>Chains of a narrower processor type refuse groups they cannot hold</li>
+ * </ul>
+ * <p>
+ * Setup: Uses a simple context with a plain (non thread-safe) result list and latch-driven processors.
+ */
+class ParallelProcessorGroupTest {
+
+    /**
+     * Tests that members run concurrently and results are merged in member order.
+     * Setup: Two members that each wait until both have started.
+     * Expected: The group completes (it would time out if run sequentially); results are ordered by member.
+     */
+    @Test
+    void testMembersRunConcurrentlyAndResultsMergeInOrder() throws Exception {
+        CountDownLatch started = new CountDownLatch(2);
+        ParallelProcessorGroup<SimpleContext> group = new ParallelProcessorGroup<>(
+                List.of(new RendezvousProcessor("a", started), new RendezvousProcessor("b", started)),
+                ParallelProcessorGroup.FailurePolicy.FAIL_FAST);
+
+        SimpleContext context = new SimpleContext();
+        group.processAsync(context).get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("a", "b"), context.getResults().stream().map(ProcessResult::getProcessorId).toList());
+    }
+
+    /**
+     * Tests that FAIL_FAST fails the group as soon as a member fails.
+     * Setup: One member blocks until released, the other fails immediately.
+     * Expected: The group fails with the member's exception while the blocked member is still running.
+     */
+    @Test
+    void testFailFastDoesNotWaitForOtherMembers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        FailingProcessor failing = new FailingProcessor();
+        ParallelProcessorGroup<SimpleContext> group = new ParallelProcessorGroup<>(
+                List.of(new BlockingProcessor(release), failing),
+                ParallelProcessorGroup.FailurePolicy.FAIL_FAST);
+
+        CompletableFuture<SimpleContext> future = group.processAsync(new SimpleContext());
+        ExecutionException thrown = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, thrown.getCause());
+        assertEquals(1, failing.errors);
+        release.countDown();
+    }
+
+    /**
+     * Tests that COMPLETE_ALL records failures and completes the group normally.
+     * Setup: One failing and one successful member.
+     * Expected: The group completes; the context holds a success and a failure result.
+     */
+    @Test
+    void testCompleteAllRecordsFailures() throws Exception {
+        ParallelProcessorGroup<SimpleContext> group = new ParallelProcessorGroup<>(
+                List.of(new FailingProcessor(), new RendezvousProcessor("ok", new CountDownLatch(0))),
+                ParallelProcessorGroup.FailurePolicy.COMPLETE_ALL);
+
+        SimpleContext context = new SimpleContext();
+        group.processAsync(context).get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, context.getResults().size());
+        assertNotNull(context.getResults().get(0).getError());
+        assertEquals("ok", context.getResults().get(1).getProcessorId());
+    }
+
+    /**
+     * Tests that a group declared in a chain completes before the next processor runs.
+     * Setup: A chain with a parallel group followed by a processor counting prior results.
+     * Expected: The trailing processor observes both group results.
+     */
+    @Test
+    void testChainRunsGroupBeforeNextProcessor() {
+        SimpleChain chain = new SimpleChain();
+        CountDownLatch started = new CountDownLatch(2);
+        chain.addParallelToEnd(ParallelProcessorGroup.FailurePolicy.FAIL_FAST,
+                               List.of(new RendezvousProcessor("a", started), new RendezvousProcessor("b", started)));
+        List<Integer> observed = new ArrayList<>();
+        chain.addToEnd(new Processor<SimpleContext>() {
+            @Override
+            public boolean accepts(SimpleContext input) {
+                return true;
+            }
+
+            @Override
+            public SimpleContext process(SimpleContext input) {
+                observed.add(input.getResults().size());
+                return input;
+            }
+        });
+
+        chain.process(new SimpleContext());
+        assertEquals(List.of(2), observed);
+    }
+
+    /**
+     * Tests that a chain whose processors are a narrower type than Processor refuses a plain group.
+     * Setup: A chain of {@link NarrowProcessor}s.
+     * Expected: Adding a group fails immediately and leaves the chain unchanged.
+     */
+    @Test
+    void testNarrowChainRefusesGroup() {
+        NarrowChain chain = new NarrowChain();
+        assertThrows(UnsupportedOperationException.class,
+                     () -> chain.addParallelToEnd(ParallelProcessorGroup.FailurePolicy.FAIL_FAST, List.of(new NarrowProcessor() {
+                         @Override
+                         public boolean accepts(SimpleContext input) {
+                             return true;
+                         }
+
+                         @Override
+                         public SimpleContext process(SimpleContext input) {
+                             return input;
+                         }
+                     })));
+        assertTrue(chain.getProcessors().isEmpty());
+    }
+
+    static class SimpleContext implements ProcessContext<ProcessResult> {
+        private final List<ProcessResult> results = new ArrayList<>();
+
+        @Override
+        public List<ProcessResult> getResults() {
+            return results;
+        }
+    }
+
+    static class SimpleChain extends AbstractBaseChain<Processor, SimpleContext> {
+        SimpleChain() {
+            super(mock(ObjectProvider.class), mock(ObjectProvider.class));
+        }
+
+        @Override
+        protected void registerProcessors() {
+        }
+
+        @Override
+        public boolean accepts(ProcessContext context) {
+            return context instanceof SimpleContext;
+        }
+    }
+
+    interface NarrowProcessor extends Processor<SimpleContext> {
+    }
+
+    static class NarrowChain extends AbstractBaseChain<NarrowProcessor, SimpleContext> {
+        NarrowChain() {
+            super(mock(ObjectProvider.class), mock(ObjectProvider.class));
+        }
+
+        @Override
+        protected void registerProcessors() {
+        }
+
+        @Override
+        public boolean accepts(ProcessContext context) {
+            return context instanceof SimpleContext;
+        }
+    }
+
+    /**
+     * Records a success result once all rendezvous members have started.
+     */
+    static class RendezvousProcessor extends AbstractProcessor<SimpleContext, String> {
+        private final CountDownLatch started;
+
+        RendezvousProcessor(String id, CountDownLatch started) {
+            this.id = id;
+            this.started = started;
+        }
+
+        @Override
+        protected String doProcess(SimpleContext input) throws Exception {
+            started.countDown();
+            if (!started.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("members did not run concurrently");
+            }
+            return id;
+        }
+    }
+
+    static class BlockingProcessor implements Processor<SimpleContext> {
+        private final CountDownLatch release;
+
+        BlockingProcessor(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public boolean accepts(SimpleContext input) {
+            return true;
+        }
+
+        @Override
+        public SimpleContext process(SimpleContext input) {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return input;
+        }
+    }
+
+    static class FailingProcessor implements Processor<SimpleContext> {
+        volatile int errors;
+
+        @Override
+        public boolean accepts(SimpleContext input) {
+            return true;
+        }
+
+        @Override
+        public SimpleContext process(SimpleContext input) {
+            throw new IllegalStateException("boom");
+        }
+
+        @Override
+        public SimpleContext onError(SimpleContext input, Exception e) {
+            errors++;
+            return input;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.minionslab.core.common.chain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ResultBuffer}.
+ * <p>
+ * Scenarios:
+ * <ul>
+ *   <li>Appends keep order and grow storage up to the capacity</li>
+ *   <li>Ring mode keeps the most recent results; capped mode drops new ones</li>
+ *   <li>Concurrent appends are all recorded</li>
+ *   <li>Iterators are weakly consistent and clear resets the buffer</li>
+ * </ul>
+ */
+class ResultBufferTest {
+
+    @Test
+    void testAppendKeepsOrder() {
+        ResultBuffer<Integer> buffer = new ResultBuffer<>(100, ResultBuffer.Mode.RING);
+        for (int i = 0; i < 50; i++) {
+            buffer.add(i);
+        }
+        assertEquals(50, buffer.size());
+        assertEquals(0, buffer.get(0));
+        assertEquals(49, buffer.get(49));
+        assertEquals(0, buffer.getDropped());
+    }
+
+    @Test
+    void testRingModeKeepsMostRecent() {
+        ResultBuffer<Integer> buffer = new ResultBuffer<>(4, ResultBuffer.Mode.RING);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(buffer.add(i));
+        }
+        assertEquals(List.of(6, 7, 8, 9), new ArrayList<>(buffer));
+        assertEquals(6, buffer.getDropped());
+    }
+
+    @Test
+    void testCappedModeDropsNewResults() {
+        ResultBuffer<Integer> buffer = new ResultBuffer<>(3, ResultBuffer.Mode.CAPPED);
+        for (int i = 0; i < 5; i++) {
+            buffer.add(i);
+        }
+        assertFalse(buffer.add(5));
+        assertEquals(List.of(0, 1, 2), new ArrayList<>(buffer));
+        assertEquals(3, buffer.getDropped());
+    }
+
+    @Test
+    void testConcurrentAppendsAreAllRecorded() throws Exception {
+        ResultBuffer<Integer> buffer = new ResultBuffer<>(10_000, ResultBuffer.Mode.CAPPED);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < 4; t++) {
+            int offset = t * 1000;
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 1000; i++) {
+                    buffer.add(offset + i);
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(4000, buffer.size());
+        Set<Integer> distinct = new HashSet<>(buffer);
+        assertEquals(4000, distinct.size());
+    }
+
+    @Test
+    void testIteratorIsWeaklyConsistentAndClearResets() {
+        ResultBuffer<Integer> buffer = new ResultBuffer<>();
+        buffer.add(1);
+        buffer.add(2);
+        Iterator<Integer> iterator = buffer.iterator();
+        buffer.add(3);
+        List<Integer> seen = new ArrayList<>();
+        iterator.forEachRemaining(seen::add);
+        assertEquals(List.of(1, 2), seen);
+
+        buffer.clear();
+        assertTrue(buffer.isEmpty());
+        assertThrows(UnsupportedOperationException.class, () -> buffer.remove(0));
+    }
+}
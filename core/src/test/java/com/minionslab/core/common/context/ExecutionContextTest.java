@@ -0,0 +1,97 @@
+package com.minionslab.core.common.context;
+
+import com.minionslab.core.agent.AgentConfig;
+import com.minionslab.core.agent.AgentContext;
+import com.minionslab.core.common.chain.CancellationToken;
+import com.minionslab.core.common.chain.ChainExecutors;
+import com.minionslab.core.common.security.context.TenantContextHolder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ExecutionContext}.
+ * <p>
+ * Scenarios:
+ * <ul>
+ *   <li>The default chain executor runs tasks with the submitter's config, tenant and MDC</li>
+ *   <li>Interruptible tasks on custom executors see the submitter's context</li>
+ *   <li>Pooled threads get their previous state back after a task</li>
+ *   <li>Applying a context restores the previous one when the scope closes</li>
+ * </ul>
+ */
+class ExecutionContextTest {
+    
+    @AfterEach
+    void tearDown() {
+        AgentContext.clear();
+        TenantContextHolder.clear();
+        MDC.clear();
+    }
+    
+    @Test
+    void propagatesToVirtualThreads() {
+        AgentConfig config = new AgentConfig();
+        AgentContext.setConfig(config);
+        TenantContextHolder.setTenantId("tenant-a");
+        MDC.put("traceId", "t-1");
+        
+        CompletableFuture<Object[]> seen = CompletableFuture.supplyAsync(
+                () -> new Object[]{AgentContext.getConfig(), TenantContextHolder.getTenantId(), MDC.get("traceId"),
+                        Thread.currentThread().isVirtual()},
+                ChainExecutors.defaultExecutor());
+        
+        assertArrayEquals(new Object[]{config, "tenant-a", "t-1", true}, seen.join());
+    }
+    
+    @Test
+    void propagatesThroughInterruptibleCalls() {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            TenantContextHolder.setTenantId("tenant-b");
+            String tenant = ChainExecutors.supplyInterruptibly(TenantContextHolder::getTenantId, pool,
+                                                               CancellationToken.withTimeout(Duration.ofSeconds(5))).join();
+            assertEquals("tenant-b", tenant);
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    @Test
+    void restoresPooledThreads() throws Exception {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            pool.submit(() -> TenantContextHolder.setTenantId("worker")).get();
+            Executor propagating = ExecutionContext.propagating(pool);
+            assertSame(propagating, ExecutionContext.propagating(propagating));
+            
+            TenantContextHolder.setTenantId("caller");
+            CompletableFuture<String> inTask = CompletableFuture.supplyAsync(TenantContextHolder::getTenantId, propagating);
+            assertEquals("caller", inTask.join());
+            assertEquals("worker", pool.submit(TenantContextHolder::getTenantId).get());
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    @Test
+    void scopeRestoresPrevious() {
+        TenantContextHolder.setTenantId("outer");
+        ExecutionContext outer = ExecutionContext.capture();
+        
+        try (ExecutionContext.Scope scope = ExecutionContext.EMPTY.apply()) {
+            assertNull(TenantContextHolder.getTenantId());
+            assertNull(AgentContext.getConfig());
+        }
+        assertEquals("outer", TenantContextHolder.getTenantId());
+        assertEquals("outer", outer.getTenantId());
+    }
+}
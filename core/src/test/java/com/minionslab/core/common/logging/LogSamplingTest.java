@@ -0,0 +1,93 @@
+package com.minionslab.core.common.logging;
+
+import com.minionslab.core.common.chain.ProcessContext;
+import com.minionslab.core.common.chain.ProcessResult;
+import com.minionslab.core.memory.MemorySubsystem;
+import com.minionslab.core.memory.query.MemoryQuery;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link LogSampling}.
+ * <p>
+ * Scenarios:
+ * <ul>
+ *   <li>Sampling is skipped when debug is disabled or the rate is zero, and always taken at rate one</li>
+ *   <li>Rendering is bounded and never calls toString on contexts</li>
+ *   <li>Values of other types are rendered by type and identity, queries by subsystem and limit</li>
+ * </ul>
+ */
+class LogSamplingTest {
+
+    @Test
+    void testSampledChecksLevelAndRate() {
+        Logger log = mock(Logger.class);
+        when(log.isDebugEnabled()).thenReturn(false);
+        assertFalse(LogSampling.sampled(log, 1.0));
+
+        when(log.isDebugEnabled()).thenReturn(true);
+        assertTrue(LogSampling.sampled(log, 1.0));
+        assertFalse(LogSampling.sampled(log, 0.0));
+    }
+
+    @Test
+    void testSampledDoesNotTouchLoggerWhenRateIsZero() {
+        Logger log = mock(Logger.class);
+        assertFalse(LogSampling.sampled(log, 0.0));
+        verifyNoInteractions(log);
+    }
+
+    @Test
+    void testRenderTruncatesLongValues() {
+        String rendered = LogSampling.render("x".repeat(1000), 20);
+        assertEquals(20, rendered.length());
+        assertTrue(rendered.endsWith("..."));
+    }
+
+    @Test
+    void testRenderSummarizesCollectionsAndContexts() {
+        List<String> values = new ArrayList<>(Collections.nCopies(100, "value"));
+        assertEquals("ArrayList[size=100: value, value, value]", LogSampling.render(values, 256));
+
+        HugeContext context = new HugeContext();
+        assertEquals("HugeContext{recipe=recipe-1, results=0}", LogSampling.render(context, 256));
+    }
+
+    @Test
+    void testRenderNeverCallsToStringOnOtherTypes() {
+        Object value = new Object() {
+            @Override
+            public String toString() {
+                throw new AssertionError("toString must not be called");
+            }
+        };
+        assertTrue(LogSampling.render(value, 256).startsWith("@"));
+        assertEquals("42", LogSampling.render(42, 256));
+        assertEquals("MemoryQuery{subsystem=SHORT_TERM, limit=5}",
+                     LogSampling.render(new MemoryQuery(MemorySubsystem.SHORT_TERM, 5), 256));
+    }
+
+    static class HugeContext implements ProcessContext<ProcessResult> {
+        @Override
+        public List<ProcessResult> getResults() {
+            return List.of();
+        }
+
+        @Override
+        public String getRecipeId() {
+            return "recipe-1";
+        }
+
+        @Override
+        public String toString() {
+            throw new AssertionError("toString must not be called");
+        }
+    }
+}
@@ -12,4 +12,13 @@ class EmbeddingMessageTest {
         msg.setEmbedding(embedding);
         assertArrayEquals(embedding, msg.getEmbedding());
     }
-} 
\ No newline at end of file
+    
+    @Test
+    void testFieldValues() {
+        float[] embedding = new float[] {1.0f, 2.0f, 3.0f};
+        EmbeddingMessage msg = EmbeddingMessage.builder().embedding(embedding).content("content").build();
+        assertSame(embedding, msg.getFieldValue("embedding"));
+        assertEquals("content", msg.getFieldValue("content"));
+        assertNull(SimpleMessage.builder().content("content").build().getFieldValue("embedding"));
+    }
+}
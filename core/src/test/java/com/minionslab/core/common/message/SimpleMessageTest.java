@@ -46,6 +46,31 @@ class SimpleMessageTest {
         assertEquals("id123", msg.toString());
     }
     
+    @Test
+    void testFieldValues() {
+        Instant now = Instant.now();
+        SimpleMessage msg = SimpleMessage.builder().id("id").conversationId("c1").timestamp(now).content("content").role(MessageRole.USER).scope(MessageScope.AGENT).tokenCount(5).build();
+        assertEquals("content", msg.getFieldValue("content"));
+        assertEquals("c1", msg.getFieldValue("conversationId"));
+        assertSame(MessageRole.USER, msg.getFieldValue("role"));
+        assertEquals(now, msg.getFieldValue("timestamp"));
+        assertEquals(5, msg.getFieldValue("tokenCount"));
+        assertNull(msg.getFieldValue("embedding"));
+        assertSame(msg.fieldAccessors(), SimpleMessage.builder().build().fieldAccessors());
+    }
+    
+    @Test
+    void testMetadataIsSharedUntilWritten() {
+        SimpleMessage msg = SimpleMessage.builder().id("id").build();
+        SimpleMessage other = SimpleMessage.builder().id("other").build();
+        assertTrue(msg.getMetadata().isEmpty());
+        assertSame(msg.getMetadata(), other.getMetadata());
+        
+        msg.putMetadata("foo", "bar");
+        assertEquals("bar", msg.getMetadata("foo"));
+        assertTrue(other.getMetadata().isEmpty());
+    }
+    
     @Test
     void testBuilderWithNulls() {
         SimpleMessage msg = SimpleMessage.builder().build();
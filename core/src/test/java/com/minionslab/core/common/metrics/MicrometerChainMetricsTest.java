@@ -0,0 +1,187 @@
+package com.minionslab.core.common.metrics;
+
+import com.minionslab.core.common.chain.AbstractBaseChain;
+import com.minionslab.core.common.chain.ProcessContext;
+import com.minionslab.core.common.chain.ProcessResult;
+import com.minionslab.core.common.chain.Processor;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for {@link MicrometerChainMetrics}.
+ * <p>
+ * Scenarios:
+ * <ul>
+ *   <li>Processor and chain timers are recorded per chain, processor, recipe and outcome</li>
+ *   <li>Skipped processors increment the skip counter</li>
+ *   <li>Asynchronous execution records the same meters</li>
+ *   <li>Repeated runs record into the meters registered by the first run, without histograms</li>
+ * </ul>
+ * <p>
+ * Setup: A chain instrumented with metrics backed by a {@link SimpleMeterRegistry}.
+ */
+class MicrometerChainMetricsTest {
+    private SimpleMeterRegistry registry;
+    private TestChain chain;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        chain = new TestChain();
+        chain.setInstrumentation(new MicrometerChainMetrics(registry));
+    }
+
+    /**
+     * Tests that success, error and skip outcomes are recorded with their tags.
+     * Setup: An accepting processor, a failing processor and a declining processor.
+     * Expected: One sample per outcome, one skip, and one chain sample tagged with the recipe.
+     */
+    @Test
+    void testRecordsProcessorOutcomesAndSkips() {
+        chain.addToEnd(new WorkProcessor(true, false))
+             .addToEnd(new FailingProcessor())
+             .addToEnd(new WorkProcessor(false, false));
+
+        chain.process(new RecipeContext("recipe-1"));
+
+        assertEquals(1, registry.get(MicrometerChainMetrics.PROCESSOR_TIMER)
+                                .tags("chain", "TestChain", "processor", "WorkProcessor", "recipe", "recipe-1", "outcome", "success")
+                                .timer().count());
+        assertEquals(1, registry.get(MicrometerChainMetrics.PROCESSOR_TIMER)
+                                .tags("processor", "FailingProcessor", "outcome", "error")
+                                .timer().count());
+        assertEquals(1.0, registry.get(MicrometerChainMetrics.PROCESSOR_SKIPPED)
+                                  .tags("processor", "WorkProcessor", "recipe", "recipe-1")
+                                  .counter().count());
+        assertEquals(1, registry.get(MicrometerChainMetrics.CHAIN_TIMER)
+                                .tags("chain", "TestChain", "recipe", "recipe-1", "outcome", "success")
+                                .timer().count());
+    }
+
+    /**
+     * Tests that contexts without a recipe are tagged as unknown.
+     * Setup: A context whose recipe id is null.
+     * Expected: The chain timer is tagged with the unknown recipe value.
+     */
+    @Test
+    void testContextWithoutRecipeIsTaggedUnknown() {
+        chain.addToEnd(new WorkProcessor(true, false));
+        chain.process(new RecipeContext(null));
+        assertEquals(1, registry.get(MicrometerChainMetrics.CHAIN_TIMER)
+                                .tags("recipe", MicrometerChainMetrics.UNKNOWN)
+                                .timer().count());
+    }
+
+    /**
+     * Tests that asynchronous execution records processor and chain timers.
+     * Setup: An asynchronous processor in the chain.
+     * Expected: Processor and chain timers each have one sample.
+     */
+    @Test
+    void testAsyncExecutionRecordsMeters() throws Exception {
+        chain.addToEnd(new WorkProcessor(true, true));
+        chain.processAsync(new RecipeContext("recipe-2")).get(5, TimeUnit.SECONDS);
+        assertEquals(1, registry.get(MicrometerChainMetrics.PROCESSOR_TIMER).tags("recipe", "recipe-2").timer().count());
+        assertEquals(1, registry.get(MicrometerChainMetrics.CHAIN_TIMER).tags("recipe", "recipe-2").timer().count());
+    }
+
+    /**
+     * Tests that meters are registered once and reused by later runs.
+     * Setup: The same chain processes three contexts of one recipe.
+     * Expected: One processor timer and one chain timer, each with three samples and no histogram buckets.
+     */
+    @Test
+    void testRepeatedRunsReuseMeters() {
+        chain.addToEnd(new WorkProcessor(true, false));
+        for (int i = 0; i < 3; i++) {
+            chain.process(new RecipeContext("recipe-3"));
+        }
+        assertEquals(1, registry.find(MicrometerChainMetrics.PROCESSOR_TIMER).timers().size());
+        assertEquals(1, registry.find(MicrometerChainMetrics.CHAIN_TIMER).timers().size());
+        Timer timer = registry.get(MicrometerChainMetrics.PROCESSOR_TIMER).tags("recipe", "recipe-3").timer();
+        assertEquals(3, timer.count());
+        assertEquals(0, timer.takeSnapshot().histogramCounts().length);
+    }
+
+    static class TestChain extends AbstractBaseChain<Processor, RecipeContext> {
+        TestChain() {
+            super(mock(ObjectProvider.class), mock(ObjectProvider.class));
+        }
+
+        @Override
+        protected void registerProcessors() {
+        }
+
+        @Override
+        public boolean accepts(ProcessContext context) {
+            return context instanceof RecipeContext;
+        }
+    }
+
+    static class RecipeContext implements ProcessContext<ProcessResult> {
+        private final List<ProcessResult> results = new ArrayList<>();
+        private final String recipeId;
+
+        RecipeContext(String recipeId) {
+            this.recipeId = recipeId;
+        }
+
+        @Override
+        public List<ProcessResult> getResults() {
+            return results;
+        }
+
+        @Override
+        public String getRecipeId() {
+            return recipeId;
+        }
+    }
+
+    static class WorkProcessor implements Processor<RecipeContext> {
+        private final boolean accepts;
+        private final boolean async;
+
+        WorkProcessor(boolean accepts, boolean async) {
+            this.accepts = accepts;
+            this.async = async;
+        }
+
+        @Override
+        public boolean accepts(RecipeContext input) {
+            return accepts;
+        }
+
+        @Override
+        public CompletableFuture<RecipeContext> processAsync(RecipeContext input) {
+            return async ? CompletableFuture.supplyAsync(() -> process(input)) : Processor.super.processAsync(input);
+        }
+
+        @Override
+        public RecipeContext process(RecipeContext input) {
+            return input;
+        }
+    }
+
+    static class FailingProcessor implements Processor<RecipeContext> {
+        @Override
+        public boolean accepts(RecipeContext input) {
+            return true;
+        }
+
+        @Override
+        public RecipeContext process(RecipeContext input) {
+            throw new IllegalStateException("boom");
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.minionslab.core.memory.query.expression;
+
+import com.minionslab.core.common.message.EntityMessage;
+import com.minionslab.core.common.message.Message;
+import com.minionslab.core.common.message.MessageRole;
+import com.minionslab.core.common.message.MessageScope;
+import com.minionslab.core.common.message.SimpleMessage;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import static com.minionslab.core.memory.query.expression.Expr.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link MemoryQueryCompiler}.
+ * <p>
+ * Scenarios:
+ * <ul>
+ *   <li>Compiled predicates accept exactly the messages {@code evaluate} accepts, for every expression type and for
+ *   ANDs and ORs of every unrolled width</li>
+ *   <li>Always-true and never-true children are folded away</li>
+ *   <li>Unknown expression types and fields outside {@link Message} fall back to {@code evaluate} and
+ *   {@code getFieldValue}</li>
+ * </ul>
+ */
+class MemoryQueryCompilerTest {
+    private static final Instant T0 = Instant.parse("2025-01-01T00:00:00Z");
+
+    @Test
+    void matchesEvaluate() {
+        List<Message> messages = new ArrayList<>();
+        for (int i = 0; i < 24; i++) {
+            messages.add(message(i));
+        }
+        List<MemoryQueryExpression> expressions = List.of(
+                eq("conversationId", "C1"),
+                eq("role", MessageRole.TOOL),
+                eq("scope", MessageScope.STEP),
+                eq("tokenCount", 7),
+                eq("tokenCount", 7L),
+                eq("role", "TOOL"),
+                contains("content", "1"),
+                after("timestamp", T0.plusSeconds(10)),
+                before("timestamp", T0.plusSeconds(3)),
+                metadata("topic", "billing"),
+                and(eq("conversationId", "C2"), eq("role", MessageRole.USER)),
+                and(eq("conversationId", "C0"), contains("content", "2"), after("timestamp", T0)),
+                and(eq("scope", MessageScope.AGENT), metadata("topic", "music"), after("timestamp", T0), before("timestamp", T0.plusSeconds(20))),
+                or(eq("role", MessageRole.SYSTEM), metadata("topic", "music")),
+                or(eq("conversationId", "C0"), eq("conversationId", "C1"), contains("content", "23")),
+                or(eq("tokenCount", 3), eq("tokenCount", 4), eq("tokenCount", 5), eq("tokenCount", 6)),
+                not(eq("role", MessageRole.USER)),
+                and(alwaysTrue(), or(not(metadata("topic", "billing")), vector(new float[]{1f}, 3))));
+
+        for (MemoryQueryExpression expression : expressions) {
+            Predicate<Message> compiled = MemoryQueryCompiler.compile(expression);
+            for (Message message : messages) {
+                assertEquals(expression.evaluate(message), compiled.test(message), expression + " on " + message.getId());
+            }
+        }
+    }
+
+    @Test
+    void foldsConstants() {
+        Message message = message(1);
+
+        assertTrue(MemoryQueryCompiler.compile(and(alwaysTrue(), alwaysTrue())).test(message));
+        assertTrue(MemoryQueryCompiler.compile(or(eq("role", MessageRole.SYSTEM), alwaysTrue())).test(message));
+        assertFalse(MemoryQueryCompiler.compile(not(alwaysTrue())).test(message));
+        assertFalse(MemoryQueryCompiler.compile(and(eq("role", MessageRole.USER), eq("conversationId", null))).test(message));
+        assertSame(MemoryQueryCompiler.compile(alwaysTrue()), MemoryQueryCompiler.compile(and(alwaysTrue(), vector(new float[]{1f}, 3))));
+    }
+
+    @Test
+    void fallsBackForUnknownFields() {
+        EntityMessage entity = EntityMessage.builder().id("e").entity("order").metadata(new HashMap<>()).build();
+        MemoryQueryExpression custom = message -> "e".equals(message.getId());
+        Message mock = mock(Message.class);
+        when(mock.getFieldValue("ts")).thenReturn(T0);
+
+        assertTrue(MemoryQueryCompiler.compile(eq("entity", "order")).test(entity));
+        assertTrue(MemoryQueryCompiler.compile(and(custom, eq("entity", "order"))).test(entity));
+        assertFalse(MemoryQueryCompiler.compile(custom).test(message(0)));
+        assertTrue(MemoryQueryCompiler.compile(before("ts", T0.plusSeconds(1))).test(mock));
+    }
+
+    private static Message message(int i) {
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("topic", i % 3 == 0 ? "billing" : "music");
+        return SimpleMessage.builder()
+                            .id(String.valueOf(i))
+                            .conversationId("C" + (i % 3))
+                            .content("message " + i)
+                            .role(MessageRole.values()[i % MessageRole.values().length])
+                            .scope(i % 2 == 0 ? MessageScope.AGENT : MessageScope.STEP)
+                            .timestamp(T0.plusSeconds(i))
+                            .tokenCount(i % 8)
+                            .metadata(metadata)
+                            .build();
+    }
+}
@@ -0,0 +1,145 @@
+package com.minionslab.core.memory.session;
+
+import com.minionslab.core.common.message.Message;
+import com.minionslab.core.memory.Memory;
+import com.minionslab.core.memory.MemoryContext;
+import com.minionslab.core.memory.MemoryFactory;
+import com.minionslab.core.memory.MemoryManager;
+import com.minionslab.core.memory.MemorySubsystem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link MemorySessionManager}.
+ * <p>
+ * Scenarios:
+ * <ul>
+ *   <li>Runs of one conversation reuse its memories; other conversations and tenants get their own</li>
+ *   <li>Sessions move between OPEN and IDLE as runs open and close them</li>
+ *   <li>Closing a lease twice does not release the lease of another run</li>
+ *   <li>The session limit evicts least recently used idle sessions, never open ones</li>
+ *   <li>Idle sessions past the idle timeout are evicted and flushed</li>
+ *   <li>Evicted sessions cannot hand out memory managers</li>
+ * </ul>
+ * <p>
+ * Setup: Mocks MemoryFactory to build a mock memory per call.
+ */
+class MemorySessionManagerTest {
+    private static final List<MemorySubsystem> SHORT_TERM = List.of(MemorySubsystem.SHORT_TERM);
+
+    private MemoryFactory memoryFactory;
+
+    @BeforeEach
+    void setUp() {
+        memoryFactory = mock(MemoryFactory.class);
+        when(memoryFactory.createMemory(any())).thenAnswer(invocation -> {
+            @SuppressWarnings("unchecked")
+            Memory<MemoryContext, Message> memory = mock(Memory.class);
+            when(memory.getMemorySubsystem()).thenReturn(invocation.getArgument(0));
+            return memory;
+        });
+        when(memoryFactory.createMemoryManager(any())).thenAnswer(invocation -> new MemoryManager(invocation.getArgument(0), List.of()));
+    }
+
+    private MemorySessionManager manager(int maxSessions, Duration idleTimeout) {
+        return new MemorySessionManager(memoryFactory, maxSessions, idleTimeout, Duration.ZERO);
+    }
+
+    @Test
+    void reusesMemoriesPerConversation() {
+        MemorySessionManager sessions = manager(10, Duration.ofMinutes(5));
+
+        try (MemorySessionLease first = sessions.open("tenant", "c1")) {
+            first.getMemoryManager(SHORT_TERM);
+        }
+        try (MemorySessionLease again = sessions.open("tenant", "c1")) {
+            again.getMemoryManager(SHORT_TERM);
+        }
+        verify(memoryFactory, times(1)).createMemory(MemorySubsystem.SHORT_TERM);
+
+        try (MemorySessionLease other = sessions.open("tenant", "c2");
+             MemorySessionLease otherTenant = sessions.open("other", "c1")) {
+            assertNotSame(other.getSession(), otherTenant.getSession());
+            other.getMemoryManager(SHORT_TERM);
+            otherTenant.getMemoryManager(SHORT_TERM);
+        }
+        verify(memoryFactory, times(3)).createMemory(MemorySubsystem.SHORT_TERM);
+        assertEquals(3, sessions.getSessionCount());
+    }
+
+    @Test
+    void tracksLifecycle() {
+        MemorySessionManager sessions = manager(10, Duration.ofMinutes(5));
+        MemorySessionLease first = sessions.open(null, "c1");
+        MemorySessionLease second = sessions.open(null, "c1");
+        MemorySession session = first.getSession();
+        assertSame(session, second.getSession());
+        assertEquals(MemorySessionState.OPEN, session.getState());
+
+        first.close();
+        assertEquals(MemorySessionState.OPEN, session.getState());
+        second.close();
+        assertEquals(MemorySessionState.IDLE, session.getState());
+
+        assertTrue(sessions.evict(session.getKey()));
+        assertEquals(MemorySessionState.EVICTED, session.getState());
+        assertThrows(IllegalStateException.class, () -> session.getMemoryManager(SHORT_TERM));
+    }
+
+    @Test
+    void repeatedCloseReleasesOnlyItsLease() {
+        MemorySessionManager sessions = manager(10, Duration.ofMinutes(5));
+        MemorySessionLease first = sessions.open(null, "c1");
+        MemorySessionLease second = sessions.open(null, "c1");
+
+        first.close();
+        first.close();
+
+        assertTrue(first.isClosed());
+        assertFalse(second.isClosed());
+        assertEquals(MemorySessionState.OPEN, second.getSession().getState());
+        assertFalse(sessions.evictIfIdle(second.getKey()));
+        second.close();
+        assertEquals(MemorySessionState.IDLE, second.getSession().getState());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedIdleSessions() {
+        MemorySessionManager sessions = manager(2, Duration.ofMinutes(5));
+        MemorySessionLease held = sessions.open(null, "held");
+        MemorySessionLease idle = sessions.open(null, "idle");
+        idle.getMemoryManager(SHORT_TERM);
+        idle.close();
+
+        MemorySessionLease third = sessions.open(null, "third");
+
+        assertEquals(MemorySessionState.EVICTED, idle.getSession().getState());
+        assertEquals(MemorySessionState.OPEN, held.getSession().getState());
+        assertEquals(MemorySessionState.OPEN, third.getSession().getState());
+        assertEquals(2, sessions.getSessionCount());
+        assertNull(sessions.get(new MemorySessionKey(null, "idle")));
+    }
+
+    @Test
+    void evictsExpiredIdleSessions() {
+        MemorySessionManager sessions = manager(10, Duration.ZERO);
+        MemorySessionLease open = sessions.open(null, "open");
+        MemorySessionLease idle = sessions.open(null, "idle");
+        MemoryManager memoryManager = idle.getMemoryManager(SHORT_TERM);
+        idle.close();
+
+        assertEquals(1, sessions.evictIdle());
+
+        assertEquals(MemorySessionState.EVICTED, idle.getSession().getState());
+        assertEquals(MemorySessionState.OPEN, open.getSession().getState());
+        assertNotNull(memoryManager);
+        assertEquals(1, sessions.getSessionCount());
+    }
+}
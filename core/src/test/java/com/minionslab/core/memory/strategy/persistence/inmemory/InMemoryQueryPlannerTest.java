@@ -0,0 +1,131 @@
+package com.minionslab.core.memory.strategy.persistence.inmemory;
+
+import com.minionslab.core.common.message.Message;
+import com.minionslab.core.common.message.MessageRole;
+import com.minionslab.core.common.message.MessageScope;
+import com.minionslab.core.common.message.SimpleMessage;
+import com.minionslab.core.memory.query.MemoryQuery;
+import com.minionslab.core.memory.query.expression.MemoryQueryExpression;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static com.minionslab.core.memory.query.expression.Expr.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link InMemoryQueryPlanner} and the indexes of {@link InMemoryPersistenceStrategy}.
+ * <p>
+ * Scenarios:
+ * <ul>
+ *   <li>An AND reads its candidates from its most selective conjunct, with its timestamp ranges intersected</li>
+ *   <li>ORs are planned only when every branch is, NOTs and keyword matches never</li>
+ *   <li>Queries answered from the indexes return what a full scan returns</li>
+ *   <li>Saving a message again and deleting it update the indexes</li>
+ * </ul>
+ */
+class InMemoryQueryPlannerTest {
+    private static final Instant T0 = Instant.parse("2025-01-01T00:00:00Z");
+
+    private InMemoryPersistenceStrategy strategy;
+    private InMemoryMessageIndexes indexes;
+    private List<Message> messages;
+
+    @BeforeEach
+    void setUp() {
+        strategy = new InMemoryPersistenceStrategy();
+        indexes = new InMemoryMessageIndexes();
+        messages = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            Message message = message(String.valueOf(i), "C" + (i % 4), i % 10 == 0 ? MessageRole.SYSTEM : MessageRole.USER, T0.plusSeconds(i));
+            messages.add(message);
+            indexes.add(message);
+        }
+        strategy.saveAll(messages);
+    }
+
+    @Test
+    void picksSelectiveIndex() {
+        InMemoryQueryPlanner.AccessPath byRole = InMemoryQueryPlanner.plan(
+                and(eq("conversationId", "C1"), eq("role", MessageRole.SYSTEM)), indexes);
+        InMemoryQueryPlanner.AccessPath byRange = InMemoryQueryPlanner.plan(
+                and(eq("conversationId", "C1"), after("timestamp", T0.plusSeconds(30)), before("timestamp", T0.plusSeconds(34))), indexes);
+
+        assertInstanceOf(InMemoryQueryPlanner.IndexLookup.class, byRole);
+        assertEquals(4, byRole.count(Integer.MAX_VALUE));
+        assertInstanceOf(InMemoryQueryPlanner.RangeScan.class, byRange);
+        assertEquals(Set.of("31", "32", "33"), byRange.ids().collect(Collectors.toSet()));
+    }
+
+    @Test
+    void plansOnlyIndexedExpressions() {
+        InMemoryQueryPlanner.AccessPath union = InMemoryQueryPlanner.plan(
+                or(eq("conversationId", "C1"), eq("conversationId", "C2"), eq("role", MessageRole.SYSTEM)), indexes);
+
+        assertInstanceOf(InMemoryQueryPlanner.Union.class, union);
+        assertEquals(22, union.ids().count());
+        assertNull(InMemoryQueryPlanner.plan(or(eq("conversationId", "C1"), contains("content", "1")), indexes));
+        assertNull(InMemoryQueryPlanner.plan(not(eq("conversationId", "C1")), indexes));
+        assertNull(InMemoryQueryPlanner.plan(eq("content", "message 1"), indexes));
+        assertNull(InMemoryQueryPlanner.plan(alwaysTrue(), indexes));
+    }
+
+    @Test
+    void matchesFullScan() {
+        List<MemoryQueryExpression> expressions = List.of(
+                eq("conversationId", "C3"),
+                eq("conversationId", "missing"),
+                after("timestamp", T0.plusSeconds(25)),
+                and(eq("role", MessageRole.USER), before("timestamp", T0.plusSeconds(12))),
+                and(eq("conversationId", "C2"), contains("content", "1")),
+                and(after("timestamp", T0.plusSeconds(20)), after("timestamp", T0.plusSeconds(5)), before("timestamp", T0.plusSeconds(23))),
+                or(eq("conversationId", "C0"), after("timestamp", T0.plusSeconds(35))),
+                and(eq("scope", MessageScope.AGENT), not(eq("role", MessageRole.SYSTEM))));
+
+        for (MemoryQueryExpression expression : expressions) {
+            Set<String> scanned = messages.stream().filter(expression::evaluate).map(Message::getId).collect(Collectors.toSet());
+            assertEquals(scanned, ids(strategy.fetchCandidateMessages(MemoryQuery.builder().expression(expression).limit(100).build())),
+                         expression.toString());
+        }
+    }
+
+    @Test
+    void reindexesOnWrite() {
+        strategy.save(message("5", "C9", MessageRole.ASSISTANT, T0.plusSeconds(500)));
+        strategy.deleteById("6", Message.class);
+
+        assertEquals(Set.of("5"), ids(fetch(eq("conversationId", "C9"))));
+        assertFalse(ids(fetch(eq("conversationId", "C1"))).contains("5"));
+        assertEquals(Set.of("5"), ids(fetch(after("timestamp", T0.plusSeconds(100)))));
+        assertFalse(ids(fetch(eq("conversationId", "C2"))).contains("6"));
+
+        strategy.deleteAllOfType(Message.class);
+        assertTrue(fetch(eq("conversationId", "C9")).isEmpty());
+    }
+
+    private List<Message> fetch(MemoryQueryExpression expression) {
+        return strategy.fetchCandidateMessages(MemoryQuery.builder().expression(expression).limit(100).build());
+    }
+
+    private static Set<String> ids(List<Message> messages) {
+        return messages.stream().map(Message::getId).collect(Collectors.toSet());
+    }
+
+    private static Message message(String id, String conversationId, MessageRole role, Instant timestamp) {
+        return SimpleMessage.builder()
+                            .id(id)
+                            .conversationId(conversationId)
+                            .content("message " + id)
+                            .role(role)
+                            .scope(MessageScope.AGENT)
+                            .timestamp(timestamp)
+                            .metadata(new HashMap<>())
+                            .build();
+    }
+}
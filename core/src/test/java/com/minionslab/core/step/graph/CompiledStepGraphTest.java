@@ -0,0 +1,106 @@
+package com.minionslab.core.step.graph;
+
+import com.minionslab.core.step.Step;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link CompiledStepGraph} and the cursors handed out by {@link DefaultStepGraph}.
+ * <p>
+ * Scenarios:
+ * <ul>
+ *   <li>Cursors walk the graph independently of each other and of the graph's own position</li>
+ *   <li>Concurrent runs sharing one compiled graph each visit every step once</li>
+ *   <li>Transitions to unknown steps are rejected when compiling</li>
+ *   <li>Changing a DefaultStepGraph recompiles it for new cursors</li>
+ * </ul>
+ */
+class CompiledStepGraphTest {
+    private DefaultStepGraphTest.DummyStep step1, step2, step3;
+    private DefaultStepGraph graph;
+
+    @BeforeEach
+    void setUp() {
+        step1 = new DefaultStepGraphTest.DummyStep("s1");
+        step2 = new DefaultStepGraphTest.DummyStep("s2");
+        step3 = new DefaultStepGraphTest.DummyStep("s3");
+        graph = new DefaultStepGraph(new DefaultStepGraphTest.DummyStepGraphDefinition(
+                List.of(step1, step2, step3),
+                Map.of("s1", List.of("s2"), "s2", List.of("s3")),
+                step1,
+                new DefaultStepGraphTest.DummyTransitionStrategy()));
+    }
+
+    @Test
+    void cursorsAreIndependent() {
+        StepCursor first = graph.newCursor();
+        StepCursor second = graph.newCursor();
+
+        assertEquals(step2, first.next(null));
+        assertEquals(step3, first.next(null));
+
+        assertEquals(step1, second.getCurrentStep());
+        assertEquals(step1, graph.getCurrentStep());
+        assertNull(first.next(null));
+        assertNull(first.getCurrentStep());
+
+        first.reset();
+        assertEquals(step1, first.getCurrentStep());
+        second.complete();
+        assertNull(second.getCurrentStep());
+    }
+
+    @Test
+    void concurrentRunsShareGraph() throws Exception {
+        CompiledStepGraph compiled = graph.compile();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<List<Step>>> runs = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                runs.add(() -> {
+                    List<Step> visited = new ArrayList<>();
+                    StepCursor cursor = compiled.newCursor();
+                    for (Step step = cursor.getCurrentStep(); step != null; step = cursor.next(null)) {
+                        visited.add(step);
+                    }
+                    return visited;
+                });
+            }
+            for (Future<List<Step>> run : executor.invokeAll(runs)) {
+                assertEquals(List.of(step1, step2, step3), run.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertSame(compiled, graph.compile());
+    }
+
+    @Test
+    void rejectsUnknownTransition() {
+        assertThrows(IllegalArgumentException.class, () -> CompiledStepGraph.compile(
+                List.of(step1), Map.of("s1", List.of("missing")), step1, null));
+    }
+
+    @Test
+    void recompilesAfterChange() {
+        CompiledStepGraph before = graph.compile();
+        DefaultStepGraphTest.DummyStep step4 = new DefaultStepGraphTest.DummyStep("s4");
+        graph.addStep(step4);
+        graph.addTransition(step3, step4);
+
+        CompiledStepGraph after = graph.compile();
+        assertNotSame(before, after);
+        assertEquals(List.of(step4), after.getSuccessors(step3));
+        assertEquals(List.of(), before.getSuccessors(step3));
+    }
+}
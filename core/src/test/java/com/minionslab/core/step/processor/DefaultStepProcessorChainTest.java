@@ -1,5 +1,6 @@
 package com.minionslab.core.step.processor;
 
+import com.minionslab.core.common.chain.ParallelProcessorGroup;
 import com.minionslab.core.common.chain.ProcessorCustomizer;
 import com.minionslab.core.step.StepContext;
 import com.minionslab.core.step.StepService;
@@ -59,6 +60,15 @@ class DefaultStepProcessorChainTest {
         assertSame(stepCompletionProcessor, processors.get(4));
     }
 
+    @Test
+    void testParallelGroupIsStepProcessor() {
+        chain.registerProcessors();
+        chain.addParallelToEnd(ParallelProcessorGroup.FailurePolicy.COMPLETE_ALL, List.of(modelCallStepProcessor, toolCallStepProcessor));
+        List<StepProcessor> processors = chain.getProcessors();
+        assertEquals(6, processors.size());
+        assertInstanceOf(ParallelProcessorGroup.class, processors.get(5));
+    }
+
     @Test
     void testAccepts() {
         StepContext stepContext = mock(StepContext.class);
@@ -45,6 +45,7 @@ class ModelCallStepProcessorTest {
         assertSame(context, result);
         verify(modelCallService).call(any());
         verify(context).increaseModelCalls();
+        verify(context).recordModelOutput(null);
     }
     @Test
     void testAfterProcessAddsToolCalls() {